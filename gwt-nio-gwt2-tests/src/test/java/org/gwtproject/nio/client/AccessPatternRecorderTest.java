@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
+import org.gwtproject.nio.AccessPatternRecorder;
+
+public class AccessPatternRecorderTest extends GWTTestCase {
+
+  public void testSequentialWrites() {
+    AccessPatternRecorder recorder = new AccessPatternRecorder(16);
+    ByteBuffer buf = recorder.wrap(ByteBuffer.allocateDirect(64));
+    for (int i = 0; i < 16; i++) {
+      buf.putInt(i);
+    }
+    assertEquals(0, recorder.getReads());
+    assertEquals(16, recorder.getWrites());
+    assertEquals(16, recorder.getSingleCalls());
+    assertEquals(15, recorder.getSequentialAccesses());
+    assertEquals(1, recorder.getRandomAccesses());
+    assertEquals(64, (int) recorder.getBytesWritten());
+    assertEquals(4, recorder.getHistogram().length);
+    assertEquals(4, recorder.getHistogram()[3]);
+  }
+
+  public void testValuesAreForwarded() {
+    AccessPatternRecorder recorder = new AccessPatternRecorder();
+    ByteBuffer target = ByteBuffer.allocate(16);
+    ByteBuffer buf = recorder.wrap(target);
+    buf.order(ByteOrder.LITTLE_ENDIAN);
+    buf.putInt(0x01020304).putShort((short) 5);
+    assertEquals(6, buf.position());
+    assertEquals(0, target.position());
+    assertEquals(ByteOrder.LITTLE_ENDIAN, target.order());
+    assertEquals(0x04, target.get(0));
+    assertEquals(0x01020304, buf.getInt(0));
+  }
+
+  public void testRandomReads() {
+    AccessPatternRecorder recorder = new AccessPatternRecorder(4);
+    ByteBuffer buf = recorder.wrap(ByteBuffer.allocate(32));
+    buf.get(28);
+    buf.get(4);
+    buf.get(16);
+    assertEquals(3, recorder.getReads());
+    assertEquals(3, recorder.getRandomAccesses());
+    assertEquals(0.0, recorder.getSequentialRatio(), 0.0);
+    int[] histogram = recorder.getHistogram();
+    assertEquals(8, histogram.length);
+    assertEquals(1, histogram[1]);
+    assertEquals(0, histogram[2]);
+  }
+
+  public void testBulkCalls() {
+    AccessPatternRecorder recorder = new AccessPatternRecorder(8);
+    ByteBuffer buf = recorder.wrap(ByteBuffer.allocateDirect(32));
+    buf.put(new byte[20]);
+    buf.flip();
+    buf.get(new byte[20]);
+    assertEquals(2, recorder.getBulkCalls());
+    assertEquals(0, recorder.getSingleCalls());
+    assertEquals(20, (int) recorder.getBytesRead());
+    assertEquals(3, recorder.getHistogram().length);
+    assertEquals(2, recorder.getHistogram()[2]);
+  }
+
+  public void testViewOffsets() {
+    AccessPatternRecorder recorder = new AccessPatternRecorder(8);
+    ByteBuffer buf = recorder.wrap(ByteBuffer.allocateDirect(32));
+    buf.position(16);
+    IntBuffer ints = buf.asIntBuffer();
+    ints.put(1, 42);
+    assertEquals(1, recorder.getWrites());
+    int[] histogram = recorder.getHistogram();
+    assertEquals(3, histogram.length);
+    assertEquals(1, histogram[2]);
+    assertEquals(42, ints.get(1));
+  }
+
+  public void testChecks() {
+    AccessPatternRecorder recorder = new AccessPatternRecorder();
+    ByteBuffer buf = recorder.wrap(ByteBuffer.allocate(2));
+    try {
+      buf.getInt();
+      fail("BufferUnderflowException expected");
+    } catch (BufferUnderflowException e) {
+      // expected
+    }
+    try {
+      buf.asReadOnlyBuffer().put((byte) 1);
+      fail("ReadOnlyBufferException expected");
+    } catch (ReadOnlyBufferException e) {
+      // expected
+    }
+    assertEquals(0, recorder.getReads() + recorder.getWrites());
+  }
+
+  public void testReport() {
+    AccessPatternRecorder recorder = new AccessPatternRecorder(8);
+    IntBuffer buf = recorder.wrap(IntBuffer.allocate(8));
+    buf.put(1).put(2).put(new int[] {3, 4});
+    String report = recorder.report();
+    assertTrue(report, report.contains("writes 3"));
+    assertTrue(report, report.contains("[0, 8): 2"));
+    recorder.reset();
+    assertEquals(0, recorder.getWrites());
+    assertEquals(0, recorder.getHistogram().length);
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import org.gwtproject.nio.AsyncBufferOps;
+import org.gwtproject.nio.AsyncOperation;
+
+public class AsyncBufferOpsTest extends GWTTestCase {
+
+  private static ByteBuffer filled(int capacity) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+    for (int i = 0; i < capacity; i++) {
+      buffer.put(i, (byte) i);
+    }
+    return buffer;
+  }
+
+  public void testPutCompletesWithinBudget() {
+    ByteBuffer src = filled(1000);
+    ByteBuffer dst = ByteBuffer.allocateDirect(1000);
+    AsyncOperation<ByteBuffer> operation =
+        new AsyncBufferOps(Double.POSITIVE_INFINITY, 64).put(dst, src);
+    assertTrue(operation.isDone());
+    assertFalse(operation.cancel());
+    assertEquals(1000, dst.position());
+    assertEquals(1000, src.position());
+    assertEquals((byte) 999, dst.get(999));
+  }
+
+  public void testCancel() {
+    ByteBuffer src = filled(1000);
+    ByteBuffer dst = ByteBuffer.allocate(1000);
+    AsyncOperation<ByteBuffer> operation = new AsyncBufferOps(0, 100).put(dst, src);
+    operation.getPromise().catch_(error -> null);
+    assertFalse(operation.isDone());
+    assertEquals(100, src.position());
+    assertEquals(1000, src.limit());
+    assertTrue(operation.cancel());
+    assertTrue(operation.isCancelled());
+    assertTrue(operation.isDone());
+    assertFalse(operation.cancel());
+  }
+
+  public void testArrayOperations() {
+    AsyncBufferOps ops = new AsyncBufferOps(Double.POSITIVE_INFINITY, 7);
+    byte[] bytes = new byte[50];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) (i * 3);
+    }
+    ByteBuffer buffer = ByteBuffer.allocateDirect(50);
+    assertTrue(ops.put(buffer, bytes, 0, 50).isDone());
+    buffer.flip();
+    byte[] copy = new byte[60];
+    assertTrue(ops.get(buffer, copy, 10, 50).isDone());
+    assertEquals(bytes[49], copy[59]);
+    assertEquals(50, buffer.position());
+  }
+
+  public void testPreconditions() {
+    try {
+      AsyncBufferOps.getDefault().put(ByteBuffer.allocate(4), ByteBuffer.allocate(8));
+      fail("Should throw Exception");
+    } catch (BufferOverflowException e) {
+      // expected
+    }
+  }
+
+  public void testProcess() {
+    int[] calls = new int[1];
+    int[] covered = new int[1];
+    AsyncOperation<Void> operation =
+        new AsyncBufferOps(Double.POSITIVE_INFINITY, 10)
+            .process(
+                35,
+                (start, end) -> {
+                  calls[0]++;
+                  covered[0] += end - start;
+                });
+    assertTrue(operation.isDone());
+    assertEquals(4, calls[0]);
+    assertEquals(35, covered[0]);
+
+    operation = AsyncBufferOps.getDefault().process(0, (start, end) -> calls[0]++);
+    assertTrue(operation.isDone());
+    assertEquals(4, calls[0]);
+  }
+
+  public void testDirectPutOverlapping() {
+    ByteBuffer buffer = filled(16);
+    buffer.position(4);
+    ByteBuffer src = buffer.slice();
+    src.limit(8);
+    buffer.position(6);
+    buffer.put(src);
+    assertEquals(14, buffer.position());
+    assertEquals(4, buffer.get(6));
+    assertEquals(11, buffer.get(13));
+    assertEquals(14, buffer.get(14));
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import org.gwtproject.nio.AtomicIntBuffer;
+import org.gwtproject.nio.AtomicLongBuffer;
+import org.gwtproject.nio.SharedCounter;
+import org.gwtproject.nio.SharedFlag;
+
+public class AtomicBufferTest extends GWTTestCase {
+
+  private static ByteBuffer allocate(int capacity) {
+    return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+  }
+
+  public void testIntOperations() {
+    IntBuffer ints = allocate(16).asIntBuffer();
+    AtomicIntBuffer atomic = AtomicIntBuffer.wrap(ints);
+    assertEquals(4, atomic.length());
+    atomic.set(1, 10);
+    assertEquals(10, ints.get(1));
+    assertEquals(10, atomic.getAndAdd(1, 5));
+    assertEquals(16, atomic.incrementAndGet(1));
+    assertEquals(15, atomic.decrementAndGet(1));
+    assertTrue(atomic.compareAndSet(1, 15, 20));
+    assertFalse(atomic.compareAndSet(1, 15, 30));
+    assertEquals(20, atomic.compareAndExchange(1, 15, 30));
+    assertEquals(20, atomic.getAndSet(1, 0xf0));
+    assertEquals(0xf0, atomic.getAndBitwiseOr(1, 0x0f));
+    assertEquals(0xff, atomic.getAndBitwiseAnd(1, 0x3c));
+    assertEquals(0x3c, atomic.get(1));
+    assertEquals(0x3c, ints.get(1));
+  }
+
+  public void testIntRemainingElements() {
+    IntBuffer ints = allocate(16).asIntBuffer();
+    ints.position(2);
+    AtomicIntBuffer atomic = AtomicIntBuffer.wrap(ints);
+    assertEquals(2, atomic.length());
+    atomic.set(0, 7);
+    assertEquals(7, ints.get(2));
+    try {
+      atomic.get(2);
+      fail("Should throw Exception");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  public void testIntFromByteBuffer() {
+    ByteBuffer bytes = allocate(16);
+    AtomicIntBuffer atomic = AtomicIntBuffer.wrap(bytes);
+    atomic.set(2, 0x01020304);
+    assertEquals(0x01020304, bytes.getInt(8));
+    bytes.position(2);
+    try {
+      AtomicIntBuffer.wrap(bytes);
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  public void testIntRejectsUnsupportedBuffers() {
+    try {
+      AtomicIntBuffer.wrap(IntBuffer.allocate(4));
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      AtomicIntBuffer.wrap(ByteBuffer.allocate(16));
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  public void testReadOnly() {
+    AtomicIntBuffer atomic = AtomicIntBuffer.wrap(allocate(16).asReadOnlyBuffer());
+    assertEquals(0, atomic.get(0));
+    try {
+      atomic.set(0, 1);
+      fail("Should throw Exception");
+    } catch (ReadOnlyBufferException e) {
+      // expected
+    }
+  }
+
+  public void testLongOperations() {
+    LongBuffer longs = allocate(32).asLongBuffer();
+    AtomicLongBuffer atomic = AtomicLongBuffer.wrap(longs);
+    assertEquals(4, atomic.length());
+    atomic.set(3, 0x123456789abcdefL);
+    assertEquals(0x123456789abcdefL, longs.get(3));
+    assertEquals(0x123456789abcdefL, atomic.get(3));
+    atomic.set(0, -1L);
+    assertEquals(-1L, atomic.getAndIncrement(0));
+    assertEquals(0L, atomic.get(0));
+    assertEquals(Long.MIN_VALUE, atomic.addAndGet(0, Long.MIN_VALUE));
+    assertTrue(atomic.compareAndSet(0, Long.MIN_VALUE, 42L));
+    assertFalse(atomic.compareAndSet(0, Long.MIN_VALUE, 43L));
+    assertEquals(42L, atomic.getAndSet(0, 1L));
+    assertEquals(0L, atomic.decrementAndGet(0));
+  }
+
+  public void testLongRejectsUnsupportedBuffers() {
+    try {
+      AtomicLongBuffer.wrap(ByteBuffer.allocate(32).order(ByteOrder.nativeOrder()).asLongBuffer());
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    ByteBuffer bytes = allocate(32);
+    bytes.position(4);
+    try {
+      AtomicLongBuffer.wrap(bytes);
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  public void testCounter() {
+    AtomicIntBuffer atomic = AtomicIntBuffer.wrap(allocate(8));
+    SharedCounter counter = new SharedCounter(atomic, 1);
+    assertEquals(1, counter.incrementAndGet());
+    assertEquals(1, counter.getAndAdd(9));
+    assertEquals(10, counter.get());
+    assertTrue(counter.compareAndSet(10, 3));
+    assertEquals(3, atomic.get(1));
+    assertEquals(0, atomic.get(0));
+  }
+
+  public void testFlag() {
+    AtomicIntBuffer atomic = AtomicIntBuffer.wrap(allocate(4));
+    SharedFlag flag = new SharedFlag(atomic, 0);
+    assertFalse(flag.isSet());
+    assertTrue(flag.set());
+    assertFalse(flag.set());
+    assertTrue(flag.isSet());
+    assertTrue(flag.consume());
+    assertFalse(flag.consume());
+    assertFalse(flag.clear());
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
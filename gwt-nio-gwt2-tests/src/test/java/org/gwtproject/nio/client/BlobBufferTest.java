@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import elemental2.core.Int8Array;
+import java.nio.ByteOrder;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import org.gwtproject.nio.BlobBuffer;
+
+public class BlobBufferTest extends GWTTestCase {
+
+  /* A blob whose byte i is (byte) i. */
+  private static Object blob(int length) {
+    Int8Array bytes = new Int8Array(length);
+    for (int i = 0; i < length; i++) {
+      bytes.setAt(i, (double) (byte) i);
+    }
+    return new Blob(new Object[] {bytes});
+  }
+
+  public void testUnloadedAccessThrows() {
+    BlobBuffer buffer = new BlobBuffer(blob(1000), 64, 256);
+    assertEquals(1000, buffer.length());
+    assertFalse(buffer.isLoaded(0, 1));
+    assertTrue(buffer.isLoaded(1000, 0));
+    try {
+      buffer.get(0);
+      fail("Should throw Exception");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    try {
+      buffer.ensureLoaded(990, 20);
+      fail("Should throw Exception");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    try {
+      buffer.ensureLoaded(0, 300);
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  public void testEnsureLoaded() {
+    delayTestFinish(5000);
+    BlobBuffer buffer = new BlobBuffer(blob(1000), 64, 256).setReadAhead(0);
+    buffer
+        .ensureLoaded(100, 50)
+        .then(
+            ignored -> {
+              assertTrue(buffer.isLoaded(100, 50));
+              assertTrue(buffer.isLoaded(64, 128));
+              assertFalse(buffer.isLoaded(60, 10));
+              assertEquals(128, buffer.getCachedBytes());
+              assertEquals(127, buffer.get(127));
+              assertEquals(0x7e7f8081, buffer.getInt(126));
+              assertEquals(0x81807f7e, buffer.order(ByteOrder.LITTLE_ENDIAN).getInt(126));
+              assertEquals(0x6968, buffer.getShort(104));
+              byte[] bytes = new byte[10];
+              buffer.get(124, bytes, 0, 10);
+              assertEquals((byte) 133, bytes[9]);
+              return buffer.ensureLoaded(960, 40);
+            })
+        .then(
+            ignored -> {
+              assertEquals((byte) 999, buffer.get(999));
+              assertEquals(168, buffer.getCachedBytes());
+              finishTest();
+              return null;
+            });
+  }
+
+  public void testLeastRecentlyUsedPagesAreEvicted() {
+    delayTestFinish(5000);
+    BlobBuffer buffer = new BlobBuffer(blob(1024), 64, 256).setReadAhead(0);
+    buffer
+        .ensureLoaded(0, 64)
+        .then(ignored -> buffer.ensureLoaded(128, 192))
+        .then(
+            ignored -> {
+              assertEquals(256, buffer.getCachedBytes());
+              // leaves page 2 as the least recently used one
+              buffer.get(200);
+              buffer.get(260);
+              buffer.get(0);
+              return buffer.ensureLoaded(640, 1);
+            })
+        .then(
+            ignored -> {
+              assertEquals(256, buffer.getCachedBytes());
+              assertTrue(buffer.isLoaded(0, 64));
+              assertFalse(buffer.isLoaded(128, 64));
+              assertTrue(buffer.isLoaded(192, 128));
+              assertTrue(buffer.isLoaded(640, 64));
+              finishTest();
+              return null;
+            });
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL)
+  private static class Blob {
+    public Blob(Object[] parts) {}
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
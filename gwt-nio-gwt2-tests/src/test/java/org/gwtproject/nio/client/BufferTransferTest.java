@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import org.gwtproject.nio.BufferTransfer;
+import org.gwtproject.nio.DetachedBufferException;
+import org.gwtproject.nio.TransferredBuffer;
+
+public class BufferTransferTest extends GWTTestCase {
+
+  public void testByteBufferRoundTrip() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(16).order(ByteOrder.BIG_ENDIAN);
+    buffer.putInt(0x01020304).putInt(0x05060708);
+    buffer.limit(12);
+    TransferredBuffer message = BufferTransfer.transfer(buffer);
+    assertEquals(0, buffer.limit());
+
+    ByteBuffer received = (ByteBuffer) BufferTransfer.receive(message);
+    assertTrue(received.isDirect());
+    assertEquals(16, received.capacity());
+    assertEquals(8, received.position());
+    assertEquals(12, received.limit());
+    assertEquals(ByteOrder.BIG_ENDIAN, received.order());
+    assertEquals(0x05060708, received.getInt(4));
+  }
+
+  public void testSliceRoundTrip() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+    buffer.put(5, (byte) 42);
+    buffer.position(4);
+    TransferredBuffer message = BufferTransfer.transfer(buffer.slice());
+    ByteBuffer received = (ByteBuffer) BufferTransfer.receive(message);
+    assertEquals(12, received.capacity());
+    assertEquals(42, received.get(1));
+  }
+
+  public void testViewRoundTrip() {
+    IntBuffer ints = ByteBuffer.allocateDirect(16).order(ByteOrder.nativeOrder()).asIntBuffer();
+    ints.put(3).put(4).put(5);
+    IntBuffer received = (IntBuffer) BufferTransfer.receive(BufferTransfer.transfer(ints));
+    assertEquals(4, received.capacity());
+    assertEquals(3, received.position());
+    assertEquals(5, received.get(2));
+
+    FloatBuffer floats = ByteBuffer.allocateDirect(8).asFloatBuffer().put(1, 2.5f);
+    FloatBuffer readOnly = floats.asReadOnlyBuffer();
+    TransferredBuffer message = BufferTransfer.transfer(readOnly);
+    FloatBuffer receivedFloats = (FloatBuffer) BufferTransfer.receive(message);
+    assertTrue(receivedFloats.isReadOnly());
+    assertEquals(2.5f, receivedFloats.get(1), 0f);
+  }
+
+  public void testDetachedAccessThrows() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+    IntBuffer view = buffer.duplicate().order(ByteOrder.nativeOrder()).asIntBuffer();
+    BufferTransfer.transfer(buffer);
+    if (!BufferTransfer.isDetached(buffer)) {
+      // ArrayBuffer.prototype.transfer is not available, the memory is detached by postMessage
+      return;
+    }
+    assertTrue(BufferTransfer.isDetached(view));
+    try {
+      buffer.get(0);
+      fail("Should throw Exception");
+    } catch (DetachedBufferException e) {
+      // expected
+    }
+    try {
+      view.put(0, 1);
+      fail("Should throw Exception");
+    } catch (DetachedBufferException e) {
+      // expected
+    }
+    try {
+      buffer.duplicate();
+      fail("Should throw Exception");
+    } catch (DetachedBufferException e) {
+      // expected
+    }
+    try {
+      BufferTransfer.transfer(buffer);
+      fail("Should throw Exception");
+    } catch (DetachedBufferException e) {
+      // expected
+    }
+  }
+
+  public void testHeapBufferIsRejected() {
+    try {
+      BufferTransfer.transfer(ByteBuffer.allocate(16));
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
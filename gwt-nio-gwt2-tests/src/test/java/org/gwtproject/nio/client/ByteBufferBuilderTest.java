@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import elemental2.core.ArrayBuffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.gwtproject.nio.ByteBufferBuilder;
+import org.gwtproject.nio.GrowableMemory;
+import org.gwtproject.nio.TypedArrayHelper;
+
+public class ByteBufferBuilderTest extends GWTTestCase {
+
+  public void testGrowsInPlaceOrByMoving() {
+    ByteBufferBuilder builder = new ByteBufferBuilder(4, 64);
+    for (int i = 0; i < 100; i++) {
+      builder.putInt(i);
+    }
+    assertEquals(400, builder.position());
+    assertTrue(builder.capacity() >= 400);
+    ByteBuffer result = builder.build();
+    assertTrue(result.isDirect());
+    assertEquals(0, result.position());
+    assertEquals(400, result.limit());
+    assertEquals(400, result.capacity());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, result.getInt());
+    }
+  }
+
+  public void testGrowsInPlaceUpToMaxCapacity() {
+    if (!GrowableMemory.isResizableSupported()) {
+      return;
+    }
+    ByteBufferBuilder builder = new ByteBufferBuilder(16, 40);
+    ArrayBuffer memory = TypedArrayHelper.unwrap(builder.buffer()).buffer;
+    builder.put(new byte[33]);
+    // doubling to 64 would exceed the maximum, but 33 bytes still fit in place
+    assertEquals(40, builder.capacity());
+    assertSame(memory, TypedArrayHelper.unwrap(builder.buffer()).buffer);
+    builder.put(new byte[8]);
+    assertEquals(41, builder.position());
+    assertTrue(builder.capacity() >= 41);
+  }
+
+  public void testMixedWrites() {
+    ByteBufferBuilder builder = new ByteBufferBuilder(0).order(ByteOrder.LITTLE_ENDIAN);
+    builder.put((byte) 1).putShort((short) 2).putLong(3L).putDouble(4.5).putFloat(5.5f);
+    builder.put(new byte[] {6, 7, 8}, 1, 2).putChar('x');
+    ByteBuffer src = ByteBuffer.wrap(new byte[] {9, 10});
+    builder.put(src);
+    assertEquals(0, src.remaining());
+
+    ByteBuffer result = builder.build();
+    assertEquals(ByteOrder.LITTLE_ENDIAN, result.order());
+    assertEquals(1, result.get());
+    assertEquals(2, result.getShort());
+    assertEquals(3L, result.getLong());
+    assertEquals(4.5, result.getDouble(), 0);
+    assertEquals(5.5f, result.getFloat(), 0f);
+    assertEquals(7, result.get());
+    assertEquals(8, result.get());
+    assertEquals('x', result.getChar());
+    assertEquals(9, result.get());
+    assertEquals(10, result.get());
+    assertEquals(0, result.remaining());
+  }
+
+  public void testPatchThroughBuffer() {
+    ByteBufferBuilder builder = new ByteBufferBuilder();
+    builder.putInt(0).put(new byte[1000]);
+    builder.buffer().putInt(0, 1000);
+    assertEquals(1000, builder.build().getInt(0));
+  }
+
+  public void testBuildTwice() {
+    ByteBufferBuilder builder = new ByteBufferBuilder();
+    builder.build();
+    try {
+      builder.put((byte) 0);
+      fail("Should throw Exception");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    try {
+      builder.build();
+      fail("Should throw Exception");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
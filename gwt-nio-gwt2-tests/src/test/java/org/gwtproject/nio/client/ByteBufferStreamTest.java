@@ -0,0 +1,156 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import org.gwtproject.nio.ByteBufferInputStream;
+import org.gwtproject.nio.ByteBufferOutputStream;
+
+public class ByteBufferStreamTest extends GWTTestCase {
+
+  public void testRoundTrip() throws IOException {
+    ByteBufferOutputStream out = new ByteBufferOutputStream(4);
+    out.writeBoolean(true);
+    out.writeByte(-2);
+    out.writeShort(-3);
+    out.writeChar('€');
+    out.writeInt(0x12345678);
+    out.writeLong(-5L);
+    out.writeFloat(1.5f);
+    out.writeDouble(-2.25);
+    out.writeUTF("a\u0000é€");
+    out.write(new byte[] {1, 2, 3, 4}, 1, 2);
+    assertEquals(1 + 1 + 2 + 2 + 4 + 8 + 4 + 8 + 2 + 8 + 2, out.size());
+
+    ByteBuffer bytes = out.toByteBuffer();
+    assertTrue(bytes.isDirect());
+    assertEquals(0x12, bytes.get(6));
+
+    ByteBufferInputStream in = new ByteBufferInputStream(bytes);
+    assertTrue(in.readBoolean());
+    assertEquals(-2, in.readByte());
+    assertEquals(0xFFFD, in.readUnsignedShort());
+    assertEquals('€', in.readChar());
+    assertEquals(0x12345678, in.readInt());
+    assertEquals(-5L, in.readLong());
+    assertEquals(1.5f, in.readFloat(), 0);
+    assertEquals(-2.25, in.readDouble(), 0);
+    assertEquals("a\u0000é€", in.readUTF());
+    byte[] tail = new byte[2];
+    in.readFully(tail);
+    assertEquals(Arrays.toString(new byte[] {2, 3}), Arrays.toString(tail));
+    assertEquals(0, in.available());
+    assertEquals(-1, in.read());
+  }
+
+  public void testUtfEncoding() throws IOException {
+    ByteBufferOutputStream out = new ByteBufferOutputStream();
+    out.writeUTF("\u0000é");
+    ByteBuffer bytes = out.toByteBuffer();
+    assertEquals(6, bytes.remaining());
+    assertEquals(4, bytes.getShort(0));
+    assertEquals((byte) 0xC0, bytes.get(2));
+    assertEquals((byte) 0x80, bytes.get(3));
+    assertEquals((byte) 0xC3, bytes.get(4));
+    assertEquals((byte) 0xA9, bytes.get(5));
+
+    ByteBufferInputStream in = new ByteBufferInputStream(ByteBuffer.wrap(new byte[] {0, 1, -1}));
+    try {
+      in.readUTF();
+      fail("Should throw Exception");
+    } catch (UTFDataFormatException e) {
+      // expected
+    }
+  }
+
+  public void testByteOrder() throws IOException {
+    ByteBufferOutputStream out = new ByteBufferOutputStream().order(ByteOrder.LITTLE_ENDIAN);
+    out.writeInt(1);
+    ByteBuffer bytes = out.toByteBuffer();
+    assertEquals(ByteOrder.LITTLE_ENDIAN, bytes.order());
+    assertEquals(1, bytes.get(0));
+    assertEquals(1, new ByteBufferInputStream(bytes).readInt());
+  }
+
+  public void testEndOfBuffer() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(3);
+    ByteBufferInputStream in = new ByteBufferInputStream(buffer);
+    try {
+      in.readInt();
+      fail("Should throw Exception");
+    } catch (EOFException e) {
+      // expected
+    }
+    assertEquals(0, buffer.position());
+    try {
+      in.readFully(new byte[4]);
+      fail("Should throw Exception");
+    } catch (EOFException e) {
+      // expected
+    }
+    byte[] bytes = new byte[4];
+    assertEquals(3, in.read(bytes, 0, 4));
+    assertEquals(-1, in.read(bytes, 0, 4));
+    assertEquals(0, in.read(bytes, 0, 0));
+  }
+
+  public void testMarkSkipAndLines() throws IOException {
+    byte[] text = {'a', 'b', '\r', '\n', 'c', '\n', '\r', 'd'};
+    ByteBufferInputStream in = new ByteBufferInputStream(ByteBuffer.wrap(text));
+    assertEquals(2, in.skip(2));
+    in.reset();
+    assertEquals("ab", in.readLine());
+    in.mark(0);
+    assertEquals("c", in.readLine());
+    assertEquals("", in.readLine());
+    assertEquals("d", in.readLine());
+    assertNull(in.readLine());
+    in.reset();
+    assertEquals(4, in.skipBytes(10));
+    assertEquals(0, in.skip(1));
+  }
+
+  public void testGrowAndReset() {
+    ByteBufferOutputStream out = new ByteBufferOutputStream(1);
+    byte[] bytes = new byte[1000];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) i;
+    }
+    out.write(bytes);
+    out.write(ByteBuffer.wrap(new byte[] {7}));
+    assertEquals(1001, out.size());
+    ByteBuffer written = out.toByteBuffer();
+    assertEquals((byte) 999, written.get(999));
+    assertEquals(7, written.get(1000));
+
+    out.reset();
+    assertEquals(0, out.size());
+    out.write(9);
+    assertEquals(1, out.toByteBuffer().remaining());
+    assertEquals(9, written.get(0));
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
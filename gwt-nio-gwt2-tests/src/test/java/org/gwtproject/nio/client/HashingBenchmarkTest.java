@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.ByteBuffer;
+import java.util.logging.Logger;
+import org.gwtproject.nio.Crc32;
+import org.gwtproject.nio.XxHash32;
+import org.gwtproject.nio.XxHash64;
+
+/**
+ * Logs the throughput of the checksums and hashes over direct buffers of 1 KB and 1 MB, and checks
+ * that hashing in chunks gives the same result.
+ *
+ * <p>Not part of {@link NIOSuite}: run it on its own, outside the HtmlUnit timeout.
+ */
+public class HashingBenchmarkTest extends GWTTestCase {
+
+  private static final Logger logger = Logger.getLogger(HashingBenchmarkTest.class.getName());
+
+  private static final int KB = 1024;
+
+  private static final int MB = 1024 * KB;
+
+  /* Each run hashes about this many bytes, so that small buffers are timed over many repeats. */
+  private static final int BYTES_PER_RUN = 4 * MB;
+
+  private static ByteBuffer random(int length) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+    int seed = 42;
+    for (int i = 0; i < length; i += 4) {
+      seed = seed * 1103515245 + 12345;
+      buffer.putInt(i, seed);
+    }
+    return buffer;
+  }
+
+  public void testOneKilobyte() {
+    run(KB);
+  }
+
+  public void testOneMegabyte() {
+    run(MB);
+  }
+
+  private static void run(int size) {
+    ByteBuffer data = random(size);
+    int repeats = Math.max(1, BYTES_PER_RUN / size);
+
+    double start = System.currentTimeMillis();
+    int crc = 0;
+    for (int i = 0; i < repeats; i++) {
+      crc = Crc32.crc32().update(data.duplicate()).intValue();
+    }
+    log("CRC-32", size, repeats, start);
+
+    start = System.currentTimeMillis();
+    int crc32c = 0;
+    for (int i = 0; i < repeats; i++) {
+      crc32c = Crc32.crc32c().update(data.duplicate()).intValue();
+    }
+    log("CRC-32C", size, repeats, start);
+
+    start = System.currentTimeMillis();
+    int hash32 = 0;
+    for (int i = 0; i < repeats; i++) {
+      hash32 = XxHash32.hash(data, 0);
+    }
+    log("xxHash32", size, repeats, start);
+
+    start = System.currentTimeMillis();
+    long hash64 = 0;
+    for (int i = 0; i < repeats; i++) {
+      hash64 = XxHash64.hash(data, 0);
+    }
+    log("xxHash64", size, repeats, start);
+
+    Crc32 chunkedCrc = Crc32.crc32();
+    Crc32 chunkedCrc32c = Crc32.crc32c();
+    XxHash32 chunked32 = new XxHash32(0);
+    XxHash64 chunked64 = new XxHash64(0);
+    for (int offset = 0; offset < size; offset += 1000) {
+      ByteBuffer chunk = data.duplicate();
+      chunk.limit(Math.min(size, offset + 1000)).position(offset);
+      chunkedCrc.update(chunk.duplicate());
+      chunkedCrc32c.update(chunk.duplicate());
+      chunked32.update(chunk.duplicate());
+      chunked64.update(chunk);
+    }
+    assertEquals(crc, chunkedCrc.intValue());
+    assertEquals(crc32c, chunkedCrc32c.intValue());
+    assertEquals(hash32, chunked32.intValue());
+    assertEquals(hash64, chunked64.longValue());
+  }
+
+  private static void log(String name, int size, int repeats, double start) {
+    double millis = Math.max(1, System.currentTimeMillis() - start);
+    double megabytesPerSecond = (double) size * repeats / MB / (millis / 1000);
+    logger.info(name + " of " + size + " bytes: " + Math.round(megabytesPerSecond) + " MB/s");
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import org.gwtproject.nio.Crc32;
+import org.gwtproject.nio.XxHash32;
+import org.gwtproject.nio.XxHash64;
+
+public class HashingTest extends GWTTestCase {
+
+  private static final String CHECK = "123456789";
+
+  private static final String SPAM = "Nobody inspects the spammish repetition";
+
+  private static ByteBuffer direct(String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.ISO_8859_1);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return buffer;
+  }
+
+  private static ByteBuffer heap(String s) {
+    return ByteBuffer.wrap(s.getBytes(StandardCharsets.ISO_8859_1));
+  }
+
+  private static ByteBuffer random(int length) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+    int seed = 42;
+    for (int i = 0; i < length; i++) {
+      seed = seed * 1103515245 + 12345;
+      buffer.put((byte) (seed >>> 16));
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  public void testCrc32() {
+    assertEquals(0xcbf43926, Crc32.crc32().update(direct(CHECK)).intValue());
+    assertEquals(0xcbf43926L, Crc32.crc32().update(heap(CHECK)).getValue());
+    assertEquals(0, Crc32.crc32().update(direct("")).intValue());
+  }
+
+  public void testCrc32c() {
+    assertEquals(0xe3069283, Crc32.crc32c().update(direct(CHECK)).intValue());
+    assertEquals(0xe3069283, Crc32.crc32c().update(heap(CHECK).asReadOnlyBuffer()).intValue());
+  }
+
+  public void testCrc32Incremental() {
+    Crc32 crc = Crc32.crc32();
+    byte[] bytes = CHECK.getBytes(StandardCharsets.ISO_8859_1);
+    crc.update('1').update(direct("2345")).update(bytes, 5, 4);
+    assertEquals(0xcbf43926, crc.intValue());
+    crc.reset();
+    assertEquals(0, crc.intValue());
+  }
+
+  public void testXxHash32() {
+    assertEquals(0x02cc5d05, XxHash32.hash(direct(""), 0));
+    assertEquals(0x32d153ff, XxHash32.hash(direct("abc"), 0));
+    assertEquals(0xe2293b2f, XxHash32.hash(direct(SPAM), 0));
+    assertEquals(0xe2293b2f, XxHash32.hash(heap(SPAM), 0));
+    // tail bytes above 0x7f
+    assertEquals(0xd352b63d, XxHash32.hash(direct("\u00e9t\u00e9"), 0));
+  }
+
+  public void testXxHash64() {
+    assertEquals(0xef46db3751d8e999L, XxHash64.hash(direct(""), 0));
+    assertEquals(0x44bc2cf5ad770999L, XxHash64.hash(direct("abc"), 0));
+    assertEquals(0xfbcea83c8a378bf1L, XxHash64.hash(direct(SPAM), 0));
+    assertEquals(0xfbcea83c8a378bf1L, XxHash64.hash(heap(SPAM), 0));
+    assertEquals(0x993ae259fcce3313L, XxHash64.hash(direct("\u00e9t\u00e9"), 0));
+  }
+
+  public void testHashDoesNotMovePosition() {
+    ByteBuffer buffer = direct(SPAM);
+    buffer.position(3);
+    XxHash32.hash(buffer, 0);
+    XxHash64.hash(buffer, 0);
+    assertEquals(3, buffer.position());
+  }
+
+  public void testIncrementalMatchesOneShot() {
+    ByteBuffer data = random(300);
+    int crc = Crc32.crc32c().update(data.duplicate()).intValue();
+    int hash32 = XxHash32.hash(data, 7);
+    long hash64 = XxHash64.hash(data, 7);
+    for (int split = 0; split <= 300; split += 13) {
+      ByteBuffer first = data.duplicate();
+      first.limit(split);
+      ByteBuffer second = data.duplicate();
+      second.position(split);
+      ByteBuffer third = second.duplicate();
+      third.limit(third.position());
+
+      Crc32 crc32c = Crc32.crc32c();
+      crc32c.update(first.duplicate()).update(second.duplicate());
+      assertEquals(crc, crc32c.intValue());
+      XxHash32 xx32 = new XxHash32(7);
+      xx32.update(first.duplicate()).update(third.duplicate()).update(second.duplicate());
+      assertEquals(hash32, xx32.intValue());
+      XxHash64 xx64 = new XxHash64(7);
+      xx64.update(first.duplicate()).update(second.duplicate());
+      assertEquals(hash64, xx64.longValue());
+    }
+  }
+
+  public void testIndependentOfByteOrder() {
+    ByteBuffer data = random(100);
+    int hash = XxHash32.hash(data, 0);
+    data.order(ByteOrder.LITTLE_ENDIAN);
+    assertEquals(hash, XxHash32.hash(data, 0));
+    assertEquals(hash, XxHash32.hash(data.slice(), 0));
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import org.gwtproject.nio.LargeByteBuffer;
+
+public class LargeByteBufferTest extends GWTTestCase {
+
+  public void testSegments() {
+    LargeByteBuffer buffer = LargeByteBuffer.allocate(40, 16);
+    assertEquals(40, buffer.capacity());
+    assertEquals(3, buffer.getSegmentCount());
+    assertEquals(16, buffer.getSegmentSize());
+    assertEquals(8, buffer.segment(2).capacity());
+    assertEquals(2, buffer.segmentOf(39));
+    try {
+      buffer.get(40);
+      fail("Should throw Exception");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    try {
+      LargeByteBuffer.allocate(40, 12);
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  public void testStraddlingValues() {
+    LargeByteBuffer buffer = LargeByteBuffer.allocate(64, 16);
+    for (int index = 9; index <= 16; index++) {
+      buffer.putLong(index, 0x0102030405060708L);
+      assertEquals(0x0102030405060708L, buffer.getLong(index));
+      buffer.putInt(index, 0x0a0b0c0d);
+      assertEquals(0x0a0b0c0d, buffer.getInt(index));
+    }
+    buffer.putInt(14, 0x11223344);
+    assertEquals(0x11, buffer.get(14));
+    assertEquals(0x44, buffer.get(17));
+    buffer.putShort(15, (short) -2);
+    assertEquals(-2, buffer.getShort(15));
+    buffer.putDouble(28, Math.PI);
+    assertEquals(Math.PI, buffer.getDouble(28), 0);
+    buffer.putFloat(46, 1.5f);
+    assertEquals(1.5f, buffer.getFloat(46), 0f);
+
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(30, 0x11223344);
+    assertEquals(0x44, buffer.get(30));
+    assertEquals(0x11, buffer.get(33));
+    assertEquals(0x11223344, buffer.getInt(30));
+    assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.segment(1).order());
+  }
+
+  public void testBulkAcrossSegments() {
+    LargeByteBuffer buffer = LargeByteBuffer.allocate(64, 16);
+    byte[] data = new byte[40];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i + 1);
+    }
+    buffer.put(10, data, 0, data.length);
+    byte[] read = new byte[40];
+    buffer.get(10, read, 0, read.length);
+    assertEquals(Arrays.toString(data), Arrays.toString(read));
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(20);
+    buffer.get(12, direct);
+    assertEquals(0, direct.remaining());
+    assertEquals(3, direct.get(0));
+    assertEquals(22, direct.get(19));
+
+    direct.clear();
+    buffer.put(0, direct);
+    assertEquals(0, direct.remaining());
+    assertEquals(3, buffer.get(0));
+    assertEquals(22, buffer.get(19));
+
+    buffer.fill(30, 20, (byte) 9);
+    assertEquals(20, buffer.get(29));
+    assertEquals(9, buffer.get(49));
+    assertEquals(0, buffer.get(50));
+  }
+
+  public void testCopyTo() {
+    LargeByteBuffer buffer = LargeByteBuffer.allocate(64, 16);
+    for (int i = 0; i < 64; i++) {
+      buffer.put(i, (byte) i);
+    }
+    LargeByteBuffer other = LargeByteBuffer.allocate(48, 8);
+    buffer.copyTo(5, other, 7, 30);
+    assertEquals(5, other.get(7));
+    assertEquals(34, other.get(36));
+    assertEquals(0, other.get(37));
+
+    buffer.copyTo(10, buffer, 20, 30);
+    for (int i = 0; i < 30; i++) {
+      assertEquals(10 + i, buffer.get(20 + i));
+    }
+    buffer.copyTo(20, buffer, 2, 30);
+    for (int i = 0; i < 30; i++) {
+      assertEquals(10 + i, buffer.get(2 + i));
+    }
+  }
+
+  public void testViews() {
+    LargeByteBuffer buffer = LargeByteBuffer.allocate(64, 16).order(ByteOrder.nativeOrder());
+    buffer.putInt(20, 7);
+    IntBuffer ints = buffer.asIntBuffer(1);
+    assertEquals(4, ints.capacity());
+    assertEquals(7, ints.get(1));
+
+    ByteBuffer slice = buffer.slice(36, 8);
+    assertEquals(8, slice.capacity());
+    slice.put(0, (byte) 5);
+    assertEquals(5, buffer.get(36));
+    try {
+      buffer.slice(40, 12);
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
@@ -37,6 +37,31 @@ public class NIOSuite {
     suite.addTestSuite(ReadOnlyLongBufferTest.class);
     suite.addTestSuite(ReadOnlyShortBufferTest.class);
     suite.addTestSuite(ShortBufferTest.class);
+    suite.addTestSuite(SlowPathMonitorTest.class);
+    suite.addTestSuite(AccessPatternRecorderTest.class);
+    suite.addTestSuite(SharedArrayBufferTest.class);
+    // suite.addTestSuite(AtomicBufferTest.class); // needs Atomics, missing in HtmlUnit
+    suite.addTestSuite(BufferTransferTest.class);
+    suite.addTestSuite(ParallelOpsTest.class);
+    suite.addTestSuite(AsyncBufferOpsTest.class);
+    suite.addTestSuite(ByteBufferBuilderTest.class);
+    suite.addTestSuite(GrowableMemoryTest.class);
+    suite.addTestSuite(WasmMemoryTest.class);
+    suite.addTestSuite(LargeByteBufferTest.class);
+    // suite.addTestSuite(BlobBufferTest.class); // needs Blob.arrayBuffer(), missing in HtmlUnit
+    suite.addTestSuite(OpfsFileChannelTest.class);
+    suite.addTestSuite(ByteBufferChannelTest.class);
+    suite.addTestSuite(ByteBufferStreamTest.class);
+    suite.addTestSuite(CharsetCoderTest.class);
+    suite.addTestSuite(CharBufferStringTest.class);
+    suite.addTestSuite(StringCacheTest.class);
+    suite.addTestSuite(AsciiNumbersTest.class);
+    suite.addTestSuite(BinaryToTextTest.class);
+    suite.addTestSuite(HashingTest.class);
+    // suite.addTestSuite(HashingBenchmarkTest.class); // benchmark, not a unit test
+    suite.addTestSuite(BinaryReaderWriterTest.class);
+    suite.addTestSuite(BufferCursorTest.class);
+    suite.addTestSuite(StructFlyweightTest.class);
     return suite;
   }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import elemental2.core.ArrayBuffer;
+import elemental2.core.ArrayBufferView;
+import elemental2.core.Int8Array;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import org.gwtproject.nio.OpfsFileChannel;
+import org.gwtproject.nio.SyncAccessHandle;
+import org.gwtproject.nio.TypedArrayHelper;
+
+public class OpfsFileChannelTest extends GWTTestCase {
+
+  public void testDirectBuffersAreNotCopied() throws IOException {
+    MemoryHandle handle = new MemoryHandle();
+    OpfsFileChannel channel = new OpfsFileChannel(handle);
+    ByteBuffer src = ByteBuffer.allocateDirect(16);
+    src.putInt(0x01020304).putInt(0x05060708).flip();
+    src.position(2);
+    assertEquals(6, channel.write(src));
+    assertSame(TypedArrayHelper.unwrap(src).buffer, handle.lastBuffer);
+    assertEquals(8, src.position());
+    assertEquals(6, channel.position());
+    assertEquals(6, channel.size());
+
+    ByteBuffer dst = ByteBuffer.allocateDirect(8);
+    dst.position(1);
+    assertEquals(4, channel.read(dst, 2));
+    assertSame(TypedArrayHelper.unwrap(dst).buffer, handle.lastBuffer);
+    assertEquals(5, dst.position());
+    assertEquals(5, dst.get(1));
+    assertEquals(8, dst.get(4));
+    assertEquals(-1, channel.read(dst));
+  }
+
+  public void testHeapBuffers() throws IOException {
+    OpfsFileChannel channel = new OpfsFileChannel(new MemoryHandle());
+    ByteBuffer src = ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5});
+    assertEquals(5, channel.write(src, 3));
+    assertEquals(8, channel.size());
+    assertEquals(0, channel.position());
+
+    ByteBuffer dst = ByteBuffer.allocate(10);
+    assertEquals(8, channel.read(dst));
+    assertEquals(8, channel.position());
+    assertEquals(0, dst.get(2));
+    assertEquals(1, dst.get(3));
+    assertEquals(5, dst.get(7));
+  }
+
+  public void testTruncateAndForce() throws IOException {
+    MemoryHandle handle = new MemoryHandle();
+    OpfsFileChannel channel = new OpfsFileChannel(handle);
+    channel.write(ByteBuffer.allocateDirect(100));
+    channel.truncate(200);
+    assertEquals(100, channel.size());
+    channel.truncate(40);
+    assertEquals(40, channel.size());
+    assertEquals(40, channel.position());
+    channel.position(60);
+    assertEquals(-1, channel.read(ByteBuffer.allocateDirect(4)));
+    channel.force(true);
+    assertEquals(1, handle.flushes);
+  }
+
+  public void testClose() throws IOException {
+    MemoryHandle handle = new MemoryHandle();
+    OpfsFileChannel channel = new OpfsFileChannel(handle);
+    assertTrue(channel.isOpen());
+    channel.close();
+    assertFalse(channel.isOpen());
+    assertTrue(handle.closed);
+    try {
+      channel.size();
+      fail("Should throw Exception");
+    } catch (ClosedChannelException e) {
+      // expected
+    }
+    try {
+      new OpfsFileChannel(new MemoryHandle())
+          .read(ByteBuffer.allocateDirect(4).asReadOnlyBuffer(), 0);
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  /* An in-memory stand-in for FileSystemSyncAccessHandle. */
+  private static class MemoryHandle implements SyncAccessHandle {
+    Int8Array content = new Int8Array(0);
+    ArrayBuffer lastBuffer;
+    int flushes;
+    boolean closed;
+
+    @Override
+    public double read(ArrayBufferView buffer, ReadWriteOptions options) {
+      lastBuffer = buffer.buffer;
+      int at = (int) options.at;
+      int count = Math.max(0, Math.min(buffer.byteLength, content.length - at));
+      new Int8Array(buffer.buffer, buffer.byteOffset, count).set(content.subarray(at, at + count));
+      return count;
+    }
+
+    @Override
+    public double write(ArrayBufferView buffer, ReadWriteOptions options) {
+      lastBuffer = buffer.buffer;
+      int at = (int) options.at;
+      if (at + buffer.byteLength > content.length) {
+        resize(at + buffer.byteLength);
+      }
+      content.set(new Int8Array(buffer.buffer, buffer.byteOffset, buffer.byteLength), at);
+      return buffer.byteLength;
+    }
+
+    @Override
+    public double getSize() {
+      return content.length;
+    }
+
+    @Override
+    public void truncate(double newSize) {
+      resize((int) newSize);
+    }
+
+    @Override
+    public void flush() {
+      flushes++;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    private void resize(int size) {
+      Int8Array resized = new Int8Array(size);
+      resized.set(content.subarray(0, Math.min(size, content.length)));
+      content = resized;
+    }
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import elemental2.promise.Promise;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.gwtproject.nio.ParallelKernel;
+import org.gwtproject.nio.ParallelOps;
+import org.gwtproject.nio.TypedArrayHelper;
+import org.gwtproject.nio.WorkerEndpoint;
+
+public class ParallelOpsTest extends GWTTestCase {
+
+  public void testElementWiseKernels() {
+    FloatBuffer floats = ByteBuffer.allocateDirect(32).asFloatBuffer();
+    ParallelOps.runLocal(ParallelOps.FILL, floats, 2);
+    ParallelOps.runLocal(ParallelOps.SCALE, floats, 1.5);
+    floats.position(4);
+    ParallelOps.runLocal(ParallelOps.ADD, floats, 1);
+    assertEquals(3f, floats.get(3), 0f);
+    assertEquals(4f, floats.get(4), 0f);
+
+    ShortBuffer shorts = ShortBuffer.allocate(4);
+    ParallelOps.runLocal(ParallelOps.FILL, shorts, 7);
+    assertEquals(7, shorts.get(3));
+  }
+
+  public void testReductions() {
+    IntBuffer ints = ByteBuffer.allocateDirect(16).order(ByteOrder.nativeOrder()).asIntBuffer();
+    ints.put(0, 5).put(1, -3).put(2, 10).put(3, 1);
+    assertEquals(13, ParallelOps.runLocal(ParallelOps.SUM, ints, 0), 0);
+    assertEquals(-3, ParallelOps.runLocal(ParallelOps.MIN, ints, 0), 0);
+    assertEquals(10, ParallelOps.runLocal(ParallelOps.MAX, ints, 0), 0);
+    ints.limit(0);
+    assertEquals(Double.NEGATIVE_INFINITY, ParallelOps.runLocal(ParallelOps.MAX, ints, 0), 0);
+  }
+
+  public void testCustomKernel() {
+    ParallelOps.register(
+        "count",
+        new ParallelKernel() {
+          @Override
+          public double apply(Buffer buffer, int start, int end, double argument) {
+            ByteBuffer bytes = (ByteBuffer) buffer;
+            int count = 0;
+            for (int i = start; i < end; i++) {
+              if (bytes.get(i) == argument) {
+                count++;
+              }
+            }
+            return count;
+          }
+        });
+    ByteBuffer bytes = ByteBuffer.allocate(8);
+    bytes.put(1, (byte) 4).put(6, (byte) 4);
+    assertEquals(2, ParallelOps.runLocal("count", bytes, 4), 0);
+    try {
+      ParallelOps.runLocal("unknown", bytes, 0);
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  public void testParallelizable() {
+    assertFalse(ParallelOps.isParallelizable(ByteBuffer.allocate(16)));
+    assertFalse(ParallelOps.isParallelizable(ByteBuffer.allocateDirect(16)));
+    if (TypedArrayHelper.isSharedMemorySupported()) {
+      ByteBuffer shared = TypedArrayHelper.allocateShared(16);
+      assertTrue(ParallelOps.isParallelizable(shared));
+      assertTrue(ParallelOps.isParallelizable(shared.asFloatBuffer()));
+      assertFalse(ParallelOps.isParallelizable(shared.asLongBuffer()));
+    }
+  }
+
+  /*
+   * Runs the worker side on this thread: real workers would need the compiled test code, which is
+   * not available to a worker script here. The messages still go through serve() and a shared
+   * buffer re-created from its transfer description.
+   */
+  public void testWorkerPartitions() {
+    if (!TypedArrayHelper.isSharedMemorySupported()) {
+      return;
+    }
+    delayTestFinish(5000);
+    List<Integer> starts = new ArrayList<>();
+    ParallelOps.register(
+        "starts",
+        (buffer, start, end, argument) -> {
+          starts.add(start);
+          return end - start;
+        });
+    ParallelOps ops = new ParallelOps(loopbackWorkers(3));
+    // 12 bytes into the shared memory, so partitions must not be aligned relative to the view
+    ByteBuffer shared = TypedArrayHelper.allocateShared(4096);
+    shared.position(12);
+    FloatBuffer floats = shared.slice().order(ByteOrder.nativeOrder()).asFloatBuffer();
+    ops.run(ParallelOps.FILL, floats, 2)
+        .then(ignored -> ops.run(ParallelOps.SUM, floats, 0))
+        .then(
+            sum -> {
+              assertEquals(2 * 1021, sum, 0);
+              return ops.run("starts", floats, 0);
+            })
+        .then(
+            count -> {
+              assertEquals(1021, count, 0);
+              assertEquals(3, starts.size());
+              assertEquals(0, (int) starts.get(0));
+              for (int i = 1; i < starts.size(); i++) {
+                assertEquals(0, (12 + starts.get(i) * 4) % 64);
+              }
+              finishTest();
+              return null;
+            });
+  }
+
+  /* Endpoint pairs that deliver messages asynchronously on the calling thread. */
+  private static List<WorkerEndpoint> loopbackWorkers(int count) {
+    List<WorkerEndpoint> workers = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Loopback main = new Loopback();
+      Loopback worker = new Loopback();
+      main.other = worker;
+      worker.other = main;
+      ParallelOps.serve(worker);
+      workers.add(main);
+    }
+    return workers;
+  }
+
+  private static class Loopback implements WorkerEndpoint {
+    private Loopback other;
+    private MessageHandler handler;
+
+    @Override
+    public void postMessage(Object message) {
+      Promise.resolve((Object) null)
+          .then(
+              ignored -> {
+                other.handler.onMessage(message);
+                return null;
+              });
+    }
+
+    @Override
+    public void setMessageHandler(MessageHandler handler) {
+      this.handler = handler;
+    }
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import elemental2.core.ArrayBuffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import jsinterop.annotations.JsFunction;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+import org.gwtproject.nio.AtomicIntBuffer;
+import org.gwtproject.nio.SharedArrayBuffer;
+import org.gwtproject.nio.TypedArrayHelper;
+
+public class SharedArrayBufferTest extends GWTTestCase {
+
+  /* Reads int 0 of the posted memory, stores it plus one in int 1 and replies with it. */
+  private static final String WORKER_SOURCE =
+      "onmessage = function(e) {"
+          + "  var ints = new Int32Array(e.data);"
+          + "  var seen = Atomics.load(ints, 0);"
+          + "  Atomics.store(ints, 1, seen + 1);"
+          + "  postMessage(seen);"
+          + "};";
+
+  private static boolean isFunction(Object object) {
+    return "function".equals(Js.typeof(object));
+  }
+
+  private static boolean isWorkerSupported() {
+    Object url = Js.global().get("URL");
+    return isFunction(Js.global().get("Worker"))
+        && isFunction(Js.global().get("Blob"))
+        && url != null
+        && isFunction(Js.asPropertyMap(url).get("createObjectURL"));
+  }
+
+  public void testAllocateShared() {
+    if (!TypedArrayHelper.isSharedMemorySupported()) {
+      try {
+        TypedArrayHelper.allocateShared(16);
+        fail("Should throw Exception");
+      } catch (UnsupportedOperationException e) {
+        // expected
+      }
+      return;
+    }
+    ByteBuffer buf = TypedArrayHelper.allocateShared(16);
+    assertTrue(buf.isDirect());
+    assertEquals(16, buf.capacity());
+    assertTrue(TypedArrayHelper.isShared(buf));
+    assertEquals(16, TypedArrayHelper.getSharedArrayBuffer(buf).byteLength);
+  }
+
+  public void testViewsShareMemory() {
+    if (!TypedArrayHelper.isSharedMemorySupported()) {
+      return;
+    }
+    SharedArrayBuffer sab = new SharedArrayBuffer(32);
+    ByteBuffer first = TypedArrayHelper.wrap(sab).order(ByteOrder.nativeOrder());
+    ByteBuffer second = TypedArrayHelper.wrap(sab).order(ByteOrder.nativeOrder());
+    IntBuffer ints = first.asIntBuffer();
+    ints.put(1, 0x01020304);
+    assertEquals(0x01020304, second.getInt(4));
+
+    FloatBuffer floats = second.asFloatBuffer();
+    floats.put(2, 1.5f);
+    assertEquals(1.5f, first.getFloat(8), 0f);
+    assertSame(sab, TypedArrayHelper.getSharedArrayBuffer(second));
+  }
+
+  public void testWrapRange() {
+    if (!TypedArrayHelper.isSharedMemorySupported()) {
+      return;
+    }
+    SharedArrayBuffer sab = new SharedArrayBuffer(16);
+    ByteBuffer whole = TypedArrayHelper.wrap(sab);
+    ByteBuffer part = TypedArrayHelper.wrap(sab, 4, 8);
+    assertEquals(8, part.capacity());
+    part.put(0, (byte) 42);
+    assertEquals(42, whole.get(4));
+    assertTrue(TypedArrayHelper.isShared(part));
+  }
+
+  public void testWorkerSharesMemory() {
+    // JUnit 3 has no assumptions; the J2CL copy of this test reports it as skipped
+    if (!TypedArrayHelper.isSharedMemorySupported() || !isWorkerSupported()) {
+      return;
+    }
+    delayTestFinish(5000);
+    SharedArrayBuffer sab = new SharedArrayBuffer(8);
+    AtomicIntBuffer ints = AtomicIntBuffer.wrap(TypedArrayHelper.wrap(sab));
+    ints.set(0, 41);
+    Worker worker = new Worker(URL.createObjectURL(new Blob(new Object[] {WORKER_SOURCE})));
+    worker.onmessage =
+        event -> {
+          worker.terminate();
+          assertEquals(41, Js.asInt(event.data));
+          assertEquals(42, ints.get(1));
+          finishTest();
+        };
+    worker.postMessage(sab);
+  }
+
+  public void testWrapRangeOfArrayBuffer() {
+    ArrayBuffer ab = new ArrayBuffer(16);
+    ByteBuffer part = TypedArrayHelper.wrap(ab, 8, 8);
+    assertEquals(8, part.capacity());
+    part.put(7, (byte) 7);
+    assertEquals(7, TypedArrayHelper.wrap(ab).get(15));
+    try {
+      TypedArrayHelper.wrap(ab, 12, 8);
+      fail("Should throw Exception");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  public void testNonSharedBuffers() {
+    assertFalse(TypedArrayHelper.isShared(ByteBuffer.allocateDirect(8)));
+    assertFalse(TypedArrayHelper.isShared(ByteBuffer.allocate(8)));
+    try {
+      TypedArrayHelper.getSharedArrayBuffer(ByteBuffer.allocateDirect(8));
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL)
+  private static class Blob {
+    public Blob(Object[] parts) {}
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL)
+  private static class URL {
+    public static native String createObjectURL(Blob blob);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+  private static class MessageEvent {
+    public Object data;
+  }
+
+  @JsFunction
+  private interface MessageListener {
+    void onMessage(MessageEvent event);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL)
+  private static class Worker {
+    public MessageListener onmessage;
+
+    public Worker(String url) {}
+
+    public native void postMessage(Object message);
+
+    public native void terminate();
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import org.gwtproject.nio.SlowPathMonitor;
+import org.gwtproject.nio.TypedArrayHelper;
+
+public class SlowPathMonitorTest extends GWTTestCase {
+
+  public void gwtSetUp() {
+    SlowPathMonitor.reset();
+    SlowPathMonitor.setWarningsEnabled(false);
+    SlowPathMonitor.setEnabled(true);
+  }
+
+  public void gwtTearDown() {
+    SlowPathMonitor.setEnabled(false);
+    SlowPathMonitor.setWarningsEnabled(true);
+    SlowPathMonitor.reset();
+  }
+
+  public void testDisabledRecordsNothing() {
+    SlowPathMonitor.setEnabled(false);
+    ByteBuffer.allocateDirect(16).asDoubleBuffer();
+    assertTrue(SlowPathMonitor.getCounts().isEmpty());
+  }
+
+  public void testNativeOrderIntViewIsFast() {
+    ByteBuffer.allocateDirect(16).order(ByteOrder.nativeOrder()).asIntBuffer();
+    assertEquals(0, SlowPathMonitor.getCount("ByteBuffer.asIntBuffer"));
+  }
+
+  public void testBigEndianIntViewIsCounted() {
+    ByteBuffer.allocateDirect(16).order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+    ByteBuffer.allocateDirect(16).order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+    assertEquals(2, SlowPathMonitor.getCount("ByteBuffer.asIntBuffer"));
+    assertEquals(1, SlowPathMonitor.getCounts().size());
+  }
+
+  public void testDoubleViewIsCounted() {
+    ByteBuffer.allocateDirect(16).asDoubleBuffer();
+    assertEquals(1, SlowPathMonitor.getCount("ByteBuffer.asDoubleBuffer"));
+  }
+
+  public void testBulkPutIsCounted() {
+    IntBuffer src = IntBuffer.allocate(4);
+    IntBuffer.allocate(4).put(src);
+    assertEquals(1, SlowPathMonitor.getCount("IntBuffer.put(IntBuffer)"));
+  }
+
+  public void testUnwrapHeapBufferIsCounted() {
+    try {
+      TypedArrayHelper.unwrap(ByteBuffer.allocate(4));
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertEquals(1, SlowPathMonitor.getCount("TypedArrayHelper.unwrap"));
+  }
+
+  public void testReset() {
+    ByteBuffer.allocateDirect(16).asLongBuffer();
+    SlowPathMonitor.reset();
+    assertEquals(0, SlowPathMonitor.getCount("ByteBuffer.asLongBuffer"));
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
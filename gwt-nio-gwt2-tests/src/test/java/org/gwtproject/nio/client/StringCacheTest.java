@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.gwtproject.nio.Charsets;
+import org.gwtproject.nio.StringCache;
+import org.gwtproject.nio.TypedArrayHelper;
+
+public class StringCacheTest extends GWTTestCase {
+
+  private static ByteBuffer direct(String s, Charset charset) {
+    byte[] bytes = s.getBytes(charset);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return buffer;
+  }
+
+  public void testHitReturnsSameString() {
+    StringCache cache = new StringCache(16);
+    ByteBuffer first = direct("name", StandardCharsets.UTF_8);
+    ByteBuffer second = ByteBuffer.wrap("name".getBytes(StandardCharsets.UTF_8));
+
+    String decoded = cache.decode(first, 4);
+    assertEquals("name", decoded);
+    assertEquals(4, first.position());
+    assertSame(decoded, cache.decode(second, 0, 4));
+    assertEquals(0, second.position());
+    assertEquals(1, cache.hits());
+    assertEquals(1, cache.misses());
+  }
+
+  public void testDistinctKeys() {
+    StringCache cache = new StringCache(16);
+    ByteBuffer buffer = direct("zoëzoézoë", StandardCharsets.UTF_8);
+    String first = cache.decode(buffer, 4);
+    String second = cache.decode(buffer, 4);
+    String third = cache.decode(buffer, 4);
+    assertEquals("zoë", first);
+    assertEquals("zoé", second);
+    assertSame(first, third);
+    assertEquals(2, cache.size());
+  }
+
+  public void testBoundedSize() {
+    StringCache cache = new StringCache(8);
+    ByteBuffer buffer = ByteBuffer.allocate(8);
+    for (int i = 0; i < 1000; i++) {
+      buffer.clear();
+      buffer.putInt(i).flip();
+      assertEquals(4, cache.decode(buffer, 4).length());
+      assertTrue(cache.size() <= 8);
+    }
+    assertEquals(1000, cache.misses());
+  }
+
+  public void testReferencedKeySurvives() {
+    StringCache cache = new StringCache(4);
+    ByteBuffer hot = direct("hot", StandardCharsets.UTF_8);
+    String value = cache.decode(hot, 0, 3);
+    for (int i = 0; i < 100; i++) {
+      assertSame(value, cache.decode(hot, 0, 3));
+      cache.decode(ByteBuffer.wrap(new byte[] {(byte) i}), 0, 1);
+    }
+  }
+
+  public void testLongKeysNotCached() {
+    StringCache cache = new StringCache(16, 4, StandardCharsets.UTF_8);
+    ByteBuffer buffer = direct("too long", StandardCharsets.UTF_8);
+    String first = cache.decode(buffer, 0, 8);
+    assertEquals("too long", first);
+    assertEquals("too long", cache.decode(buffer, 0, 8));
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.hits());
+    assertEquals(2, cache.misses());
+  }
+
+  public void testUtf16() {
+    StringCache cache = new StringCache(16, 64, Charsets.UTF_16LE);
+    // String.getBytes() only supports the standard charsets of the emulated JRE
+    ByteBuffer buffer = TypedArrayHelper.stringToByteBuffer("€uro", Charsets.UTF_16LE);
+    assertEquals("€uro", cache.decode(buffer, 8));
+  }
+
+  public void testMalformedReplaced() {
+    StringCache cache = new StringCache(16);
+    assertEquals("a�", cache.decode(ByteBuffer.wrap(new byte[] {'a', (byte) 0xff}), 2));
+  }
+
+  public void testClear() {
+    StringCache cache = new StringCache(16);
+    ByteBuffer buffer = direct("key", StandardCharsets.UTF_8);
+    String value = cache.decode(buffer, 0, 3);
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.misses());
+    assertEquals(value, cache.decode(buffer, 0, 3));
+    assertEquals(0, cache.hits());
+    assertEquals(1, cache.misses());
+  }
+
+  public void testOutOfBounds() {
+    StringCache cache = new StringCache(16);
+    ByteBuffer buffer = ByteBuffer.allocate(4);
+    try {
+      cache.decode(buffer, 2, 3);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import org.gwtproject.nio.struct.Offset;
+import org.gwtproject.nio.struct.Struct;
+
+public class StructFlyweightTest extends GWTTestCase {
+
+  @Struct(littleEndian = true)
+  interface Vertex {
+    byte getKind();
+
+    void setKind(byte kind);
+
+    int getColor();
+
+    void setColor(int color);
+
+    float getX();
+
+    void setX(float x);
+
+    double getWeight();
+
+    void setWeight(double weight);
+
+    short getFlags();
+
+    void setFlags(short flags);
+
+    boolean isVisible();
+
+    void setVisible(boolean visible);
+
+    char getLetter();
+
+    void setLetter(char letter);
+
+    long getId();
+  }
+
+  @Struct(packed = true, size = 20)
+  interface PacketHeader {
+    byte getVersion();
+
+    void setVersion(byte version);
+
+    short getLength();
+
+    void setLength(short length);
+
+    int getSequence();
+
+    void setSequence(int sequence);
+
+    @Offset(8)
+    long getTimestamp();
+
+    void setTimestamp(long timestamp);
+  }
+
+  interface Tagged {
+    short getTag();
+
+    void setTag(short tag);
+  }
+
+  @Struct
+  interface Sample extends Tagged {
+    int getValue();
+
+    void setValue(int value);
+  }
+
+  private static ByteBuffer[] buffers(int capacity) {
+    return new ByteBuffer[] {
+      ByteBuffer.allocateDirect(capacity),
+      ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN),
+      ByteBuffer.allocate(capacity),
+      ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN)
+    };
+  }
+
+  public void testAlignedLayout() {
+    assertEquals(0, StructFlyweightTest_VertexFlyweight.KIND_OFFSET);
+    assertEquals(4, StructFlyweightTest_VertexFlyweight.COLOR_OFFSET);
+    assertEquals(8, StructFlyweightTest_VertexFlyweight.X_OFFSET);
+    assertEquals(16, StructFlyweightTest_VertexFlyweight.WEIGHT_OFFSET);
+    assertEquals(24, StructFlyweightTest_VertexFlyweight.FLAGS_OFFSET);
+    assertEquals(26, StructFlyweightTest_VertexFlyweight.VISIBLE_OFFSET);
+    assertEquals(28, StructFlyweightTest_VertexFlyweight.LETTER_OFFSET);
+    assertEquals(32, StructFlyweightTest_VertexFlyweight.ID_OFFSET);
+    assertEquals(40, StructFlyweightTest_VertexFlyweight.SIZE);
+  }
+
+  public void testPackedLayout() {
+    assertEquals(0, StructFlyweightTest_PacketHeaderFlyweight.VERSION_OFFSET);
+    assertEquals(1, StructFlyweightTest_PacketHeaderFlyweight.LENGTH_OFFSET);
+    assertEquals(3, StructFlyweightTest_PacketHeaderFlyweight.SEQUENCE_OFFSET);
+    assertEquals(8, StructFlyweightTest_PacketHeaderFlyweight.TIMESTAMP_OFFSET);
+    assertEquals(20, StructFlyweightTest_PacketHeaderFlyweight.SIZE);
+  }
+
+  public void testLittleEndianSetters() {
+    for (ByteBuffer buffer : buffers(100)) {
+      StructFlyweightTest_VertexFlyweight vertex =
+          new StructFlyweightTest_VertexFlyweight().wrap(buffer, 10);
+      assertEquals(2, vertex.count());
+      vertex.at(1);
+      vertex.setKind((byte) -7);
+      vertex.setColor(0x11223344);
+      vertex.setX(1.5f);
+      vertex.setWeight(-2.25);
+      vertex.setFlags((short) 0x5566);
+      vertex.setVisible(true);
+      vertex.setLetter('€');
+
+      assertEquals(0, buffer.position());
+      ByteBuffer bytes = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+      int base = 10 + StructFlyweightTest_VertexFlyweight.SIZE;
+      assertEquals(base, vertex.offset());
+      assertEquals(-7, bytes.get(base));
+      assertEquals(0x11223344, bytes.getInt(base + 4));
+      assertEquals(1.5f, bytes.getFloat(base + 8), 0);
+      assertEquals(-2.25, bytes.getDouble(base + 16), 0);
+      assertEquals(0x5566, bytes.getShort(base + 24));
+      assertEquals(1, bytes.get(base + 26));
+      assertEquals('€', bytes.getChar(base + 28));
+    }
+  }
+
+  public void testLittleEndianGetters() {
+    for (ByteBuffer buffer : buffers(80)) {
+      ByteBuffer bytes = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+      bytes.put(40, (byte) 3);
+      bytes.putInt(44, 0xcafebabe);
+      bytes.putFloat(48, -0.5f);
+      bytes.putDouble(56, Math.PI);
+      bytes.putShort(64, (short) -2);
+      bytes.put(66, (byte) 0);
+      bytes.putChar(68, 'z');
+      bytes.putLong(72, 0x0102030405060708L);
+
+      StructFlyweightTest_VertexFlyweight vertex =
+          new StructFlyweightTest_VertexFlyweight().wrap(buffer).at(1);
+      assertEquals(3, vertex.getKind());
+      assertEquals(0xcafebabe, vertex.getColor());
+      assertEquals(-0.5f, vertex.getX(), 0);
+      assertEquals(Math.PI, vertex.getWeight(), 0);
+      assertEquals(-2, vertex.getFlags());
+      assertFalse(vertex.isVisible());
+      assertEquals('z', vertex.getLetter());
+      assertEquals(0x0102030405060708L, vertex.getId());
+    }
+  }
+
+  public void testIteration() {
+    for (ByteBuffer buffer : buffers(4 * 40 + 39)) {
+      StructFlyweightTest_VertexFlyweight vertex = new StructFlyweightTest_VertexFlyweight();
+      vertex.wrap(buffer);
+      assertEquals(4, vertex.count());
+      for (int i = 0; i < vertex.count(); i++) {
+        vertex.at(i).setColor(i * 10);
+        vertex.setX(i);
+      }
+      float sum = 0;
+      int colors = 0;
+      for (int i = 0; i < vertex.count(); i++) {
+        sum += vertex.at(i).getX();
+        colors += vertex.getColor();
+      }
+      assertEquals(6f, sum, 0);
+      assertEquals(60, colors);
+      try {
+        vertex.at(4);
+        fail();
+      } catch (IndexOutOfBoundsException expected) {
+        // expected
+      }
+      try {
+        vertex.at(-1);
+        fail();
+      } catch (IndexOutOfBoundsException expected) {
+        // expected
+      }
+    }
+  }
+
+  public void testPackedBigEndian() {
+    for (ByteBuffer buffer : buffers(32)) {
+      StructFlyweightTest_PacketHeaderFlyweight header =
+          new StructFlyweightTest_PacketHeaderFlyweight().wrap(buffer, 3);
+      assertEquals(1, header.count());
+      header.setVersion((byte) 2);
+      header.setLength((short) 1500);
+      header.setSequence(-123456);
+      header.setTimestamp(1700000000123L);
+
+      ByteBuffer bytes = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+      assertEquals(2, bytes.get(3));
+      assertEquals(1500, bytes.getShort(4));
+      assertEquals(-123456, bytes.getInt(6));
+      assertEquals(1700000000123L, bytes.getLong(11));
+
+      bytes.putLong(11, -1L);
+      assertEquals(-1L, header.getTimestamp());
+      assertEquals(-123456, header.getSequence());
+    }
+  }
+
+  public void testRewrap() {
+    ByteBuffer first = ByteBuffer.allocateDirect(40);
+    ByteBuffer second = ByteBuffer.allocate(80);
+    StructFlyweightTest_VertexFlyweight vertex = new StructFlyweightTest_VertexFlyweight();
+    vertex.wrap(first).setColor(1);
+    vertex.wrap(second).at(1).setColor(2);
+    vertex.wrap(first);
+    assertEquals(1, vertex.count());
+    assertEquals(1, vertex.getColor());
+    assertEquals(2, vertex.wrap(second).at(1).getColor());
+  }
+
+  public void testReadOnly() {
+    for (ByteBuffer buffer : buffers(40)) {
+      buffer.order(ByteOrder.LITTLE_ENDIAN).put(26, (byte) 1);
+      StructFlyweightTest_VertexFlyweight vertex =
+          new StructFlyweightTest_VertexFlyweight().wrap(buffer.asReadOnlyBuffer());
+      assertTrue(vertex.isVisible());
+      try {
+        vertex.setVisible(false);
+        fail();
+      } catch (ReadOnlyBufferException expected) {
+        // expected
+      }
+      assertTrue(vertex.isVisible());
+    }
+  }
+
+  public void testInheritedGetters() {
+    assertEquals(0, StructFlyweightTest_SampleFlyweight.TAG_OFFSET);
+    assertEquals(4, StructFlyweightTest_SampleFlyweight.VALUE_OFFSET);
+    assertEquals(8, StructFlyweightTest_SampleFlyweight.SIZE);
+    ByteBuffer buffer = ByteBuffer.allocate(16);
+    StructFlyweightTest_SampleFlyweight sample =
+        new StructFlyweightTest_SampleFlyweight().wrap(buffer);
+    Tagged tagged = sample.at(1);
+    tagged.setTag((short) 7);
+    sample.setValue(9);
+    assertEquals(7, buffer.getShort(8));
+    assertEquals(9, buffer.getInt(12));
+  }
+
+  public void testWrapOutOfBounds() {
+    ByteBuffer buffer = ByteBuffer.allocate(30);
+    StructFlyweightTest_VertexFlyweight vertex = new StructFlyweightTest_VertexFlyweight();
+    assertEquals(0, vertex.wrap(buffer).count());
+    try {
+      vertex.wrap(buffer, 31);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+      // expected
+    }
+    try {
+      vertex.wrap(buffer, -1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+      // expected
+    }
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
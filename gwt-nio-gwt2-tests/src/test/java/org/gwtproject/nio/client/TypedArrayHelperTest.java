@@ -3,6 +3,9 @@ package org.gwtproject.nio.client;
 import com.google.gwt.junit.client.GWTTestCase;
 import elemental2.core.ArrayBuffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import org.gwtproject.nio.Charsets;
 import org.gwtproject.nio.TypedArrayHelper;
 import org.junit.Test;
 
@@ -30,6 +33,48 @@ public class TypedArrayHelperTest extends GWTTestCase {
     assertEquals(0, tested.position());
   }
 
+  @Test
+  public void stringToByteBufferUtf8() {
+    ByteBuffer tested = TypedArrayHelper.stringToByteBuffer("aé€😀");
+    assertEquals(1 + 2 + 3 + 4, tested.capacity());
+    assertTrue(tested.isDirect());
+    assertEquals(ByteOrder.BIG_ENDIAN, tested.order());
+    assertEquals((byte) 0xC3, tested.get(1));
+    assertEquals((byte) 0xF0, tested.get(6));
+    assertEquals("aé€😀", TypedArrayHelper.byteBufferToString(tested, StandardCharsets.UTF_8));
+    assertEquals(0, tested.position());
+  }
+
+  @Test
+  public void stringToByteBufferCharsets() {
+    ByteBuffer latin1 = TypedArrayHelper.stringToByteBuffer("aé€", StandardCharsets.ISO_8859_1);
+    assertEquals(3, latin1.capacity());
+    assertEquals((byte) 0xE9, latin1.get(1));
+    assertEquals('?', latin1.get(2));
+    assertEquals("aé?", TypedArrayHelper.byteBufferToString(latin1, StandardCharsets.ISO_8859_1));
+    ByteBuffer other = TypedArrayHelper.stringToByteBuffer("xyz", StandardCharsets.ISO_8859_1);
+    assertEquals('x', other.get(0));
+    assertEquals((byte) 0xE9, latin1.get(1));
+
+    ByteBuffer utf16 = TypedArrayHelper.stringToByteBuffer("a€", Charsets.UTF_16BE);
+    assertEquals(4, utf16.capacity());
+    assertEquals((short) 0x20AC, utf16.getShort(2));
+    assertEquals("a€", TypedArrayHelper.byteBufferToString(utf16, Charsets.UTF_16BE));
+    utf16.position(2);
+    assertEquals("€", TypedArrayHelper.byteBufferToString(utf16, Charsets.UTF_16BE));
+  }
+
+  @Test
+  public void byteBufferToStringMalformed() {
+    byte[] bytes = {'a', (byte) 0xFF, 'b'};
+    assertEquals(
+        "a�b",
+        TypedArrayHelper.byteBufferToString(ByteBuffer.wrap(bytes), StandardCharsets.UTF_8));
+    ByteBuffer direct = ByteBuffer.allocateDirect(3);
+    direct.put(bytes).flip();
+    assertEquals("a�b", TypedArrayHelper.byteBufferToString(direct, StandardCharsets.UTF_8));
+  }
+
   @Override
   public String getModuleName() {
     return "org.gwtproject.nio.NIOTest";
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import elemental2.core.Int8Array;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import jsinterop.annotations.JsFunction;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+import jsinterop.base.JsPropertyMap;
+import org.gwtproject.nio.DetachedBufferException;
+import org.gwtproject.nio.TypedArrayHelper;
+import org.gwtproject.nio.WasmMemory;
+
+public class WasmMemoryTest extends GWTTestCase {
+
+  /*
+   * (module
+   *   (memory (export "memory") 1)
+   *   (func (export "store") (param i32 i32)
+   *     (i32.store (local.get 0) (local.get 1))))
+   */
+  private static final byte[] MODULE = {
+    0x00, 0x61, 0x73, 0x6d, 0x01, 0x00, 0x00, 0x00,
+    0x01, 0x06, 0x01, 0x60, 0x02, 0x7f, 0x7f, 0x00,
+    0x03, 0x02, 0x01, 0x00,
+    0x05, 0x03, 0x01, 0x00, 0x01,
+    0x07, 0x12, 0x02,
+    0x06, 0x6d, 0x65, 0x6d, 0x6f, 0x72, 0x79, 0x02, 0x00,
+    0x05, 0x73, 0x74, 0x6f, 0x72, 0x65, 0x00, 0x00,
+    0x0a, 0x0b, 0x01, 0x09, 0x00, 0x20, 0x00, 0x20, 0x01, 0x36, 0x02, 0x00, 0x0b
+  };
+
+  public void testModuleSeesBufferWrites() {
+    if (!WasmMemory.isSupported()) {
+      return;
+    }
+    JsPropertyMap<Object> exports = instantiate();
+    Store store = Js.uncheckedCast(exports.get("store"));
+    WasmMemory memory = WasmMemory.wrap(exports.get("memory"));
+    assertEquals(WasmMemory.PAGE_SIZE, memory.byteLength());
+
+    IntBuffer ints = memory.intBuffer(16, 4);
+    store.call(20, 0x01020304);
+    assertEquals(0x01020304, ints.get(1));
+    ByteBuffer bytes = memory.byteBuffer(16, 16);
+    assertEquals(0x01020304, bytes.getInt(4));
+    assertEquals(4, bytes.get(4));
+
+    FloatBuffer floats = memory.floatBuffer(32, 2);
+    floats.put(0, 1.5f);
+    assertEquals(1.5f, memory.byteBuffer(32, 4).getFloat(0), 0f);
+  }
+
+  public void testBuffersRebindAfterGrow() {
+    if (!WasmMemory.isSupported()) {
+      return;
+    }
+    JsPropertyMap<Object> exports = instantiate();
+    Store store = Js.uncheckedCast(exports.get("store"));
+    WasmMemory memory = WasmMemory.wrap(exports.get("memory"));
+    ByteBuffer bytes = memory.byteBuffer(0, 8);
+    IntBuffer ints = memory.intBuffer(0, 2);
+    ByteBuffer stale = TypedArrayHelper.wrap(memory.getArrayBuffer(), 0, 8);
+    bytes.putInt(0, 42);
+
+    assertEquals(1, memory.grow(1));
+    assertEquals(2 * WasmMemory.PAGE_SIZE, memory.byteLength());
+    assertEquals(42, ints.get(0));
+    store.call(4, 43);
+    assertEquals(43, bytes.getInt(4));
+    assertTrue(memory.isCurrent(bytes));
+    assertTrue(memory.isCurrent(ints));
+    assertTrue(memory.isCurrent(memory.byteBuffer(WasmMemory.PAGE_SIZE, 8)));
+
+    assertFalse(memory.isCurrent(stale));
+    try {
+      stale.get(0);
+      fail("Should throw Exception");
+    } catch (DetachedBufferException e) {
+      // expected
+    }
+  }
+
+  public void testAllocate() {
+    if (!WasmMemory.isSupported()) {
+      return;
+    }
+    WasmMemory memory = WasmMemory.allocate(1, 2);
+    assertEquals(WasmMemory.PAGE_SIZE, memory.byteLength());
+    assertEquals(memory.getArrayBuffer(), WasmMemory.wrap(memory.getMemory()).getArrayBuffer());
+    try {
+      memory.byteBuffer(WasmMemory.PAGE_SIZE - 4, 8);
+      fail("Should throw Exception");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    try {
+      memory.intBuffer(2, 1);
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      WasmMemory.wrap(new Int8Array(8));
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private static JsPropertyMap<Object> instantiate() {
+    Int8Array bytes = new Int8Array(MODULE.length);
+    for (int i = 0; i < MODULE.length; i++) {
+      bytes.setAt(i, (double) MODULE[i]);
+    }
+    return new Instance(new Module(bytes), JsPropertyMap.of()).exports;
+  }
+
+  @JsFunction
+  private interface Store {
+    void call(int address, int value);
+  }
+
+  @JsType(isNative = true, namespace = "WebAssembly")
+  private static class Module {
+    public Module(Int8Array bytes) {}
+  }
+
+  @JsType(isNative = true, namespace = "WebAssembly")
+  private static class Instance {
+    public JsPropertyMap<Object> exports;
+
+    public Instance(Module module, JsPropertyMap<Object> imports) {}
+  }
+
+  @Override
+  public String getModuleName() {
+    return "org.gwtproject.nio.NIOTest";
+  }
+}
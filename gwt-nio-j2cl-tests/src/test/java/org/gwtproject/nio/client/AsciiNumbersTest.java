@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.google.j2cl.junit.apt.J2clTestInput;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import org.gwtproject.nio.AsciiNumbers;
+import org.junit.Test;
+
+@J2clTestInput(AsciiNumbersTest.class)
+public class AsciiNumbersTest {
+
+  private static ByteBuffer ascii(String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.ISO_8859_1);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return buffer;
+  }
+
+  private static String written(ByteBuffer buffer) {
+    buffer.flip();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.ISO_8859_1);
+  }
+
+  @Test
+  public void testParseCsvLine() {
+    ByteBuffer line = ascii("1700000000123,-42,3.25,+7");
+    assertEquals(1700000000123L, AsciiNumbers.parseLong(line));
+    assertEquals(',', line.get());
+    assertEquals(-42, AsciiNumbers.parseInt(line));
+    assertEquals(',', line.get());
+    assertEquals(3.25, AsciiNumbers.parseDouble(line), 0);
+    assertEquals(',', line.get());
+    assertEquals(7, AsciiNumbers.parseInt(line));
+    assertEquals(line.limit(), line.position());
+  }
+
+  @Test
+  public void testParseCharBuffer() {
+    CharBuffer line = CharBuffer.wrap("12;-0.5e1");
+    assertEquals(12, AsciiNumbers.parseInt(line));
+    line.get();
+    assertEquals(-5, AsciiNumbers.parseDouble(line), 0);
+  }
+
+  @Test
+  public void testParseIntLimits() {
+    assertEquals(Integer.MAX_VALUE, AsciiNumbers.parseInt(ascii("2147483647")));
+    assertEquals(Integer.MIN_VALUE, AsciiNumbers.parseInt(ascii("-2147483648")));
+    assertEquals(Long.MAX_VALUE, AsciiNumbers.parseLong(ascii("9223372036854775807")));
+    assertEquals(Long.MIN_VALUE, AsciiNumbers.parseLong(ascii("-9223372036854775808")));
+    assertInvalidInt("2147483648");
+    assertInvalidInt("-");
+    assertInvalidInt("x1");
+    try {
+      AsciiNumbers.parseLong(ascii("9223372036854775808"));
+      fail();
+    } catch (NumberFormatException e) {
+      // expected
+    }
+  }
+
+  private static void assertInvalidInt(String s) {
+    ByteBuffer buffer = ascii(s);
+    try {
+      AsciiNumbers.parseInt(buffer);
+      fail(s);
+    } catch (NumberFormatException e) {
+      assertEquals(0, buffer.position());
+    }
+  }
+
+  @Test
+  public void testParseDouble() {
+    String[] numbers = {
+      "0", "-0", "0.1", ".5", "1.", "123456.789", "1e10", "1E-5", "2.5e+3", "0.000001234",
+      "1.7976931348623157e308", "4.9e-324", "3.141592653589793238", "123456789012345678901",
+      "100000000000000000000000", "9007199254740993", "NaN", "-Infinity"
+    };
+    for (String number : numbers) {
+      ByteBuffer buffer = ascii(number);
+      assertEquals(number, Double.parseDouble(number), AsciiNumbers.parseDouble(buffer), 0);
+      assertEquals(number, buffer.limit(), buffer.position());
+    }
+    double negativeZero = AsciiNumbers.parseDouble(ascii("-0"));
+    assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(negativeZero));
+  }
+
+  @Test
+  public void testParseDoubleStopsAtDelimiter() {
+    ByteBuffer buffer = ascii("1.5e;2");
+    assertEquals(1.5, AsciiNumbers.parseDouble(buffer), 0);
+    assertEquals(3, buffer.position());
+
+    buffer = ascii(".;");
+    try {
+      AsciiNumbers.parseDouble(buffer);
+      fail();
+    } catch (NumberFormatException e) {
+      assertEquals(0, buffer.position());
+    }
+  }
+
+  @Test
+  public void testPutAsciiInt() {
+    int[] values = {0, 7, -7, 10, 123456, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    for (int value : values) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+      assertEquals(Integer.toString(value), written(AsciiNumbers.putAsciiInt(buffer, value)));
+    }
+    long[] longs = {10000000000L, Long.MAX_VALUE, Long.MIN_VALUE};
+    for (long value : longs) {
+      ByteBuffer buffer = ByteBuffer.allocate(32);
+      assertEquals(Long.toString(value), written(AsciiNumbers.putAsciiLong(buffer, value)));
+    }
+  }
+
+  @Test
+  public void testPutAsciiDouble() {
+    double[] values = {0, 1, -42, 9999999, 1.5, -2.25, 0.1, Double.NaN};
+    String[] expected = {"0.0", "1.0", "-42.0", "9999999.0", "1.5", "-2.25", "0.1", "NaN"};
+    for (int i = 0; i < values.length; i++) {
+      ByteBuffer buffer = ByteBuffer.allocate(32);
+      assertEquals(expected[i], written(AsciiNumbers.putAsciiDouble(buffer, values[i])));
+    }
+  }
+
+  @Test
+  public void testPutAsciiDoubleFixed() {
+    assertEquals("12.50", written(AsciiNumbers.putAsciiDouble(ByteBuffer.allocate(16), 12.5, 2)));
+    assertEquals("-0.001", written(AsciiNumbers.putAsciiDouble(ByteBuffer.allocate(16), -1e-3, 3)));
+    assertEquals("0.00", written(AsciiNumbers.putAsciiDouble(ByteBuffer.allocate(16), -1e-4, 2)));
+    assertEquals("3", written(AsciiNumbers.putAsciiDouble(ByteBuffer.allocate(16), 2.5, 0)));
+    assertEquals("Infinity",
+        written(AsciiNumbers.putAsciiDouble(ByteBuffer.allocate(16), Double.POSITIVE_INFINITY, 2)));
+  }
+
+  @Test
+  public void testPutOverflow() {
+    ByteBuffer buffer = ByteBuffer.allocate(3);
+    buffer.put((byte) 'x');
+    try {
+      AsciiNumbers.putAsciiInt(buffer, -100);
+      fail();
+    } catch (BufferOverflowException e) {
+      assertEquals(1, buffer.position());
+      assertEquals(0, buffer.get(1));
+    }
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.google.j2cl.junit.apt.J2clTestInput;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import org.gwtproject.nio.BinaryReader;
+import org.gwtproject.nio.BinaryWriter;
+import org.gwtproject.nio.ByteBufferBuilder;
+import org.gwtproject.nio.StringCache;
+import org.junit.Test;
+
+@J2clTestInput(BinaryReaderWriterTest.class)
+public class BinaryReaderWriterTest {
+
+  private static byte[] written(BinaryWriter writer) {
+    ByteBuffer buffer = writer.sync();
+    buffer.flip();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private static byte[] bytes(int... values) {
+    byte[] bytes = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      bytes[i] = (byte) values[i];
+    }
+    return bytes;
+  }
+
+  private static BinaryReader reader(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return new BinaryReader(buffer);
+  }
+
+  @Test
+  public void testVarintEncoding() {
+    BinaryWriter writer = new BinaryWriter(ByteBuffer.allocateDirect(32));
+    writer.writeVarint32(1).writeVarint32(150).writeVarint32(-1);
+    assertArrayEquals(bytes(0x01, 0x96, 0x01, 0xff, 0xff, 0xff, 0xff, 0x0f), written(writer));
+
+    writer = new BinaryWriter(ByteBuffer.allocate(32));
+    writer.writeVarint64(-1L);
+    assertArrayEquals(
+        bytes(0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0x01), written(writer));
+  }
+
+  @Test
+  public void testVarintDecoding() {
+    BinaryReader reader =
+        reader(bytes(0x96, 0x01, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0x01));
+    assertEquals(150, reader.readVarint32());
+    assertEquals(-1, reader.readVarint32());
+    assertFalse(reader.hasRemaining());
+
+    long[] values = {0, 127, 128, 1L << 28, 1L << 35, Long.MAX_VALUE, Long.MIN_VALUE, -2};
+    BinaryWriter writer = new BinaryWriter(ByteBuffer.allocate(128));
+    for (long value : values) {
+      writer.writeVarint64(value);
+    }
+    reader = reader(written(writer));
+    for (long value : values) {
+      assertEquals(value, reader.readVarint64());
+    }
+  }
+
+  @Test
+  public void testZigZag() {
+    BinaryWriter writer = new BinaryWriter(ByteBuffer.allocate(64));
+    writer.writeZigZag32(0).writeZigZag32(-1).writeZigZag32(1).writeZigZag32(-2);
+    assertArrayEquals(bytes(0, 1, 2, 3), written(writer));
+
+    int[] ints = {Integer.MIN_VALUE, Integer.MAX_VALUE, -300};
+    long[] longs = {Long.MIN_VALUE, Long.MAX_VALUE, -300L};
+    writer = new BinaryWriter(ByteBuffer.allocate(64));
+    for (int i = 0; i < ints.length; i++) {
+      writer.writeZigZag32(ints[i]).writeZigZag64(longs[i]);
+    }
+    BinaryReader reader = reader(written(writer));
+    for (int i = 0; i < ints.length; i++) {
+      assertEquals(ints[i], reader.readZigZag32());
+      assertEquals(longs[i], reader.readZigZag64());
+    }
+  }
+
+  @Test
+  public void testFixedWidth() {
+    BinaryWriter writer = new BinaryWriter(ByteBuffer.allocateDirect(64));
+    writer.writeFixed32(0x01020304).writeFixed64(0x0102030405060708L);
+    writer.writeFloat(1.5f).writeDouble(-2.25).writeByte(7);
+    byte[] bytes = written(writer);
+    assertEquals(4, bytes[0]);
+    assertEquals(8, bytes[4]);
+
+    BinaryReader reader = reader(bytes);
+    assertEquals(0x01020304, reader.readFixed32());
+    assertEquals(0x0102030405060708L, reader.readFixed64());
+    assertEquals(1.5f, reader.readFloat(), 0);
+    assertEquals(-2.25, reader.readDouble(), 0);
+    assertEquals(7, reader.readByte());
+  }
+
+  @Test
+  public void testLengthDelimited() {
+    BinaryWriter writer = new BinaryWriter(ByteBuffer.allocateDirect(64));
+    writer.writeString("Zoë 😀 \ud800").writeBytes(ByteBuffer.wrap(bytes(1, 2, 3)));
+    writer.writeString("");
+
+    ByteBuffer buffer = writer.sync();
+    buffer.flip();
+    BinaryReader reader = new BinaryReader(buffer);
+    assertEquals("Zoë 😀 ?", reader.readString());
+    ByteBuffer nested = reader.readBytes();
+    assertEquals(3, nested.remaining());
+    assertEquals(2, nested.get(1));
+    buffer.put(reader.position() - 2, (byte) 9);
+    assertEquals(9, nested.get(1));
+    assertEquals("", reader.readString());
+    assertEquals(0, buffer.position());
+    reader.sync();
+    assertEquals(buffer.limit(), buffer.position());
+  }
+
+  @Test
+  public void testStringCache() {
+    BinaryWriter writer = new BinaryWriter(ByteBuffer.allocate(64));
+    writer.writeString("key").writeString("key");
+    BinaryReader reader = reader(written(writer));
+    StringCache cache = new StringCache(16);
+    assertSame(reader.readString(cache), reader.readString(cache));
+  }
+
+  @Test
+  public void testReaderStartsAtPosition() {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes(0xff, 0x05, 0x06));
+    buffer.position(1);
+    BinaryReader reader = new BinaryReader(buffer);
+    assertEquals(5, reader.readVarint32());
+    assertEquals(2, reader.position());
+    assertEquals(1, reader.remaining());
+    reader.skip(1);
+    assertEquals(3, reader.sync().position());
+  }
+
+  @Test
+  public void testTruncated() {
+    BinaryReader reader = reader(bytes(0x80, 0x80));
+    try {
+      reader.readVarint32();
+      fail();
+    } catch (BufferUnderflowException e) {
+      // expected
+    }
+    reader = reader(bytes(0x05, 1, 2));
+    try {
+      reader.readBytes();
+      fail();
+    } catch (BufferUnderflowException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testFixedBufferOverflow() {
+    BinaryWriter writer = new BinaryWriter(ByteBuffer.allocate(3));
+    writer.writeByte(1);
+    try {
+      writer.writeFixed32(1);
+      fail();
+    } catch (BufferOverflowException e) {
+      assertEquals(1, writer.position());
+    }
+  }
+
+  @Test
+  public void testExactlySizedBuffer() {
+    // 2 + 6 + (1 + 3) + (1 + 6) bytes
+    ByteBuffer buffer = ByteBuffer.allocate(19);
+    BinaryWriter writer = new BinaryWriter(buffer);
+    writer.writeVarint32(300).writeVarint64(1L << 40);
+    writer.writeBytes(ByteBuffer.wrap(bytes(1, 2, 3))).writeString("héllo");
+    assertEquals(19, writer.position());
+
+    BinaryReader reader = reader(written(writer));
+    assertEquals(300, reader.readVarint32());
+    assertEquals(1L << 40, reader.readVarint64());
+    assertEquals(3, reader.readBytes().remaining());
+    assertEquals("héllo", reader.readString());
+  }
+
+  @Test
+  public void testGrowingWriter() {
+    BinaryWriter writer = new BinaryWriter(new ByteBufferBuilder(4));
+    for (int i = 0; i < 1000; i++) {
+      writer.writeVarint32(i).writeString("item " + i);
+    }
+    ByteBuffer message = writer.build();
+    BinaryReader reader = new BinaryReader(message);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, reader.readVarint32());
+      assertEquals("item " + i, reader.readString());
+    }
+    assertFalse(reader.hasRemaining());
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.google.j2cl.junit.apt.J2clTestInput;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import org.gwtproject.nio.BinaryToText;
+import org.junit.Test;
+
+@J2clTestInput(BinaryToTextTest.class)
+public class BinaryToTextTest {
+
+  private static final String[][] BASE64 = {
+    {"", ""},
+    {"f", "Zg=="},
+    {"fo", "Zm8="},
+    {"foo", "Zm9v"},
+    {"foob", "Zm9vYg=="},
+    {"fooba", "Zm9vYmE="},
+    {"foobar", "Zm9vYmFy"}
+  };
+
+  private static ByteBuffer direct(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return buffer;
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+    buffer.flip();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private static byte[] allBytes() {
+    byte[] bytes = new byte[256];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+
+  @Test
+  public void testEncodeBase64() {
+    for (String[] vector : BASE64) {
+      byte[] bytes = vector[0].getBytes(StandardCharsets.ISO_8859_1);
+      ByteBuffer buffer = direct(bytes);
+      assertEquals(vector[1], BinaryToText.encodeBase64(buffer));
+      assertEquals(buffer.limit(), buffer.position());
+      assertEquals(vector[1], BinaryToText.encodeBase64(ByteBuffer.wrap(bytes)));
+    }
+  }
+
+  @Test
+  public void testDecodeBase64() {
+    for (String[] vector : BASE64) {
+      byte[] bytes = vector[0].getBytes(StandardCharsets.ISO_8859_1);
+      ByteBuffer direct = ByteBuffer.allocateDirect(8);
+      assertArrayEquals(bytes, toArray(BinaryToText.decodeBase64(vector[1], direct)));
+      ByteBuffer heap = ByteBuffer.allocate(8);
+      assertArrayEquals(bytes, toArray(BinaryToText.decodeBase64(vector[1], heap)));
+    }
+  }
+
+  @Test
+  public void testBase64RoundTrip() {
+    byte[] bytes = allBytes();
+    ByteBuffer source = direct(bytes);
+    source.position(1);
+    String encoded = BinaryToText.encodeBase64(source);
+    ByteBuffer decoded = ByteBuffer.allocateDirect(300);
+    decoded.put((byte) 7);
+    BinaryToText.decodeBase64(encoded, decoded);
+    assertEquals(256, decoded.position());
+    byte[] result = toArray(decoded);
+    assertEquals(7, result[0]);
+    for (int i = 1; i < 256; i++) {
+      assertEquals(bytes[i], result[i]);
+    }
+  }
+
+  @Test
+  public void testDecodeBase64Loose() {
+    ByteBuffer buffer = ByteBuffer.allocate(8);
+    BinaryToText.decodeBase64(" Zm9v\nYmE ", buffer);
+    assertArrayEquals("fooba".getBytes(StandardCharsets.ISO_8859_1), toArray(buffer));
+  }
+
+  @Test
+  public void testDecodeBase64Invalid() {
+    String[] invalid = {"Zm9v!", "Z", "Zg=", "Zg==Zg==", "Zm-v", "QUFB====", "Zg======"};
+    for (String text : invalid) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+      try {
+        BinaryToText.decodeBase64(text, buffer);
+        fail(text);
+      } catch (IllegalArgumentException e) {
+        assertEquals(0, buffer.position());
+      }
+    }
+  }
+
+  @Test
+  public void testEncodeBase64ToCharBuffer() {
+    CharBuffer chars = CharBuffer.allocate(8);
+    BinaryToText.encodeBase64(ByteBuffer.wrap(new byte[] {'f', 'o'}), chars);
+    chars.flip();
+    assertEquals("Zm8=", chars.toString());
+
+    ByteBuffer source = ByteBuffer.wrap(new byte[9]);
+    try {
+      BinaryToText.encodeBase64(source, CharBuffer.allocate(11));
+      fail();
+    } catch (BufferOverflowException e) {
+      assertEquals(0, source.position());
+    }
+  }
+
+  @Test
+  public void testHex() {
+    byte[] bytes = {0, 1, 0x7f, (byte) 0x80, (byte) 0xab, (byte) 0xff};
+    assertEquals("00017f80abff", BinaryToText.encodeHex(direct(bytes)));
+    assertEquals("00017f80abff", BinaryToText.encodeHex(ByteBuffer.wrap(bytes)));
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(6);
+    assertArrayEquals(bytes, toArray(BinaryToText.decodeHex("00017F80abFF", direct)));
+    ByteBuffer heap = ByteBuffer.allocate(6);
+    assertArrayEquals(bytes, toArray(BinaryToText.decodeHex("00017f80abff", heap)));
+
+    ByteBuffer all = direct(allBytes());
+    String hex = BinaryToText.encodeHex(all);
+    assertArrayEquals(allBytes(), toArray(BinaryToText.decodeHex(hex, ByteBuffer.allocate(256))));
+  }
+
+  @Test
+  public void testDecodeHexInvalid() {
+    String[] invalid = {"0", "0g", "é0"};
+    for (String text : invalid) {
+      try {
+        BinaryToText.decodeHex(text, ByteBuffer.allocateDirect(4));
+        fail(text);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+    try {
+      BinaryToText.decodeHex("0000", ByteBuffer.allocate(1));
+      fail();
+    } catch (BufferOverflowException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.google.j2cl.junit.apt.J2clTestInput;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import org.gwtproject.nio.BufferCursor;
+import org.junit.Test;
+
+@J2clTestInput(BufferCursorTest.class)
+public class BufferCursorTest {
+
+  private static final int RECORD = 1 + 2 + 2 + 4 + 8 + 4 + 8;
+
+  private static ByteBuffer[] buffers() {
+    return new ByteBuffer[] {
+      ByteBuffer.allocateDirect(64),
+      ByteBuffer.allocateDirect(64).order(ByteOrder.LITTLE_ENDIAN),
+      ByteBuffer.allocate(64),
+      ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN)
+    };
+  }
+
+  private static void writeRecord(BufferCursor cursor, int n) {
+    cursor
+        .put((byte) n)
+        .putShort((short) -n)
+        .putChar('€')
+        .putInt(0x01020304 * n)
+        .putLong(0x0102030405060708L * n)
+        .putFloat(n + 0.5f)
+        .putDouble(-n - 0.25);
+  }
+
+  @Test
+  public void testWriteMatchesRelativePuts() {
+    for (ByteBuffer buffer : buffers()) {
+      BufferCursor cursor = new BufferCursor(buffer);
+      buffer.position(3);
+      writeRecord(cursor.beginWrite(RECORD), 3);
+      assertEquals(0, cursor.remaining());
+      assertEquals(3, buffer.position());
+      cursor.commit();
+      assertEquals(3 + RECORD, buffer.position());
+
+      buffer.position(3);
+      assertEquals(3, buffer.get());
+      assertEquals(-3, buffer.getShort());
+      assertEquals('€', buffer.getChar());
+      assertEquals(0x01020304 * 3, buffer.getInt());
+      assertEquals(0x0102030405060708L * 3, buffer.getLong());
+      assertEquals(3.5f, buffer.getFloat(), 0);
+      assertEquals(-3.25, buffer.getDouble(), 0);
+    }
+  }
+
+  @Test
+  public void testReadMatchesRelativeGets() {
+    for (ByteBuffer buffer : buffers()) {
+      buffer.position(5);
+      buffer.put((byte) 7).putShort((short) -7).putChar('é').putInt(-123456789);
+      buffer.putLong(Long.MIN_VALUE + 7).putFloat(7.5f).putDouble(-7.25);
+      buffer.position(5);
+
+      BufferCursor cursor = new BufferCursor(buffer).beginRead(RECORD);
+      assertEquals(7, cursor.get());
+      assertEquals(-7, cursor.getShort());
+      assertEquals('é', cursor.getChar());
+      assertEquals(-123456789, cursor.getInt());
+      assertEquals(Long.MIN_VALUE + 7, cursor.getLong());
+      assertEquals(7.5f, cursor.getFloat(), 0);
+      assertEquals(-7.25, cursor.getDouble(), 0);
+      assertEquals(5 + RECORD, cursor.commit().position());
+    }
+  }
+
+  @Test
+  public void testManyRecords() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD * 100);
+    BufferCursor cursor = new BufferCursor(buffer);
+    for (int i = 0; i < 100; i++) {
+      writeRecord(cursor.beginWrite(RECORD), i);
+      cursor.commit();
+    }
+    buffer.flip();
+    for (int i = 0; i < 100; i++) {
+      cursor.beginRead(RECORD).skip(3);
+      assertEquals('€', cursor.getChar());
+      assertEquals(0x01020304 * i, cursor.getInt());
+      cursor.commit();
+      buffer.position(buffer.position() + RECORD - 9);
+    }
+    assertEquals(buffer.limit(), buffer.position());
+  }
+
+  @Test
+  public void testPartialCommit() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+    BufferCursor cursor = new BufferCursor(buffer);
+    cursor.beginWrite(16).putInt(1);
+    assertEquals(12, cursor.remaining());
+    assertEquals(4, cursor.commit().position());
+    assertEquals(0, cursor.remaining());
+  }
+
+  @Test
+  public void testReservationChecks() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+    buffer.position(4);
+    BufferCursor cursor = new BufferCursor(buffer);
+    try {
+      cursor.beginWrite(5);
+      fail();
+    } catch (BufferOverflowException e) {
+      // expected
+    }
+    try {
+      cursor.beginRead(5);
+      fail();
+    } catch (BufferUnderflowException e) {
+      // expected
+    }
+    try {
+      new BufferCursor(buffer.asReadOnlyBuffer()).beginWrite(4);
+      fail();
+    } catch (ReadOnlyBufferException e) {
+      // expected
+    }
+    cursor.beginRead(4);
+    try {
+      cursor.beginRead(4);
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    cursor.commit();
+    try {
+      cursor.commit();
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+}
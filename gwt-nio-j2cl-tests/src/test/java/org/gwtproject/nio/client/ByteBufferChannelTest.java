@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import com.google.j2cl.junit.apt.J2clTestInput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import org.gwtproject.nio.ByteBufferChannel;
+import org.junit.Test;
+
+@J2clTestInput(ByteBufferChannelTest.class)
+public class ByteBufferChannelTest {
+
+  @Test
+  public void testWriteGrowsAndReadBack() throws IOException {
+    ByteBufferChannel channel = new ByteBufferChannel(4);
+    ByteBuffer src = ByteBuffer.allocateDirect(10);
+    for (int i = 0; i < 10; i++) {
+      src.put(i, (byte) (i + 1));
+    }
+    assertEquals(10, channel.write(src));
+    assertEquals(10, channel.size());
+    assertEquals(10, channel.position());
+    assertEquals(-1, channel.read(ByteBuffer.allocateDirect(4)));
+
+    channel.position(3);
+    ByteBuffer dst = ByteBuffer.allocateDirect(4);
+    assertEquals(4, channel.read(dst));
+    assertEquals(4, dst.get(0));
+    assertEquals(7, dst.get(3));
+    assertEquals(7, channel.position());
+
+    ByteBuffer content = channel.toByteBuffer();
+    assertEquals(10, content.remaining());
+    assertEquals(10, content.get(9));
+  }
+
+  @Test
+  public void testGapAfterTruncateIsZeroed() throws IOException {
+    ByteBufferChannel channel = new ByteBufferChannel();
+    channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6}));
+    channel.truncate(2);
+    assertEquals(2, channel.size());
+    assertEquals(2, channel.position());
+    channel.position(4);
+    channel.write(ByteBuffer.wrap(new byte[] {9}));
+    ByteBuffer content = channel.toByteBuffer();
+    assertEquals(5, content.remaining());
+    assertEquals(0, content.get(2));
+    assertEquals(0, content.get(3));
+    assertEquals(9, content.get(4));
+  }
+
+  @Test
+  public void testScatterGather() throws IOException {
+    ByteBufferChannel channel = new ByteBufferChannel();
+    ByteBuffer[] srcs = {
+      ByteBuffer.wrap(new byte[] {1, 2}),
+      ByteBuffer.allocateDirect(3),
+      ByteBuffer.wrap(new byte[] {3})
+    };
+    assertEquals(6, channel.write(srcs));
+    channel.position(0);
+    ByteBuffer[] dsts = {ByteBuffer.allocate(4), ByteBuffer.allocateDirect(4)};
+    assertEquals(6, channel.read(dsts));
+    assertEquals(4, dsts[0].position());
+    assertEquals(2, dsts[1].position());
+    assertEquals(3, dsts[1].get(1));
+    assertEquals(-1, channel.read(dsts));
+  }
+
+  @Test
+  public void testWrap() throws IOException {
+    ByteBuffer content = ByteBuffer.allocateDirect(8);
+    content.position(2);
+    ByteBufferChannel channel = ByteBufferChannel.wrap(content);
+    assertEquals(6, channel.size());
+    channel.write(ByteBuffer.wrap(new byte[] {7}));
+    assertEquals(7, content.get(2));
+
+    ByteBufferChannel readOnly = ByteBufferChannel.wrap(content.asReadOnlyBuffer());
+    try {
+      readOnly.write(ByteBuffer.allocate(1));
+      fail("Should throw Exception");
+    } catch (NonWritableChannelException e) {
+      // expected
+    }
+    readOnly.close();
+    assertFalse(readOnly.isOpen());
+    try {
+      readOnly.read(ByteBuffer.allocate(1));
+      fail("Should throw Exception");
+    } catch (ClosedChannelException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testStreams() throws IOException {
+    ByteBufferChannel channel = new ByteBufferChannel();
+    OutputStream out = Channels.newOutputStream(channel);
+    out.write(1);
+    out.write(new byte[] {2, 3, 4}, 1, 2);
+    assertEquals(3, channel.size());
+
+    channel.position(0);
+    InputStream in = Channels.newInputStream(channel);
+    assertEquals(3, in.available());
+    assertEquals(1, in.read());
+    byte[] bytes = new byte[4];
+    assertEquals(2, in.read(bytes, 1, 3));
+    assertEquals(4, bytes[2]);
+    assertEquals(-1, in.read());
+    in.close();
+    assertFalse(channel.isOpen());
+  }
+
+  @Test
+  public void testStreamChannels() throws IOException {
+    ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(new byte[] {5, 6, 7}));
+    ByteBuffer direct = ByteBuffer.allocateDirect(2);
+    assertEquals(2, in.read(direct));
+    ByteBuffer heap = ByteBuffer.allocate(2);
+    assertEquals(1, in.read(heap));
+    assertEquals(7, heap.get(0));
+    assertEquals(-1, in.read(heap));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    WritableByteChannel out = Channels.newChannel(bytes);
+    direct.flip();
+    assertEquals(2, out.write(direct));
+    assertEquals(1, out.write(ByteBuffer.wrap(new byte[] {8})));
+    assertEquals(3, bytes.size());
+    assertEquals(8, bytes.toByteArray()[2]);
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.google.j2cl.junit.apt.J2clTestInput;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
+import org.junit.Test;
+
+@J2clTestInput(CharBufferStringTest.class)
+public class CharBufferStringTest {
+
+  private static final String TEXT = "Zoë paid 12 € for 😀, \ud800 stays unpaired";
+
+  private static String longText() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; builder.length() < 20000; i++) {
+      builder.append(TEXT).append(i);
+    }
+    return builder.toString();
+  }
+
+  private static CharBuffer direct(int capacity, ByteOrder order) {
+    return ByteBuffer.allocateDirect(capacity * 2).order(order).asCharBuffer();
+  }
+
+  private static void assertRoundTrip(CharBuffer buffer, String s) {
+    buffer.put(s);
+    assertEquals(s.length(), buffer.position());
+    buffer.flip();
+    assertEquals(s, buffer.toString());
+    assertEquals(0, buffer.position());
+
+    char[] chars = new char[s.length() + 2];
+    buffer.get(chars, 1, s.length());
+    assertEquals(s.length(), buffer.position());
+    assertEquals(s, new String(chars, 1, s.length()));
+  }
+
+  @Test
+  public void testHeapBuffer() {
+    assertRoundTrip(CharBuffer.allocate(TEXT.length()), TEXT);
+    String text = longText();
+    assertRoundTrip(CharBuffer.allocate(text.length()), text);
+  }
+
+  @Test
+  public void testDirectBuffer() {
+    for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      assertRoundTrip(direct(TEXT.length(), order), TEXT);
+      String text = longText();
+      assertRoundTrip(direct(text.length(), order), text);
+    }
+  }
+
+  @Test
+  public void testDirectBufferAscii() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; builder.length() < 20000; i++) {
+      builder.append("line ").append(i).append('\n');
+    }
+    String text = builder.toString();
+    CharBuffer buffer = direct(text.length() + 1, ByteOrder.nativeOrder());
+    buffer.put('é').put(text, 3, text.length());
+    buffer.flip();
+    assertEquals("é" + text.substring(3), buffer.toString());
+    assertRoundTrip(direct(text.length(), ByteOrder.BIG_ENDIAN), text);
+  }
+
+  @Test
+  public void testDirectBufferOddOffset() {
+    ByteBuffer bytes = ByteBuffer.allocateDirect(TEXT.length() * 2 + 1);
+    bytes.order(ByteOrder.nativeOrder()).position(1);
+    CharBuffer buffer = bytes.slice().order(ByteOrder.nativeOrder()).asCharBuffer();
+    assertRoundTrip(buffer, TEXT);
+  }
+
+  @Test
+  public void testDirectBufferEncoding() {
+    CharBuffer buffer = direct(2, ByteOrder.BIG_ENDIAN);
+    buffer.put("€");
+    buffer.put(new char[] {'a'});
+    ByteBuffer bytes = ByteBuffer.allocate(4);
+    for (int i = 0; i < 2; i++) {
+      bytes.putChar(buffer.get(i));
+    }
+    assertArrayEquals(new byte[] {0x20, (byte) 0xac, 0, 'a'}, bytes.array());
+  }
+
+  @Test
+  public void testToStringOfRange() {
+    CharBuffer direct = direct(TEXT.length(), ByteOrder.nativeOrder());
+    direct.put(TEXT).position(4).limit(9);
+    assertEquals(TEXT.substring(4, 9), direct.toString());
+    assertEquals(4, direct.position());
+
+    CharBuffer wrapped = CharBuffer.wrap(TEXT, 4, 9);
+    assertEquals(TEXT.substring(4, 9), wrapped.toString());
+    char[] chars = new char[3];
+    wrapped.position(5);
+    wrapped.get(chars);
+    assertEquals(TEXT.substring(5, 8), new String(chars));
+  }
+
+  @Test
+  public void testPutWrappedString() {
+    CharBuffer direct = direct(TEXT.length(), ByteOrder.nativeOrder());
+    CharBuffer wrapped = CharBuffer.wrap(TEXT);
+    direct.put(wrapped);
+    assertEquals(TEXT.length(), wrapped.position());
+    direct.flip();
+    assertEquals(TEXT, direct.toString());
+  }
+
+  @Test
+  public void testPutPartialString() {
+    CharBuffer heap = CharBuffer.allocate(8);
+    heap.put(TEXT, 4, 8);
+    assertEquals(4, heap.position());
+    heap.flip();
+    assertEquals(TEXT.substring(4, 8), heap.toString());
+
+    CharBuffer direct = direct(8, ByteOrder.nativeOrder());
+    direct.put(TEXT, 4, 8);
+    direct.flip();
+    assertEquals(TEXT.substring(4, 8), direct.toString());
+  }
+
+  @Test
+  public void testPutReadOnly() {
+    CharBuffer buffer = direct(4, ByteOrder.nativeOrder()).asReadOnlyBuffer();
+    try {
+      buffer.put("ab");
+      fail();
+    } catch (ReadOnlyBufferException e) {
+      // expected
+    }
+    try {
+      buffer.put(new char[] {'a'});
+      fail();
+    } catch (ReadOnlyBufferException e) {
+      // expected
+    }
+  }
+}
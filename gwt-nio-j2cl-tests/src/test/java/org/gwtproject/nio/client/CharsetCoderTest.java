@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.j2cl.junit.apt.J2clTestInput;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnmappableCharacterException;
+import org.gwtproject.nio.Charsets;
+import org.junit.Test;
+
+@J2clTestInput(CharsetCoderTest.class)
+public class CharsetCoderTest {
+
+  private static final String TEXT =
+      "{\"name\": \"Zoë\", \"price\": \"12 €\", \"tag\": \"😀\"}";
+
+  private static ByteBuffer direct(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return buffer;
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private static byte[] utf8(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testUtf8RoundTrip() throws CharacterCodingException {
+    String text = TEXT + TEXT + TEXT;
+    byte[] expected = utf8(text);
+    ByteBuffer encoded = Charsets.newEncoder(StandardCharsets.UTF_8).encode(CharBuffer.wrap(text));
+    assertArrayEquals(expected, toArray(encoded));
+
+    CharsetDecoder decoder = Charsets.newDecoder(StandardCharsets.UTF_8);
+    assertEquals(text, decoder.decode(direct(expected)).toString());
+    assertEquals(text, decoder.decode(ByteBuffer.wrap(expected)).toString());
+  }
+
+  @Test
+  public void testUtf8EncodeIntoDirectBuffer() {
+    String text = TEXT + TEXT;
+    byte[] expected = utf8(text);
+    CharsetEncoder encoder = Charsets.newEncoder(StandardCharsets.UTF_8);
+    ByteBuffer out = ByteBuffer.allocateDirect(expected.length);
+    CharBuffer in = CharBuffer.wrap(text);
+    assertTrue(encoder.encode(in, out, true).isUnderflow());
+    assertTrue(encoder.flush(out).isUnderflow());
+    assertFalse(in.hasRemaining());
+    out.flip();
+    assertEquals(expected.length, out.remaining());
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], out.get(i));
+    }
+  }
+
+  @Test
+  public void testStreamingDecode() {
+    String text = TEXT + TEXT;
+    byte[] bytes = utf8(text);
+    CharsetDecoder decoder = Charsets.newDecoder(StandardCharsets.UTF_8);
+    ByteBuffer in = ByteBuffer.allocateDirect(5);
+    CharBuffer out = CharBuffer.allocate(bytes.length);
+    for (int i = 0; i < bytes.length; i++) {
+      in.put(bytes[i]);
+      in.flip();
+      assertTrue(decoder.decode(in, out, false).isUnderflow());
+      in.compact();
+    }
+    in.flip();
+    assertTrue(decoder.decode(in, out, true).isUnderflow());
+    assertTrue(decoder.flush(out).isUnderflow());
+    out.flip();
+    assertEquals(text, out.toString());
+  }
+
+  @Test
+  public void testOverflow() {
+    CharsetEncoder encoder = Charsets.newEncoder(StandardCharsets.UTF_8);
+    CharBuffer in = CharBuffer.wrap("a😀");
+    ByteBuffer out = ByteBuffer.allocate(4);
+    assertTrue(encoder.encode(in, out, true).isOverflow());
+    assertEquals(1, in.position());
+    assertEquals(1, out.position());
+
+    CharsetDecoder decoder = Charsets.newDecoder(StandardCharsets.UTF_8);
+    ByteBuffer bytes = ByteBuffer.wrap(utf8("a😀"));
+    CharBuffer chars = CharBuffer.allocate(2);
+    assertTrue(decoder.decode(bytes, chars, true).isOverflow());
+    assertEquals(1, bytes.position());
+    assertEquals(1, chars.position());
+  }
+
+  @Test
+  public void testMalformedUtf8() throws CharacterCodingException {
+    byte[] bytes = {'a', (byte) 0xC3, '(', (byte) 0xE2, (byte) 0x82};
+    CharsetDecoder decoder = Charsets.newDecoder(StandardCharsets.UTF_8);
+    ByteBuffer in = ByteBuffer.wrap(bytes);
+    CoderResult result = decoder.decode(in, CharBuffer.allocate(8), false);
+    assertTrue(result.isMalformed());
+    assertEquals(1, result.length());
+    assertEquals(1, in.position());
+
+    decoder.reset().onMalformedInput(CodingErrorAction.REPLACE);
+    assertEquals("a�(�", decoder.decode(ByteBuffer.wrap(bytes)).toString());
+
+    decoder.reset().onMalformedInput(CodingErrorAction.REPORT);
+    try {
+      decoder.decode(direct(new byte[] {(byte) 0xED, (byte) 0xA0, (byte) 0x80}));
+      fail("Should throw Exception");
+    } catch (MalformedInputException e) {
+      assertEquals(1, e.getInputLength());
+    }
+  }
+
+  @Test
+  public void testLoneSurrogate() throws CharacterCodingException {
+    CharsetEncoder encoder = Charsets.newEncoder(StandardCharsets.UTF_8);
+    String text = TEXT + "\uDE00" + TEXT;
+    try {
+      encoder.encode(CharBuffer.wrap(text));
+      fail("Should throw Exception");
+    } catch (MalformedInputException e) {
+      assertEquals(1, e.getInputLength());
+    }
+    encoder.reset();
+    assertFalse(encoder.canEncode("\uD83D"));
+    assertTrue(encoder.canEncode(TEXT));
+
+    encoder.onMalformedInput(CodingErrorAction.REPLACE);
+    ByteBuffer out = ByteBuffer.allocateDirect(200);
+    assertTrue(encoder.encode(CharBuffer.wrap(text), out, true).isUnderflow());
+    out.flip();
+    byte[] expected = utf8(TEXT + "?" + TEXT);
+    assertEquals(expected.length, out.remaining());
+    assertEquals('?', out.get(utf8(TEXT).length));
+  }
+
+  @Test
+  public void testLatin1() throws CharacterCodingException {
+    CharsetDecoder decoder = Charsets.newDecoder(StandardCharsets.ISO_8859_1);
+    assertEquals("a\u0080ÿ", decoder.decode(direct(new byte[] {'a', -128, -1})).toString());
+
+    CharsetEncoder encoder = Charsets.newEncoder(StandardCharsets.ISO_8859_1);
+    assertEquals(-1, encoder.encode(CharBuffer.wrap("ÿ")).get(0));
+    assertFalse(encoder.canEncode('€'));
+    try {
+      encoder.encode(CharBuffer.wrap("a😀"));
+      fail("Should throw Exception");
+    } catch (UnmappableCharacterException e) {
+      assertEquals(2, e.getInputLength());
+    }
+  }
+
+  @Test
+  public void testUtf16() throws CharacterCodingException {
+    assertSame(Charsets.UTF_16LE, Charsets.forName("utf-16le"));
+    String text = "﻿" + TEXT + TEXT;
+
+    ByteBuffer be = Charsets.newEncoder(Charsets.UTF_16BE).encode(CharBuffer.wrap(text));
+    assertEquals(2 * text.length(), be.remaining());
+    assertEquals((byte) 0xFE, be.get(0));
+    assertEquals((byte) 0xFF, be.get(1));
+    ByteBuffer le = Charsets.newEncoder(Charsets.UTF_16LE).encode(CharBuffer.wrap(text));
+    assertEquals((byte) 0xFF, le.get(0));
+    assertEquals((byte) 0xFE, le.get(1));
+
+    CharBuffer decoded = Charsets.newDecoder(Charsets.UTF_16BE).decode(direct(toArray(be)));
+    assertEquals(text, decoded.toString());
+    assertEquals(text, Charsets.newDecoder(Charsets.UTF_16LE).decode(le).toString());
+
+    CharsetDecoder decoder = Charsets.newDecoder(Charsets.UTF_16LE);
+    ByteBuffer odd = ByteBuffer.wrap(new byte[] {'a', 0, 'b'});
+    CharBuffer out = CharBuffer.allocate(4);
+    assertTrue(decoder.decode(odd, out, false).isUnderflow());
+    assertEquals(2, odd.position());
+    CoderResult result = decoder.decode(odd, out, true);
+    assertTrue(result.isMalformed());
+    assertEquals(1, result.length());
+  }
+}
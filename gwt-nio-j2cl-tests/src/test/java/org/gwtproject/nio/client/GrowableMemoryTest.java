@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2020 The GWT Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.j2cl.junit.apt.J2clTestInput;
+import elemental2.core.ArrayBuffer;
+import elemental2.core.Int8Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import org.gwtproject.nio.BufferTransfer;
+import org.gwtproject.nio.GrowableMemory;
+import org.gwtproject.nio.TypedArrayHelper;
+import org.junit.Test;
+
+@J2clTestInput(GrowableMemoryTest.class)
+public class GrowableMemoryTest {
+
+  @Test
+  public void testBuffersRebindAfterMemoryIsReplaced() {
+    ArrayBuffer[] memory = {new ArrayBuffer(32)};
+    GrowableMemory growable = new GrowableMemory(() -> memory[0]);
+    ByteBuffer slice = growable.slice(8, 16);
+    IntBuffer ints = slice.duplicate().order(ByteOrder.nativeOrder()).asIntBuffer();
+    ByteBuffer readOnly = slice.asReadOnlyBuffer();
+    ints.put(1, 42);
+    slice.put(0, (byte) 7);
+
+    // what WebAssembly.Memory.grow() does: copy into a larger buffer and detach the old one
+    ArrayBuffer old = memory[0];
+    memory[0] = new ArrayBuffer(64);
+    new Int8Array(memory[0]).set(new Int8Array(old));
+    BufferTransfer.transfer(TypedArrayHelper.wrap(old));
+    if (old.byteLength != 0) {
+      // ArrayBuffer.prototype.transfer is not available, the old memory stays usable
+      return;
+    }
+
+    assertEquals(7, slice.get(0));
+    assertEquals(42, ints.get(1));
+    assertEquals(7, readOnly.get(0));
+    ints.put(2, 43);
+    assertEquals(43, TypedArrayHelper.wrap(memory[0]).order(ByteOrder.nativeOrder()).getInt(16));
+    assertEquals(16, slice.slice().capacity());
+    assertEquals(64, growable.asByteBuffer().capacity());
+    assertEquals(0, growable.asByteBuffer().get(40));
+  }
+
+  @Test
+  public void testResizableMemory() {
+    if (!GrowableMemory.isResizableSupported()) {
+      return;
+    }
+    GrowableMemory memory = GrowableMemory.allocate(16, 64);
+    assertTrue(memory.isResizable());
+    assertEquals(64, memory.maxByteLength());
+    ByteBuffer head = memory.slice(0, 16);
+    IntBuffer ints = head.asIntBuffer();
+    head.put(0, (byte) 1);
+
+    memory.resize(32);
+    assertEquals(32, memory.byteLength());
+    assertEquals(32, memory.asByteBuffer().capacity());
+    assertEquals(1, memory.asByteBuffer().get(0));
+    assertEquals(1, head.get(0));
+
+    memory.resize(4);
+    try {
+      head.get(0);
+      fail("Should throw Exception");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    try {
+      ints.get(0);
+      fail("Should throw Exception");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    assertFalse(BufferTransfer.isDetached(memory.asByteBuffer()));
+
+    memory.resize(16);
+    head.put(15, (byte) 2);
+    assertEquals(2, memory.asByteBuffer().get(15));
+    try {
+      memory.resize(65);
+      fail("Should throw Exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testFixedMemoryIsNotResizable() {
+    GrowableMemory memory = GrowableMemory.wrap(new ArrayBuffer(8));
+    assertFalse(memory.isResizable());
+    assertEquals(8, memory.maxByteLength());
+    try {
+      memory.resize(16);
+      fail("Should throw Exception");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    try {
+      memory.slice(4, 8);
+      fail("Should throw Exception");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testReadOnlyIntViewSharesMemory() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(16).order(ByteOrder.nativeOrder());
+    IntBuffer readOnly = buffer.asReadOnlyBuffer().order(ByteOrder.nativeOrder()).asIntBuffer();
+    assertEquals(4, readOnly.capacity());
+    buffer.putInt(8, 0x01020304);
+    assertEquals(0x01020304, readOnly.get(2));
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.struct.processor;
+
+import javax.lang.model.type.TypeKind;
+
+/** A primitive field of a struct: its accessors and its place in the record. */
+final class StructField {
+
+  final String name;
+
+  final TypeKind kind;
+
+  final String getter;
+
+  String setter;
+
+  int offset;
+
+  StructField(String name, TypeKind kind, String getter) {
+    this.name = name;
+    this.kind = kind;
+    this.getter = getter;
+  }
+
+  /** Returns the size in bytes, which is also the natural alignment. */
+  int size() {
+    switch (kind) {
+      case BOOLEAN:
+      case BYTE:
+        return 1;
+      case SHORT:
+      case CHAR:
+        return 2;
+      case INT:
+      case FLOAT:
+        return 4;
+      case LONG:
+      case DOUBLE:
+        return 8;
+      default:
+        throw new IllegalStateException(kind.toString());
+    }
+  }
+
+  /** Returns the Java type, e.g. {@code float}. */
+  String type() {
+    return kind.name().toLowerCase();
+  }
+
+  /** Returns the suffix of the StructMemory accessors, e.g. {@code Float}. */
+  String accessor() {
+    String type = type();
+    return Character.toUpperCase(type.charAt(0)) + type.substring(1);
+  }
+
+  /** Returns the name of the offset constant, e.g. {@code TEX_U_OFFSET} for {@code texU}. */
+  String constant() {
+    StringBuilder constant = new StringBuilder();
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (i > 0 && Character.isUpperCase(c)) {
+        constant.append('_');
+      }
+      constant.append(Character.toUpperCase(c));
+    }
+    return constant.append("_OFFSET").toString();
+  }
+}
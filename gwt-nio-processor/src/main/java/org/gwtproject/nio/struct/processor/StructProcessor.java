@@ -0,0 +1,251 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.struct.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code <Name>Flyweight} class for every interface annotated with {@code
+ * org.gwtproject.nio.struct.Struct}. The annotations are read by name, so the processor does not
+ * depend on gwt-nio.
+ */
+@SupportedAnnotationTypes(StructProcessor.STRUCT)
+public class StructProcessor extends AbstractProcessor {
+
+  static final String STRUCT = "org.gwtproject.nio.struct.Struct";
+
+  static final String OFFSET = "org.gwtproject.nio.struct.Offset";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (TypeElement annotation : annotations) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        try {
+          generate(element);
+        } catch (StructException e) {
+          processingEnv
+              .getMessager()
+              .printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+        }
+      }
+    }
+    return true;
+  }
+
+  private void generate(Element element) throws StructException {
+    if (element.getKind() != ElementKind.INTERFACE) {
+      throw new StructException("@Struct can only be applied to interfaces", element);
+    }
+    TypeElement type = (TypeElement) element;
+    if (!type.getTypeParameters().isEmpty()) {
+      throw new StructException("@Struct interfaces can not be generic", type);
+    }
+    if (type.getModifiers().contains(Modifier.PRIVATE)) {
+      throw new StructException("@Struct interfaces can not be private", type);
+    }
+    Map<String, Object> struct = values(annotation(type, STRUCT));
+    boolean littleEndian = (Boolean) struct.get("littleEndian");
+    boolean packed = (Boolean) struct.get("packed");
+    int declaredSize = (Integer) struct.get("size");
+
+    List<StructField> fields = fields(type);
+    int size = layout(type, fields, packed);
+    if (declaredSize != 0) {
+      if (declaredSize < size) {
+        throw new StructException("size " + declaredSize + " is less than " + size, type);
+      }
+      size = declaredSize;
+    }
+
+    StructWriter writer =
+        new StructWriter(
+            processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString(),
+            type,
+            fields,
+            size,
+            littleEndian);
+    try (Writer out =
+        processingEnv.getFiler().createSourceFile(writer.qualifiedName(), type).openWriter()) {
+      out.write(writer.source());
+    } catch (IOException e) {
+      throw new StructException("Can not write " + writer.qualifiedName() + ": " + e, type);
+    }
+  }
+
+  /**
+   * Collects the fields from the getters, in declaration order with inherited getters first, and
+   * matches their setters.
+   */
+  private List<StructField> fields(TypeElement type) throws StructException {
+    Map<String, StructField> fields = new LinkedHashMap<>();
+    List<ExecutableElement> setters = new ArrayList<>();
+    for (ExecutableElement method : methods(type)) {
+      if (!method.getModifiers().contains(Modifier.ABSTRACT)) {
+        continue;
+      }
+      String name = method.getSimpleName().toString();
+      TypeKind returnKind = method.getReturnType().getKind();
+      boolean noParameters = method.getParameters().isEmpty();
+      if (noParameters && returnKind.isPrimitive() && name.length() > 3 && name.startsWith("get")) {
+        fields.put(property(name, 3), new StructField(property(name, 3), returnKind, name));
+      } else if (noParameters
+          && returnKind == TypeKind.BOOLEAN
+          && name.length() > 2
+          && name.startsWith("is")) {
+        fields.put(property(name, 2), new StructField(property(name, 2), returnKind, name));
+      } else if (method.getParameters().size() == 1
+          && returnKind == TypeKind.VOID
+          && name.length() > 3
+          && name.startsWith("set")) {
+        setters.add(method);
+      } else {
+        throw new StructException(
+            "Struct methods must be getters or setters of primitive fields", method);
+      }
+    }
+    for (ExecutableElement setter : setters) {
+      String name = setter.getSimpleName().toString();
+      StructField field = fields.get(property(name, 3));
+      if (field == null || setter.getParameters().get(0).asType().getKind() != field.kind) {
+        throw new StructException("Setter without a getter of the same type", setter);
+      }
+      field.setter = name;
+    }
+    if (fields.isEmpty()) {
+      throw new StructException("@Struct interfaces must declare at least one getter", type);
+    }
+    return new ArrayList<>(fields.values());
+  }
+
+  /*
+   * The methods of the interface and of its superinterfaces, inherited ones first, so that the
+   * fields of a base struct keep their offsets in an extending one.
+   */
+  private static List<ExecutableElement> methods(TypeElement type) throws StructException {
+    List<ExecutableElement> methods = new ArrayList<>();
+    for (TypeMirror superinterface : type.getInterfaces()) {
+      TypeElement element = (TypeElement) ((DeclaredType) superinterface).asElement();
+      if (!element.getTypeParameters().isEmpty()) {
+        throw new StructException("@Struct interfaces can not extend generic interfaces", type);
+      }
+      methods.addAll(methods(element));
+    }
+    methods.addAll(ElementFilter.methodsIn(type.getEnclosedElements()));
+    return methods;
+  }
+
+  private static String property(String accessor, int prefixLength) {
+    return Character.toLowerCase(accessor.charAt(prefixLength))
+        + accessor.substring(prefixLength + 1);
+  }
+
+  /** Assigns the field offsets and returns the record size. */
+  private int layout(TypeElement type, List<StructField> fields, boolean packed)
+      throws StructException {
+    int offset = 0;
+    int maxAlignment = 1;
+    for (StructField field : fields) {
+      int alignment = packed ? 1 : field.size();
+      ExecutableElement getter = getter(type, field);
+      AnnotationMirror explicit = annotation(getter, OFFSET);
+      if (explicit != null) {
+        int value = (Integer) values(explicit).get("value");
+        if (value < offset) {
+          throw new StructException(
+              "Offset " + value + " overlaps the previous fields, which end at " + offset, getter);
+        }
+        if (value % alignment != 0) {
+          throw new StructException(
+              "Offset " + value + " is not aligned to " + alignment + " bytes", getter);
+        }
+        offset = value;
+      } else {
+        offset = (offset + alignment - 1) / alignment * alignment;
+      }
+      field.offset = offset;
+      offset += field.size();
+      maxAlignment = Math.max(maxAlignment, alignment);
+    }
+    return (offset + maxAlignment - 1) / maxAlignment * maxAlignment;
+  }
+
+  private static ExecutableElement getter(TypeElement type, StructField field)
+      throws StructException {
+    for (ExecutableElement method : methods(type)) {
+      if (method.getSimpleName().contentEquals(field.getter)) {
+        return method;
+      }
+    }
+    throw new IllegalStateException(field.getter);
+  }
+
+  private static AnnotationMirror annotation(Element element, String name) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+      if (annotationType.getQualifiedName().contentEquals(name)) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  private Map<String, Object> values(AnnotationMirror mirror) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+      values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+    }
+    return values;
+  }
+
+  /** A misuse of the annotations, reported as a compile error on the element. */
+  private static final class StructException extends Exception {
+
+    private final Element element;
+
+    StructException(String message, Element element) {
+      super(message);
+      this.element = element;
+    }
+  }
+}
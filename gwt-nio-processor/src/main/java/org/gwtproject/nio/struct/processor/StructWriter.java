@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.struct.processor;
+
+import java.util.List;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+
+/** Writes the source of the flyweight class of a struct. */
+final class StructWriter {
+
+  private final String packageName;
+
+  private final String interfaceName;
+
+  private final String className;
+
+  private final List<StructField> fields;
+
+  private final int size;
+
+  private final boolean littleEndian;
+
+  private final StringBuilder out = new StringBuilder();
+
+  StructWriter(
+      String packageName,
+      TypeElement type,
+      List<StructField> fields,
+      int size,
+      boolean littleEndian) {
+    this.packageName = packageName;
+    this.interfaceName = type.getQualifiedName().toString();
+    this.className = flatName(type) + "Flyweight";
+    this.fields = fields;
+    this.size = size;
+    this.littleEndian = littleEndian;
+  }
+
+  /** Returns the simple names of the enclosing types and the type, joined by '_'. */
+  private static String flatName(TypeElement type) {
+    String name = type.getSimpleName().toString();
+    Element enclosing = type.getEnclosingElement();
+    while (enclosing.getKind() != ElementKind.PACKAGE) {
+      name = enclosing.getSimpleName() + "_" + name;
+      enclosing = enclosing.getEnclosingElement();
+    }
+    return name;
+  }
+
+  String qualifiedName() {
+    return packageName.isEmpty() ? className : packageName + "." + className;
+  }
+
+  String source() {
+    if (!packageName.isEmpty()) {
+      line("package " + packageName + ";");
+      line("");
+    }
+    line("import java.nio.ByteBuffer;");
+    line("import org.gwtproject.nio.struct.StructMemory;");
+    line("");
+    line("/**");
+    line(" * Flyweight accessor of {@link " + interfaceName + "} records in a ByteBuffer.");
+    line(" *");
+    line(" * <p>Generated by the gwt-nio struct processor, do not edit.");
+    line(" */");
+    line("public final class " + className + " implements " + interfaceName + " {");
+    line("");
+    line("  /** The size of a record in bytes. */");
+    line("  public static final int SIZE = " + size + ";");
+    for (StructField field : fields) {
+      line("");
+      line("  public static final int " + field.constant() + " = " + field.offset + ";");
+    }
+    line("");
+    line("  private final StructMemory memory = new StructMemory(" + littleEndian + ");");
+    line("");
+    line("  private int base;");
+    line("");
+    line("  private int count;");
+    line("");
+    line("  private int offset;");
+    line("");
+    line("  /** Binds to the records from the position to the limit of the buffer. */");
+    line("  public " + className + " wrap(ByteBuffer buffer) {");
+    line("    return wrap(buffer, buffer.position());");
+    line("  }");
+    line("");
+    line("  /**");
+    line("   * Binds to the records from {@code baseOffset} to the limit of the buffer, and moves");
+    line("   * to the first record.");
+    line("   */");
+    line("  public " + className + " wrap(ByteBuffer buffer, int baseOffset) {");
+    line("    if (baseOffset < 0 || baseOffset > buffer.limit()) {");
+    line("      throw new IndexOutOfBoundsException();");
+    line("    }");
+    line("    memory.bind(buffer);");
+    line("    base = baseOffset;");
+    line("    count = (buffer.limit() - baseOffset) / SIZE;");
+    line("    offset = baseOffset;");
+    line("    return this;");
+    line("  }");
+    line("");
+    line("  /** Returns the number of whole records between the base offset and the limit. */");
+    line("  public int count() {");
+    line("    return count;");
+    line("  }");
+    line("");
+    line("  /** Moves to the record at {@code index}. */");
+    line("  public " + className + " at(int index) {");
+    line("    if (index < 0 || index >= count) {");
+    line("      throw new IndexOutOfBoundsException(");
+    line("          \"Index: \" + index + \", count: \" + count);");
+    line("    }");
+    line("    offset = base + index * SIZE;");
+    line("    return this;");
+    line("  }");
+    line("");
+    line("  /** Returns the byte offset of the current record in the buffer. */");
+    line("  public int offset() {");
+    line("    return offset;");
+    line("  }");
+    for (StructField field : fields) {
+      line("");
+      line("  @Override");
+      line("  public " + field.type() + " " + field.getter + "() {");
+      line("    return memory.get" + field.accessor() + "(offset + " + field.constant() + ");");
+      line("  }");
+      if (field.setter != null) {
+        line("");
+        line("  @Override");
+        line("  public void " + field.setter + "(" + field.type() + " value) {");
+        line("    memory.put" + field.accessor() + "(offset + " + field.constant() + ", value);");
+        line("  }");
+      }
+    }
+    line("}");
+    return out.toString();
+  }
+
+  private void line(String line) {
+    out.append(line).append('\n');
+  }
+}
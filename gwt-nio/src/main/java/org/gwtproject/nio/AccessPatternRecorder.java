@@ -0,0 +1,367 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import jsinterop.annotations.JsMethod;
+
+/**
+ * Records how buffers are accessed, to help choosing a data layout.
+ *
+ * <p>Buffers are recorded by wrapping them with one of the {@code wrap} methods. The returned
+ * buffer forwards every call to the wrapped one and reports it here; the wrapped buffer itself is
+ * not changed, so buffers that are not wrapped pay nothing. Views created from a recording buffer
+ * ({@code asIntBuffer()}, {@code slice()}, {@code duplicate()}, ...) report to the same recorder,
+ * with offsets translated to bytes of the originally wrapped buffer.
+ *
+ * <p>The recorder collects the read/write mix, single element vs. bulk calls, sequential vs. random
+ * accesses (an access is sequential if it starts where the previous one ended) and a histogram of
+ * accessed byte ranges. {@link #report()} renders all of it as a compact string.
+ */
+public final class AccessPatternRecorder {
+
+  private static final int DEFAULT_BUCKET_SIZE = 1024;
+
+  private static final int HOT_RANGES = 8;
+
+  private final int bucketSize;
+
+  private int[] histogram = new int[16];
+
+  private int nextOffset = -1;
+
+  private int reads;
+  private int writes;
+  private int bulkCalls;
+  private int singleCalls;
+  private int sequential;
+  private int random;
+  private double bytesRead;
+  private double bytesWritten;
+
+  /** Creates a recorder with histogram buckets of 1024 bytes. */
+  public AccessPatternRecorder() {
+    this(DEFAULT_BUCKET_SIZE);
+  }
+
+  /**
+   * Creates a recorder.
+   *
+   * @param bucketSize the width of a histogram bucket in bytes
+   */
+  public AccessPatternRecorder(int bucketSize) {
+    if (bucketSize <= 0) {
+      throw new IllegalArgumentException();
+    }
+    this.bucketSize = bucketSize;
+  }
+
+  /**
+   * Wraps {@code buffer} in a buffer that reports its accesses to this recorder. The returned
+   * buffer starts with the position, limit, mark and byte order of {@code buffer}, which should
+   * not be used directly any more. Offsets are reported relative to index 0 of {@code buffer}.
+   *
+   * @param buffer the buffer to record
+   * @return the recording buffer
+   */
+  public ByteBuffer wrap(ByteBuffer buffer) {
+    return _wrapByteBuffer(buffer, this);
+  }
+
+  /**
+   * Wraps {@code buffer} in a buffer that reports its accesses to this recorder, in bytes.
+   *
+   * @param buffer the buffer to record
+   * @return the recording buffer
+   * @see #wrap(ByteBuffer)
+   */
+  public CharBuffer wrap(CharBuffer buffer) {
+    return _wrapCharBuffer(buffer, this, 0);
+  }
+
+  /**
+   * Wraps {@code buffer} in a buffer that reports its accesses to this recorder, in bytes.
+   *
+   * @param buffer the buffer to record
+   * @return the recording buffer
+   * @see #wrap(ByteBuffer)
+   */
+  public DoubleBuffer wrap(DoubleBuffer buffer) {
+    return _wrapDoubleBuffer(buffer, this, 0);
+  }
+
+  /**
+   * Wraps {@code buffer} in a buffer that reports its accesses to this recorder, in bytes.
+   *
+   * @param buffer the buffer to record
+   * @return the recording buffer
+   * @see #wrap(ByteBuffer)
+   */
+  public FloatBuffer wrap(FloatBuffer buffer) {
+    return _wrapFloatBuffer(buffer, this, 0);
+  }
+
+  /**
+   * Wraps {@code buffer} in a buffer that reports its accesses to this recorder, in bytes.
+   *
+   * @param buffer the buffer to record
+   * @return the recording buffer
+   * @see #wrap(ByteBuffer)
+   */
+  public IntBuffer wrap(IntBuffer buffer) {
+    return _wrapIntBuffer(buffer, this, 0);
+  }
+
+  /**
+   * Wraps {@code buffer} in a buffer that reports its accesses to this recorder, in bytes.
+   *
+   * @param buffer the buffer to record
+   * @return the recording buffer
+   * @see #wrap(ByteBuffer)
+   */
+  public LongBuffer wrap(LongBuffer buffer) {
+    return _wrapLongBuffer(buffer, this, 0);
+  }
+
+  /**
+   * Wraps {@code buffer} in a buffer that reports its accesses to this recorder, in bytes.
+   *
+   * @param buffer the buffer to record
+   * @return the recording buffer
+   * @see #wrap(ByteBuffer)
+   */
+  public ShortBuffer wrap(ShortBuffer buffer) {
+    return _wrapShortBuffer(buffer, this, 0);
+  }
+
+  /**
+   * Records a read. Called by the recording buffers.
+   *
+   * @param byteOffset the byte offset of the first accessed byte
+   * @param byteCount the number of accessed bytes
+   * @param bulk whether the access was a bulk operation
+   */
+  public void recordRead(int byteOffset, int byteCount, boolean bulk) {
+    reads++;
+    bytesRead += byteCount;
+    record(byteOffset, byteCount, bulk);
+  }
+
+  /**
+   * Records a write. Called by the recording buffers.
+   *
+   * @param byteOffset the byte offset of the first accessed byte
+   * @param byteCount the number of accessed bytes
+   * @param bulk whether the access was a bulk operation
+   */
+  public void recordWrite(int byteOffset, int byteCount, boolean bulk) {
+    writes++;
+    bytesWritten += byteCount;
+    record(byteOffset, byteCount, bulk);
+  }
+
+  private void record(int byteOffset, int byteCount, boolean bulk) {
+    if (bulk) {
+      bulkCalls++;
+    } else {
+      singleCalls++;
+    }
+    if (byteOffset == nextOffset) {
+      sequential++;
+    } else {
+      random++;
+    }
+    nextOffset = byteOffset + byteCount;
+
+    int first = byteOffset / bucketSize;
+    int last = (byteOffset + Math.max(byteCount, 1) - 1) / bucketSize;
+    if (last >= histogram.length) {
+      int[] grown = new int[Math.max(last + 1, histogram.length * 2)];
+      System.arraycopy(histogram, 0, grown, 0, histogram.length);
+      histogram = grown;
+    }
+    for (int i = first; i <= last; i++) {
+      histogram[i]++;
+    }
+  }
+
+  public int getReads() {
+    return reads;
+  }
+
+  public int getWrites() {
+    return writes;
+  }
+
+  public double getBytesRead() {
+    return bytesRead;
+  }
+
+  public double getBytesWritten() {
+    return bytesWritten;
+  }
+
+  public int getBulkCalls() {
+    return bulkCalls;
+  }
+
+  public int getSingleCalls() {
+    return singleCalls;
+  }
+
+  public int getSequentialAccesses() {
+    return sequential;
+  }
+
+  public int getRandomAccesses() {
+    return random;
+  }
+
+  /**
+   * Returns the share of accesses that started where the previous access ended.
+   *
+   * @return a value between 0 and 1, or 0 if nothing was recorded
+   */
+  public double getSequentialRatio() {
+    int total = sequential + random;
+    return total == 0 ? 0 : (double) sequential / total;
+  }
+
+  public int getBucketSize() {
+    return bucketSize;
+  }
+
+  /**
+   * Returns the number of accesses touching each bucket of {@link #getBucketSize()} bytes; bucket
+   * {@code i} covers bytes {@code [i * bucketSize, (i + 1) * bucketSize)}.
+   *
+   * @return a copy of the histogram
+   */
+  public int[] getHistogram() {
+    int length = histogram.length;
+    while (length > 0 && histogram[length - 1] == 0) {
+      length--;
+    }
+    int[] result = new int[length];
+    System.arraycopy(histogram, 0, result, 0, length);
+    return result;
+  }
+
+  /** Discards everything recorded so far. */
+  public void reset() {
+    histogram = new int[16];
+    nextOffset = -1;
+    reads = writes = bulkCalls = singleCalls = sequential = random = 0;
+    bytesRead = bytesWritten = 0;
+  }
+
+  /**
+   * Returns a compact, human readable summary of the recorded accesses, including the hottest byte
+   * ranges.
+   *
+   * @return the report
+   */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("accesses: ").append(reads + writes);
+    sb.append(" (reads ").append(reads).append(", writes ").append(writes).append(')');
+    sb.append("\ncalls: single ").append(singleCalls).append(", bulk ").append(bulkCalls);
+    sb.append("\nbytes: read ").append((long) bytesRead);
+    sb.append(", written ").append((long) bytesWritten);
+    sb.append("\npattern: sequential ").append(sequential).append(", random ").append(random);
+    sb.append(" (").append(Math.round(getSequentialRatio() * 100)).append("% sequential)");
+    sb.append("\nhot ranges:");
+    boolean[] reported = new boolean[histogram.length];
+    for (int n = 0; n < HOT_RANGES; n++) {
+      int hottest = -1;
+      for (int i = 0; i < histogram.length; i++) {
+        if (reported[i] || histogram[i] == 0) {
+          continue;
+        }
+        if (hottest < 0 || histogram[i] > histogram[hottest]) {
+          hottest = i;
+        }
+      }
+      if (hottest < 0) {
+        break;
+      }
+      reported[hottest] = true;
+      sb.append("\n  [").append(hottest * bucketSize).append(", ");
+      sb.append((hottest + 1) * bucketSize).append("): ").append(histogram[hottest]);
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    return report();
+  }
+
+  @JsMethod
+  @SuppressWarnings("unusable-by-js")
+  private static native ByteBuffer _wrapByteBuffer(
+      ByteBuffer buffer, AccessPatternRecorder recorder) /*-{
+        return @java.nio.RecordingByteBuffer::new(Ljava/nio/ByteBuffer;Lorg/gwtproject/nio/AccessPatternRecorder;)(buffer, recorder);
+    }-*/;
+
+  @JsMethod
+  @SuppressWarnings("unusable-by-js")
+  private static native CharBuffer _wrapCharBuffer(
+      CharBuffer buffer, AccessPatternRecorder recorder, int byteOffset) /*-{
+        return @java.nio.RecordingCharBuffer::new(Ljava/nio/CharBuffer;Lorg/gwtproject/nio/AccessPatternRecorder;I)(buffer, recorder, byteOffset);
+    }-*/;
+
+  @JsMethod
+  @SuppressWarnings("unusable-by-js")
+  private static native DoubleBuffer _wrapDoubleBuffer(
+      DoubleBuffer buffer, AccessPatternRecorder recorder, int byteOffset) /*-{
+        return @java.nio.RecordingDoubleBuffer::new(Ljava/nio/DoubleBuffer;Lorg/gwtproject/nio/AccessPatternRecorder;I)(buffer, recorder, byteOffset);
+    }-*/;
+
+  @JsMethod
+  @SuppressWarnings("unusable-by-js")
+  private static native FloatBuffer _wrapFloatBuffer(
+      FloatBuffer buffer, AccessPatternRecorder recorder, int byteOffset) /*-{
+        return @java.nio.RecordingFloatBuffer::new(Ljava/nio/FloatBuffer;Lorg/gwtproject/nio/AccessPatternRecorder;I)(buffer, recorder, byteOffset);
+    }-*/;
+
+  @JsMethod
+  @SuppressWarnings("unusable-by-js")
+  private static native IntBuffer _wrapIntBuffer(
+      IntBuffer buffer, AccessPatternRecorder recorder, int byteOffset) /*-{
+        return @java.nio.RecordingIntBuffer::new(Ljava/nio/IntBuffer;Lorg/gwtproject/nio/AccessPatternRecorder;I)(buffer, recorder, byteOffset);
+    }-*/;
+
+  @JsMethod
+  @SuppressWarnings("unusable-by-js")
+  private static native LongBuffer _wrapLongBuffer(
+      LongBuffer buffer, AccessPatternRecorder recorder, int byteOffset) /*-{
+        return @java.nio.RecordingLongBuffer::new(Ljava/nio/LongBuffer;Lorg/gwtproject/nio/AccessPatternRecorder;I)(buffer, recorder, byteOffset);
+    }-*/;
+
+  @JsMethod
+  @SuppressWarnings("unusable-by-js")
+  private static native ShortBuffer _wrapShortBuffer(
+      ShortBuffer buffer, AccessPatternRecorder recorder, int byteOffset) /*-{
+        return @java.nio.RecordingShortBuffer::new(Ljava/nio/ShortBuffer;Lorg/gwtproject/nio/AccessPatternRecorder;I)(buffer, recorder, byteOffset);
+    }-*/;
+}
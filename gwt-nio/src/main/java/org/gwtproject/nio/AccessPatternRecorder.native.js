@@ -0,0 +1,49 @@
+let RecordingByteBuffer = goog.forwardDeclare('java.nio.RecordingByteBuffer$impl');
+let RecordingCharBuffer = goog.forwardDeclare('java.nio.RecordingCharBuffer$impl');
+let RecordingDoubleBuffer = goog.forwardDeclare('java.nio.RecordingDoubleBuffer$impl');
+let RecordingFloatBuffer = goog.forwardDeclare('java.nio.RecordingFloatBuffer$impl');
+let RecordingIntBuffer = goog.forwardDeclare('java.nio.RecordingIntBuffer$impl');
+let RecordingLongBuffer = goog.forwardDeclare('java.nio.RecordingLongBuffer$impl');
+let RecordingShortBuffer = goog.forwardDeclare('java.nio.RecordingShortBuffer$impl');
+
+/** @nodts @return {ByteBuffer} */
+AccessPatternRecorder._wrapByteBuffer = function(/** ByteBuffer */ buffer, /** AccessPatternRecorder */ recorder) {
+    AccessPatternRecorder.$clinit();
+    return RecordingByteBuffer.$create__java_nio_ByteBuffer__org_gwtproject_nio_AccessPatternRecorder(buffer, recorder);
+}
+
+/** @nodts @return {CharBuffer} */
+AccessPatternRecorder._wrapCharBuffer = function(/** CharBuffer */ buffer, /** AccessPatternRecorder */ recorder, /** number */ byteOffset) {
+    AccessPatternRecorder.$clinit();
+    return RecordingCharBuffer.$create__java_nio_CharBuffer__org_gwtproject_nio_AccessPatternRecorder__int(buffer, recorder, byteOffset);
+}
+
+/** @nodts @return {DoubleBuffer} */
+AccessPatternRecorder._wrapDoubleBuffer = function(/** DoubleBuffer */ buffer, /** AccessPatternRecorder */ recorder, /** number */ byteOffset) {
+    AccessPatternRecorder.$clinit();
+    return RecordingDoubleBuffer.$create__java_nio_DoubleBuffer__org_gwtproject_nio_AccessPatternRecorder__int(buffer, recorder, byteOffset);
+}
+
+/** @nodts @return {FloatBuffer} */
+AccessPatternRecorder._wrapFloatBuffer = function(/** FloatBuffer */ buffer, /** AccessPatternRecorder */ recorder, /** number */ byteOffset) {
+    AccessPatternRecorder.$clinit();
+    return RecordingFloatBuffer.$create__java_nio_FloatBuffer__org_gwtproject_nio_AccessPatternRecorder__int(buffer, recorder, byteOffset);
+}
+
+/** @nodts @return {IntBuffer} */
+AccessPatternRecorder._wrapIntBuffer = function(/** IntBuffer */ buffer, /** AccessPatternRecorder */ recorder, /** number */ byteOffset) {
+    AccessPatternRecorder.$clinit();
+    return RecordingIntBuffer.$create__java_nio_IntBuffer__org_gwtproject_nio_AccessPatternRecorder__int(buffer, recorder, byteOffset);
+}
+
+/** @nodts @return {LongBuffer} */
+AccessPatternRecorder._wrapLongBuffer = function(/** LongBuffer */ buffer, /** AccessPatternRecorder */ recorder, /** number */ byteOffset) {
+    AccessPatternRecorder.$clinit();
+    return RecordingLongBuffer.$create__java_nio_LongBuffer__org_gwtproject_nio_AccessPatternRecorder__int(buffer, recorder, byteOffset);
+}
+
+/** @nodts @return {ShortBuffer} */
+AccessPatternRecorder._wrapShortBuffer = function(/** ShortBuffer */ buffer, /** AccessPatternRecorder */ recorder, /** number */ byteOffset) {
+    AccessPatternRecorder.$clinit();
+    return RecordingShortBuffer.$create__java_nio_ShortBuffer__org_gwtproject_nio_AccessPatternRecorder__int(buffer, recorder, byteOffset);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+
+/**
+ * Supplies the current memory of a direct buffer whose ArrayBuffer may be replaced or resized, such
+ * as the buffer of a {@code WebAssembly.Memory}, which is detached and replaced on every grow.
+ *
+ * <p>Direct buffers created over a source (see {@link TypedArrayHelper#wrap(ArrayBufferSource, int,
+ * int)}) and all their slices, duplicates and typed views re-bind to the memory returned here once
+ * their typed array went stale, instead of failing with {@link DetachedBufferException}. Buffers
+ * over fixed memory keep their fast path: the staleness check they already do is the only one.
+ */
+@FunctionalInterface
+public interface ArrayBufferSource {
+
+  /**
+   * Returns the current memory.
+   *
+   * @return the ArrayBuffer, or the SharedArrayBuffer cast to one
+   */
+  ArrayBuffer getArrayBuffer();
+}
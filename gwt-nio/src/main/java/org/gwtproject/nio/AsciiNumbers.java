@@ -0,0 +1,423 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * Parses and formats ASCII numbers directly in a ByteBuffer or CharBuffer, e.g. the fields of CSV
+ * or text telemetry, without decoding them to a String first.
+ *
+ * <p>The parsers read the longest number at the position of the buffer and advance the position
+ * past it, so the delimiter that ends the number is left for the caller:
+ *
+ * <pre>
+ * long time = AsciiNumbers.parseLong(line);
+ * line.get(); // ','
+ * double value = AsciiNumbers.parseDouble(line);
+ * </pre>
+ *
+ * If there is no number at the position, or it does not fit the type, they throw {@link
+ * NumberFormatException} and leave the position unchanged. Decimal numbers with up to 15
+ * significant digits and exponents up to 22 are converted exactly without allocating; others are
+ * passed to {@link Double#parseDouble(String)}.
+ */
+public final class AsciiNumbers {
+
+  /* The powers of ten which are exact doubles. */
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /* The largest integer up to which every integer is an exact double. */
+  private static final double MAX_EXACT = 9007199254740992d;
+
+  private AsciiNumbers() {}
+
+  /**
+   * Parses a decimal int with an optional sign at the position of {@code bb}.
+   *
+   * @param bb the ASCII bytes
+   * @return the number
+   * @throws NumberFormatException if there are no digits, or the number overflows an int
+   */
+  public static int parseInt(ByteBuffer bb) {
+    return parseIntAt(bb);
+  }
+
+  /**
+   * Parses a decimal int with an optional sign at the position of {@code cb}.
+   *
+   * @param cb the chars
+   * @return the number
+   * @throws NumberFormatException if there are no digits, or the number overflows an int
+   */
+  public static int parseInt(CharBuffer cb) {
+    return parseIntAt(cb);
+  }
+
+  /**
+   * Parses a decimal long with an optional sign at the position of {@code bb}.
+   *
+   * @param bb the ASCII bytes
+   * @return the number
+   * @throws NumberFormatException if there are no digits, or the number overflows a long
+   */
+  public static long parseLong(ByteBuffer bb) {
+    return parseLongAt(bb);
+  }
+
+  /**
+   * Parses a decimal long with an optional sign at the position of {@code cb}.
+   *
+   * @param cb the chars
+   * @return the number
+   * @throws NumberFormatException if there are no digits, or the number overflows a long
+   */
+  public static long parseLong(CharBuffer cb) {
+    return parseLongAt(cb);
+  }
+
+  /**
+   * Parses a decimal number such as {@code -12.5e-3}, {@code .5}, {@code NaN} or {@code Infinity}
+   * at the position of {@code bb}.
+   *
+   * @param bb the ASCII bytes
+   * @return the number
+   * @throws NumberFormatException if there is no number
+   */
+  public static double parseDouble(ByteBuffer bb) {
+    return parseDoubleAt(bb);
+  }
+
+  /**
+   * Parses a decimal number such as {@code -12.5e-3}, {@code .5}, {@code NaN} or {@code Infinity}
+   * at the position of {@code cb}.
+   *
+   * @param cb the chars
+   * @return the number
+   * @throws NumberFormatException if there is no number
+   */
+  public static double parseDouble(CharBuffer cb) {
+    return parseDoubleAt(cb);
+  }
+
+  /* The char at index, or -1 at the limit; the one place that tells the two buffer types apart. */
+  private static int charAt(Buffer buffer, int index) {
+    if (index >= buffer.limit()) {
+      return -1;
+    }
+    if (buffer instanceof ByteBuffer) {
+      return ((ByteBuffer) buffer).get(index) & 0xff;
+    }
+    return ((CharBuffer) buffer).get(index);
+  }
+
+  private static int digit(Buffer buffer, int index) {
+    int c = charAt(buffer, index);
+    return c >= '0' && c <= '9' ? c - '0' : -1;
+  }
+
+  /* Accumulates negatively, like Integer.parseInt(), so that MIN_VALUE does not overflow. */
+  private static int parseIntAt(Buffer buffer) {
+    int start = buffer.position();
+    int c = charAt(buffer, start);
+    boolean negative = c == '-';
+    int i = negative || c == '+' ? start + 1 : start;
+    int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+    int result = 0;
+    int digits = 0;
+    for (int d; (d = digit(buffer, i)) >= 0; i++, digits++) {
+      if (result < limit / 10 || result * 10 < limit + d) {
+        throw new NumberFormatException("int overflow at " + start);
+      }
+      result = result * 10 - d;
+    }
+    if (digits == 0) {
+      throw new NumberFormatException("No digits at " + start);
+    }
+    buffer.position(i);
+    return negative ? result : -result;
+  }
+
+  private static long parseLongAt(Buffer buffer) {
+    int start = buffer.position();
+    int c = charAt(buffer, start);
+    boolean negative = c == '-';
+    int i = negative || c == '+' ? start + 1 : start;
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long result = 0;
+    int digits = 0;
+    for (int d; (d = digit(buffer, i)) >= 0; i++, digits++) {
+      if (result < limit / 10 || result * 10 < limit + d) {
+        throw new NumberFormatException("long overflow at " + start);
+      }
+      result = result * 10 - d;
+    }
+    if (digits == 0) {
+      throw new NumberFormatException("No digits at " + start);
+    }
+    buffer.position(i);
+    return negative ? result : -result;
+  }
+
+  private static double parseDoubleAt(Buffer buffer) {
+    int start = buffer.position();
+    int c = charAt(buffer, start);
+    boolean negative = c == '-';
+    int i = negative || c == '+' ? start + 1 : start;
+    if (matches(buffer, i, "NaN")) {
+      buffer.position(i + 3);
+      return Double.NaN;
+    }
+    if (matches(buffer, i, "Infinity")) {
+      buffer.position(i + 8);
+      return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+    }
+    // Up to 15 significant digits fit the mantissa exactly; more go to Double.parseDouble().
+    double mantissa = 0;
+    int significant = 0;
+    int exponent = 0;
+    int digits = 0;
+    boolean exact = true;
+    boolean fraction = false;
+    for (; ; i++) {
+      int d = digit(buffer, i);
+      if (d < 0) {
+        if (fraction || charAt(buffer, i) != '.') {
+          break;
+        }
+        fraction = true;
+        continue;
+      }
+      digits++;
+      if (mantissa == 0 && d == 0) {
+        exponent -= fraction ? 1 : 0;
+      } else if (significant < 15) {
+        mantissa = mantissa * 10 + d;
+        significant++;
+        exponent -= fraction ? 1 : 0;
+      } else {
+        exact = exact && d == 0;
+        exponent += fraction ? 0 : 1;
+      }
+    }
+    if (digits == 0) {
+      throw new NumberFormatException("No digits at " + start);
+    }
+    c = charAt(buffer, i);
+    if (c == 'e' || c == 'E') {
+      int j = i + 1;
+      c = charAt(buffer, j);
+      boolean negativeExponent = c == '-';
+      j = negativeExponent || c == '+' ? j + 1 : j;
+      int value = 0;
+      int d = digit(buffer, j);
+      if (d >= 0) {
+        for (; d >= 0; d = digit(buffer, ++j)) {
+          value = Math.min(value * 10 + d, 100000);
+        }
+        exponent += negativeExponent ? -value : value;
+        i = j;
+      }
+    }
+    if (!exact || exponent < -22 || exponent > 22 || mantissa >= MAX_EXACT) {
+      return parseString(buffer, start, i);
+    }
+    buffer.position(i);
+    double result =
+        exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+    return negative ? -result : result;
+  }
+
+  private static boolean matches(Buffer buffer, int index, String s) {
+    for (int i = 0; i < s.length(); i++) {
+      if (charAt(buffer, index + i) != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static double parseString(Buffer buffer, int start, int end) {
+    StringBuilder s = new StringBuilder(end - start);
+    for (int i = start; i < end; i++) {
+      s.append((char) charAt(buffer, i));
+    }
+    double result = Double.parseDouble(s.toString());
+    buffer.position(end);
+    return result;
+  }
+
+  /**
+   * Writes {@code value} as decimal ASCII digits at the position of {@code bb}, the same as {@link
+   * Integer#toString(int)}, and advances the position past them.
+   *
+   * @param bb the buffer
+   * @param value the number
+   * @return {@code bb}
+   * @throws BufferOverflowException if the digits do not fit the remaining bytes
+   */
+  public static ByteBuffer putAsciiInt(ByteBuffer bb, int value) {
+    // Works on the negative value, which also holds MIN_VALUE.
+    int n = value < 0 ? value : -value;
+    int length = value < 0 ? 2 : 1;
+    for (int rest = n / 10; rest != 0; rest /= 10) {
+      length++;
+    }
+    int end = reserve(bb, length);
+    int i = end;
+    do {
+      bb.put(--i, (byte) ('0' - n % 10));
+      n /= 10;
+    } while (n != 0);
+    if (value < 0) {
+      bb.put(--i, (byte) '-');
+    }
+    bb.position(end);
+    return bb;
+  }
+
+  /**
+   * Writes {@code value} as decimal ASCII digits at the position of {@code bb}, the same as {@link
+   * Long#toString(long)}, and advances the position past them.
+   *
+   * @param bb the buffer
+   * @param value the number
+   * @return {@code bb}
+   * @throws BufferOverflowException if the digits do not fit the remaining bytes
+   */
+  public static ByteBuffer putAsciiLong(ByteBuffer bb, long value) {
+    if (value == (int) value) {
+      return putAsciiInt(bb, (int) value);
+    }
+    long n = value < 0 ? value : -value;
+    int length = value < 0 ? 2 : 1;
+    for (long rest = n / 10; rest != 0; rest /= 10) {
+      length++;
+    }
+    int end = reserve(bb, length);
+    int i = end;
+    do {
+      bb.put(--i, (byte) ('0' - n % 10));
+      n /= 10;
+    } while (n != 0);
+    if (value < 0) {
+      bb.put(--i, (byte) '-');
+    }
+    bb.position(end);
+    return bb;
+  }
+
+  /**
+   * Writes {@code value} in ASCII at the position of {@code bb} and advances the position past it.
+   * Integers below 10<sup>7</sup> are written without allocating and with one fraction digit, as on
+   * the JVM, e.g. {@code 42.0}; other values as by {@link Double#toString(double)}, whose format for
+   * large and small magnitudes depends on the platform.
+   *
+   * @param bb the buffer
+   * @param value the number
+   * @return {@code bb}
+   * @throws BufferOverflowException if the number does not fit the remaining bytes
+   */
+  public static ByteBuffer putAsciiDouble(ByteBuffer bb, double value) {
+    if (value == (int) value && Math.abs(value) < 1e7 && (value != 0 || 1 / value > 0)) {
+      reserve(bb, (value < 0 ? 3 : 2) + digitCount(Math.abs(value)));
+      putAsciiInt(bb, (int) value);
+      return bb.put((byte) '.').put((byte) '0');
+    }
+    return putAscii(bb, String.valueOf(value));
+  }
+
+  /**
+   * Writes {@code value} in fixed-point notation with {@code fractionDigits} digits after the
+   * decimal point, rounded half up, e.g. {@code 12.50} for 12.5 and two digits. Values whose
+   * digits do not fit 53 bits, NaN and the infinities are written as by {@link
+   * Double#toString(double)} instead.
+   *
+   * @param bb the buffer
+   * @param value the number
+   * @param fractionDigits the number of digits after the decimal point, from 0 to 22
+   * @return {@code bb}
+   * @throws BufferOverflowException if the number does not fit the remaining bytes
+   */
+  public static ByteBuffer putAsciiDouble(ByteBuffer bb, double value, int fractionDigits) {
+    if (fractionDigits < 0 || fractionDigits >= POWERS_OF_TEN.length) {
+      throw new IllegalArgumentException("fractionDigits: " + fractionDigits);
+    }
+    double scale = POWERS_OF_TEN[fractionDigits];
+    double scaled = Math.floor(Math.abs(value) * scale + 0.5);
+    if (!(scaled < MAX_EXACT)) {
+      return putAscii(bb, String.valueOf(value));
+    }
+    // Integers below 2^53 are exact doubles, so their digits are too.
+    double integer = Math.floor(scaled / scale);
+    double fraction = scaled - integer * scale;
+    boolean negative = value < 0 && scaled != 0;
+    int integerDigits = digitCount(integer);
+    int length =
+        (negative ? 1 : 0) + integerDigits + (fractionDigits > 0 ? fractionDigits + 1 : 0);
+    int end = reserve(bb, length);
+    int i = bb.position();
+    if (negative) {
+      bb.put(i++, (byte) '-');
+    }
+    putDigits(bb, i, integer, integerDigits);
+    if (fractionDigits > 0) {
+      bb.put(i + integerDigits, (byte) '.');
+      putDigits(bb, i + integerDigits + 1, fraction, fractionDigits);
+    }
+    bb.position(end);
+    return bb;
+  }
+
+  private static int digitCount(double n) {
+    int count = 1;
+    for (double rest = Math.floor(n / 10); rest != 0; rest = Math.floor(rest / 10)) {
+      count++;
+    }
+    return count;
+  }
+
+  /* Writes the count lowest digits of the integer n, padded with leading zeros. */
+  private static void putDigits(ByteBuffer bb, int index, double n, int count) {
+    for (int i = index + count - 1; i >= index; i--) {
+      double rest = Math.floor(n / 10);
+      bb.put(i, (byte) ('0' + (int) (n - rest * 10)));
+      n = rest;
+    }
+  }
+
+  private static ByteBuffer putAscii(ByteBuffer bb, String s) {
+    reserve(bb, s.length());
+    for (int i = 0; i < s.length(); i++) {
+      bb.put((byte) s.charAt(i));
+    }
+    return bb;
+  }
+
+  /* Returns the end of length bytes at the position, which must fit before the limit. */
+  private static int reserve(ByteBuffer bb, int length) {
+    if (length > bb.remaining()) {
+      throw new BufferOverflowException();
+    }
+    return bb.position() + length;
+  }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.JsDate;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.ArrayDeque;
+import jsinterop.annotations.JsFunction;
+import jsinterop.annotations.JsMethod;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+
+/**
+ * Asynchronous variants of the bulk buffer operations, for buffers too large to process without
+ * blocking the main thread.
+ *
+ * <p>Operations run in slices: each slice processes chunks of at most {@code chunkSize} elements
+ * with the synchronous bulk operations, until the time budget of the slice is used up, then yields
+ * to the event loop. The first slice runs before the operation is returned. The buffers taking part
+ * must not be used otherwise until the operation is done; their positions advance as chunks are
+ * processed, also when the operation is cancelled.
+ */
+public final class AsyncBufferOps {
+
+  /** Processes a range of elements, see {@link #process(int, ChunkProcessor)}. */
+  public interface ChunkProcessor {
+    void process(int start, int end);
+  }
+
+  private static final AsyncBufferOps DEFAULT = new AsyncBufferOps(8, 64 * 1024);
+
+  private static final ArrayDeque<Runnable> scheduled = new ArrayDeque<>();
+
+  private static MessageChannel channel;
+
+  private final double sliceBudgetMillis;
+
+  private final int chunkSize;
+
+  /**
+   * Creates operations with a custom slice size.
+   *
+   * @param sliceBudgetMillis the time after which a slice yields to the event loop
+   * @param chunkSize the maximum number of elements processed without checking the time
+   */
+  public AsyncBufferOps(double sliceBudgetMillis, int chunkSize) {
+    if (sliceBudgetMillis < 0 || chunkSize <= 0) {
+      throw new IllegalArgumentException();
+    }
+    this.sliceBudgetMillis = sliceBudgetMillis;
+    this.chunkSize = chunkSize;
+  }
+
+  /** Returns operations with 8 ms slices and chunks of 64 KiB. */
+  public static AsyncBufferOps getDefault() {
+    return DEFAULT;
+  }
+
+  public double getSliceBudgetMillis() {
+    return sliceBudgetMillis;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Asynchronous {@code dst.put(src)}.
+   *
+   * @param dst the buffer to write to
+   * @param src the buffer to read from
+   * @return the operation, resolved with {@code dst}
+   * @throws BufferOverflowException if {@code src} has more remaining bytes than {@code dst}
+   * @throws ReadOnlyBufferException if {@code dst} is read-only
+   */
+  public AsyncOperation<ByteBuffer> put(ByteBuffer dst, ByteBuffer src) {
+    if (src == dst) {
+      throw new IllegalArgumentException();
+    }
+    if (src.remaining() > dst.remaining()) {
+      throw new BufferOverflowException();
+    }
+    if (dst.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    int limit = src.limit();
+    return start(
+        new Job<ByteBuffer>() {
+          @Override
+          boolean step() {
+            src.limit(Math.min(limit, src.position() + chunkSize));
+            try {
+              dst.put(src);
+            } finally {
+              src.limit(limit);
+            }
+            return !src.hasRemaining();
+          }
+
+          @Override
+          ByteBuffer result() {
+            return dst;
+          }
+        });
+  }
+
+  /**
+   * Asynchronous {@code dst.put(src, off, len)}.
+   *
+   * @param dst the buffer to write to
+   * @param src the array to read from
+   * @param off the offset of the first byte in {@code src}
+   * @param len the number of bytes to write
+   * @return the operation, resolved with {@code dst}
+   */
+  public AsyncOperation<ByteBuffer> put(ByteBuffer dst, byte[] src, int off, int len) {
+    if (off < 0 || len < 0 || len > src.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len > dst.remaining()) {
+      throw new BufferOverflowException();
+    }
+    if (dst.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    return start(
+        new Job<ByteBuffer>() {
+          int done;
+
+          @Override
+          boolean step() {
+            int n = Math.min(chunkSize, len - done);
+            dst.put(src, off + done, n);
+            done += n;
+            return done == len;
+          }
+
+          @Override
+          ByteBuffer result() {
+            return dst;
+          }
+        });
+  }
+
+  /**
+   * Asynchronous {@code src.get(dst, off, len)}.
+   *
+   * @param src the buffer to read from
+   * @param dst the array to write to
+   * @param off the offset of the first byte in {@code dst}
+   * @param len the number of bytes to read
+   * @return the operation, resolved with {@code dst}
+   */
+  public AsyncOperation<byte[]> get(ByteBuffer src, byte[] dst, int off, int len) {
+    if (off < 0 || len < 0 || len > dst.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len > src.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    return start(
+        new Job<byte[]>() {
+          int done;
+
+          @Override
+          boolean step() {
+            int n = Math.min(chunkSize, len - done);
+            src.get(dst, off + done, n);
+            done += n;
+            return done == len;
+          }
+
+          @Override
+          byte[] result() {
+            return dst;
+          }
+        });
+  }
+
+  /**
+   * Asynchronous {@code a.compareTo(b)}. The positions of the buffers are not changed.
+   *
+   * @param a the first buffer
+   * @param b the second buffer
+   * @return the operation, resolved with the result of {@code a.compareTo(b)}
+   */
+  public AsyncOperation<Integer> compare(ByteBuffer a, ByteBuffer b) {
+    int aStart = a.position();
+    int bStart = b.position();
+    int length = Math.min(a.remaining(), b.remaining());
+    return start(
+        new Job<Integer>() {
+          int done;
+          int result = a.remaining() - b.remaining();
+
+          @Override
+          boolean step() {
+            int end = Math.min(length, done + chunkSize);
+            for (int i = done; i < end; i++) {
+              byte x = a.get(aStart + i);
+              byte y = b.get(bStart + i);
+              if (x != y) {
+                result = x < y ? -1 : 1;
+                return true;
+              }
+            }
+            done = end;
+            return done == length;
+          }
+
+          @Override
+          Integer result() {
+            return result;
+          }
+        });
+  }
+
+  /**
+   * Runs {@code processor} on the range {@code [0, length)} in chunks, e.g. to convert a large
+   * buffer element by element.
+   *
+   * @param length the number of elements
+   * @param processor called with consecutive ranges of at most {@code chunkSize} elements; not
+   *     called at all if {@code length} is 0
+   * @return the operation, resolved with null; already done if {@code length} is 0
+   */
+  public AsyncOperation<Void> process(int length, ChunkProcessor processor) {
+    if (length < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (length == 0) {
+      return completed(null);
+    }
+    return start(
+        new Job<Void>() {
+          int done;
+
+          @Override
+          boolean step() {
+            int end = done + Math.min(chunkSize, length - done);
+            processor.process(done, end);
+            done = end;
+            return done == length;
+          }
+
+          @Override
+          Void result() {
+            return null;
+          }
+        });
+  }
+
+  private static <T> AsyncOperation<T> completed(T result) {
+    AsyncOperation<T> operation = new AsyncOperation<>();
+    operation.complete(result);
+    return operation;
+  }
+
+  private <T> AsyncOperation<T> start(Job<T> job) {
+    AsyncOperation<T> operation = new AsyncOperation<>();
+    runSlice(operation, job);
+    return operation;
+  }
+
+  private <T> void runSlice(AsyncOperation<T> operation, Job<T> job) {
+    if (operation.isDone()) {
+      return;
+    }
+    double deadline = JsDate.now() + sliceBudgetMillis;
+    try {
+      do {
+        if (job.step()) {
+          operation.complete(job.result());
+          return;
+        }
+      } while (JsDate.now() < deadline);
+    } catch (RuntimeException e) {
+      operation.fail(e);
+      return;
+    }
+    schedule(() -> runSlice(operation, job));
+  }
+
+  /**
+   * Runs {@code task} as a new task of the event loop. A MessageChannel is preferred over
+   * setTimeout, which browsers clamp to 4 ms when nested.
+   */
+  private static void schedule(Runnable task) {
+    if (channel == null && "function".equals(Js.typeof(Js.global().get("MessageChannel")))) {
+      channel = new MessageChannel();
+      channel.port1.onmessage = ignored -> scheduled.poll().run();
+    }
+    if (channel != null) {
+      scheduled.add(task);
+      channel.port2.postMessage(null);
+    } else {
+      setTimeout(ignored -> task.run(), 0);
+    }
+  }
+
+  @JsMethod(namespace = JsPackage.GLOBAL)
+  private static native double setTimeout(Callback callback, double delay);
+
+  private abstract static class Job<T> {
+
+    /** Processes the next chunk and returns true if the operation is finished. */
+    abstract boolean step();
+
+    abstract T result();
+  }
+
+  @JsFunction
+  private interface Callback {
+    void call(Object argument);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL)
+  private static class MessageChannel {
+    public MessagePort port1;
+    public MessagePort port2;
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+  private static class MessagePort {
+    public Callback onmessage;
+
+    public native void postMessage(Object message);
+  }
+}
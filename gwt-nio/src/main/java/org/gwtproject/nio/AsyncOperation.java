@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.promise.Promise;
+import elemental2.promise.Promise.PromiseExecutorCallbackFn.RejectCallbackFn;
+import elemental2.promise.Promise.PromiseExecutorCallbackFn.ResolveCallbackFn;
+
+/**
+ * A running operation of {@link AsyncBufferOps}. Its promise is resolved with the result of the
+ * operation, or rejected with its failure or with a {@link CancelledException}.
+ *
+ * @param <T> the result type
+ */
+public final class AsyncOperation<T> {
+
+  /** The reason a promise is rejected with after {@link AsyncOperation#cancel()}. */
+  public static class CancelledException extends IllegalStateException {
+    public CancelledException() {
+      super("The operation was cancelled");
+    }
+  }
+
+  private final Promise<T> promise;
+
+  private ResolveCallbackFn<T> resolve;
+
+  private RejectCallbackFn reject;
+
+  private boolean done;
+
+  private boolean cancelled;
+
+  AsyncOperation() {
+    promise =
+        new Promise<>(
+            (resolve, reject) -> {
+              this.resolve = resolve;
+              this.reject = reject;
+            });
+  }
+
+  public Promise<T> getPromise() {
+    return promise;
+  }
+
+  /**
+   * Stops the operation before its next chunk. The buffers keep the positions reached so far.
+   *
+   * @return false if the operation was finished already
+   */
+  public boolean cancel() {
+    if (done) {
+      return false;
+    }
+    cancelled = true;
+    fail(new CancelledException());
+    return true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /** Returns true once the operation completed, failed or was cancelled. */
+  public boolean isDone() {
+    return done;
+  }
+
+  void complete(T value) {
+    if (!done) {
+      done = true;
+      resolve.onInvoke(value);
+    }
+  }
+
+  void fail(Throwable error) {
+    if (!done) {
+      done = true;
+      reject.onInvoke(error);
+    }
+  }
+}
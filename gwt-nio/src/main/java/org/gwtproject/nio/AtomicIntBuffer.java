@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBufferView;
+import elemental2.core.Int32Array;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
+
+/**
+ * Atomic operations on the elements of a direct int buffer, similar to {@code
+ * java.util.concurrent.atomic.AtomicIntegerArray}.
+ *
+ * <p>The operations use {@code Atomics}, so they are atomic with respect to other workers sharing
+ * the memory of the buffer (see {@link TypedArrayHelper#allocateShared(int)}). They also work on
+ * buffers that are not shared, except for {@link #await(int, int, double)}.
+ *
+ * <p>Like {@code slice()}, an {@code AtomicIntBuffer} covers the remaining elements of the buffer
+ * it is created from: index 0 is the element at the buffer's position when the {@code
+ * AtomicIntBuffer} is created and {@link #length()} is the number of remaining elements. Later
+ * changes of the buffer's position and limit have no effect.
+ */
+public final class AtomicIntBuffer {
+
+  private final Int32Array array;
+
+  private final boolean readOnly;
+
+  private AtomicIntBuffer(Int32Array array, boolean readOnly) {
+    this.array = array;
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * Creates atomic access to the remaining elements of {@code buffer}.
+   *
+   * @param buffer a direct int buffer with native byte order, e.g. {@code
+   *     byteBuffer.order(ByteOrder.nativeOrder()).asIntBuffer()}
+   * @return the atomic view
+   * @throws IllegalArgumentException if the buffer is not backed by an Int32Array
+   */
+  public static AtomicIntBuffer wrap(IntBuffer buffer) {
+    if (!(buffer instanceof HasArrayBufferView)
+        || !(((HasArrayBufferView) buffer).getTypedArray() instanceof Int32Array)) {
+      throw new IllegalArgumentException(
+          "Not a direct int buffer with native byte order: " + buffer);
+    }
+    Int32Array array = (Int32Array) ((HasArrayBufferView) buffer).getTypedArray();
+    return new AtomicIntBuffer(
+        (Int32Array) array.subarray(buffer.position(), buffer.limit()), buffer.isReadOnly());
+  }
+
+  /**
+   * Creates atomic access to the remaining bytes of {@code buffer}, as ints in native byte order.
+   *
+   * @param buffer a direct byte buffer whose position is a multiple of 4 bytes from the start of
+   *     its memory
+   * @return the atomic view
+   * @throws IllegalArgumentException if the buffer is not direct or not aligned
+   */
+  public static AtomicIntBuffer wrap(ByteBuffer buffer) {
+    if (!(buffer instanceof HasArrayBufferView)) {
+      throw new IllegalArgumentException("Not a direct buffer: " + buffer);
+    }
+    ArrayBufferView view = ((HasArrayBufferView) buffer).getTypedArray();
+    int byteOffset = view.byteOffset + buffer.position();
+    if ((byteOffset & 3) != 0) {
+      throw new IllegalArgumentException("Not aligned to 4 bytes: " + buffer);
+    }
+    return new AtomicIntBuffer(
+        new Int32Array(view.buffer, byteOffset, buffer.remaining() >> 2), buffer.isReadOnly());
+  }
+
+  /** Returns the number of elements. */
+  public int length() {
+    return array.length;
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || index >= array.length) {
+      throw new IndexOutOfBoundsException("index " + index);
+    }
+    return index;
+  }
+
+  private int checkWrite(int index) {
+    if (readOnly) {
+      throw new ReadOnlyBufferException();
+    }
+    return checkIndex(index);
+  }
+
+  public int get(int index) {
+    return Atomics.load(array, checkIndex(index));
+  }
+
+  public void set(int index, int value) {
+    Atomics.store(array, checkWrite(index), value);
+  }
+
+  public int getAndSet(int index, int value) {
+    return Atomics.exchange(array, checkWrite(index), value);
+  }
+
+  /**
+   * Sets the element to {@code value} if it equals {@code expected}.
+   *
+   * @param index the index
+   * @param expected the expected value
+   * @param value the new value
+   * @return the previous value, which equals {@code expected} if the element was set
+   */
+  public int compareAndExchange(int index, int expected, int value) {
+    return Atomics.compareExchange(array, checkWrite(index), expected, value);
+  }
+
+  /**
+   * Sets the element to {@code value} if it equals {@code expected}.
+   *
+   * @param index the index
+   * @param expected the expected value
+   * @param value the new value
+   * @return true if the element was set
+   */
+  public boolean compareAndSet(int index, int expected, int value) {
+    return compareAndExchange(index, expected, value) == expected;
+  }
+
+  public int getAndAdd(int index, int delta) {
+    return Atomics.add(array, checkWrite(index), delta);
+  }
+
+  public int addAndGet(int index, int delta) {
+    return getAndAdd(index, delta) + delta;
+  }
+
+  public int getAndIncrement(int index) {
+    return getAndAdd(index, 1);
+  }
+
+  public int getAndDecrement(int index) {
+    return Atomics.sub(array, checkWrite(index), 1);
+  }
+
+  public int incrementAndGet(int index) {
+    return getAndAdd(index, 1) + 1;
+  }
+
+  public int decrementAndGet(int index) {
+    return Atomics.sub(array, checkWrite(index), 1) - 1;
+  }
+
+  public int getAndBitwiseAnd(int index, int mask) {
+    return Atomics.and(array, checkWrite(index), mask);
+  }
+
+  public int getAndBitwiseOr(int index, int mask) {
+    return Atomics.or(array, checkWrite(index), mask);
+  }
+
+  public int getAndBitwiseXor(int index, int mask) {
+    return Atomics.xor(array, checkWrite(index), mask);
+  }
+
+  /**
+   * Blocks until the element is woken by {@link #wake(int, int)}, as long as it equals {@code
+   * expected}. Only available on shared memory and in contexts that may block, i.e. workers but not
+   * the main thread of a page.
+   *
+   * @param index the index
+   * @param expected the value the element must have for the call to block
+   * @param timeoutMillis the maximum time to wait, or {@code Double.POSITIVE_INFINITY}
+   * @return false if the wait timed out, true if it was woken or the element did not equal {@code
+   *     expected}
+   */
+  public boolean await(int index, int expected, double timeoutMillis) {
+    return !"timed-out".equals(Atomics.wait(array, checkIndex(index), expected, timeoutMillis));
+  }
+
+  /**
+   * Wakes agents blocked in {@link #await(int, int, double)} on the element.
+   *
+   * @param index the index
+   * @param count the maximum number of agents to wake
+   * @return the number of agents woken
+   */
+  public int wake(int index, int count) {
+    return Atomics.notify(array, checkIndex(index), count);
+  }
+
+  /**
+   * Wakes all agents blocked in {@link #await(int, int, double)} on the element.
+   *
+   * @param index the index
+   * @return the number of agents woken
+   */
+  public int wakeAll(int index) {
+    return Atomics.notify(array, checkIndex(index), Double.POSITIVE_INFINITY);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < array.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(get(i));
+    }
+    return sb.append(']').toString();
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+import elemental2.core.ArrayBufferView;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * Atomic operations on the elements of a direct long buffer, similar to {@code
+ * java.util.concurrent.atomic.AtomicLongArray}.
+ *
+ * <p>The operations use {@code Atomics} on a {@code BigInt64Array}, so they are atomic with respect
+ * to other workers sharing the memory of the buffer (see {@link
+ * TypedArrayHelper#allocateShared(int)}). Values are converted between {@code long} and {@code
+ * BigInt} on every call, which makes these operations noticeably slower than the ones of {@link
+ * AtomicIntBuffer}.
+ *
+ * <p>Like {@code slice()}, an {@code AtomicLongBuffer} covers the remaining elements of the buffer
+ * it is created from, and later changes of the buffer's position and limit have no effect.
+ */
+public final class AtomicLongBuffer {
+
+  /* Converts between long and BigInt through two big endian int32 words. */
+  private static final BigIntView scratch = new BigIntView(new ArrayBuffer(8));
+
+  private final BigInt64Array array;
+
+  private final boolean readOnly;
+
+  private AtomicLongBuffer(BigInt64Array array, boolean readOnly) {
+    this.array = array;
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * Creates atomic access to the remaining elements of {@code buffer}.
+   *
+   * @param buffer a long buffer with native byte order created by {@code asLongBuffer()} of a
+   *     direct byte buffer
+   * @return the atomic view
+   * @throws IllegalArgumentException if the buffer is not direct, not in native byte order or not
+   *     aligned to 8 bytes
+   */
+  public static AtomicLongBuffer wrap(LongBuffer buffer) {
+    if (buffer.order() != ByteOrder.nativeOrder()) {
+      throw new IllegalArgumentException("Not in native byte order: " + buffer);
+    }
+    if (!(buffer instanceof HasByteBuffer)) {
+      throw new IllegalArgumentException("Not a view of a direct buffer: " + buffer);
+    }
+    ByteBuffer bytes = ((HasByteBuffer) buffer).getByteBuffer();
+    return wrap(bytes, buffer.position() << 3, buffer.remaining(), buffer.isReadOnly());
+  }
+
+  /**
+   * Creates atomic access to the remaining bytes of {@code buffer}, as longs in native byte order.
+   *
+   * @param buffer a direct byte buffer whose position is a multiple of 8 bytes from the start of
+   *     its memory
+   * @return the atomic view
+   * @throws IllegalArgumentException if the buffer is not direct or not aligned
+   */
+  public static AtomicLongBuffer wrap(ByteBuffer buffer) {
+    return wrap(buffer, buffer.position(), buffer.remaining() >> 3, buffer.isReadOnly());
+  }
+
+  private static AtomicLongBuffer wrap(
+      ByteBuffer buffer, int byteOffset, int length, boolean readOnly) {
+    if (!(buffer instanceof HasArrayBufferView)) {
+      throw new IllegalArgumentException("Not a direct buffer: " + buffer);
+    }
+    ArrayBufferView view = ((HasArrayBufferView) buffer).getTypedArray();
+    byteOffset += view.byteOffset;
+    if ((byteOffset & 7) != 0) {
+      throw new IllegalArgumentException("Not aligned to 8 bytes: " + buffer);
+    }
+    return new AtomicLongBuffer(new BigInt64Array(view.buffer, byteOffset, length), readOnly);
+  }
+
+  private static Object toBigInt(long value) {
+    scratch.setInt32(0, (int) (value >>> 32), false);
+    scratch.setInt32(4, (int) value, false);
+    return scratch.getBigInt64(0, false);
+  }
+
+  private static long toLong(Object bigInt) {
+    scratch.setBigInt64(0, bigInt, false);
+    return (long) scratch.getInt32(0, false) << 32 | (scratch.getInt32(4, false) & 0xffffffffL);
+  }
+
+  /** Returns the number of elements. */
+  public int length() {
+    return array.length;
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || index >= array.length) {
+      throw new IndexOutOfBoundsException("index " + index);
+    }
+    return index;
+  }
+
+  private int checkWrite(int index) {
+    if (readOnly) {
+      throw new ReadOnlyBufferException();
+    }
+    return checkIndex(index);
+  }
+
+  public long get(int index) {
+    return toLong(Atomics.load(array, checkIndex(index)));
+  }
+
+  public void set(int index, long value) {
+    Atomics.store(array, checkWrite(index), toBigInt(value));
+  }
+
+  public long getAndSet(int index, long value) {
+    return toLong(Atomics.exchange(array, checkWrite(index), toBigInt(value)));
+  }
+
+  /**
+   * Sets the element to {@code value} if it equals {@code expected}.
+   *
+   * @param index the index
+   * @param expected the expected value
+   * @param value the new value
+   * @return the previous value, which equals {@code expected} if the element was set
+   */
+  public long compareAndExchange(int index, long expected, long value) {
+    checkWrite(index);
+    Object bigExpected = toBigInt(expected);
+    return toLong(Atomics.compareExchange(array, index, bigExpected, toBigInt(value)));
+  }
+
+  /**
+   * Sets the element to {@code value} if it equals {@code expected}.
+   *
+   * @param index the index
+   * @param expected the expected value
+   * @param value the new value
+   * @return true if the element was set
+   */
+  public boolean compareAndSet(int index, long expected, long value) {
+    return compareAndExchange(index, expected, value) == expected;
+  }
+
+  public long getAndAdd(int index, long delta) {
+    return toLong(Atomics.add(array, checkWrite(index), toBigInt(delta)));
+  }
+
+  public long addAndGet(int index, long delta) {
+    return getAndAdd(index, delta) + delta;
+  }
+
+  public long getAndIncrement(int index) {
+    return getAndAdd(index, 1);
+  }
+
+  public long getAndDecrement(int index) {
+    return getAndAdd(index, -1);
+  }
+
+  public long incrementAndGet(int index) {
+    return getAndAdd(index, 1) + 1;
+  }
+
+  public long decrementAndGet(int index) {
+    return getAndAdd(index, -1) - 1;
+  }
+
+  /**
+   * Blocks until the element is woken by {@link #wake(int, int)}, as long as it equals {@code
+   * expected}. Only available on shared memory and in contexts that may block.
+   *
+   * @param index the index
+   * @param expected the value the element must have for the call to block
+   * @param timeoutMillis the maximum time to wait, or {@code Double.POSITIVE_INFINITY}
+   * @return false if the wait timed out
+   */
+  public boolean await(int index, long expected, double timeoutMillis) {
+    checkIndex(index);
+    return !"timed-out".equals(Atomics.wait(array, index, toBigInt(expected), timeoutMillis));
+  }
+
+  /**
+   * Wakes agents blocked in {@link #await(int, long, double)} on the element.
+   *
+   * @param index the index
+   * @param count the maximum number of agents to wake
+   * @return the number of agents woken
+   */
+  public int wake(int index, int count) {
+    return Atomics.notify(array, checkIndex(index), count);
+  }
+
+  /**
+   * Wakes all agents blocked in {@link #await(int, long, double)} on the element.
+   *
+   * @param index the index
+   * @return the number of agents woken
+   */
+  public int wakeAll(int index) {
+    return Atomics.notify(array, checkIndex(index), Double.POSITIVE_INFINITY);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < array.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(get(i));
+    }
+    return sb.append(']').toString();
+  }
+
+  /** A DataView with the BigInt accessors, which elemental2 does not declare. */
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "DataView")
+  private static class BigIntView {
+    public BigIntView(ArrayBuffer buffer) {}
+
+    public native int getInt32(int byteOffset, boolean littleEndian);
+
+    public native void setInt32(int byteOffset, int value, boolean littleEndian);
+
+    public native Object getBigInt64(int byteOffset, boolean littleEndian);
+
+    public native void setBigInt64(int byteOffset, Object value, boolean littleEndian);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.Int32Array;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * The JavaScript {@code Atomics} namespace, used by {@link AtomicIntBuffer} and {@link
+ * AtomicLongBuffer}.
+ */
+@JsType(isNative = true, namespace = JsPackage.GLOBAL)
+final class Atomics {
+
+  private Atomics() {}
+
+  public static native int load(Int32Array typedArray, int index);
+
+  public static native Object load(BigInt64Array typedArray, int index);
+
+  public static native int store(Int32Array typedArray, int index, int value);
+
+  public static native Object store(BigInt64Array typedArray, int index, Object value);
+
+  public static native int exchange(Int32Array typedArray, int index, int value);
+
+  public static native Object exchange(BigInt64Array typedArray, int index, Object value);
+
+  public static native int compareExchange(
+      Int32Array typedArray, int index, int expected, int value);
+
+  public static native Object compareExchange(
+      BigInt64Array typedArray, int index, Object expected, Object value);
+
+  public static native int add(Int32Array typedArray, int index, int value);
+
+  public static native Object add(BigInt64Array typedArray, int index, Object value);
+
+  public static native int sub(Int32Array typedArray, int index, int value);
+
+  public static native Object sub(BigInt64Array typedArray, int index, Object value);
+
+  public static native int and(Int32Array typedArray, int index, int value);
+
+  public static native int or(Int32Array typedArray, int index, int value);
+
+  public static native int xor(Int32Array typedArray, int index, int value);
+
+  public static native String wait(Int32Array typedArray, int index, int value, double timeout);
+
+  public static native String wait(
+      BigInt64Array typedArray, int index, Object value, double timeout);
+
+  public static native int notify(Int32Array typedArray, int index, double count);
+
+  public static native int notify(BigInt64Array typedArray, int index, double count);
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/** The JavaScript {@code BigInt64Array}. Elements are {@code BigInt} values, typed as Object. */
+@JsType(isNative = true, namespace = JsPackage.GLOBAL)
+class BigInt64Array {
+
+  public ArrayBuffer buffer;
+
+  public int byteOffset;
+
+  public int length;
+
+  public BigInt64Array(ArrayBuffer buffer, int byteOffset, int length) {}
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the primitives of Protocol Buffers and Avro encodings from a ByteBuffer: base 128
+ * varints, zigzag varints, little endian fixed-width values, and length-delimited bytes and UTF-8
+ * strings.
+ *
+ * <p>The reader keeps its cursor in a field and reads direct buffers through a DataView, so the
+ * position of the buffer is only set by {@link #sync()}. Varints of up to 28 bits are decoded with
+ * int arithmetic, and only longer ones of {@link #readVarint64()} with the emulated longs.
+ *
+ * <pre>
+ * BinaryReader reader = new BinaryReader(message);
+ * while (reader.hasRemaining()) {
+ *   int tag = reader.readVarint32();
+ *   ...
+ * }
+ * reader.sync();
+ * </pre>
+ */
+public final class BinaryReader {
+
+  private final ByteBuffer buffer;
+
+  private final ByteRange range;
+
+  /* The position of the buffer the cursor is relative to. */
+  private final int start;
+
+  private final int length;
+
+  private int cursor;
+
+  /**
+   * Creates a reader of the remaining bytes of {@code buffer}.
+   *
+   * @param buffer the buffer, which must not be modified while the reader is in use
+   */
+  public BinaryReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.range = ByteRange.remaining(buffer);
+    this.start = buffer.position();
+    this.length = range.length();
+  }
+
+  /** Returns the position in the buffer of the next byte to read. */
+  public int position() {
+    return start + cursor;
+  }
+
+  /** Returns the number of bytes left to read. */
+  public int remaining() {
+    return length - cursor;
+  }
+
+  /** Returns true if there are bytes left to read. */
+  public boolean hasRemaining() {
+    return cursor < length;
+  }
+
+  /**
+   * Sets the position of the buffer to the position of the reader.
+   *
+   * @return the buffer
+   */
+  public ByteBuffer sync() {
+    buffer.position(start + cursor);
+    return buffer;
+  }
+
+  private void require(int byteCount) {
+    if (byteCount < 0 || byteCount > length - cursor) {
+      throw new BufferUnderflowException();
+    }
+  }
+
+  private int next() {
+    if (cursor >= length) {
+      throw new BufferUnderflowException();
+    }
+    return range.get(cursor++);
+  }
+
+  /**
+   * Skips {@code byteCount} bytes.
+   *
+   * @param byteCount the number of bytes
+   * @return this reader
+   * @throws BufferUnderflowException if fewer bytes remain
+   */
+  public BinaryReader skip(int byteCount) {
+    require(byteCount);
+    cursor += byteCount;
+    return this;
+  }
+
+  public byte readByte() {
+    return (byte) next();
+  }
+
+  /**
+   * Reads a varint of up to ten bytes and returns its low 32 bits, which covers both unsigned
+   * 32-bit varints and negative int32 values sign extended to 64 bits.
+   *
+   * @return the value
+   * @throws BufferUnderflowException if the varint is truncated
+   * @throws IllegalStateException if the varint is longer than ten bytes
+   */
+  public int readVarint32() {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = next();
+      result |= (b & 0x7f) << shift;
+      if (b < 0x80) {
+        return result;
+      }
+    }
+    for (int i = 0; i < 5; i++) {
+      if (next() < 0x80) {
+        return result;
+      }
+    }
+    throw new IllegalStateException("Malformed varint at " + (start + cursor));
+  }
+
+  /**
+   * Reads a varint of up to ten bytes.
+   *
+   * @return the value
+   * @throws BufferUnderflowException if the varint is truncated
+   * @throws IllegalStateException if the varint is longer than ten bytes
+   */
+  public long readVarint64() {
+    int low = 0;
+    for (int shift = 0; shift < 28; shift += 7) {
+      int b = next();
+      low |= (b & 0x7f) << shift;
+      if (b < 0x80) {
+        return low;
+      }
+    }
+    long result = low;
+    for (int shift = 28; shift < 64; shift += 7) {
+      int b = next();
+      result |= (long) (b & 0x7f) << shift;
+      if (b < 0x80) {
+        return result;
+      }
+    }
+    throw new IllegalStateException("Malformed varint at " + (start + cursor));
+  }
+
+  /** Reads a zigzag encoded 32-bit varint, as of protobuf sint32 and Avro int. */
+  public int readZigZag32() {
+    int n = readVarint32();
+    return (n >>> 1) ^ -(n & 1);
+  }
+
+  /** Reads a zigzag encoded 64-bit varint, as of protobuf sint64 and Avro long. */
+  public long readZigZag64() {
+    long n = readVarint64();
+    return (n >>> 1) ^ -(n & 1);
+  }
+
+  /** Reads a little endian 32-bit value. */
+  public int readFixed32() {
+    require(4);
+    int value = range.getInt(cursor);
+    cursor += 4;
+    return value;
+  }
+
+  /** Reads a little endian 64-bit value. */
+  public long readFixed64() {
+    require(8);
+    long value = range.getLong(cursor);
+    cursor += 8;
+    return value;
+  }
+
+  public float readFloat() {
+    return Float.intBitsToFloat(readFixed32());
+  }
+
+  public double readDouble() {
+    return Double.longBitsToDouble(readFixed64());
+  }
+
+  /**
+   * Reads a varint length and returns that many bytes as a slice of the buffer, without copying
+   * them. The slice can be read by another reader, e.g. for a nested message.
+   *
+   * @return the bytes between position 0 and the limit of the slice
+   * @throws BufferUnderflowException if fewer bytes remain than the length
+   */
+  public ByteBuffer readBytes() {
+    int byteCount = readVarint32();
+    require(byteCount);
+    ByteBuffer slice = buffer.duplicate();
+    slice.limit(start + cursor + byteCount).position(start + cursor);
+    cursor += byteCount;
+    return slice.slice();
+  }
+
+  /**
+   * Reads a varint length and decodes that many bytes as UTF-8. Malformed input is replaced with
+   * U+FFFD.
+   *
+   * @return the string
+   */
+  public String readString() {
+    return TypedArrayHelper.byteBufferToString(readBytes(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a varint length and decodes that many bytes with {@code cache}, e.g. for map keys that
+   * repeat in every message.
+   *
+   * @param cache the cache of decoded strings
+   * @return the string
+   */
+  public String readString(StringCache cache) {
+    int byteCount = readVarint32();
+    require(byteCount);
+    String s = cache.decode(buffer, start + cursor, byteCount);
+    cursor += byteCount;
+    return s;
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBufferView;
+import elemental2.core.Uint8Array;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+
+/**
+ * Base64 (RFC 4648, standard alphabet with padding) and lowercase hex encoding of ByteBuffer
+ * ranges.
+ *
+ * <p>The encoders consume the remaining bytes of the source buffer, and the decoders write at the
+ * position of the destination buffer and advance it. Direct buffers are encoded and decoded in
+ * place by {@code Uint8Array.prototype.toBase64()}, {@code toHex()}, {@code setFromBase64()} and
+ * {@code setFromHex()} where the platform has them, and otherwise by table lookups on the buffer,
+ * so their bytes are never copied to a {@code byte[]}.
+ *
+ * <pre>
+ * String json = "{\"data\": \"" + BinaryToText.encodeBase64(frame) + "\"}";
+ * </pre>
+ */
+public final class BinaryToText {
+
+  private static final boolean NATIVE_SUPPORTED =
+      isFunction(Js.global(), "Uint8Array")
+          && isFunction(
+              Js.asPropertyMap(Js.global().get("Uint8Array")).get("prototype"), "setFromBase64");
+
+  private static final char[] BASE64 =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  /* Whitespace, which the base64 decoder skips like the platform does. */
+  private static final byte SKIP = -2;
+
+  private static final byte INVALID = -1;
+
+  /* The values of the base64 and hex digits, indexed by char. */
+  private static final byte[] BASE64_VALUES = new byte[128];
+
+  private static final byte[] HEX_VALUES = new byte[128];
+
+  /* The two chars of every 12-bit value, so that three bytes are encoded with two lookups. */
+  private static char[] base64Pairs;
+
+  /* The two hex digits of every byte. */
+  private static char[] hexPairs;
+
+  static {
+    for (int i = 0; i < 128; i++) {
+      BASE64_VALUES[i] = INVALID;
+      HEX_VALUES[i] = INVALID;
+    }
+    for (int i = 0; i < BASE64.length; i++) {
+      BASE64_VALUES[BASE64[i]] = (byte) i;
+    }
+    for (char c : new char[] {' ', '\t', '\n', '\f', '\r'}) {
+      BASE64_VALUES[c] = SKIP;
+    }
+    for (int i = 0; i < 16; i++) {
+      HEX_VALUES[HEX[i]] = (byte) i;
+      HEX_VALUES[Character.toUpperCase(HEX[i])] = (byte) i;
+    }
+  }
+
+  private BinaryToText() {}
+
+  private static boolean isFunction(Object object, String name) {
+    return object != null && "function".equals(Js.typeof(Js.asPropertyMap(object).get(name)));
+  }
+
+  /* A view of the remaining bytes, if the platform codecs can work on the buffer in place. */
+  private static NativeUint8Array remainingBytes(ByteBuffer bb) {
+    if (!NATIVE_SUPPORTED || !bb.isDirect() || !(bb instanceof HasArrayBufferView)) {
+      return null;
+    }
+    ArrayBufferView view = ((HasArrayBufferView) bb).getTypedArray();
+    return Js.uncheckedCast(
+        new Uint8Array(view.buffer, view.byteOffset + bb.position(), bb.remaining()));
+  }
+
+  /**
+   * Encodes the remaining bytes of {@code src} as base64 and advances its position to its limit.
+   *
+   * @param src the bytes
+   * @return the base64 text, padded with '='
+   */
+  public static String encodeBase64(ByteBuffer src) {
+    NativeUint8Array bytes = remainingBytes(src);
+    if (bytes != null) {
+      String encoded = bytes.toBase64();
+      src.position(src.limit());
+      return encoded;
+    }
+    char[] pairs = base64Pairs();
+    int position = src.position();
+    int length = src.remaining();
+    char[] out = new char[(length + 2) / 3 * 4];
+    int i = position;
+    int j = 0;
+    for (int end = position + length - length % 3; i < end; i += 3) {
+      int word = (src.get(i) & 0xff) << 16 | (src.get(i + 1) & 0xff) << 8 | (src.get(i + 2) & 0xff);
+      int high = (word >>> 12) << 1;
+      int low = (word & 0xfff) << 1;
+      out[j++] = pairs[high];
+      out[j++] = pairs[high + 1];
+      out[j++] = pairs[low];
+      out[j++] = pairs[low + 1];
+    }
+    if (length % 3 != 0) {
+      int word = (src.get(i) & 0xff) << 16;
+      if (length % 3 == 2) {
+        word |= (src.get(i + 1) & 0xff) << 8;
+      }
+      out[j++] = BASE64[word >>> 18];
+      out[j++] = BASE64[(word >>> 12) & 0x3f];
+      out[j++] = length % 3 == 2 ? BASE64[(word >>> 6) & 0x3f] : '=';
+      out[j] = '=';
+    }
+    src.position(src.limit());
+    return String.valueOf(out);
+  }
+
+  /**
+   * Encodes the remaining bytes of {@code src} as base64 into {@code dest}.
+   *
+   * @param src the bytes
+   * @param dest the buffer the base64 text is written to
+   * @return {@code dest}
+   * @throws BufferOverflowException if the text does not fit the remaining chars of {@code dest};
+   *     the position of {@code src} is unchanged then
+   */
+  public static CharBuffer encodeBase64(ByteBuffer src, CharBuffer dest) {
+    if ((src.remaining() + 2) / 3 * 4 > dest.remaining()) {
+      throw new BufferOverflowException();
+    }
+    return dest.put(encodeBase64(src));
+  }
+
+  /**
+   * Decodes the base64 text {@code src} to the position of {@code dest} and advances it past the
+   * decoded bytes. Whitespace is skipped, and the padding may be left out.
+   *
+   * @param src the base64 text
+   * @param dest the buffer the bytes are written to
+   * @return {@code dest}
+   * @throws IllegalArgumentException if {@code src} is not valid base64
+   * @throws BufferOverflowException if the bytes do not fit the remaining bytes of {@code dest}
+   */
+  public static ByteBuffer decodeBase64(CharSequence src, ByteBuffer dest) {
+    int length = base64Length(src);
+    if (length > dest.remaining()) {
+      throw new BufferOverflowException();
+    }
+    if (dest.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    NativeUint8Array bytes = remainingBytes(dest);
+    if (bytes != null) {
+      SetResult result;
+      try {
+        result = bytes.setFromBase64(src.toString());
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid base64: " + e.getMessage());
+      }
+      dest.position(dest.position() + (int) result.written);
+      return dest;
+    }
+    int word = 0;
+    int count = 0;
+    int index = dest.position();
+    for (int i = 0, n = src.length(); i < n; i++) {
+      char c = src.charAt(i);
+      int value = c < 128 ? BASE64_VALUES[c] : INVALID;
+      if (value == SKIP || c == '=') {
+        continue;
+      }
+      word = word << 6 | value;
+      if (++count == 4) {
+        dest.put(index++, (byte) (word >> 16));
+        dest.put(index++, (byte) (word >> 8));
+        dest.put(index++, (byte) word);
+        word = 0;
+        count = 0;
+      }
+    }
+    if (count >= 2) {
+      word <<= 6 * (4 - count);
+      dest.put(index++, (byte) (word >> 16));
+      if (count == 3) {
+        dest.put(index++, (byte) (word >> 8));
+      }
+    }
+    dest.position(index);
+    return dest;
+  }
+
+  /* Validates the text and returns the number of bytes it decodes to. */
+  private static int base64Length(CharSequence src) {
+    int digits = 0;
+    int padding = 0;
+    for (int i = 0, n = src.length(); i < n; i++) {
+      char c = src.charAt(i);
+      int value = c < 128 ? BASE64_VALUES[c] : INVALID;
+      if (value == SKIP) {
+        continue;
+      }
+      if (c == '=') {
+        padding++;
+      } else if (value == INVALID || padding > 0) {
+        throw new IllegalArgumentException("Invalid base64 character at " + i);
+      } else {
+        digits++;
+      }
+    }
+    // padding may only complete the last, partial quantum
+    int partial = digits % 4;
+    if (partial == 1 || (padding > 0 && (partial == 0 || padding != 4 - partial))) {
+      throw new IllegalArgumentException("Invalid base64 length");
+    }
+    return digits / 4 * 3 + (partial == 0 ? 0 : partial - 1);
+  }
+
+  /**
+   * Encodes the remaining bytes of {@code src} as lowercase hex and advances its position to its
+   * limit.
+   *
+   * @param src the bytes
+   * @return two hex digits per byte
+   */
+  public static String encodeHex(ByteBuffer src) {
+    NativeUint8Array bytes = remainingBytes(src);
+    if (bytes != null) {
+      String encoded = bytes.toHex();
+      src.position(src.limit());
+      return encoded;
+    }
+    char[] pairs = hexPairs();
+    char[] out = new char[src.remaining() * 2];
+    for (int i = src.position(), end = src.limit(), j = 0; i < end; i++) {
+      int pair = (src.get(i) & 0xff) << 1;
+      out[j++] = pairs[pair];
+      out[j++] = pairs[pair + 1];
+    }
+    src.position(src.limit());
+    return String.valueOf(out);
+  }
+
+  /**
+   * Decodes the hex digits {@code src}, in either case, to the position of {@code dest} and
+   * advances it past the decoded bytes.
+   *
+   * @param src the hex digits
+   * @param dest the buffer the bytes are written to
+   * @return {@code dest}
+   * @throws IllegalArgumentException if {@code src} has an odd length or a char that is no digit
+   * @throws BufferOverflowException if the bytes do not fit the remaining bytes of {@code dest}
+   */
+  public static ByteBuffer decodeHex(CharSequence src, ByteBuffer dest) {
+    int n = src.length();
+    if (n % 2 != 0) {
+      throw new IllegalArgumentException("Odd number of hex digits");
+    }
+    if (n / 2 > dest.remaining()) {
+      throw new BufferOverflowException();
+    }
+    if (dest.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    for (int i = 0; i < n; i++) {
+      char c = src.charAt(i);
+      if (c >= 128 || HEX_VALUES[c] == INVALID) {
+        throw new IllegalArgumentException("Invalid hex digit at " + i);
+      }
+    }
+    NativeUint8Array bytes = remainingBytes(dest);
+    if (bytes != null) {
+      bytes.setFromHex(src.toString());
+    } else {
+      for (int i = 0, index = dest.position(); i < n; i += 2) {
+        dest.put(index++, (byte) (HEX_VALUES[src.charAt(i)] << 4 | HEX_VALUES[src.charAt(i + 1)]));
+      }
+    }
+    dest.position(dest.position() + n / 2);
+    return dest;
+  }
+
+  private static char[] base64Pairs() {
+    if (base64Pairs == null) {
+      char[] pairs = new char[4096 * 2];
+      for (int i = 0; i < 4096; i++) {
+        pairs[i << 1] = BASE64[i >>> 6];
+        pairs[(i << 1) + 1] = BASE64[i & 0x3f];
+      }
+      base64Pairs = pairs;
+    }
+    return base64Pairs;
+  }
+
+  private static char[] hexPairs() {
+    if (hexPairs == null) {
+      char[] pairs = new char[256 * 2];
+      for (int i = 0; i < 256; i++) {
+        pairs[i << 1] = HEX[i >>> 4];
+        pairs[(i << 1) + 1] = HEX[i & 0xf];
+      }
+      hexPairs = pairs;
+    }
+    return hexPairs;
+  }
+
+  /** A Uint8Array with the ES2026 base64 and hex methods. */
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Uint8Array")
+  private static class NativeUint8Array {
+
+    public native String toBase64();
+
+    public native String toHex();
+
+    public native SetResult setFromBase64(String string);
+
+    public native SetResult setFromHex(String string);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+  private static class SetResult {
+    public double read;
+
+    public double written;
+  }
+}
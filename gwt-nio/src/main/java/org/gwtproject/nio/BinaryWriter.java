@@ -0,0 +1,277 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the primitives of Protocol Buffers and Avro encodings, the counterpart of {@link
+ * BinaryReader}. The writer either fills a given ByteBuffer, or grows a {@link ByteBufferBuilder}.
+ *
+ * <p>The writer keeps its cursor in a field, so the position of the buffer is only set by {@link
+ * #sync()}. Varints of values that fit 32 bits are encoded with int arithmetic.
+ *
+ * <pre>
+ * BinaryWriter writer = new BinaryWriter();
+ * writer.writeVarint32(1 << 3 | 2).writeString(name);
+ * ByteBuffer message = writer.build();
+ * </pre>
+ */
+public final class BinaryWriter {
+
+  private final ByteBufferBuilder builder;
+
+  private ByteBuffer buffer;
+
+  private int cursor;
+
+  private int limit;
+
+  /** Creates a writer to a new {@link ByteBufferBuilder}. */
+  public BinaryWriter() {
+    this(new ByteBufferBuilder());
+  }
+
+  /**
+   * Creates a writer that appends to {@code builder}.
+   *
+   * @param builder the builder, which must not be written to while the writer is in use
+   */
+  public BinaryWriter(ByteBufferBuilder builder) {
+    this.builder = builder;
+    attach(builder.buffer());
+  }
+
+  /**
+   * Creates a writer to the remaining bytes of {@code buffer}.
+   *
+   * @param buffer the buffer, which must not be modified while the writer is in use
+   */
+  public BinaryWriter(ByteBuffer buffer) {
+    this.builder = null;
+    attach(buffer);
+  }
+
+  private void attach(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.cursor = buffer.position();
+    this.limit = buffer.limit();
+  }
+
+  /** Returns the position in the buffer of the next byte to write. */
+  public int position() {
+    return cursor;
+  }
+
+  /**
+   * Sets the position of the buffer to the position of the writer.
+   *
+   * @return the buffer, or the current buffer of the builder
+   */
+  public ByteBuffer sync() {
+    buffer.position(cursor);
+    return buffer;
+  }
+
+  /**
+   * Finishes the builder of the writer and returns the written bytes without copying them.
+   *
+   * @return a direct buffer with the written bytes between position 0 and its limit
+   * @throws IllegalStateException if the writer writes to a given buffer
+   */
+  public ByteBuffer build() {
+    if (builder == null) {
+      throw new IllegalStateException("The writer has no builder");
+    }
+    sync();
+    return builder.build();
+  }
+
+  private void ensureRemaining(int byteCount) {
+    if (byteCount <= limit - cursor) {
+      return;
+    }
+    if (builder == null) {
+      throw new BufferOverflowException();
+    }
+    sync();
+    builder.ensureRemaining(byteCount);
+    attach(builder.buffer());
+  }
+
+  public BinaryWriter writeByte(int value) {
+    ensureRemaining(1);
+    buffer.put(cursor++, (byte) value);
+    return this;
+  }
+
+  /**
+   * Writes {@code value} as an unsigned varint of up to five bytes. Protobuf encodes negative
+   * int32 values sign extended to ten bytes; write those with {@link #writeVarint64(long)}.
+   *
+   * @param value the value
+   * @return this writer
+   */
+  public BinaryWriter writeVarint32(int value) {
+    ensureRemaining(varint32Size(value));
+    while ((value & ~0x7f) != 0) {
+      buffer.put(cursor++, (byte) (value & 0x7f | 0x80));
+      value >>>= 7;
+    }
+    buffer.put(cursor++, (byte) value);
+    return this;
+  }
+
+  /**
+   * Writes {@code value} as an unsigned varint of up to ten bytes.
+   *
+   * @param value the value
+   * @return this writer
+   */
+  public BinaryWriter writeVarint64(long value) {
+    if ((value >>> 32) == 0) {
+      return writeVarint32((int) value);
+    }
+    ensureRemaining(varint64Size(value));
+    while ((value & ~0x7fL) != 0) {
+      buffer.put(cursor++, (byte) ((int) value & 0x7f | 0x80));
+      value >>>= 7;
+    }
+    buffer.put(cursor++, (byte) value);
+    return this;
+  }
+
+  /* The exact size, so that a value fitting a given buffer does not overflow it. */
+  private static int varint32Size(int value) {
+    return Math.max(1, (38 - Integer.numberOfLeadingZeros(value)) / 7);
+  }
+
+  private static int varint64Size(long value) {
+    return Math.max(1, (70 - Long.numberOfLeadingZeros(value)) / 7);
+  }
+
+  /** Writes a zigzag encoded 32-bit varint, as of protobuf sint32 and Avro int. */
+  public BinaryWriter writeZigZag32(int value) {
+    return writeVarint32((value << 1) ^ (value >> 31));
+  }
+
+  /** Writes a zigzag encoded 64-bit varint, as of protobuf sint64 and Avro long. */
+  public BinaryWriter writeZigZag64(long value) {
+    return writeVarint64((value << 1) ^ (value >> 63));
+  }
+
+  /** Writes a little endian 32-bit value. */
+  public BinaryWriter writeFixed32(int value) {
+    ensureRemaining(4);
+    buffer.put(cursor, (byte) value);
+    buffer.put(cursor + 1, (byte) (value >> 8));
+    buffer.put(cursor + 2, (byte) (value >> 16));
+    buffer.put(cursor + 3, (byte) (value >> 24));
+    cursor += 4;
+    return this;
+  }
+
+  /** Writes a little endian 64-bit value. */
+  public BinaryWriter writeFixed64(long value) {
+    ensureRemaining(8);
+    writeFixed32((int) value);
+    return writeFixed32((int) (value >>> 32));
+  }
+
+  public BinaryWriter writeFloat(float value) {
+    return writeFixed32(Float.floatToIntBits(value));
+  }
+
+  public BinaryWriter writeDouble(double value) {
+    return writeFixed64(Double.doubleToLongBits(value));
+  }
+
+  /**
+   * Writes the number of remaining bytes of {@code src} as a varint followed by the bytes, and
+   * advances the position of {@code src} to its limit.
+   *
+   * @param src the bytes
+   * @return this writer
+   */
+  public BinaryWriter writeBytes(ByteBuffer src) {
+    int byteCount = src.remaining();
+    ensureRemaining(varint32Size(byteCount) + byteCount);
+    writeVarint32(byteCount);
+    sync().put(src);
+    cursor += byteCount;
+    return this;
+  }
+
+  /**
+   * Writes the length of {@code s} in UTF-8 as a varint followed by its UTF-8 bytes. Unpaired
+   * surrogates are written as '?'.
+   *
+   * @param s the string
+   * @return this writer
+   */
+  public BinaryWriter writeString(String s) {
+    int n = s.length();
+    int byteCount = n;
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      if (c >= 0x80 && c < 0x800) {
+        byteCount++;
+      } else if (isPair(s, i)) {
+        // Four bytes for the two chars.
+        byteCount += 2;
+        i++;
+      } else if (c >= 0x800 && !isSurrogate(c)) {
+        byteCount += 2;
+      }
+    }
+    ensureRemaining(varint32Size(byteCount) + byteCount);
+    writeVarint32(byteCount);
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        buffer.put(cursor++, (byte) c);
+      } else if (c < 0x800) {
+        buffer.put(cursor++, (byte) (0xc0 | c >> 6));
+        buffer.put(cursor++, (byte) (0x80 | c & 0x3f));
+      } else if (isPair(s, i)) {
+        int codePoint = Character.toCodePoint(c, s.charAt(++i));
+        buffer.put(cursor++, (byte) (0xf0 | codePoint >> 18));
+        buffer.put(cursor++, (byte) (0x80 | codePoint >> 12 & 0x3f));
+        buffer.put(cursor++, (byte) (0x80 | codePoint >> 6 & 0x3f));
+        buffer.put(cursor++, (byte) (0x80 | codePoint & 0x3f));
+      } else if (isSurrogate(c)) {
+        buffer.put(cursor++, (byte) '?');
+      } else {
+        buffer.put(cursor++, (byte) (0xe0 | c >> 12));
+        buffer.put(cursor++, (byte) (0x80 | c >> 6 & 0x3f));
+        buffer.put(cursor++, (byte) (0x80 | c & 0x3f));
+      }
+    }
+    return this;
+  }
+
+  private static boolean isPair(String s, int index) {
+    return Character.isHighSurrogate(s.charAt(index))
+        && index + 1 < s.length()
+        && Character.isLowSurrogate(s.charAt(index + 1));
+  }
+
+  /* Character.isSurrogate() is not emulated by GWT. */
+  private static boolean isSurrogate(char c) {
+    return Character.isHighSurrogate(c) || Character.isLowSurrogate(c);
+  }
+}
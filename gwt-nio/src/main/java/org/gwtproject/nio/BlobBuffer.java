@@ -0,0 +1,412 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+import elemental2.promise.Promise;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * A read-only, lazily loaded view of a {@code Blob} or {@code File}, indexed with {@code long}s.
+ *
+ * <p>The content is read in pages of a fixed size with {@code blob.slice(...).arrayBuffer()}, only
+ * when asked for, and kept in a cache that drops the least recently used pages once it exceeds its
+ * byte budget. Reading is therefore split in two steps: {@link #ensureLoaded(long, long)} loads a
+ * range asynchronously, and the synchronous getters then read from it:
+ *
+ * <pre>
+ * BlobBuffer archive = new BlobBuffer(file);
+ * archive.ensureLoaded(archive.length() - 22, 22).then(ignored -&gt; {
+ *   int directoryOffset = archive.order(ByteOrder.LITTLE_ENDIAN).getInt(archive.length() - 6);
+ *   ...
+ * });
+ * </pre>
+ *
+ * <p>A getter throws {@link IllegalStateException} if its page is not in the cache, because it was
+ * never loaded or was evicted since to make room for other pages. Reading into the page after the
+ * previously read one, by the getters or by {@code ensureLoaded}, counts as a sequential scan and
+ * starts loading the next {@link #getReadAhead()} pages in the background.
+ */
+public final class BlobBuffer {
+
+  /** The default page size of 64 KiB. */
+  public static final int DEFAULT_PAGE_SIZE = 64 * 1024;
+
+  /** The default cache budget of 64 MiB. */
+  public static final long DEFAULT_CACHE_BUDGET = 64 * 1024 * 1024;
+
+  private static final int DEFAULT_READ_AHEAD = 2;
+
+  private final Blob blob;
+
+  private final long length;
+
+  private final int pageSize;
+
+  private final long cacheBudget;
+
+  private final LinkedHashMap<Long, ByteBuffer> pages = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Map<Long, Promise<ByteBuffer>> loading = new HashMap<>();
+
+  private long cachedBytes;
+
+  private long lastPage = -1;
+
+  private int readAhead = DEFAULT_READ_AHEAD;
+
+  private ByteOrder order = ByteOrder.BIG_ENDIAN;
+
+  /**
+   * Creates a view with pages of {@link #DEFAULT_PAGE_SIZE} bytes and a cache of {@link
+   * #DEFAULT_CACHE_BUDGET} bytes.
+   *
+   * @param blob a {@code Blob} or {@code File}
+   */
+  public BlobBuffer(Object blob) {
+    this(blob, DEFAULT_PAGE_SIZE, DEFAULT_CACHE_BUDGET);
+  }
+
+  /**
+   * Creates a view.
+   *
+   * @param blob a {@code Blob} or {@code File}
+   * @param pageSize the number of bytes read at once
+   * @param cacheBudget the number of bytes the cache keeps, at least one page
+   */
+  public BlobBuffer(Object blob, int pageSize, long cacheBudget) {
+    if (!(blob instanceof Blob)) {
+      throw new IllegalArgumentException("Not a Blob: " + blob);
+    }
+    if (pageSize <= 0 || cacheBudget < pageSize) {
+      throw new IllegalArgumentException();
+    }
+    this.blob = (Blob) blob;
+    this.length = (long) this.blob.size;
+    this.pageSize = pageSize;
+    this.cacheBudget = cacheBudget;
+  }
+
+  public long length() {
+    return length;
+  }
+
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  public long getCacheBudget() {
+    return cacheBudget;
+  }
+
+  /**
+   * Returns the number of bytes currently cached.
+   *
+   * @return the size of the cached pages in bytes
+   */
+  public long getCachedBytes() {
+    return cachedBytes;
+  }
+
+  public int getReadAhead() {
+    return readAhead;
+  }
+
+  /**
+   * Sets the number of pages loaded ahead of a sequential scan.
+   *
+   * @param pages the number of pages, 0 to disable prefetching
+   * @return this buffer
+   */
+  public BlobBuffer setReadAhead(int pages) {
+    if (pages < 0) {
+      throw new IllegalArgumentException();
+    }
+    this.readAhead = pages;
+    return this;
+  }
+
+  public ByteOrder order() {
+    return order;
+  }
+
+  public BlobBuffer order(ByteOrder order) {
+    this.order = order;
+    return this;
+  }
+
+  /**
+   * Loads the pages covering a range into the cache.
+   *
+   * @param index the index of the first byte
+   * @param length the number of bytes
+   * @return a promise resolved once the whole range can be read synchronously, or rejected with
+   *     the error of the first page that failed to load
+   * @throws IllegalArgumentException if the pages of the range do not fit in the cache
+   */
+  public Promise<Void> ensureLoaded(long index, long length) {
+    checkRange(index, length);
+    if (length == 0) {
+      return Promise.resolve((Void) null);
+    }
+    long first = index / pageSize;
+    long last = (index + length - 1) / pageSize;
+    if ((last - first + 1) * pageSize > cacheBudget) {
+      throw new IllegalArgumentException("The range does not fit in the cache: " + length);
+    }
+    boolean sequential = first == lastPage + 1;
+    int missing = 0;
+    for (long page = first; page <= last; page++) {
+      // get() also makes cached pages the most recently used, so loading the others keeps them
+      if (pages.get(page) == null) {
+        missing++;
+      }
+    }
+    if (missing == 0) {
+      if (sequential) {
+        prefetch(last + 1);
+      }
+      return Promise.resolve((Void) null);
+    }
+    int[] pending = {missing};
+    return new Promise<>(
+        (resolve, reject) -> {
+          for (long page = first; page <= last; page++) {
+            if (pages.containsKey(page)) {
+              continue;
+            }
+            load(page)
+                .then(
+                    buffer -> {
+                      if (--pending[0] == 0) {
+                        if (sequential) {
+                          prefetch(last + 1);
+                        }
+                        resolve.onInvoke((Void) null);
+                      }
+                      return null;
+                    },
+                    error -> {
+                      reject.onInvoke(error);
+                      return null;
+                    });
+          }
+        });
+  }
+
+  /**
+   * Returns true if a range is in the cache and can be read synchronously.
+   *
+   * @param index the index of the first byte
+   * @param length the number of bytes
+   * @return true if all pages covering the range are cached
+   */
+  public boolean isLoaded(long index, long length) {
+    checkRange(index, length);
+    if (length == 0) {
+      return true;
+    }
+    for (long page = index / pageSize; page * pageSize < index + length; page++) {
+      if (!pages.containsKey(page)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Drops all cached pages. Loads in progress still add their page to the cache. */
+  public void evictAll() {
+    pages.clear();
+    cachedBytes = 0;
+  }
+
+  public byte get(long index) {
+    checkRange(index, 1);
+    return page(index / pageSize).get((int) (index % pageSize));
+  }
+
+  public short getShort(long index) {
+    ByteBuffer page = pageFor(index, 2);
+    if (page != null) {
+      return page.getShort((int) (index % pageSize));
+    }
+    return (short) getStraddling(index, 2);
+  }
+
+  public char getChar(long index) {
+    return (char) getShort(index);
+  }
+
+  public int getInt(long index) {
+    ByteBuffer page = pageFor(index, 4);
+    if (page != null) {
+      return page.getInt((int) (index % pageSize));
+    }
+    return (int) getStraddling(index, 4);
+  }
+
+  public long getLong(long index) {
+    ByteBuffer page = pageFor(index, 8);
+    if (page != null) {
+      return page.getLong((int) (index % pageSize));
+    }
+    return getStraddling(index, 8);
+  }
+
+  public float getFloat(long index) {
+    return Float.intBitsToFloat(getInt(index));
+  }
+
+  public double getDouble(long index) {
+    return Double.longBitsToDouble(getLong(index));
+  }
+
+  /**
+   * Copies {@code length} loaded bytes starting at {@code index} into {@code dst}.
+   *
+   * @param index the index of the first byte to read
+   * @param dst the destination array
+   * @param offset the offset in {@code dst}
+   * @param length the number of bytes
+   * @return this buffer
+   */
+  public BlobBuffer get(long index, byte[] dst, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > dst.length - length) {
+      throw new IndexOutOfBoundsException();
+    }
+    checkRange(index, length);
+    while (length > 0) {
+      ByteBuffer page = page(index / pageSize).duplicate();
+      int start = (int) (index % pageSize);
+      int count = Math.min(length, page.capacity() - start);
+      page.position(start);
+      page.get(dst, offset, count);
+      index += count;
+      offset += count;
+      length -= count;
+    }
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "BlobBuffer[length=" + length + " cached=" + cachedBytes + "]";
+  }
+
+  /* Returns the page holding all the size bytes at index, or null if they straddle two. */
+  private ByteBuffer pageFor(long index, int size) {
+    checkRange(index, size);
+    int offset = (int) (index % pageSize);
+    if (offset > pageSize - size) {
+      return null;
+    }
+    return page(index / pageSize).order(order);
+  }
+
+  private ByteBuffer page(long page) {
+    ByteBuffer buffer = pages.get(page);
+    if (buffer == null) {
+      throw new IllegalStateException("Page not loaded: " + page + " of " + this);
+    }
+    if (page != lastPage) {
+      if (page == lastPage + 1) {
+        prefetch(page + 1);
+      }
+      lastPage = page;
+    }
+    return buffer;
+  }
+
+  private long getStraddling(long index, int size) {
+    long value = 0;
+    for (int i = 0; i < size; i++) {
+      int shift = order == ByteOrder.BIG_ENDIAN ? (size - 1 - i) << 3 : i << 3;
+      value |= (get(index + i) & 0xffL) << shift;
+    }
+    return value;
+  }
+
+  private void prefetch(long from) {
+    long count = (length + pageSize - 1) / pageSize;
+    for (long page = from; page < from + readAhead && page < count; page++) {
+      if (!pages.containsKey(page)) {
+        load(page).catch_(error -> null);
+      }
+    }
+  }
+
+  private Promise<ByteBuffer> load(long page) {
+    Promise<ByteBuffer> pending = loading.get(page);
+    if (pending != null) {
+      return pending;
+    }
+    double start = (double) page * pageSize;
+    double end = Math.min(start + pageSize, length);
+    pending =
+        blob.slice(start, end)
+            .arrayBuffer()
+            .then(
+                arrayBuffer -> {
+                  loading.remove(page);
+                  ByteBuffer buffer = TypedArrayHelper.wrap(arrayBuffer);
+                  if (pages.put(page, buffer) == null) {
+                    cachedBytes += buffer.capacity();
+                  }
+                  evict(page);
+                  return Promise.resolve(buffer);
+                },
+                error -> {
+                  loading.remove(page);
+                  return Promise.reject(error);
+                });
+    loading.put(page, pending);
+    return pending;
+  }
+
+  /* Drops the least recently used pages until the cache fits its budget again. */
+  private void evict(long keep) {
+    Iterator<Map.Entry<Long, ByteBuffer>> entries = pages.entrySet().iterator();
+    while (cachedBytes > cacheBudget && entries.hasNext()) {
+      Map.Entry<Long, ByteBuffer> eldest = entries.next();
+      if (eldest.getKey() != keep) {
+        cachedBytes -= eldest.getValue().capacity();
+        entries.remove();
+      }
+    }
+  }
+
+  private void checkRange(long index, long size) {
+    if (index < 0 || size < 0 || index > length - size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL)
+  private static class Blob {
+    public double size;
+
+    public native Blob slice(double start, double end);
+
+    public native Promise<ArrayBuffer> arrayBuffer();
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBufferView;
+import elemental2.core.DataView;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+
+/**
+ * Batches relative reads and writes of a ByteBuffer behind a single bounds check. The caller
+ * reserves the bytes of a record with {@link #beginRead(int)} or {@link #beginWrite(int)}, accesses
+ * them with the get and put methods of the cursor, and moves the position of the buffer past them
+ * with {@link #commit()}.
+ *
+ * <p>Direct buffers are accessed through a DataView in the byte order of the buffer, other buffers
+ * through their absolute get and put methods. Accesses within the reservation are only checked by
+ * assertions, so they cost no more than unchecked ones in production code.
+ *
+ * <pre>
+ * BufferCursor cursor = new BufferCursor(vertices);
+ * cursor.beginWrite(16).putFloat(x).putFloat(y).putFloat(z).putInt(color).commit();
+ * </pre>
+ */
+public final class BufferCursor {
+
+  private final ByteBuffer buffer;
+
+  private DataView view;
+
+  private boolean littleEndian;
+
+  /* The index in the buffer of the next access, and the end of the reservation. */
+  private int index;
+
+  private int end = -1;
+
+  /**
+   * Creates a cursor of {@code buffer}.
+   *
+   * @param buffer the buffer, which must not be accessed between a begin and {@link #commit()}
+   */
+  public BufferCursor(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * Reserves the next {@code byteCount} bytes for reading.
+   *
+   * @param byteCount the number of bytes of the record
+   * @return this cursor
+   * @throws BufferUnderflowException if fewer bytes remain in the buffer
+   * @throws IllegalStateException if the last reservation was not committed
+   */
+  public BufferCursor beginRead(int byteCount) {
+    if (byteCount < 0 || byteCount > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    return begin(byteCount);
+  }
+
+  /**
+   * Reserves the next {@code byteCount} bytes for writing, and reading.
+   *
+   * @param byteCount the number of bytes of the record
+   * @return this cursor
+   * @throws BufferOverflowException if fewer bytes remain in the buffer
+   * @throws ReadOnlyBufferException if the buffer is read-only
+   * @throws IllegalStateException if the last reservation was not committed
+   */
+  public BufferCursor beginWrite(int byteCount) {
+    if (byteCount < 0 || byteCount > buffer.remaining()) {
+      throw new BufferOverflowException();
+    }
+    if (buffer.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    return begin(byteCount);
+  }
+
+  private BufferCursor begin(int byteCount) {
+    if (end >= 0) {
+      throw new IllegalStateException("commit() was not called");
+    }
+    index = buffer.position();
+    end = index + byteCount;
+    littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+    if (buffer.isDirect() && buffer instanceof HasArrayBufferView) {
+      // The memory of the buffer may have been replaced since the last reservation.
+      ArrayBufferView typed = ((HasArrayBufferView) buffer).getTypedArray();
+      if (view == null || view.buffer != typed.buffer) {
+        view = new DataView(typed.buffer, typed.byteOffset, typed.byteLength);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Moves the position of the buffer to the end of the accessed bytes, which may be before the end
+   * of the reservation, and ends the reservation.
+   *
+   * @return the buffer
+   */
+  public ByteBuffer commit() {
+    if (end < 0) {
+      throw new IllegalStateException("Nothing to commit");
+    }
+    end = -1;
+    buffer.position(index);
+    return buffer;
+  }
+
+  /** Returns the number of reserved bytes left. */
+  public int remaining() {
+    return end < 0 ? 0 : end - index;
+  }
+
+  /* Returns the index of the next access of byteCount bytes and advances past it. */
+  private int advance(int byteCount) {
+    assert byteCount <= end - index : "Access outside of the reservation";
+    int i = index;
+    index += byteCount;
+    return i;
+  }
+
+  public BufferCursor skip(int byteCount) {
+    advance(byteCount);
+    return this;
+  }
+
+  public byte get() {
+    int i = advance(1);
+    return view != null ? (byte) view.getInt8(i) : buffer.get(i);
+  }
+
+  public short getShort() {
+    int i = advance(2);
+    return view != null ? (short) view.getInt16(i, littleEndian) : buffer.getShort(i);
+  }
+
+  public char getChar() {
+    int i = advance(2);
+    return view != null ? (char) view.getUint16(i, littleEndian) : buffer.getChar(i);
+  }
+
+  public int getInt() {
+    int i = advance(4);
+    return view != null ? view.getInt32(i, littleEndian) : buffer.getInt(i);
+  }
+
+  public long getLong() {
+    int i = advance(8);
+    if (view == null) {
+      return buffer.getLong(i);
+    }
+    long first = view.getInt32(i, littleEndian);
+    long second = view.getInt32(i + 4, littleEndian);
+    return littleEndian
+        ? (first & 0xffffffffL) | second << 32
+        : first << 32 | (second & 0xffffffffL);
+  }
+
+  public float getFloat() {
+    int i = advance(4);
+    return view != null ? (float) view.getFloat32(i, littleEndian) : buffer.getFloat(i);
+  }
+
+  public double getDouble() {
+    int i = advance(8);
+    return view != null ? view.getFloat64(i, littleEndian) : buffer.getDouble(i);
+  }
+
+  public BufferCursor put(byte value) {
+    int i = advance(1);
+    if (view != null) {
+      view.setInt8(i, value);
+    } else {
+      buffer.put(i, value);
+    }
+    return this;
+  }
+
+  public BufferCursor putShort(short value) {
+    int i = advance(2);
+    if (view != null) {
+      view.setInt16(i, value, littleEndian);
+    } else {
+      buffer.putShort(i, value);
+    }
+    return this;
+  }
+
+  public BufferCursor putChar(char value) {
+    int i = advance(2);
+    if (view != null) {
+      view.setUint16(i, value, littleEndian);
+    } else {
+      buffer.putChar(i, value);
+    }
+    return this;
+  }
+
+  public BufferCursor putInt(int value) {
+    int i = advance(4);
+    if (view != null) {
+      view.setInt32(i, value, littleEndian);
+    } else {
+      buffer.putInt(i, value);
+    }
+    return this;
+  }
+
+  public BufferCursor putLong(long value) {
+    int i = advance(8);
+    if (view != null) {
+      int high = (int) (value >>> 32);
+      view.setInt32(i, littleEndian ? (int) value : high, littleEndian);
+      view.setInt32(i + 4, littleEndian ? high : (int) value, littleEndian);
+    } else {
+      buffer.putLong(i, value);
+    }
+    return this;
+  }
+
+  public BufferCursor putFloat(float value) {
+    int i = advance(4);
+    if (view != null) {
+      view.setFloat32(i, value, littleEndian);
+    } else {
+      buffer.putFloat(i, value);
+    }
+    return this;
+  }
+
+  public BufferCursor putDouble(double value) {
+    int i = advance(8);
+    if (view != null) {
+      view.setFloat64(i, value, littleEndian);
+    } else {
+      buffer.putDouble(i, value);
+    }
+    return this;
+  }
+}
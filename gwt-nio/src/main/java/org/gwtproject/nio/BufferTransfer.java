@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+import elemental2.core.ArrayBufferView;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+
+/**
+ * Moves direct buffers between workers without copying them.
+ *
+ * <pre>
+ * TransferredBuffer message = BufferTransfer.transfer(buffer);
+ * worker.postMessage(message, new Transferable[] {message.buffer});
+ * ...
+ * ByteBuffer received = (ByteBuffer) BufferTransfer.receive((TransferredBuffer) event.data);
+ * </pre>
+ *
+ * <p>The memory is transferred as a whole, so all buffers sharing it (slices, duplicates and
+ * views) become unusable on the sending side. Accessing them throws a {@link
+ * DetachedBufferException}. Where {@code ArrayBuffer.prototype.transfer} is available the memory
+ * is detached by {@link #transfer(Buffer)} already, otherwise by {@code postMessage}.
+ */
+public final class BufferTransfer {
+
+  private BufferTransfer() {}
+
+  /**
+   * Detaches the memory of {@code buffer} and describes it in a message that {@link
+   * #receive(TransferredBuffer)} turns back into a buffer of the same type, with the same position,
+   * limit, byte order and read-only state. The limit of {@code buffer} is set to 0.
+   *
+   * @param buffer a direct ByteBuffer, or an int, short or float view of one
+   * @return the message to post, with {@link TransferredBuffer#buffer} as transferable
+   * @throws IllegalArgumentException if the buffer is not a supported direct buffer
+   * @throws DetachedBufferException if the buffer was transferred already
+   */
+  public static TransferredBuffer transfer(Buffer buffer) {
+    String type = typeOf(buffer);
+    if (type == null) {
+      throw new IllegalArgumentException("Not a transferable buffer: " + buffer);
+    }
+    if (isDetached(buffer)) {
+      throw new DetachedBufferException();
+    }
+    TransferredBuffer message = describe(buffer, type);
+    message.buffer = detach(message.buffer);
+    buffer.limit(0);
+    return message;
+  }
+
+  /** Describes a direct buffer of the given type without detaching its memory. */
+  static TransferredBuffer describe(Buffer buffer, String type) {
+    ArrayBufferView view = ((HasArrayBufferView) buffer).getTypedArray();
+    TransferredBuffer message = new TransferredBuffer();
+    message.type = type;
+    message.buffer = view.buffer;
+    message.byteOffset = view.byteOffset;
+    message.capacity = buffer.capacity();
+    message.position = buffer.position();
+    message.limit = buffer.limit();
+    message.bigEndian = orderOf(buffer) == ByteOrder.BIG_ENDIAN;
+    message.readOnly = buffer.isReadOnly();
+    return message;
+  }
+
+  /**
+   * Wraps the memory of a message created by {@link #transfer(Buffer)} in a buffer of the
+   * transferred type.
+   *
+   * @param message the received message
+   * @return a ByteBuffer, IntBuffer, ShortBuffer or FloatBuffer, depending on the transferred
+   *     buffer
+   */
+  public static Buffer receive(TransferredBuffer message) {
+    String type = message.type;
+    int elementSize = "byte".equals(type) ? 1 : "float".equals(type) || "int".equals(type) ? 4 : 2;
+    ByteBuffer bytes =
+        TypedArrayHelper.wrap(message.buffer, message.byteOffset, message.capacity * elementSize)
+            .order(message.bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    Buffer result;
+    if ("byte".equals(type)) {
+      result = message.readOnly ? bytes.asReadOnlyBuffer() : bytes;
+    } else if ("int".equals(type)) {
+      IntBuffer ints = bytes.asIntBuffer();
+      result = message.readOnly ? ints.asReadOnlyBuffer() : ints;
+    } else if ("short".equals(type)) {
+      ShortBuffer shorts = bytes.asShortBuffer();
+      result = message.readOnly ? shorts.asReadOnlyBuffer() : shorts;
+    } else if ("float".equals(type)) {
+      FloatBuffer floats = bytes.asFloatBuffer();
+      result = message.readOnly ? floats.asReadOnlyBuffer() : floats;
+    } else {
+      throw new IllegalArgumentException("Unknown buffer type: " + type);
+    }
+    result.limit(message.limit);
+    result.position(message.position);
+    return result;
+  }
+
+  /**
+   * Returns true if the memory of the direct {@code buffer} was transferred to another agent.
+   *
+   * @param buffer the buffer
+   * @return true if accessing the buffer would throw a {@link DetachedBufferException}
+   */
+  public static boolean isDetached(Buffer buffer) {
+    return buffer instanceof HasArrayBufferView
+        && buffer.isDirect()
+        && buffer.capacity() != 0
+        && ((HasArrayBufferView) buffer).getTypedArray().byteLength == 0;
+  }
+
+  static String typeOf(Buffer buffer) {
+    if (!(buffer instanceof HasArrayBufferView)) {
+      return null;
+    } else if (buffer instanceof ByteBuffer) {
+      return "byte";
+    } else if (buffer instanceof IntBuffer) {
+      return "int";
+    } else if (buffer instanceof ShortBuffer) {
+      return "short";
+    } else if (buffer instanceof FloatBuffer) {
+      return "float";
+    }
+    return null;
+  }
+
+  private static ByteOrder orderOf(Buffer buffer) {
+    if (buffer instanceof ByteBuffer) {
+      return ((ByteBuffer) buffer).order();
+    } else if (buffer instanceof IntBuffer) {
+      return ((IntBuffer) buffer).order();
+    } else if (buffer instanceof ShortBuffer) {
+      return ((ShortBuffer) buffer).order();
+    }
+    return ((FloatBuffer) buffer).order();
+  }
+
+  private static ArrayBuffer detach(ArrayBuffer buffer) {
+    if ("function".equals(Js.typeof(Js.asPropertyMap(buffer).get("transfer")))) {
+      return Js.<DetachableArrayBuffer>uncheckedCast(buffer).transfer();
+    }
+    return buffer;
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "ArrayBuffer")
+  private static class DetachableArrayBuffer {
+    public native ArrayBuffer transfer();
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+import elemental2.core.Int8Array;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+import jsinterop.base.JsPropertyMap;
+
+/**
+ * Builds a direct ByteBuffer of unknown size. The builder offers the relative put methods of
+ * ByteBuffer and grows its memory geometrically before every write that would not fit.
+ *
+ * <p>Where ES2024 resizable ArrayBuffers are available, the memory grows in place up to the
+ * maximum capacity given at construction. Beyond that, or without resizable buffers, it moves with
+ * {@code ArrayBuffer.prototype.transfer} where available, which lets the engine avoid copying, and
+ * is copied otherwise. {@link #build()} wraps the written bytes without copying them.
+ *
+ * <pre>
+ * ByteBuffer message = new ByteBufferBuilder().putInt(id).put(payload).build();
+ * </pre>
+ */
+public final class ByteBufferBuilder {
+
+  private static final int DEFAULT_INITIAL_CAPACITY = 256;
+
+  private static final int DEFAULT_MAX_CAPACITY = 64 * 1024 * 1024;
+
+  private final int maxCapacity;
+
+  private MemoryBuffer memory;
+
+  private ByteBuffer buffer;
+
+  private ByteOrder order = ByteOrder.BIG_ENDIAN;
+
+  private boolean built;
+
+  /** Creates a builder with an initial capacity of 256 bytes. */
+  public ByteBufferBuilder() {
+    this(DEFAULT_INITIAL_CAPACITY);
+  }
+
+  /**
+   * Creates a builder.
+   *
+   * @param initialCapacity the initial capacity in bytes
+   */
+  public ByteBufferBuilder(int initialCapacity) {
+    this(initialCapacity, Math.max(initialCapacity, DEFAULT_MAX_CAPACITY));
+  }
+
+  /**
+   * Creates a builder.
+   *
+   * @param initialCapacity the initial capacity in bytes
+   * @param maxCapacity the capacity up to which the memory grows in place, where resizable
+   *     ArrayBuffers are available; it is reserved as address space, not allocated. The builder
+   *     grows beyond it by moving the memory.
+   */
+  public ByteBufferBuilder(int initialCapacity, int maxCapacity) {
+    if (initialCapacity < 0 || maxCapacity < initialCapacity) {
+      throw new IllegalArgumentException();
+    }
+    this.maxCapacity = maxCapacity;
+    JsPropertyMap<Object> options = JsPropertyMap.of("maxByteLength", (double) maxCapacity);
+    wrap(new MemoryBuffer(initialCapacity, options), initialCapacity, 0);
+  }
+
+  private void wrap(MemoryBuffer memory, int capacity, int position) {
+    this.memory = memory;
+    ByteBuffer buffer = TypedArrayHelper.wrap(Js.<ArrayBuffer>uncheckedCast(memory), 0, capacity);
+    buffer.order(order).position(position);
+    this.buffer = buffer;
+  }
+
+  /**
+   * Makes sure that {@code byteCount} more bytes can be written without growing.
+   *
+   * @param byteCount the number of bytes
+   * @return this builder
+   * @throws BufferOverflowException if the content would exceed 2 GiB
+   */
+  public ByteBufferBuilder ensureRemaining(int byteCount) {
+    if (built) {
+      throw new IllegalStateException("build() was called already");
+    }
+    if (byteCount > buffer.remaining()) {
+      grow(byteCount);
+    }
+    return this;
+  }
+
+  private void grow(int byteCount) {
+    int position = buffer.position();
+    if (byteCount > Integer.MAX_VALUE - position) {
+      throw new BufferOverflowException();
+    }
+    int needed = position + byteCount;
+    int capacity = buffer.capacity();
+    int newCapacity = capacity > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : capacity * 2;
+    newCapacity = Math.max(needed, Math.max(newCapacity, DEFAULT_INITIAL_CAPACITY));
+
+    if (memory.resizable && needed <= memory.maxByteLength) {
+      // stay in place up to the maximum rather than copying for the last doubling
+      newCapacity = Math.min(newCapacity, memory.maxByteLength);
+    }
+
+    MemoryBuffer grown;
+    if (memory.resizable && newCapacity <= memory.maxByteLength) {
+      memory.resize(newCapacity);
+      grown = memory;
+    } else if (memory.resizable && isFunction("transferToFixedLength")) {
+      grown = memory.transferToFixedLength(newCapacity);
+    } else if (!memory.resizable && isFunction("transfer")) {
+      grown = memory.transfer(newCapacity);
+    } else {
+      grown = new MemoryBuffer(newCapacity, null);
+      new Int8Array(Js.<ArrayBuffer>uncheckedCast(grown))
+          .set(new Int8Array(Js.<ArrayBuffer>uncheckedCast(memory), 0, position));
+    }
+    wrap(grown, newCapacity, position);
+  }
+
+  private boolean isFunction(String name) {
+    return "function".equals(Js.typeof(Js.asPropertyMap(memory).get(name)));
+  }
+
+  public ByteOrder order() {
+    return order;
+  }
+
+  /**
+   * Sets the byte order of the following writes and of the built buffer.
+   *
+   * @param order the byte order
+   * @return this builder
+   */
+  public ByteBufferBuilder order(ByteOrder order) {
+    this.order = order;
+    buffer.order(order);
+    return this;
+  }
+
+  /** Returns the number of bytes written so far. */
+  public int position() {
+    return buffer.position();
+  }
+
+  /** Returns the current capacity in bytes. */
+  public int capacity() {
+    return buffer.capacity();
+  }
+
+  /** Returns the capacity up to which the memory grows in place, if supported. */
+  public int getMaxCapacity() {
+    return maxCapacity;
+  }
+
+  public ByteBufferBuilder put(byte value) {
+    ensureRemaining(1).buffer.put(value);
+    return this;
+  }
+
+  public ByteBufferBuilder put(byte[] src) {
+    return put(src, 0, src.length);
+  }
+
+  public ByteBufferBuilder put(byte[] src, int off, int len) {
+    ensureRemaining(len).buffer.put(src, off, len);
+    return this;
+  }
+
+  /**
+   * Writes the remaining bytes of {@code src}, advancing its position.
+   *
+   * @param src the bytes to write
+   * @return this builder
+   */
+  public ByteBufferBuilder put(ByteBuffer src) {
+    ensureRemaining(src.remaining()).buffer.put(src);
+    return this;
+  }
+
+  public ByteBufferBuilder putChar(char value) {
+    ensureRemaining(2).buffer.putChar(value);
+    return this;
+  }
+
+  public ByteBufferBuilder putShort(short value) {
+    ensureRemaining(2).buffer.putShort(value);
+    return this;
+  }
+
+  public ByteBufferBuilder putInt(int value) {
+    ensureRemaining(4).buffer.putInt(value);
+    return this;
+  }
+
+  public ByteBufferBuilder putLong(long value) {
+    ensureRemaining(8).buffer.putLong(value);
+    return this;
+  }
+
+  public ByteBufferBuilder putFloat(float value) {
+    ensureRemaining(4).buffer.putFloat(value);
+    return this;
+  }
+
+  public ByteBufferBuilder putDouble(double value) {
+    ensureRemaining(8).buffer.putDouble(value);
+    return this;
+  }
+
+  /**
+   * Returns the buffer the builder currently writes to, e.g. to patch a length prefix with an
+   * absolute put. It is only valid until the builder grows next.
+   *
+   * @return the current buffer, positioned after the last written byte
+   */
+  public ByteBuffer buffer() {
+    return buffer;
+  }
+
+  /**
+   * Finishes the builder and returns the written bytes, without copying them. The builder can not
+   * be used afterwards.
+   *
+   * @return a direct buffer with the written bytes between position 0 and its limit
+   */
+  public ByteBuffer build() {
+    if (built) {
+      throw new IllegalStateException("build() was called already");
+    }
+    built = true;
+    ByteBuffer result = buffer.duplicate();
+    result.flip();
+    return result.slice().order(order);
+  }
+
+  /** An ArrayBuffer with the ES2024 methods; on older engines the options are ignored. */
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "ArrayBuffer")
+  private static class MemoryBuffer {
+    public boolean resizable;
+
+    public int maxByteLength;
+
+    public MemoryBuffer(int byteLength, JsPropertyMap<Object> options) {}
+
+    public native void resize(int byteLength);
+
+    public native MemoryBuffer transfer(int byteLength);
+
+    public native MemoryBuffer transferToFixedLength(int byteLength);
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * An in memory {@link SeekableByteChannel} over a direct ByteBuffer, which grows as the channel is
+ * written beyond its capacity.
+ *
+ * <p>Reads and writes are bulk copies between the channel's buffer and the caller's buffer; when
+ * both are direct, they are single {@code TypedArray.set()} calls. {@link #toByteBuffer()} returns
+ * the content without copying it.
+ *
+ * <pre>
+ * ByteBufferChannel channel = new ByteBufferChannel();
+ * encoder.encode(Channels.newOutputStream(channel));
+ * ByteBuffer encoded = channel.toByteBuffer();
+ * </pre>
+ */
+public final class ByteBufferChannel
+    implements SeekableByteChannel, GatheringByteChannel, ScatteringByteChannel {
+
+  private static final int DEFAULT_CAPACITY = 256;
+
+  private ByteBuffer buffer;
+
+  private int size;
+
+  private long position;
+
+  private boolean open = true;
+
+  /** Creates an empty channel with an initial capacity of 256 bytes. */
+  public ByteBufferChannel() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an empty channel.
+   *
+   * @param initialCapacity the initial capacity in bytes
+   */
+  public ByteBufferChannel(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException();
+    }
+    buffer = ByteBuffer.allocateDirect(initialCapacity);
+  }
+
+  private ByteBufferChannel(ByteBuffer content) {
+    buffer = content;
+    size = content.capacity();
+  }
+
+  /**
+   * Creates a channel whose content is the remaining bytes of {@code content}, without copying
+   * them. Writes within the content change {@code content}; the channel moves to a new buffer when
+   * it grows beyond it. If {@code content} is read-only, so is the channel.
+   *
+   * @param content the initial content
+   * @return the channel, positioned at 0
+   */
+  public static ByteBufferChannel wrap(ByteBuffer content) {
+    return new ByteBufferChannel(content.slice());
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    checkOpen();
+    if (position >= size) {
+      return dst.hasRemaining() ? -1 : 0;
+    }
+    int count = (int) Math.min(dst.remaining(), size - position);
+    ByteBuffer src = buffer.duplicate();
+    src.limit((int) position + count).position((int) position);
+    dst.put(src);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+    if (offset < 0 || length < 0 || offset > dsts.length - length) {
+      throw new IndexOutOfBoundsException();
+    }
+    checkOpen();
+    if (position >= size) {
+      return -1;
+    }
+    long total = 0;
+    for (int i = offset; i < offset + length && position < size; i++) {
+      total += Math.max(0, read(dsts[i]));
+    }
+    return total;
+  }
+
+  @Override
+  public long read(ByteBuffer[] dsts) throws IOException {
+    return read(dsts, 0, dsts.length);
+  }
+
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    checkOpen();
+    if (buffer.isReadOnly()) {
+      throw new NonWritableChannelException();
+    }
+    int count = src.remaining();
+    if (count > Integer.MAX_VALUE - position) {
+      throw new IOException("Channel size would exceed 2 GiB");
+    }
+    int end = (int) position + count;
+    if (end > buffer.capacity()) {
+      grow(end);
+    }
+    ByteBuffer dst = buffer.duplicate();
+    if (position > size) {
+      // the bytes of the gap may be left over from before a truncate
+      for (int i = size; i < position; i++) {
+        dst.put(i, (byte) 0);
+      }
+    }
+    dst.position((int) position);
+    dst.put(src);
+    position = end;
+    size = Math.max(size, end);
+    return count;
+  }
+
+  @Override
+  public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+    if (offset < 0 || length < 0 || offset > srcs.length - length) {
+      throw new IndexOutOfBoundsException();
+    }
+    long total = 0;
+    for (int i = offset; i < offset + length; i++) {
+      total += write(srcs[i]);
+    }
+    return total;
+  }
+
+  @Override
+  public long write(ByteBuffer[] srcs) throws IOException {
+    return write(srcs, 0, srcs.length);
+  }
+
+  @Override
+  public long position() throws IOException {
+    checkOpen();
+    return position;
+  }
+
+  @Override
+  public ByteBufferChannel position(long newPosition) throws IOException {
+    checkOpen();
+    if (newPosition < 0) {
+      throw new IllegalArgumentException("Negative position: " + newPosition);
+    }
+    position = newPosition;
+    return this;
+  }
+
+  @Override
+  public long size() throws IOException {
+    checkOpen();
+    return size;
+  }
+
+  @Override
+  public ByteBufferChannel truncate(long newSize) throws IOException {
+    checkOpen();
+    if (newSize < 0) {
+      throw new IllegalArgumentException("Negative size: " + newSize);
+    }
+    if (buffer.isReadOnly()) {
+      throw new NonWritableChannelException();
+    }
+    if (newSize < size) {
+      size = (int) newSize;
+    }
+    if (position > newSize) {
+      position = newSize;
+    }
+    return this;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public void close() {
+    open = false;
+  }
+
+  /**
+   * Returns the content of the channel without copying it. The returned buffer is valid until the
+   * channel grows next; it is read-only if the channel is.
+   *
+   * @return a buffer with the bytes from 0 to {@link #size()} between position 0 and its limit
+   */
+  public ByteBuffer toByteBuffer() {
+    ByteBuffer content = buffer.duplicate();
+    content.position(0).limit(size);
+    return content.slice();
+  }
+
+  private void grow(int needed) {
+    int capacity = buffer.capacity();
+    int newCapacity = capacity > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : capacity * 2;
+    newCapacity = Math.max(needed, Math.max(newCapacity, DEFAULT_CAPACITY));
+    ByteBuffer grown = ByteBuffer.allocateDirect(newCapacity);
+    grown.put(toByteBuffer());
+    buffer = grown;
+  }
+
+  private void checkOpen() throws ClosedChannelException {
+    if (!open) {
+      throw new ClosedChannelException();
+    }
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+
+/**
+ * An InputStream and {@link DataInput} reading the remaining bytes of a ByteBuffer, in place of a
+ * {@code DataInputStream} over a {@code ByteArrayInputStream}.
+ *
+ * <p>Multi-byte values are read with the buffer's own accessors, so they are single typed array
+ * reads on direct buffers, and in the buffer's byte order: big endian by default, as written by
+ * {@code DataOutputStream} and {@link ByteBufferOutputStream}. Reading advances the position of the
+ * buffer.
+ *
+ * <pre>
+ * DataInput in = new ByteBufferInputStream(message);
+ * int id = in.readInt();
+ * String name = in.readUTF();
+ * </pre>
+ */
+public class ByteBufferInputStream extends InputStream implements DataInput {
+
+  private final ByteBuffer buffer;
+
+  private int mark;
+
+  /**
+   * Creates a stream reading the bytes between the position and the limit of {@code buffer}.
+   *
+   * @param buffer the buffer to read from
+   */
+  public ByteBufferInputStream(ByteBuffer buffer) {
+    if (buffer == null) {
+      throw new NullPointerException();
+    }
+    this.buffer = buffer;
+    this.mark = buffer.position();
+  }
+
+  /** Returns the buffer this stream reads from, positioned at the next byte to read. */
+  public ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  @Override
+  public int read() {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    if (off < 0 || len < 0 || len > b.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len == 0) {
+      return 0;
+    }
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+    int count = Math.min(len, buffer.remaining());
+    buffer.get(b, off, count);
+    return count;
+  }
+
+  @Override
+  public long skip(long n) {
+    int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+    buffer.position(buffer.position() + count);
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return true;
+  }
+
+  @Override
+  public void mark(int readlimit) {
+    mark = buffer.position();
+  }
+
+  /** Moves back to the last mark, or to where the stream started if it was never marked. */
+  @Override
+  public void reset() {
+    buffer.position(mark);
+  }
+
+  @Override
+  public void readFully(byte[] b) throws IOException {
+    readFully(b, 0, b.length);
+  }
+
+  @Override
+  public void readFully(byte[] b, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || len > b.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    require(len);
+    buffer.get(b, off, len);
+  }
+
+  @Override
+  public int skipBytes(int n) {
+    return (int) skip(n);
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    require(1);
+    return buffer.get() != 0;
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    require(1);
+    return buffer.get();
+  }
+
+  @Override
+  public int readUnsignedByte() throws IOException {
+    require(1);
+    return buffer.get() & 0xFF;
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    require(2);
+    return buffer.getShort();
+  }
+
+  @Override
+  public int readUnsignedShort() throws IOException {
+    require(2);
+    return buffer.getShort() & 0xFFFF;
+  }
+
+  @Override
+  public char readChar() throws IOException {
+    require(2);
+    return buffer.getChar();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    require(4);
+    return buffer.getInt();
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    require(8);
+    return buffer.getLong();
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    require(4);
+    return buffer.getFloat();
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    require(8);
+    return buffer.getDouble();
+  }
+
+  /**
+   * Reads the bytes up to the next line terminator as Latin-1 characters, like {@code
+   * DataInputStream.readLine()}.
+   *
+   * @return the line without its terminator, or null at the end of the buffer
+   */
+  @Override
+  public String readLine() {
+    if (!buffer.hasRemaining()) {
+      return null;
+    }
+    StringBuilder line = new StringBuilder();
+    while (buffer.hasRemaining()) {
+      int c = buffer.get() & 0xFF;
+      if (c == '\n') {
+        break;
+      }
+      if (c == '\r') {
+        if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+          buffer.get();
+        }
+        break;
+      }
+      line.append((char) c);
+    }
+    return line.toString();
+  }
+
+  @Override
+  public String readUTF() throws IOException {
+    require(2);
+    int length = buffer.getShort() & 0xFFFF;
+    require(length);
+    char[] chars = new char[length];
+    int count = 0;
+    int end = buffer.position() + length;
+    while (buffer.position() < end) {
+      int c = buffer.get() & 0xFF;
+      if (c < 0x80) {
+        chars[count++] = (char) c;
+      } else if ((c & 0xE0) == 0xC0) {
+        chars[count++] = (char) (((c & 0x1F) << 6) | continuation(end));
+      } else if ((c & 0xF0) == 0xE0) {
+        int c2 = continuation(end);
+        chars[count++] = (char) (((c & 0x0F) << 12) | (c2 << 6) | continuation(end));
+      } else {
+        throw new UTFDataFormatException("Malformed input around byte " + buffer.position());
+      }
+    }
+    return new String(chars, 0, count);
+  }
+
+  private int continuation(int end) throws UTFDataFormatException {
+    if (buffer.position() >= end) {
+      throw new UTFDataFormatException("Partial character at end");
+    }
+    int c = buffer.get() & 0xFF;
+    if ((c & 0xC0) != 0x80) {
+      throw new UTFDataFormatException("Malformed input around byte " + buffer.position());
+    }
+    return c & 0x3F;
+  }
+
+  private void require(int byteCount) throws EOFException {
+    if (buffer.remaining() < byteCount) {
+      throw new EOFException();
+    }
+  }
+}
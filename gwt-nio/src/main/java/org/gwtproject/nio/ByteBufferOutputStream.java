@@ -0,0 +1,245 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.io.DataOutput;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An OutputStream and {@link DataOutput} writing to a direct ByteBuffer, in place of a {@code
+ * DataOutputStream} over a {@code ByteArrayOutputStream}. The buffer grows as needed, up to 2 GiB;
+ * writes beyond throw {@link BufferOverflowException}.
+ *
+ * <p>Multi-byte values are written with the buffer's own accessors, so they are single typed array
+ * writes, in big endian order by default as {@code DataOutputStream} writes them. Byte arrays are
+ * copied with a single {@code TypedArray.set()}.
+ *
+ * <pre>
+ * ByteBufferOutputStream out = new ByteBufferOutputStream();
+ * out.writeInt(id);
+ * out.writeUTF(name);
+ * ByteBuffer message = out.toByteBuffer();
+ * </pre>
+ */
+public class ByteBufferOutputStream extends OutputStream implements DataOutput {
+
+  private static final int DEFAULT_CAPACITY = 256;
+
+  private ByteBuffer buffer;
+
+  /** Creates an empty stream with an initial capacity of 256 bytes. */
+  public ByteBufferOutputStream() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an empty stream.
+   *
+   * @param initialCapacity the initial capacity in bytes
+   */
+  public ByteBufferOutputStream(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException();
+    }
+    buffer = ByteBuffer.allocateDirect(initialCapacity);
+  }
+
+  public ByteOrder order() {
+    return buffer.order();
+  }
+
+  /**
+   * Sets the byte order of the following writes and of the buffers returned by {@link
+   * #toByteBuffer()}.
+   *
+   * @param order the byte order
+   * @return this stream
+   */
+  public ByteBufferOutputStream order(ByteOrder order) {
+    buffer.order(order);
+    return this;
+  }
+
+  /** Returns the number of bytes written. */
+  public int size() {
+    return buffer.position();
+  }
+
+  /** Discards the written bytes, keeping the memory for the following writes. */
+  public void reset() {
+    buffer.clear();
+  }
+
+  /**
+   * Returns the written bytes without copying them. The returned buffer shares its memory with the
+   * stream until the stream grows, so it sees the following writes over its range after {@link
+   * #reset()}.
+   *
+   * @return a direct buffer with the written bytes between position 0 and its limit
+   */
+  public ByteBuffer toByteBuffer() {
+    ByteBuffer result = buffer.duplicate();
+    result.flip();
+    return result.slice().order(buffer.order());
+  }
+
+  private void ensureRemaining(int byteCount) {
+    if (byteCount <= buffer.remaining()) {
+      return;
+    }
+    int position = buffer.position();
+    if (byteCount > Integer.MAX_VALUE - position) {
+      throw new BufferOverflowException();
+    }
+    int capacity = buffer.capacity();
+    int newCapacity = capacity > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : capacity * 2;
+    newCapacity = Math.max(position + byteCount, Math.max(newCapacity, DEFAULT_CAPACITY));
+    ByteBuffer grown = ByteBuffer.allocateDirect(newCapacity).order(buffer.order());
+    buffer.flip();
+    grown.put(buffer);
+    buffer = grown;
+  }
+
+  @Override
+  public void write(int b) {
+    ensureRemaining(1);
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b) {
+    write(b, 0, b.length);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    if (off < 0 || len < 0 || len > b.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    ensureRemaining(len);
+    buffer.put(b, off, len);
+  }
+
+  /**
+   * Writes the remaining bytes of {@code src}, advancing its position.
+   *
+   * @param src the bytes to write
+   */
+  public void write(ByteBuffer src) {
+    ensureRemaining(src.remaining());
+    buffer.put(src);
+  }
+
+  @Override
+  public void writeBoolean(boolean v) {
+    write(v ? 1 : 0);
+  }
+
+  @Override
+  public void writeByte(int v) {
+    write(v);
+  }
+
+  @Override
+  public void writeShort(int v) {
+    ensureRemaining(2);
+    buffer.putShort((short) v);
+  }
+
+  @Override
+  public void writeChar(int v) {
+    ensureRemaining(2);
+    buffer.putChar((char) v);
+  }
+
+  @Override
+  public void writeInt(int v) {
+    ensureRemaining(4);
+    buffer.putInt(v);
+  }
+
+  @Override
+  public void writeLong(long v) {
+    ensureRemaining(8);
+    buffer.putLong(v);
+  }
+
+  @Override
+  public void writeFloat(float v) {
+    ensureRemaining(4);
+    buffer.putFloat(v);
+  }
+
+  @Override
+  public void writeDouble(double v) {
+    ensureRemaining(8);
+    buffer.putDouble(v);
+  }
+
+  /** Writes the low byte of every character of {@code s}, like {@code DataOutputStream}. */
+  @Override
+  public void writeBytes(String s) {
+    int length = s.length();
+    ensureRemaining(length);
+    for (int i = 0; i < length; i++) {
+      buffer.put((byte) s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeChars(String s) {
+    int length = s.length();
+    if (length > Integer.MAX_VALUE / 2) {
+      throw new BufferOverflowException();
+    }
+    ensureRemaining(length * 2);
+    for (int i = 0; i < length; i++) {
+      buffer.putChar(s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeUTF(String s) throws UTFDataFormatException {
+    int length = s.length();
+    int utfLength = 0;
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      utfLength += c >= 0x01 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+    }
+    if (utfLength > 0xFFFF) {
+      throw new UTFDataFormatException("Encoded string too long: " + utfLength + " bytes");
+    }
+    ensureRemaining(2 + utfLength);
+    buffer.putShort((short) utfLength);
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (c >= 0x01 && c < 0x80) {
+        buffer.put((byte) c);
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xC0 | (c >> 6)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      } else {
+        buffer.put((byte) (0xE0 | (c >> 12)));
+        buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBufferView;
+import elemental2.core.DataView;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads little endian words from the remaining bytes of a ByteBuffer regardless of its order:
+ * through a DataView for direct buffers, from the backing array for heap buffers, and byte by
+ * byte otherwise. Indexes are relative to the position of the buffer.
+ */
+final class ByteRange {
+
+  private final DataView view;
+
+  private final byte[] array;
+
+  private final ByteBuffer buffer;
+
+  private final int offset;
+
+  private final int length;
+
+  private ByteRange(DataView view, byte[] array, ByteBuffer buffer, int offset, int length) {
+    this.view = view;
+    this.array = array;
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  static ByteRange remaining(ByteBuffer bb) {
+    int length = bb.remaining();
+    if (bb.isDirect() && bb instanceof HasArrayBufferView) {
+      ArrayBufferView typed = ((HasArrayBufferView) bb).getTypedArray();
+      DataView view = new DataView(typed.buffer, typed.byteOffset + bb.position(), length);
+      return new ByteRange(view, null, null, 0, length);
+    }
+    if (bb.hasArray()) {
+      return new ByteRange(null, bb.array(), null, bb.arrayOffset() + bb.position(), length);
+    }
+    return new ByteRange(null, null, bb, bb.position(), length);
+  }
+
+  int length() {
+    return length;
+  }
+
+  /* The unsigned byte at index. */
+  int get(int index) {
+    if (view != null) {
+      return view.getUint8(index);
+    }
+    if (array != null) {
+      return array[offset + index] & 0xff;
+    }
+    return buffer.get(offset + index) & 0xff;
+  }
+
+  int getInt(int index) {
+    if (view != null) {
+      return view.getInt32(index, true);
+    }
+    return get(index) | get(index + 1) << 8 | get(index + 2) << 16 | get(index + 3) << 24;
+  }
+
+  long getLong(int index) {
+    return (getInt(index) & 0xffffffffL) | (long) getInt(index + 4) << 32;
+  }
+
+  /* Copies length bytes from index to dest at destOffset. */
+  void get(int index, byte[] dest, int destOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      dest[destOffset + i] = (byte) get(index + i);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * Creates coders for UTF-8, UTF-16BE, UTF-16LE and ISO-8859-1, since the emulated {@link Charset}
+ * has no {@code newEncoder()} and {@code newDecoder()}.
+ *
+ * <p>The coders convert between ByteBuffers and CharBuffers with the {@link
+ * java.nio.charset.CoderResult} semantics of the JRE, so input can be decoded as it arrives. When
+ * the byte side is a direct buffer, UTF-8 is encoded with {@code TextEncoder.encodeInto()} and
+ * UTF-8 and UTF-16 are decoded with {@code TextDecoder}, instead of char by char.
+ *
+ * <pre>
+ * CharsetDecoder decoder = Charsets.newDecoder(StandardCharsets.UTF_8);
+ * CharBuffer json = decoder.decode(frame);
+ * </pre>
+ */
+public final class Charsets {
+
+  public static final Charset UTF_16BE = new Utf16Charset("UTF-16BE", true);
+
+  public static final Charset UTF_16LE = new Utf16Charset("UTF-16LE", false);
+
+  private Charsets() {}
+
+  /**
+   * Returns the charset named {@code name}, including the UTF-16 charsets of this class.
+   *
+   * @param name the charset name
+   * @return the charset
+   * @throws UnsupportedCharsetException if the charset is not available
+   */
+  public static Charset forName(String name) {
+    if (UTF_16BE.name().equalsIgnoreCase(name)) {
+      return UTF_16BE;
+    }
+    if (UTF_16LE.name().equalsIgnoreCase(name)) {
+      return UTF_16LE;
+    }
+    return Charset.forName(name);
+  }
+
+  /**
+   * Returns a new decoder for {@code cs}.
+   *
+   * @param cs UTF-8, UTF-16BE, UTF-16LE or ISO-8859-1
+   * @return the decoder
+   * @throws UnsupportedCharsetException for other charsets
+   */
+  public static CharsetDecoder newDecoder(Charset cs) {
+    switch (key(cs)) {
+      case "UTF-8":
+        return new Utf8Decoder(cs);
+      case "ISO-8859-1":
+        return new Latin1Decoder(cs);
+      case "UTF-16BE":
+        return new Utf16Decoder(cs, true);
+      case "UTF-16LE":
+        return new Utf16Decoder(cs, false);
+      default:
+        throw new UnsupportedCharsetException(cs.name());
+    }
+  }
+
+  /**
+   * Returns a new encoder for {@code cs}.
+   *
+   * @param cs UTF-8, UTF-16BE, UTF-16LE or ISO-8859-1
+   * @return the encoder
+   * @throws UnsupportedCharsetException for other charsets
+   */
+  public static CharsetEncoder newEncoder(Charset cs) {
+    switch (key(cs)) {
+      case "UTF-8":
+        return new Utf8Encoder(cs);
+      case "ISO-8859-1":
+        return new Latin1Encoder(cs);
+      case "UTF-16BE":
+        return new Utf16Encoder(cs, true);
+      case "UTF-16LE":
+        return new Utf16Encoder(cs, false);
+      default:
+        throw new UnsupportedCharsetException(cs.name());
+    }
+  }
+
+  private static String key(Charset cs) {
+    String name = cs.name().toUpperCase();
+    return name.equals("ISO-LATIN-1") ? StandardCharsets.ISO_8859_1.name() : name;
+  }
+}
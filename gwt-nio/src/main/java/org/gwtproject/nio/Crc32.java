@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * CRC-32 (as in zip and PNG) or CRC-32C (Castagnoli, as in iSCSI and ext4) of ByteBuffer ranges.
+ * The checksum reads the buffers four bytes at a time and uses 32-bit int arithmetic only.
+ *
+ * <pre>
+ * int crc = Crc32.crc32().update(download).intValue();
+ * </pre>
+ */
+public final class Crc32 {
+
+  private static int[] crc32Tables;
+
+  private static int[] crc32cTables;
+
+  /* Four tables of 256 entries for slicing by four bytes. */
+  private final int[] tables;
+
+  private int crc;
+
+  private Crc32(int[] tables) {
+    this.tables = tables;
+  }
+
+  /** Returns a new CRC-32 checksum with the polynomial of {@code java.util.zip.CRC32}. */
+  public static Crc32 crc32() {
+    if (crc32Tables == null) {
+      crc32Tables = tables(0xedb88320);
+    }
+    return new Crc32(crc32Tables);
+  }
+
+  /** Returns a new CRC-32C checksum with the polynomial of {@code java.util.zip.CRC32C}. */
+  public static Crc32 crc32c() {
+    if (crc32cTables == null) {
+      crc32cTables = tables(0x82f63b78);
+    }
+    return new Crc32(crc32cTables);
+  }
+
+  private static int[] tables(int polynomial) {
+    int[] tables = new int[1024];
+    for (int i = 0; i < 256; i++) {
+      int crc = i;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = (crc & 1) != 0 ? (crc >>> 1) ^ polynomial : crc >>> 1;
+      }
+      tables[i] = crc;
+    }
+    for (int i = 256; i < 1024; i++) {
+      int previous = tables[i - 256];
+      tables[i] = (previous >>> 8) ^ tables[previous & 0xff];
+    }
+    return tables;
+  }
+
+  /**
+   * Updates the checksum with the remaining bytes of {@code bb} and advances its position to its
+   * limit.
+   *
+   * @param bb the bytes
+   * @return this checksum
+   */
+  public Crc32 update(ByteBuffer bb) {
+    ByteRange range = ByteRange.remaining(bb);
+    int[] t = tables;
+    int c = ~crc;
+    int length = range.length();
+    int i = 0;
+    for (int end = length & ~3; i < end; i += 4) {
+      c ^= range.getInt(i);
+      c =
+          t[768 + (c & 0xff)]
+              ^ t[512 + ((c >>> 8) & 0xff)]
+              ^ t[256 + ((c >>> 16) & 0xff)]
+              ^ t[c >>> 24];
+    }
+    for (; i < length; i++) {
+      c = t[(c ^ range.get(i)) & 0xff] ^ (c >>> 8);
+    }
+    crc = ~c;
+    bb.position(bb.limit());
+    return this;
+  }
+
+  /**
+   * Updates the checksum with {@code len} bytes of {@code b} starting at {@code off}.
+   *
+   * @param b the bytes
+   * @param off the index of the first byte
+   * @param len the number of bytes
+   * @return this checksum
+   */
+  public Crc32 update(byte[] b, int off, int len) {
+    return update(ByteBuffer.wrap(b, off, len));
+  }
+
+  /**
+   * Updates the checksum with the byte {@code b}.
+   *
+   * @param b the byte in the low eight bits
+   * @return this checksum
+   */
+  public Crc32 update(int b) {
+    crc = ~(tables[(~crc ^ b) & 0xff] ^ (~crc >>> 8));
+    return this;
+  }
+
+  /** Resets the checksum to its initial value. */
+  public void reset() {
+    crc = 0;
+  }
+
+  /** Returns the checksum as an int, without the long arithmetic of {@link #getValue()}. */
+  public int intValue() {
+    return crc;
+  }
+
+  /** Returns the checksum as an unsigned value, like {@code java.util.zip.Checksum}. */
+  public long getValue() {
+    return crc & 0xffffffffL;
+  }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+/**
+ * Thrown when a direct buffer is accessed after its memory was transferred to another agent, e.g.
+ * by {@link BufferTransfer#transfer(java.nio.Buffer)} or by listing its {@code ArrayBuffer} as
+ * transferable in {@code postMessage}.
+ */
+public class DetachedBufferException extends IllegalStateException {
+
+  public DetachedBufferException() {
+    super("The memory of this buffer was transferred to another agent");
+  }
+}
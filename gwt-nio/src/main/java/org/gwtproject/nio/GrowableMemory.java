@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+import java.nio.ByteBuffer;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+import jsinterop.base.JsPropertyMap;
+
+/**
+ * Memory that may grow, either an ES2024 resizable ArrayBuffer or any {@link ArrayBufferSource},
+ * with direct buffers over it that survive the growth.
+ *
+ * <p>A Java buffer cannot track the length of its memory, as its capacity never changes. Instead,
+ * {@link #asByteBuffer()} returns a buffer over the whole memory as long as it is at the time of
+ * the call, and {@link #slice(int, int)} one over a fixed range. Both kinds stay valid after the
+ * memory grew, also when it was replaced by a new ArrayBuffer, so a buffer only needs to be
+ * requested again to see the new bytes:
+ *
+ * <pre>
+ * GrowableMemory memory = GrowableMemory.allocate(4096, 1 &lt;&lt; 20);
+ * IntBuffer header = memory.slice(0, 64).asIntBuffer();
+ * memory.resize(8192);
+ * ByteBuffer all = memory.asByteBuffer(); // capacity 8192, header still valid
+ * </pre>
+ */
+public final class GrowableMemory implements ArrayBufferSource {
+
+  private final ArrayBufferSource source;
+
+  /**
+   * Creates memory over the current memory of a source.
+   *
+   * @param source the source
+   */
+  public GrowableMemory(ArrayBufferSource source) {
+    this.source = source;
+  }
+
+  /**
+   * Creates memory over an ArrayBuffer, which is resizable if it was created with a {@code
+   * maxByteLength}.
+   *
+   * @param buffer the buffer
+   * @return the memory
+   */
+  public static GrowableMemory wrap(ArrayBuffer buffer) {
+    return new GrowableMemory(() -> buffer);
+  }
+
+  /**
+   * Allocates a resizable ArrayBuffer.
+   *
+   * @param byteLength the initial length in bytes
+   * @param maxByteLength the length up to which the memory can grow; it is reserved as address
+   *     space, not allocated
+   * @return the memory
+   * @throws UnsupportedOperationException if resizable ArrayBuffers are not available
+   */
+  public static GrowableMemory allocate(int byteLength, int maxByteLength) {
+    if (byteLength < 0 || maxByteLength < byteLength) {
+      throw new IllegalArgumentException();
+    }
+    if (!isResizableSupported()) {
+      throw new UnsupportedOperationException("Resizable ArrayBuffers are not available");
+    }
+    JsPropertyMap<Object> options = JsPropertyMap.of("maxByteLength", (double) maxByteLength);
+    return wrap(Js.uncheckedCast(new ResizableBuffer(byteLength, options)));
+  }
+
+  /**
+   * Returns true if ES2024 resizable ArrayBuffers are available.
+   *
+   * @return true if {@link #allocate(int, int)} is supported
+   */
+  public static boolean isResizableSupported() {
+    Object prototype = Js.asPropertyMap(Js.global().get("ArrayBuffer")).get("prototype");
+    return "function".equals(Js.typeof(Js.asPropertyMap(prototype).get("resize")));
+  }
+
+  @Override
+  public ArrayBuffer getArrayBuffer() {
+    return source.getArrayBuffer();
+  }
+
+  /**
+   * Returns the current length of the memory.
+   *
+   * @return the length in bytes
+   */
+  public int byteLength() {
+    return getArrayBuffer().byteLength;
+  }
+
+  /**
+   * Returns true if the memory is a resizable ArrayBuffer, which {@link #resize(int)} can resize.
+   *
+   * @return true if the memory is resizable
+   */
+  public boolean isResizable() {
+    return Js.<ResizableBuffer>uncheckedCast(getArrayBuffer()).resizable;
+  }
+
+  /**
+   * Returns the length up to which the memory can be resized.
+   *
+   * @return the maximal length in bytes, or the current length if it is not resizable
+   */
+  public int maxByteLength() {
+    return isResizable()
+        ? Js.<ResizableBuffer>uncheckedCast(getArrayBuffer()).maxByteLength
+        : byteLength();
+  }
+
+  /**
+   * Resizes the memory in place. Buffers over a range beyond the new length throw {@link
+   * IndexOutOfBoundsException} until the memory grows back over it.
+   *
+   * @param byteLength the new length in bytes
+   * @throws UnsupportedOperationException if the memory is not resizable
+   * @throws IllegalArgumentException if the new length exceeds {@link #maxByteLength()}
+   */
+  public void resize(int byteLength) {
+    if (!isResizable()) {
+      throw new UnsupportedOperationException("The memory is not resizable");
+    }
+    if (byteLength < 0 || byteLength > maxByteLength()) {
+      throw new IllegalArgumentException("Invalid length: " + byteLength);
+    }
+    Js.<ResizableBuffer>uncheckedCast(getArrayBuffer()).resize(byteLength);
+  }
+
+  /**
+   * Returns a direct buffer over the whole memory, with the current length as capacity.
+   *
+   * @return a new buffer, in big endian order
+   */
+  public ByteBuffer asByteBuffer() {
+    return TypedArrayHelper.wrap(this, 0, byteLength());
+  }
+
+  /**
+   * Returns a direct buffer over a fixed range of the memory.
+   *
+   * @param offset the byte offset of the first byte
+   * @param length the capacity of the returned buffer
+   * @return a new buffer, in big endian order
+   * @throws IndexOutOfBoundsException if the range is not within the current memory
+   */
+  public ByteBuffer slice(int offset, int length) {
+    return TypedArrayHelper.wrap(this, offset, length);
+  }
+
+  /** An ArrayBuffer with the ES2024 resizing members. */
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "ArrayBuffer")
+  private static class ResizableBuffer {
+    public boolean resizable;
+
+    public int maxByteLength;
+
+    public ResizableBuffer(int byteLength, JsPropertyMap<Object> options) {}
+
+    public native void resize(int byteLength);
+  }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Gives access to the byte buffer a typed view reads and writes, e.g. the one {@code
+ * asLongBuffer()} was called on. The position and limit of the byte buffer are not linked with the
+ * ones of the view. This can be used only in HTML-platform specific code.
+ */
+public interface HasByteBuffer {
+
+  /* Returns the byte buffer backing the view, which starts at index 0 of the view. */
+  ByteBuffer getByteBuffer();
+}
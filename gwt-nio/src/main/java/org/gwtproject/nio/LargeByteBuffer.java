@@ -0,0 +1,516 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.TypedArray;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import jsinterop.base.Js;
+
+/**
+ * A byte buffer of more than 2 GiB, indexed with {@code long}s.
+ *
+ * <p>The memory is a chain of direct ByteBuffers of a fixed, power of two size, so no single
+ * ArrayBuffer allocation has to succeed for the whole capacity. The absolute accessors and the bulk
+ * methods handle values and ranges that straddle a segment boundary; accesses within one segment,
+ * which are all but one in {@code segmentSize / 8}, take the ByteBuffer fast path.
+ *
+ * <p>Typed views are per segment ({@link #asIntBuffer(int)}, ...), since a Java buffer cannot be
+ * larger than 2 GiB either; with the default segment size, a segment holds a whole number of
+ * elements of every type.
+ *
+ * <p>Unlike ByteBuffer, a LargeByteBuffer has no position or limit.
+ */
+public final class LargeByteBuffer {
+
+  /** The default segment size of 256 MiB, which allocates reliably in browsers. */
+  public static final int DEFAULT_SEGMENT_SIZE = 1 << 28;
+
+  private final ByteBuffer[] segments;
+
+  private final long capacity;
+
+  private final int shift;
+
+  private final int mask;
+
+  private ByteOrder order = ByteOrder.BIG_ENDIAN;
+
+  private LargeByteBuffer(long capacity, int segmentSize) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Negative capacity: " + capacity);
+    }
+    if (segmentSize < 8 || (segmentSize & (segmentSize - 1)) != 0) {
+      throw new IllegalArgumentException("Not a power of two of at least 8: " + segmentSize);
+    }
+    this.capacity = capacity;
+    this.shift = Integer.numberOfTrailingZeros(segmentSize);
+    this.mask = segmentSize - 1;
+    long count = (capacity + mask) >>> shift;
+    if (count > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many segments: " + count);
+    }
+    segments = new ByteBuffer[(int) count];
+    for (int i = 0; i < segments.length; i++) {
+      long remaining = capacity - ((long) i << shift);
+      segments[i] = ByteBuffer.allocateDirect((int) Math.min(remaining, segmentSize));
+    }
+  }
+
+  /**
+   * Allocates a buffer with segments of {@link #DEFAULT_SEGMENT_SIZE} bytes.
+   *
+   * @param capacity the capacity in bytes
+   * @return the new, zeroed buffer in big endian order
+   */
+  public static LargeByteBuffer allocate(long capacity) {
+    return new LargeByteBuffer(capacity, DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * Allocates a buffer.
+   *
+   * @param capacity the capacity in bytes
+   * @param segmentSize the size of a segment in bytes, a power of two of at least 8
+   * @return the new, zeroed buffer in big endian order
+   */
+  public static LargeByteBuffer allocate(long capacity, int segmentSize) {
+    return new LargeByteBuffer(capacity, segmentSize);
+  }
+
+  public long capacity() {
+    return capacity;
+  }
+
+  public ByteOrder order() {
+    return order;
+  }
+
+  /**
+   * Sets the byte order of the multi-byte accessors and of the segments returned from now on.
+   *
+   * @param order the new order
+   * @return this buffer
+   */
+  public LargeByteBuffer order(ByteOrder order) {
+    this.order = order;
+    for (ByteBuffer segment : segments) {
+      segment.order(order);
+    }
+    return this;
+  }
+
+  public int getSegmentSize() {
+    return mask + 1;
+  }
+
+  public int getSegmentCount() {
+    return segments.length;
+  }
+
+  /**
+   * Returns the index of the segment holding the byte at {@code index}.
+   *
+   * @param index the byte index
+   * @return the segment index
+   */
+  public int segmentOf(long index) {
+    checkIndex(index, 1);
+    return (int) (index >>> shift);
+  }
+
+  /**
+   * Returns a direct ByteBuffer sharing the content of a segment, with its own position and limit.
+   *
+   * @param segment the segment index
+   * @return a new buffer in the current order of this buffer
+   */
+  public ByteBuffer segment(int segment) {
+    return segments[segment].duplicate().order(order);
+  }
+
+  /**
+   * Returns a ByteBuffer over {@code length} bytes starting at {@code index}, which must lie in one
+   * segment, see {@link #segmentOf(long)}.
+   *
+   * @param index the index of the first byte
+   * @param length the capacity of the returned buffer
+   * @return a new buffer sharing the content of this buffer
+   * @throws IllegalArgumentException if the range straddles a segment boundary
+   */
+  public ByteBuffer slice(long index, int length) {
+    checkIndex(index, length);
+    int offset = (int) (index & mask);
+    ByteBuffer segment = segments[(int) (index >>> shift)];
+    if (length > segment.capacity() - offset) {
+      throw new IllegalArgumentException("The range straddles segments: " + index + ", " + length);
+    }
+    ByteBuffer slice = segment.duplicate();
+    slice.position(offset).limit(offset + length);
+    return slice.slice().order(order);
+  }
+
+  /**
+   * Returns an IntBuffer view of a segment. The view is in native order if this buffer is, and
+   * takes the fast path of direct buffers then.
+   *
+   * @param segment the segment index
+   * @return the view
+   */
+  public IntBuffer asIntBuffer(int segment) {
+    return segment(segment).asIntBuffer();
+  }
+
+  /**
+   * Returns a ShortBuffer view of a segment.
+   *
+   * @param segment the segment index
+   * @return the view
+   */
+  public ShortBuffer asShortBuffer(int segment) {
+    return segment(segment).asShortBuffer();
+  }
+
+  /**
+   * Returns a FloatBuffer view of a segment.
+   *
+   * @param segment the segment index
+   * @return the view
+   */
+  public FloatBuffer asFloatBuffer(int segment) {
+    return segment(segment).asFloatBuffer();
+  }
+
+  public byte get(long index) {
+    checkIndex(index, 1);
+    return segments[(int) (index >>> shift)].get((int) (index & mask));
+  }
+
+  public LargeByteBuffer put(long index, byte value) {
+    checkIndex(index, 1);
+    segments[(int) (index >>> shift)].put((int) (index & mask), value);
+    return this;
+  }
+
+  public short getShort(long index) {
+    ByteBuffer segment = segmentFor(index, 2);
+    if (segment != null) {
+      return segment.getShort((int) (index & mask));
+    }
+    return (short) getStraddling(index, 2);
+  }
+
+  public LargeByteBuffer putShort(long index, short value) {
+    ByteBuffer segment = segmentFor(index, 2);
+    if (segment != null) {
+      segment.putShort((int) (index & mask), value);
+    } else {
+      putStraddling(index, 2, value);
+    }
+    return this;
+  }
+
+  public char getChar(long index) {
+    return (char) getShort(index);
+  }
+
+  public LargeByteBuffer putChar(long index, char value) {
+    return putShort(index, (short) value);
+  }
+
+  public int getInt(long index) {
+    ByteBuffer segment = segmentFor(index, 4);
+    if (segment != null) {
+      return segment.getInt((int) (index & mask));
+    }
+    return (int) getStraddling(index, 4);
+  }
+
+  public LargeByteBuffer putInt(long index, int value) {
+    ByteBuffer segment = segmentFor(index, 4);
+    if (segment != null) {
+      segment.putInt((int) (index & mask), value);
+    } else {
+      putStraddling(index, 4, value);
+    }
+    return this;
+  }
+
+  public long getLong(long index) {
+    ByteBuffer segment = segmentFor(index, 8);
+    if (segment != null) {
+      return segment.getLong((int) (index & mask));
+    }
+    return getStraddling(index, 8);
+  }
+
+  public LargeByteBuffer putLong(long index, long value) {
+    ByteBuffer segment = segmentFor(index, 8);
+    if (segment != null) {
+      segment.putLong((int) (index & mask), value);
+    } else {
+      putStraddling(index, 8, value);
+    }
+    return this;
+  }
+
+  public float getFloat(long index) {
+    return Float.intBitsToFloat(getInt(index));
+  }
+
+  public LargeByteBuffer putFloat(long index, float value) {
+    return putInt(index, Float.floatToIntBits(value));
+  }
+
+  public double getDouble(long index) {
+    return Double.longBitsToDouble(getLong(index));
+  }
+
+  public LargeByteBuffer putDouble(long index, double value) {
+    return putLong(index, Double.doubleToLongBits(value));
+  }
+
+  /**
+   * Copies {@code length} bytes starting at {@code index} into {@code dst}.
+   *
+   * @param index the index of the first byte to read
+   * @param dst the destination array
+   * @param offset the offset in {@code dst}
+   * @param length the number of bytes
+   * @return this buffer
+   */
+  public LargeByteBuffer get(long index, byte[] dst, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > dst.length - length) {
+      throw new IndexOutOfBoundsException();
+    }
+    checkIndex(index, length);
+    while (length > 0) {
+      ByteBuffer segment = segments[(int) (index >>> shift)].duplicate();
+      int start = (int) (index & mask);
+      int count = Math.min(length, segment.capacity() - start);
+      segment.position(start);
+      segment.get(dst, offset, count);
+      index += count;
+      offset += count;
+      length -= count;
+    }
+    return this;
+  }
+
+  /**
+   * Copies {@code length} bytes of {@code src} into this buffer, starting at {@code index}.
+   *
+   * @param index the index of the first byte to write
+   * @param src the source array
+   * @param offset the offset in {@code src}
+   * @param length the number of bytes
+   * @return this buffer
+   */
+  public LargeByteBuffer put(long index, byte[] src, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > src.length - length) {
+      throw new IndexOutOfBoundsException();
+    }
+    checkIndex(index, length);
+    while (length > 0) {
+      ByteBuffer segment = segments[(int) (index >>> shift)].duplicate();
+      int start = (int) (index & mask);
+      int count = Math.min(length, segment.capacity() - start);
+      segment.position(start);
+      segment.put(src, offset, count);
+      index += count;
+      offset += count;
+      length -= count;
+    }
+    return this;
+  }
+
+  /**
+   * Copies the remaining bytes of {@code dst} from this buffer, starting at {@code index}, and
+   * advances the position of {@code dst}.
+   *
+   * @param index the index of the first byte to read
+   * @param dst the destination buffer
+   * @return this buffer
+   */
+  public LargeByteBuffer get(long index, ByteBuffer dst) {
+    int length = dst.remaining();
+    checkIndex(index, length);
+    while (length > 0) {
+      ByteBuffer segment = segments[(int) (index >>> shift)].duplicate();
+      int start = (int) (index & mask);
+      int count = Math.min(length, segment.capacity() - start);
+      segment.position(start).limit(start + count);
+      dst.put(segment);
+      index += count;
+      length -= count;
+    }
+    return this;
+  }
+
+  /**
+   * Copies the remaining bytes of {@code src} into this buffer, starting at {@code index}, and
+   * advances the position of {@code src}.
+   *
+   * @param index the index of the first byte to write
+   * @param src the source buffer
+   * @return this buffer
+   */
+  public LargeByteBuffer put(long index, ByteBuffer src) {
+    int length = src.remaining();
+    checkIndex(index, length);
+    ByteBuffer chunk = src.duplicate();
+    while (length > 0) {
+      ByteBuffer segment = segments[(int) (index >>> shift)].duplicate();
+      int start = (int) (index & mask);
+      int count = Math.min(length, segment.capacity() - start);
+      chunk.limit(chunk.position() + count);
+      segment.position(start);
+      segment.put(chunk);
+      index += count;
+      length -= count;
+    }
+    src.position(src.limit());
+    return this;
+  }
+
+  /**
+   * Copies {@code length} bytes from this buffer to {@code dst}, which may be this buffer; the
+   * ranges may overlap.
+   *
+   * @param index the index of the first byte to read
+   * @param dst the destination buffer
+   * @param dstIndex the index of the first byte to write
+   * @param length the number of bytes
+   * @return this buffer
+   */
+  public LargeByteBuffer copyTo(long index, LargeByteBuffer dst, long dstIndex, long length) {
+    if (length < 0) {
+      throw new IndexOutOfBoundsException();
+    }
+    checkIndex(index, length);
+    dst.checkIndex(dstIndex, length);
+    if (dst == this && dstIndex > index && dstIndex < index + length) {
+      // overlapping, copy from the end so no byte is overwritten before it is read
+      long end = index + length;
+      long dstEnd = dstIndex + length;
+      while (length > 0) {
+        int srcEndOffset = (int) ((end - 1) & mask) + 1;
+        int dstEndOffset = (int) ((dstEnd - 1) & mask) + 1;
+        int count = (int) Math.min(length, Math.min(srcEndOffset, dstEndOffset));
+        copy(
+            segments[(int) ((end - 1) >>> shift)],
+            srcEndOffset - count,
+            segments[(int) ((dstEnd - 1) >>> shift)],
+            dstEndOffset - count,
+            count);
+        end -= count;
+        dstEnd -= count;
+        length -= count;
+      }
+      return this;
+    }
+    while (length > 0) {
+      ByteBuffer source = segments[(int) (index >>> shift)];
+      ByteBuffer target = dst.segments[(int) (dstIndex >>> dst.shift)];
+      int offset = (int) (index & mask);
+      int dstOffset = (int) (dstIndex & dst.mask);
+      int count =
+          (int)
+              Math.min(
+                  length,
+                  Math.min(source.capacity() - offset, target.capacity() - dstOffset));
+      copy(source, offset, target, dstOffset, count);
+      index += count;
+      dstIndex += count;
+      length -= count;
+    }
+    return this;
+  }
+
+  /**
+   * Sets {@code length} bytes starting at {@code index} to {@code value}.
+   *
+   * @param index the index of the first byte
+   * @param length the number of bytes
+   * @param value the value
+   * @return this buffer
+   */
+  public LargeByteBuffer fill(long index, long length, byte value) {
+    if (length < 0) {
+      throw new IndexOutOfBoundsException();
+    }
+    checkIndex(index, length);
+    while (length > 0) {
+      ByteBuffer segment = segments[(int) (index >>> shift)];
+      int offset = (int) (index & mask);
+      int count = (int) Math.min(length, segment.capacity() - offset);
+      TypedArray bytes = Js.uncheckedCast(((HasArrayBufferView) segment).getTypedArray());
+      TypedArrayHelper.fill(bytes, value, offset, offset + count);
+      index += count;
+      length -= count;
+    }
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "LargeByteBuffer[capacity=" + capacity + " segments=" + segments.length + "]";
+  }
+
+  private static void copy(
+      ByteBuffer source, int offset, ByteBuffer target, int targetOffset, int count) {
+    ByteBuffer from = source.duplicate();
+    from.position(offset).limit(offset + count);
+    ByteBuffer to = target.duplicate();
+    to.position(targetOffset);
+    to.put(from);
+  }
+
+  /* Returns the segment holding all the size bytes at index, or null if they straddle two. */
+  private ByteBuffer segmentFor(long index, int size) {
+    checkIndex(index, size);
+    ByteBuffer segment = segments[(int) (index >>> shift)];
+    if ((int) (index & mask) > segment.capacity() - size) {
+      return null;
+    }
+    return segment;
+  }
+
+  private long getStraddling(long index, int size) {
+    long value = 0;
+    for (int i = 0; i < size; i++) {
+      int shiftBy = order == ByteOrder.BIG_ENDIAN ? (size - 1 - i) << 3 : i << 3;
+      value |= (get(index + i) & 0xffL) << shiftBy;
+    }
+    return value;
+  }
+
+  private void putStraddling(long index, int size, long value) {
+    for (int i = 0; i < size; i++) {
+      int shiftBy = order == ByteOrder.BIG_ENDIAN ? (size - 1 - i) << 3 : i << 3;
+      put(index + i, (byte) (value >>> shiftBy));
+    }
+  }
+
+  private void checkIndex(long index, long size) {
+    if (index < 0 || index > capacity - size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+  }
+}
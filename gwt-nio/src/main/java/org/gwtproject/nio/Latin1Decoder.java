@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * Decodes ISO-8859-1. There is no platform fast path: TextDecoder maps the "iso-8859-1" label to
+ * windows-1252, which differs in 0x80-0x9F.
+ */
+final class Latin1Decoder extends CharsetDecoder {
+
+  Latin1Decoder(Charset cs) {
+    super(cs, 1.0f, 1.0f);
+  }
+
+  @Override
+  protected CoderResult decodeLoop(ByteBuffer in, CharBuffer out) {
+    int p = in.position();
+    int n = Math.min(in.remaining(), out.remaining());
+    for (int i = 0; i < n; i++) {
+      out.put((char) (in.get(p + i) & 0xFF));
+    }
+    in.position(p + n);
+    return in.hasRemaining() ? CoderResult.OVERFLOW : CoderResult.UNDERFLOW;
+  }
+}
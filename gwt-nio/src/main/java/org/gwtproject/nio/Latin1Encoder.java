@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+
+/** Encodes ISO-8859-1, reporting chars above U+00FF as unmappable. */
+final class Latin1Encoder extends CharsetEncoder {
+
+  Latin1Encoder(Charset cs) {
+    super(cs, 1.0f, 1.0f);
+  }
+
+  @Override
+  protected CoderResult encodeLoop(CharBuffer in, ByteBuffer out) {
+    int p = in.position();
+    int limit = in.limit();
+    try {
+      while (p < limit) {
+        char c = in.get(p);
+        if (c <= 0xFF) {
+          if (!out.hasRemaining()) {
+            return CoderResult.OVERFLOW;
+          }
+          out.put((byte) c);
+          p++;
+        } else {
+          return Utf16Encoder.unmappable(in, p, limit);
+        }
+      }
+      return CoderResult.UNDERFLOW;
+    } finally {
+      in.position(p);
+    }
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.Int8Array;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SeekableByteChannel;
+import jsinterop.base.Js;
+
+/**
+ * A file channel over a {@link SyncAccessHandle} of the origin private file system, with the
+ * methods of {@code java.nio.channels.FileChannel} that the handle supports.
+ *
+ * <p>Direct buffers are read into and written from without copying: the channel passes a subarray
+ * of the buffer's typed array to the handle. Heap buffers go through a temporary typed array.
+ *
+ * <pre>
+ * // in a worker
+ * OpfsFileChannel channel = new OpfsFileChannel(handle);
+ * channel.write(ByteBuffer.allocateDirect(4096), channel.size());
+ * </pre>
+ *
+ * <p>Like the handle, a channel must only be used by the worker that created the handle.
+ */
+public final class OpfsFileChannel implements SeekableByteChannel {
+
+  private final SyncAccessHandle handle;
+
+  private final SyncAccessHandle.ReadWriteOptions options = new SyncAccessHandle.ReadWriteOptions();
+
+  private long position;
+
+  private boolean open = true;
+
+  /**
+   * Creates a channel positioned at the start of the file.
+   *
+   * @param handle a {@code FileSystemSyncAccessHandle} or a stand-in
+   */
+  public OpfsFileChannel(SyncAccessHandle handle) {
+    this.handle = handle;
+  }
+
+  /**
+   * Reads bytes at the channel position into {@code dst} and advances the position.
+   *
+   * @param dst the buffer to fill from its position
+   * @return the number of bytes read, or -1 if the position is at or beyond the end of the file
+   * @throws ClosedChannelException if the channel is closed
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    int count = read(dst, position);
+    if (count > 0) {
+      position += count;
+    }
+    return count;
+  }
+
+  /**
+   * Reads bytes at {@code position} into {@code dst}; the channel position does not change.
+   *
+   * @param dst the buffer to fill from its position
+   * @param position the file offset to read from
+   * @return the number of bytes read, or -1 if {@code position} is at or beyond the end of the file
+   * @throws ClosedChannelException if the channel is closed
+   */
+  public int read(ByteBuffer dst, long position) throws IOException {
+    checkOpen();
+    if (position < 0) {
+      throw new IllegalArgumentException("Negative position: " + position);
+    }
+    if (dst.isReadOnly()) {
+      throw new IllegalArgumentException("Read-only buffer");
+    }
+    if (position >= size()) {
+      return -1;
+    }
+    int remaining = dst.remaining();
+    if (remaining == 0) {
+      return 0;
+    }
+    options.at = position;
+    int count;
+    if (dst.isDirect() && dst instanceof HasArrayBufferView) {
+      Int8Array view = Js.uncheckedCast(TypedArrayHelper.unwrap(dst));
+      count = (int) handle.read(view.subarray(dst.position(), dst.limit()), options);
+      dst.position(dst.position() + count);
+    } else {
+      SlowPathMonitor.record("OpfsFileChannel.read", dst);
+      Int8Array view = new Int8Array(remaining);
+      count = (int) handle.read(view, options);
+      for (int i = 0; i < count; i++) {
+        dst.put(view.getAt(i).byteValue());
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Writes the remaining bytes of {@code src} at the channel position and advances the position.
+   *
+   * @param src the buffer to write from its position
+   * @return the number of bytes written
+   * @throws ClosedChannelException if the channel is closed
+   */
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    int count = write(src, position);
+    position += count;
+    return count;
+  }
+
+  /**
+   * Writes the remaining bytes of {@code src} at {@code position}, growing the file as needed; the
+   * channel position does not change.
+   *
+   * @param src the buffer to write from its position
+   * @param position the file offset to write to
+   * @return the number of bytes written
+   * @throws ClosedChannelException if the channel is closed
+   */
+  public int write(ByteBuffer src, long position) throws IOException {
+    checkOpen();
+    if (position < 0) {
+      throw new IllegalArgumentException("Negative position: " + position);
+    }
+    int remaining = src.remaining();
+    if (remaining == 0) {
+      return 0;
+    }
+    options.at = position;
+    int count;
+    if (src.isDirect() && src instanceof HasArrayBufferView) {
+      Int8Array view = Js.uncheckedCast(TypedArrayHelper.unwrap(src));
+      count = (int) handle.write(view.subarray(src.position(), src.limit()), options);
+    } else {
+      SlowPathMonitor.record("OpfsFileChannel.write", src);
+      Int8Array view = new Int8Array(remaining);
+      for (int i = 0; i < remaining; i++) {
+        view.setAt(i, (double) src.get(src.position() + i));
+      }
+      count = (int) handle.write(view, options);
+    }
+    src.position(src.position() + count);
+    return count;
+  }
+
+  @Override
+  public long position() throws IOException {
+    checkOpen();
+    return position;
+  }
+
+  /**
+   * Sets the channel position. A position beyond the end of the file is allowed: reading there
+   * returns -1, and writing there grows the file, leaving the gap zeroed.
+   *
+   * @param newPosition the new position
+   * @return this channel
+   * @throws ClosedChannelException if the channel is closed
+   */
+  @Override
+  public OpfsFileChannel position(long newPosition) throws IOException {
+    checkOpen();
+    if (newPosition < 0) {
+      throw new IllegalArgumentException("Negative position: " + newPosition);
+    }
+    position = newPosition;
+    return this;
+  }
+
+  @Override
+  public long size() throws IOException {
+    checkOpen();
+    return (long) handle.getSize();
+  }
+
+  /**
+   * Truncates the file to {@code size} bytes if it is larger; the channel position is moved back
+   * to {@code size} if it was beyond.
+   *
+   * @param size the new size
+   * @return this channel
+   * @throws ClosedChannelException if the channel is closed
+   */
+  @Override
+  public OpfsFileChannel truncate(long size) throws IOException {
+    checkOpen();
+    if (size < 0) {
+      throw new IllegalArgumentException("Negative size: " + size);
+    }
+    if (size < size()) {
+      handle.truncate(size);
+    }
+    if (position > size) {
+      position = size;
+    }
+    return this;
+  }
+
+  /**
+   * Persists the written bytes.
+   *
+   * @param metaData ignored, the handle has no separate metadata flush
+   * @throws ClosedChannelException if the channel is closed
+   */
+  public void force(boolean metaData) throws IOException {
+    checkOpen();
+    handle.flush();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  /** Closes the channel and its handle, which releases the lock on the file. */
+  @Override
+  public void close() {
+    if (open) {
+      open = false;
+      handle.close();
+    }
+  }
+
+  private void checkOpen() throws ClosedChannelException {
+    if (!open) {
+      throw new ClosedChannelException();
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * A bulk operation that {@link ParallelOps} runs on one partition of a buffer. Kernels are looked
+ * up by name, so every agent taking part (the main thread and all workers) must register the same
+ * kernels under the same names with {@link ParallelOps#register(String, ParallelKernel)}.
+ */
+public interface ParallelKernel {
+
+  /**
+   * Runs the kernel on the elements {@code [start, end)} of {@code buffer}. Uses absolute indexes
+   * only; the position and limit of {@code buffer} are unspecified.
+   *
+   * @param buffer a ByteBuffer, IntBuffer, ShortBuffer or FloatBuffer
+   * @param start the index of the first element
+   * @param end the index after the last element
+   * @param argument the argument passed to {@link ParallelOps#run(String, Buffer, double)}
+   * @return the result for this partition, or 0 for kernels that only modify the buffer
+   */
+  double apply(Buffer buffer, int start, int end, double argument);
+
+  /**
+   * Joins the results of two partitions. Partition results are combined in partition order. The
+   * default adds them, which suits sums and kernels without result.
+   *
+   * @param a the result of the preceding partitions
+   * @param b the result of the next partition
+   * @return the joined result
+   */
+  default double combine(double a, double b) {
+    return a + b;
+  }
+
+  /** A kernel that replaces every element by a function of its value, e.g. to fill or scale. */
+  abstract class ElementWise implements ParallelKernel {
+
+    /**
+     * Computes the new value of an element.
+     *
+     * @param value the current value
+     * @param argument the argument of the run
+     * @return the new value, narrowed to the element type of the buffer
+     */
+    protected abstract double map(double value, double argument);
+
+    @Override
+    public final double apply(Buffer buffer, int start, int end, double argument) {
+      if (buffer instanceof FloatBuffer) {
+        FloatBuffer floats = (FloatBuffer) buffer;
+        for (int i = start; i < end; i++) {
+          floats.put(i, (float) map(floats.get(i), argument));
+        }
+      } else if (buffer instanceof IntBuffer) {
+        IntBuffer ints = (IntBuffer) buffer;
+        for (int i = start; i < end; i++) {
+          ints.put(i, (int) map(ints.get(i), argument));
+        }
+      } else if (buffer instanceof ShortBuffer) {
+        ShortBuffer shorts = (ShortBuffer) buffer;
+        for (int i = start; i < end; i++) {
+          shorts.put(i, (short) map(shorts.get(i), argument));
+        }
+      } else if (buffer instanceof ByteBuffer) {
+        ByteBuffer bytes = (ByteBuffer) buffer;
+        for (int i = start; i < end; i++) {
+          bytes.put(i, (byte) map(bytes.get(i), argument));
+        }
+      } else {
+        throw new IllegalArgumentException("Unsupported buffer: " + buffer);
+      }
+      return 0;
+    }
+  }
+
+  /** A kernel that folds all elements into one value, e.g. a sum or a maximum. */
+  abstract class Reduction implements ParallelKernel {
+
+    /** Returns the result of an empty partition. */
+    protected abstract double identity();
+
+    /**
+     * Folds the next value into the result; also used to combine partition results.
+     *
+     * @param result the result so far
+     * @param value the next value
+     * @return the new result
+     */
+    protected abstract double reduce(double result, double value);
+
+    @Override
+    public final double apply(Buffer buffer, int start, int end, double argument) {
+      double result = identity();
+      if (buffer instanceof FloatBuffer) {
+        FloatBuffer floats = (FloatBuffer) buffer;
+        for (int i = start; i < end; i++) {
+          result = reduce(result, floats.get(i));
+        }
+      } else if (buffer instanceof IntBuffer) {
+        IntBuffer ints = (IntBuffer) buffer;
+        for (int i = start; i < end; i++) {
+          result = reduce(result, ints.get(i));
+        }
+      } else if (buffer instanceof ShortBuffer) {
+        ShortBuffer shorts = (ShortBuffer) buffer;
+        for (int i = start; i < end; i++) {
+          result = reduce(result, shorts.get(i));
+        }
+      } else if (buffer instanceof ByteBuffer) {
+        ByteBuffer bytes = (ByteBuffer) buffer;
+        for (int i = start; i < end; i++) {
+          result = reduce(result, bytes.get(i));
+        }
+      } else {
+        throw new IllegalArgumentException("Unsupported buffer: " + buffer);
+      }
+      return result;
+    }
+
+    @Override
+    public final double combine(double a, double b) {
+      return reduce(a, b);
+    }
+  }
+}
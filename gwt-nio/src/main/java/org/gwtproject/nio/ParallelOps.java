@@ -0,0 +1,470 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBufferView;
+import elemental2.promise.Promise;
+import elemental2.promise.Promise.PromiseExecutorCallbackFn.RejectCallbackFn;
+import elemental2.promise.Promise.PromiseExecutorCallbackFn.ResolveCallbackFn;
+import java.nio.Buffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jsinterop.annotations.JsFunction;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+import jsinterop.base.JsArrayLike;
+import jsinterop.base.JsPropertyMap;
+
+/**
+ * Runs bulk operations on large shared buffers in parallel, on a pool of Web Workers or Node.js
+ * {@code worker_threads}.
+ *
+ * <p>The buffer's remaining elements are split into one partition per worker. Every worker runs
+ * the same named {@link ParallelKernel} on its partition, directly on the shared memory, and the
+ * partition results are joined with {@link ParallelKernel#combine(double, double)}. The main
+ * thread creates a {@code ParallelOps} with endpoints to its workers, and every worker calls
+ * {@link #serve(WorkerEndpoint)} once:
+ *
+ * <pre>
+ * // worker
+ * ParallelOps.serve(ParallelOps.endpoint(DomGlobal.self));
+ *
+ * // main thread
+ * ParallelOps ops = new ParallelOps(endpoints);
+ * FloatBuffer points = TypedArrayHelper.allocateShared(4 * n).asFloatBuffer();
+ * ops.run(ParallelOps.SCALE, points, 0.5).then(ignored -&gt; ...);
+ * ops.run(ParallelOps.MAX, points, 0).then(max -&gt; ...);
+ * </pre>
+ *
+ * <p>Buffers that are not direct ByteBuffers, IntBuffers, ShortBuffers or FloatBuffers backed by
+ * a {@link SharedArrayBuffer}, e.g. because shared memory is unavailable, are processed on the
+ * calling thread instead.
+ */
+public final class ParallelOps {
+
+  /** Sets every element to the argument. */
+  public static final String FILL = "fill";
+
+  /** Multiplies every element by the argument. */
+  public static final String SCALE = "scale";
+
+  /** Adds the argument to every element. */
+  public static final String ADD = "add";
+
+  /** Returns the sum of the elements. */
+  public static final String SUM = "sum";
+
+  /** Returns the smallest element, or positive infinity if there is none. */
+  public static final String MIN = "min";
+
+  /** Returns the largest element, or negative infinity if there is none. */
+  public static final String MAX = "max";
+
+  /** Partitions start at multiples of 64 bytes, so that workers do not share cache lines. */
+  private static final int PARTITION_ALIGNMENT = 64;
+
+  private static final Map<String, ParallelKernel> kernels = new HashMap<>();
+
+  static {
+    register(
+        FILL,
+        new TypedKernel(
+            new ParallelKernel.ElementWise() {
+              @Override
+              protected double map(double value, double argument) {
+                return argument;
+              }
+            },
+            true) {
+          @Override
+          double applyTo(JsArrayLike<Double> elements, int start, int end, double argument) {
+            TypedArrayHelper.fill(Js.uncheckedCast(elements), argument, start, end);
+            return 0;
+          }
+        });
+    register(
+        SCALE,
+        new TypedKernel(
+            new ParallelKernel.ElementWise() {
+              @Override
+              protected double map(double value, double argument) {
+                return value * argument;
+              }
+            },
+            true) {
+          @Override
+          double applyTo(JsArrayLike<Double> elements, int start, int end, double argument) {
+            for (int i = start; i < end; i++) {
+              elements.setAt(i, elements.getAt(i) * argument);
+            }
+            return 0;
+          }
+        });
+    register(
+        ADD,
+        new TypedKernel(
+            new ParallelKernel.ElementWise() {
+              @Override
+              protected double map(double value, double argument) {
+                return value + argument;
+              }
+            },
+            true) {
+          @Override
+          double applyTo(JsArrayLike<Double> elements, int start, int end, double argument) {
+            for (int i = start; i < end; i++) {
+              elements.setAt(i, elements.getAt(i) + argument);
+            }
+            return 0;
+          }
+        });
+    register(
+        SUM,
+        new TypedKernel(
+            new ParallelKernel.Reduction() {
+              @Override
+              protected double identity() {
+                return 0;
+              }
+
+              @Override
+              protected double reduce(double result, double value) {
+                return result + value;
+              }
+            },
+            false) {
+          @Override
+          double applyTo(JsArrayLike<Double> elements, int start, int end, double argument) {
+            double result = 0;
+            for (int i = start; i < end; i++) {
+              result += elements.getAt(i);
+            }
+            return result;
+          }
+        });
+    register(
+        MIN,
+        new TypedKernel(
+            new ParallelKernel.Reduction() {
+              @Override
+              protected double identity() {
+                return Double.POSITIVE_INFINITY;
+              }
+
+              @Override
+              protected double reduce(double result, double value) {
+                return Math.min(result, value);
+              }
+            },
+            false) {
+          @Override
+          double applyTo(JsArrayLike<Double> elements, int start, int end, double argument) {
+            double result = Double.POSITIVE_INFINITY;
+            for (int i = start; i < end; i++) {
+              result = Math.min(result, elements.getAt(i));
+            }
+            return result;
+          }
+        });
+    register(
+        MAX,
+        new TypedKernel(
+            new ParallelKernel.Reduction() {
+              @Override
+              protected double identity() {
+                return Double.NEGATIVE_INFINITY;
+              }
+
+              @Override
+              protected double reduce(double result, double value) {
+                return Math.max(result, value);
+              }
+            },
+            false) {
+          @Override
+          double applyTo(JsArrayLike<Double> elements, int start, int end, double argument) {
+            double result = Double.NEGATIVE_INFINITY;
+            for (int i = start; i < end; i++) {
+              result = Math.max(result, elements.getAt(i));
+            }
+            return result;
+          }
+        });
+  }
+
+  private final WorkerEndpoint[] workers;
+
+  private final Map<Integer, Job> jobs = new HashMap<>();
+
+  private int nextId;
+
+  /**
+   * Creates a pool on top of running workers, each of which must have called {@link
+   * #serve(WorkerEndpoint)}. The pool takes over the message handlers of the endpoints.
+   *
+   * @param workers the endpoints of the workers; may be empty to process everything locally
+   */
+  public ParallelOps(List<WorkerEndpoint> workers) {
+    this.workers = workers.toArray(new WorkerEndpoint[0]);
+    for (WorkerEndpoint worker : this.workers) {
+      worker.setMessageHandler(this::onReply);
+    }
+  }
+
+  /**
+   * Registers a kernel under a name. Kernels must be registered in every agent before use.
+   *
+   * @param name the name of the kernel
+   * @param kernel the kernel
+   */
+  public static void register(String name, ParallelKernel kernel) {
+    kernels.put(name, kernel);
+  }
+
+  private static ParallelKernel kernel(String name) {
+    ParallelKernel kernel = kernels.get(name);
+    if (kernel == null) {
+      throw new IllegalArgumentException("Unknown kernel: " + name);
+    }
+    return kernel;
+  }
+
+  /** Returns the number of workers. */
+  public int getParallelism() {
+    return workers.length;
+  }
+
+  /**
+   * Returns true if {@code buffer} can be processed by workers, i.e. it is a direct ByteBuffer,
+   * IntBuffer, ShortBuffer or FloatBuffer backed by a {@link SharedArrayBuffer}.
+   *
+   * @param buffer the buffer
+   * @return true if the buffer can be shared with workers
+   */
+  public static boolean isParallelizable(Buffer buffer) {
+    return BufferTransfer.typeOf(buffer) != null && TypedArrayHelper.isShared(buffer);
+  }
+
+  /**
+   * Runs a kernel on the remaining elements of {@code buffer}, on the calling thread.
+   *
+   * @param name the name of the kernel
+   * @param buffer the buffer
+   * @param argument the argument of the kernel
+   * @return the result of the kernel
+   */
+  public static double runLocal(String name, Buffer buffer, double argument) {
+    return kernel(name).apply(buffer, buffer.position(), buffer.limit(), argument);
+  }
+
+  /**
+   * Runs a kernel on the remaining elements of {@code buffer}, partitioned across the workers. The
+   * buffer must not be modified by other code until the returned promise is settled.
+   *
+   * @param name the name of the kernel
+   * @param buffer the buffer
+   * @param argument the argument of the kernel
+   * @return a promise of the combined result of all partitions
+   */
+  public Promise<Double> run(String name, Buffer buffer, double argument) {
+    ParallelKernel kernel;
+    try {
+      kernel = kernel(name);
+      if (workers.length == 0 || !isParallelizable(buffer)) {
+        return Promise.resolve(runLocal(name, buffer, argument));
+      }
+    } catch (RuntimeException e) {
+      return Promise.reject(e);
+    }
+    int start = buffer.position();
+    int end = buffer.limit();
+    HasArrayBufferView view = (HasArrayBufferView) buffer;
+    int elementSize = view.getElementSize();
+    int alignment = Math.max(1, PARTITION_ALIGNMENT / elementSize);
+    // the aligned index at or before start, measured from the start of the shared memory
+    int base = start - (view.getTypedArray().byteOffset / elementSize + start) % alignment;
+    int perWorker = (end - base + workers.length - 1) / workers.length;
+    int chunk = Math.max(alignment, (perWorker + alignment - 1) / alignment * alignment);
+    int partitions = Math.max(1, (end - base + chunk - 1) / chunk);
+
+    TransferredBuffer description = BufferTransfer.describe(buffer, BufferTransfer.typeOf(buffer));
+    int id = nextId++;
+    return new Promise<>(
+        (resolve, reject) -> {
+          jobs.put(id, new Job(kernel, partitions, resolve, reject));
+          for (int i = 0; i < partitions; i++) {
+            ParallelTask task = new ParallelTask();
+            task.id = id;
+            task.partition = i;
+            task.kernel = name;
+            task.buffer = description;
+            task.start = Math.max(start, base + i * chunk);
+            task.end = Math.min(end, base + (i + 1) * chunk);
+            task.argument = argument;
+            workers[i].postMessage(task);
+          }
+        });
+  }
+
+  private void onReply(Object message) {
+    ParallelTask reply = Js.uncheckedCast(message);
+    Job job = jobs.get((int) reply.id);
+    if (job == null) {
+      return;
+    }
+    if (reply.error != null) {
+      jobs.remove((int) reply.id);
+      job.reject.onInvoke(new IllegalStateException("Kernel failed in worker: " + reply.error));
+      return;
+    }
+    job.results[reply.partition] = reply.result;
+    if (--job.pending == 0) {
+      jobs.remove((int) reply.id);
+      double result = job.results[0];
+      for (int i = 1; i < job.results.length; i++) {
+        result = job.kernel.combine(result, job.results[i]);
+      }
+      job.resolve.onInvoke(result);
+    }
+  }
+
+  /**
+   * Processes the partitions posted by a {@code ParallelOps} of the main thread. Called once in
+   * every worker, after registering the kernels.
+   *
+   * @param mainThread the endpoint to the main thread
+   */
+  public static void serve(WorkerEndpoint mainThread) {
+    mainThread.setMessageHandler(
+        message -> {
+          ParallelTask task = Js.uncheckedCast(message);
+          ParallelTask reply = new ParallelTask();
+          reply.id = task.id;
+          reply.partition = task.partition;
+          try {
+            Buffer buffer = BufferTransfer.receive(task.buffer);
+            reply.result = kernel(task.kernel).apply(buffer, task.start, task.end, task.argument);
+          } catch (RuntimeException e) {
+            reply.error = String.valueOf(e);
+          }
+          mainThread.postMessage(reply);
+        });
+  }
+
+  /**
+   * Returns an endpoint for a Web Worker, a worker's global scope, a Node.js {@code Worker} or a
+   * Node.js {@code parentPort}.
+   *
+   * @param target an object with {@code postMessage} and either {@code onmessage} or {@code on}
+   * @return the endpoint
+   */
+  public static WorkerEndpoint endpoint(Object target) {
+    MessageTarget messageTarget = Js.uncheckedCast(target);
+    return new WorkerEndpoint() {
+      private MessageListener listener;
+
+      @Override
+      public void postMessage(Object message) {
+        messageTarget.postMessage(message);
+      }
+
+      @Override
+      public void setMessageHandler(MessageHandler handler) {
+        JsPropertyMap<Object> properties = Js.asPropertyMap(target);
+        if ("function".equals(Js.typeof(properties.get("on")))) {
+          // Node.js passes the data itself to message listeners
+          if (listener != null) {
+            messageTarget.removeListener("message", listener);
+          }
+          listener = handler::onMessage;
+          messageTarget.on("message", listener);
+        } else {
+          messageTarget.onmessage =
+              event -> handler.onMessage(Js.asPropertyMap(event).get("data"));
+        }
+      }
+    };
+  }
+
+  /*
+   * A built-in kernel that loops over the typed array of direct buffers, without a virtual call or
+   * a Buffer get/put per element. Heap buffers, and read-only buffers for kernels that write, go to
+   * the fallback, which also combines the partition results.
+   */
+  private abstract static class TypedKernel implements ParallelKernel {
+    private final ParallelKernel fallback;
+    private final boolean writes;
+
+    TypedKernel(ParallelKernel fallback, boolean writes) {
+      this.fallback = fallback;
+      this.writes = writes;
+    }
+
+    abstract double applyTo(JsArrayLike<Double> elements, int start, int end, double argument);
+
+    @Override
+    public final double apply(Buffer buffer, int start, int end, double argument) {
+      if (!(buffer instanceof HasArrayBufferView) || writes && buffer.isReadOnly()) {
+        return fallback.apply(buffer, start, end, argument);
+      }
+      ArrayBufferView view = ((HasArrayBufferView) buffer).getTypedArray();
+      return applyTo(Js.uncheckedCast(view), start, end, argument);
+    }
+
+    @Override
+    public final double combine(double a, double b) {
+      return fallback.combine(a, b);
+    }
+  }
+
+  private static final class Job {
+    final ParallelKernel kernel;
+    final double[] results;
+    final ResolveCallbackFn<Double> resolve;
+    final RejectCallbackFn reject;
+    int pending;
+
+    Job(
+        ParallelKernel kernel,
+        int partitions,
+        ResolveCallbackFn<Double> resolve,
+        RejectCallbackFn reject) {
+      this.kernel = kernel;
+      this.results = new double[partitions];
+      this.pending = partitions;
+      this.resolve = resolve;
+      this.reject = reject;
+    }
+  }
+
+  @JsFunction
+  private interface MessageListener {
+    void onMessage(Object data);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+  private static class MessageTarget {
+    public MessageListener onmessage;
+
+    public native void postMessage(Object message);
+
+    public native void on(String type, MessageListener listener);
+
+    public native void removeListener(String type, MessageListener listener);
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/** A request or reply exchanged between {@link ParallelOps} and its workers. */
+@JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+class ParallelTask {
+
+  public double id;
+
+  public int partition;
+
+  public String kernel;
+
+  public TransferredBuffer buffer;
+
+  public int start;
+
+  public int end;
+
+  public double argument;
+
+  public double result;
+
+  public String error;
+}
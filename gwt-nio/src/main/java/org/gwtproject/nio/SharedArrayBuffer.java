@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * The JavaScript {@code SharedArrayBuffer}. It is only available in cross-origin isolated pages and
+ * workers, see {@link TypedArrayHelper#isSharedMemorySupported()}.
+ */
+@JsType(isNative = true, namespace = JsPackage.GLOBAL)
+public class SharedArrayBuffer {
+
+  public int byteLength;
+
+  public SharedArrayBuffer(int length) {}
+
+  public native SharedArrayBuffer slice(int begin, int end);
+}
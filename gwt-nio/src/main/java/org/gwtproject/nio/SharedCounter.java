@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+/**
+ * A lock-free counter stored in one element of an {@link AtomicIntBuffer}, e.g. the head or tail
+ * index of a work queue that several workers share.
+ */
+public final class SharedCounter {
+
+  private final AtomicIntBuffer buffer;
+
+  private final int index;
+
+  /**
+   * Creates a counter backed by the element {@code index} of {@code buffer}. The current value of
+   * the element is kept.
+   *
+   * @param buffer the buffer holding the counter
+   * @param index the index of the counter in the buffer
+   */
+  public SharedCounter(AtomicIntBuffer buffer, int index) {
+    if (index < 0 || index >= buffer.length()) {
+      throw new IndexOutOfBoundsException("index " + index);
+    }
+    this.buffer = buffer;
+    this.index = index;
+  }
+
+  public int get() {
+    return buffer.get(index);
+  }
+
+  public void set(int value) {
+    buffer.set(index, value);
+  }
+
+  public int incrementAndGet() {
+    return buffer.incrementAndGet(index);
+  }
+
+  public int decrementAndGet() {
+    return buffer.decrementAndGet(index);
+  }
+
+  public int getAndIncrement() {
+    return buffer.getAndIncrement(index);
+  }
+
+  public int addAndGet(int delta) {
+    return buffer.addAndGet(index, delta);
+  }
+
+  public int getAndAdd(int delta) {
+    return buffer.getAndAdd(index, delta);
+  }
+
+  public boolean compareAndSet(int expected, int value) {
+    return buffer.compareAndSet(index, expected, value);
+  }
+
+  /**
+   * Blocks while the counter equals {@code value}, until another agent calls {@link #signal()}.
+   * Only available on shared memory in workers.
+   *
+   * @param value the value to wait on
+   * @param timeoutMillis the maximum time to wait, or {@code Double.POSITIVE_INFINITY}
+   * @return false if the wait timed out
+   */
+  public boolean awaitChange(int value, double timeoutMillis) {
+    return buffer.await(index, value, timeoutMillis);
+  }
+
+  /**
+   * Wakes all agents blocked in {@link #awaitChange(int, double)}.
+   *
+   * @return the number of agents woken
+   */
+  public int signal() {
+    return buffer.wakeAll(index);
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(get());
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.JsDate;
+
+/**
+ * A lock-free flag stored in one element of an {@link AtomicIntBuffer}. The flag is set when the
+ * element is not 0. Workers can block until the flag is set with {@link #await(double)}; the main
+ * thread, which must not block, polls {@link #isSet()} instead.
+ */
+public final class SharedFlag {
+
+  private final AtomicIntBuffer buffer;
+
+  private final int index;
+
+  /**
+   * Creates a flag backed by the element {@code index} of {@code buffer}. The current value of the
+   * element is kept.
+   *
+   * @param buffer the buffer holding the flag
+   * @param index the index of the flag in the buffer
+   */
+  public SharedFlag(AtomicIntBuffer buffer, int index) {
+    if (index < 0 || index >= buffer.length()) {
+      throw new IndexOutOfBoundsException("index " + index);
+    }
+    this.buffer = buffer;
+    this.index = index;
+  }
+
+  public boolean isSet() {
+    return buffer.get(index) != 0;
+  }
+
+  /**
+   * Sets the flag and wakes all agents waiting for it.
+   *
+   * @return true if the flag was not set before
+   */
+  public boolean set() {
+    boolean changed = buffer.getAndSet(index, 1) == 0;
+    if (changed) {
+      buffer.wakeAll(index);
+    }
+    return changed;
+  }
+
+  /**
+   * Clears the flag.
+   *
+   * @return true if the flag was set before
+   */
+  public boolean clear() {
+    return buffer.getAndSet(index, 0) != 0;
+  }
+
+  /**
+   * Atomically clears the flag if it is set, so that only one of several agents consumes it. Like
+   * {@link #isSet()}, any non-zero value of the element counts as set.
+   *
+   * @return true if this call cleared the flag
+   */
+  public boolean consume() {
+    return buffer.getAndSet(index, 0) != 0;
+  }
+
+  /**
+   * Blocks until the flag is set. Only available on shared memory in workers.
+   *
+   * @param timeoutMillis the maximum time to wait, or {@code Double.POSITIVE_INFINITY}
+   * @return true if the flag is set, false if the wait timed out
+   */
+  public boolean await(double timeoutMillis) {
+    double deadline = JsDate.now() + timeoutMillis;
+    while (!isSet()) {
+      // spurious wakeups only wait for the rest of the timeout
+      double remaining = Math.max(0, deadline - JsDate.now());
+      if (!buffer.await(index, 0, remaining)) {
+        return isSet();
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(isSet());
+  }
+}
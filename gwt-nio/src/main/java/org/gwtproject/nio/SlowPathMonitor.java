@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Debug-only instrumentation for operations of the nio emulation that fall back to a slow path,
+ * e.g. a byte-by-byte adapter instead of a typed array view, or a temporary array for a bulk copy.
+ *
+ * <p>Monitoring is disabled by default, in which case every call site costs a single static field
+ * read. Once enabled, each slow path entry is counted by call site and buffer type, and the first
+ * entry for a given key is logged as a warning together with a stack trace pointing at the caller.
+ */
+public final class SlowPathMonitor {
+
+  private static final Logger logger = Logger.getLogger(SlowPathMonitor.class.getName());
+
+  private static final Map<String, Integer> counts = new LinkedHashMap<>();
+
+  private static boolean enabled;
+
+  private static boolean warningsEnabled = true;
+
+  private SlowPathMonitor() {}
+
+  /** Returns true if slow path entries are being recorded. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts or stops recording slow path entries. Counts recorded so far are kept.
+   *
+   * @param enabled whether to record slow path entries
+   */
+  public static void setEnabled(boolean enabled) {
+    SlowPathMonitor.enabled = enabled;
+  }
+
+  /**
+   * Controls the one-time warning logged for every new call site and buffer type pair. Enabled by
+   * default.
+   *
+   * @param warningsEnabled whether to log warnings
+   */
+  public static void setWarningsEnabled(boolean warningsEnabled) {
+    SlowPathMonitor.warningsEnabled = warningsEnabled;
+  }
+
+  /**
+   * Records that {@code buffer} entered the slow path identified by {@code callSite}. Does nothing
+   * unless monitoring is enabled.
+   *
+   * @param callSite the slow path, e.g. {@code "ByteBuffer.asDoubleBuffer"}
+   * @param buffer the buffer taking the slow path
+   */
+  public static void record(String callSite, Object buffer) {
+    if (!enabled) {
+      return;
+    }
+    String key = callSite + " [" + (buffer == null ? "null" : buffer.getClass().getName()) + "]";
+    Integer count = counts.get(key);
+    counts.put(key, count == null ? 1 : count + 1);
+    if (count == null && warningsEnabled) {
+      logger.log(Level.WARNING, "nio slow path: " + key, new Throwable(key));
+    }
+  }
+
+  /**
+   * Returns the number of recorded entries for {@code callSite}, summed over all buffer types.
+   *
+   * @param callSite the slow path
+   * @return the number of recorded entries
+   */
+  public static int getCount(String callSite) {
+    String prefix = callSite + " [";
+    int total = 0;
+    for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+      if (entry.getKey().startsWith(prefix)) {
+        total += entry.getValue();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Returns the recorded counts keyed by {@code "callSite [buffer type]"}, in first-seen order.
+   *
+   * @return an unmodifiable snapshot of the counts
+   */
+  public static Map<String, Integer> getCounts() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+  }
+
+  /** Clears all counts, so that the next entry of each slow path is warned about again. */
+  public static void reset() {
+    counts.clear();
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.Int8Array;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import jsinterop.base.Js;
+
+/**
+ * A bounded cache of decoded strings for binary formats that repeat the same short keys, e.g. the
+ * map keys of MessagePack or CBOR messages. A hit compares the bytes against the cached key and
+ * returns the cached String, so neither a String nor a temporary array is allocated.
+ *
+ * <p>The cache maps the hash of the bytes to a set of four slots. A miss decodes the bytes with
+ * {@link TypedArrayHelper#byteBufferToString(ByteBuffer, Charset)} and replaces a slot of the set
+ * that was not used since the clock hand last passed it (CLOCK eviction). Longer byte ranges than
+ * {@code maxKeyLength} are decoded without caching.
+ *
+ * <p>Keys of direct buffers are hashed and compared on the backing Int8Array; keys of other buffers
+ * are first copied to a scratch array with one bulk get. The cache is used explicitly by format
+ * readers, it is not part of {@code CharsetDecoder}, which decodes into a CharBuffer and never
+ * creates a String to share.
+ *
+ * <pre>
+ * StringCache keys = new StringCache(256);
+ * String key = keys.decode(frame, keyLength);
+ * </pre>
+ */
+public final class StringCache {
+
+  /* The number of slots a key may occupy. */
+  private static final int WAYS = 4;
+
+  private static final int DEFAULT_MAX_KEY_LENGTH = 64;
+
+  private final Charset charset;
+
+  private final int maxKeyLength;
+
+  private final int mask;
+
+  private final int[] hashes;
+
+  private final byte[][] keys;
+
+  private final String[] values;
+
+  private final boolean[] referenced;
+
+  private final int[] hands;
+
+  /* The key being looked up, for buffers without a typed array. */
+  private final byte[] scratch;
+
+  private int hits;
+
+  private int misses;
+
+  /**
+   * Creates a UTF-8 cache for keys of up to 64 bytes.
+   *
+   * @param capacity the maximum number of cached strings, rounded up to a power of two
+   */
+  public StringCache(int capacity) {
+    this(capacity, DEFAULT_MAX_KEY_LENGTH, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param capacity the maximum number of cached strings, rounded up to a power of two
+   * @param maxKeyLength the length in bytes of the longest cached key
+   * @param charset UTF-8, UTF-16BE, UTF-16LE or ISO-8859-1
+   */
+  public StringCache(int capacity, int maxKeyLength, Charset charset) {
+    if (capacity <= 0 || capacity > 1 << 30 || maxKeyLength < 0) {
+      throw new IllegalArgumentException();
+    }
+    int size = WAYS;
+    while (size < capacity) {
+      size <<= 1;
+    }
+    this.charset = charset;
+    this.maxKeyLength = maxKeyLength;
+    this.mask = size / WAYS - 1;
+    this.hashes = new int[size];
+    this.keys = new byte[size][];
+    this.values = new String[size];
+    this.referenced = new boolean[size];
+    this.hands = new int[size / WAYS];
+    this.scratch = new byte[maxKeyLength];
+  }
+
+  /**
+   * Decodes {@code length} bytes of {@code bb} at its position and advances the position past them.
+   *
+   * @param bb the bytes
+   * @param length the number of bytes to decode
+   * @return the decoded string, the same instance for the same bytes as long as they are cached
+   * @throws BufferUnderflowException if fewer than {@code length} bytes remain
+   */
+  public String decode(ByteBuffer bb, int length) {
+    if (length < 0 || length > bb.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    int position = bb.position();
+    String s = decode(bb, position, length);
+    bb.position(position + length);
+    return s;
+  }
+
+  /**
+   * Decodes {@code length} bytes of {@code bb} at {@code offset}, without changing its position.
+   *
+   * @param bb the bytes
+   * @param offset the index of the first byte
+   * @param length the number of bytes to decode
+   * @return the decoded string, the same instance for the same bytes as long as they are cached
+   * @throws IndexOutOfBoundsException if the range is not within the limit of {@code bb}
+   */
+  public String decode(ByteBuffer bb, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > bb.limit() - length) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (length > maxKeyLength) {
+      misses++;
+      return decodeRange(bb.duplicate(), offset, offset + length);
+    }
+    Int8Array bytes = null;
+    int hash;
+    if (bb instanceof HasArrayBufferView) {
+      bytes = Js.uncheckedCast(((HasArrayBufferView) bb).getTypedArray());
+      hash = hash(bytes, offset, length);
+    } else {
+      ByteBuffer range = bb.duplicate();
+      range.position(offset);
+      range.get(scratch, 0, length);
+      hash = hash(scratch, length);
+    }
+    int set = (hash ^ (hash >>> 16)) & mask;
+    int first = set * WAYS;
+    for (int slot = first; slot < first + WAYS; slot++) {
+      if (hashes[slot] == hash
+          && (bytes != null
+              ? matches(keys[slot], bytes, offset, length)
+              : matches(keys[slot], scratch, length))) {
+        referenced[slot] = true;
+        hits++;
+        return values[slot];
+      }
+    }
+    misses++;
+    byte[] key;
+    if (bytes != null) {
+      key = new byte[length];
+      for (int i = 0; i < length; i++) {
+        key[i] = bytes.getAt(offset + i).byteValue();
+      }
+    } else {
+      key = Arrays.copyOf(scratch, length);
+    }
+    String value = TypedArrayHelper.byteBufferToString(ByteBuffer.wrap(key), charset);
+    int slot = victim(set);
+    hashes[slot] = hash;
+    keys[slot] = key;
+    values[slot] = value;
+    referenced[slot] = false;
+    return value;
+  }
+
+  private String decodeRange(ByteBuffer range, int start, int end) {
+    range.limit(end).position(start);
+    return TypedArrayHelper.byteBufferToString(range, charset);
+  }
+
+  /* Advances the clock hand of the set past the slots used since it last passed them. */
+  private int victim(int set) {
+    int first = set * WAYS;
+    while (true) {
+      int slot = first + hands[set];
+      hands[set] = (hands[set] + 1) & (WAYS - 1);
+      if (keys[slot] == null || !referenced[slot]) {
+        return slot;
+      }
+      referenced[slot] = false;
+    }
+  }
+
+  /* FNV-1a, which spreads short keys that differ in a single byte. */
+  private static int hash(Int8Array bytes, int offset, int length) {
+    int hash = 0x811c9dc5;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      hash = (hash ^ (bytes.getAt(i).intValue() & 0xff)) * 0x01000193;
+    }
+    return hash;
+  }
+
+  private static int hash(byte[] bytes, int length) {
+    int hash = 0x811c9dc5;
+    for (int i = 0; i < length; i++) {
+      hash = (hash ^ (bytes[i] & 0xff)) * 0x01000193;
+    }
+    return hash;
+  }
+
+  private static boolean matches(byte[] key, Int8Array bytes, int offset, int length) {
+    if (key == null || key.length != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (key[i] != bytes.getAt(offset + i).intValue()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean matches(byte[] key, byte[] bytes, int length) {
+    if (key == null || key.length != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (key[i] != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Removes all cached strings and resets the statistics. */
+  public void clear() {
+    for (int i = 0; i < keys.length; i++) {
+      hashes[i] = 0;
+      keys[i] = null;
+      values[i] = null;
+      referenced[i] = false;
+    }
+    for (int i = 0; i < hands.length; i++) {
+      hands[i] = 0;
+    }
+    hits = 0;
+    misses = 0;
+  }
+
+  /** Returns the number of cached strings. */
+  public int size() {
+    int size = 0;
+    for (byte[] key : keys) {
+      if (key != null) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /** Returns the number of decodes answered from the cache. */
+  public int hits() {
+    return hits;
+  }
+
+  /** Returns the number of decodes which allocated a new string. */
+  public int misses() {
+    return misses;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBufferView;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * The {@code FileSystemSyncAccessHandle} of the origin private file system, which a worker gets
+ * from {@code fileHandle.createSyncAccessHandle()}. Java classes may implement it, e.g. as an in
+ * memory stand-in for tests.
+ */
+@JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "FileSystemSyncAccessHandle")
+public interface SyncAccessHandle {
+
+  /**
+   * Reads into {@code buffer}, starting at the file offset given by {@code options.at}.
+   *
+   * @return the number of bytes read, 0 at the end of the file
+   */
+  double read(ArrayBufferView buffer, ReadWriteOptions options);
+
+  /**
+   * Writes {@code buffer}, starting at the file offset given by {@code options.at}; the file grows
+   * as needed.
+   *
+   * @return the number of bytes written
+   */
+  double write(ArrayBufferView buffer, ReadWriteOptions options);
+
+  double getSize();
+
+  void truncate(double newSize);
+
+  void flush();
+
+  void close();
+
+  /** The {@code {at: offset}} argument of read and write. */
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+  class ReadWriteOptions {
+    public double at;
+  }
+}
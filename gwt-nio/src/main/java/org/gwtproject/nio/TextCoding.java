@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+import elemental2.core.ArrayBufferView;
+import elemental2.core.Uint8Array;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+import jsinterop.base.JsPropertyMap;
+
+/**
+ * The TextEncoder and TextDecoder fast paths of the charset coders. They apply to direct buffers
+ * which are not backed by shared memory, that the platform coders reject, and to chunks long
+ * enough to pay for the call into the platform.
+ */
+final class TextCoding {
+
+  /* Below this many bytes or chars, the Java loops are faster than a call into the platform. */
+  static final int MIN_FAST_PATH_LENGTH = 32;
+
+  private static final boolean DECODER_SUPPORTED =
+      isFunction(Js.global(), "TextDecoder") && decodesViews();
+
+  private static final boolean ENCODER_SUPPORTED =
+      isFunction(Js.global(), "TextEncoder")
+          && isFunction(
+              Js.asPropertyMap(Js.global().get("String")).get("prototype"), "isWellFormed");
+
+  private static final JsPropertyMap<TextDecoder> decoders = JsPropertyMap.of();
+
+  private static final JsPropertyMap<TextDecoder> replacingDecoders = JsPropertyMap.of();
+
+  private static TextEncoder encoder;
+
+  private TextCoding() {}
+
+  private static boolean isFunction(Object object, String name) {
+    return object != null && "function".equals(Js.typeof(Js.asPropertyMap(object).get(name)));
+  }
+
+  /* HtmlUnit decodes the whole ArrayBuffer of a view, which the Java decoders have to replace. */
+  private static boolean decodesViews() {
+    Uint8Array view = new Uint8Array(new ArrayBuffer(2), 1, 1);
+    return new TextDecoder("utf-8", JsPropertyMap.of()).decode(view).length() == 1;
+  }
+
+  private static boolean isPlatformBuffer(ByteBuffer bb) {
+    return bb.isDirect() && bb instanceof HasArrayBufferView && !TypedArrayHelper.isShared(bb);
+  }
+
+  /**
+   * Decodes the bytes of {@code in} between its position and {@code end} with the platform
+   * decoder for {@code label}, and writes them to {@code out}, which must have room for them.
+   *
+   * @param label the WHATWG encoding label
+   * @param in the input
+   * @param end the end of the bytes to decode, which must not split a character
+   * @param out the output
+   * @return false if the fast path does not apply, or the bytes are malformed; the buffers are
+   *     unchanged then
+   */
+  static boolean decode(String label, ByteBuffer in, int end, CharBuffer out) {
+    int start = in.position();
+    if (!DECODER_SUPPORTED || end - start < MIN_FAST_PATH_LENGTH || !isPlatformBuffer(in)) {
+      return false;
+    }
+    TextDecoder decoder = decoder(decoders, label, true);
+    String decoded;
+    try {
+      decoded = decoder.decode(bytes(in, start, end));
+    } catch (RuntimeException e) {
+      // Malformed input: the Java loop finds and reports the error.
+      return false;
+    }
+    out.put(decoded);
+    in.position(end);
+    return true;
+  }
+
+  private static TextDecoder decoder(
+      JsPropertyMap<TextDecoder> cache, String label, boolean fatal) {
+    TextDecoder decoder = cache.get(label);
+    if (decoder == null) {
+      JsPropertyMap<Object> options = JsPropertyMap.<Object>of("fatal", fatal, "ignoreBOM", true);
+      decoder = new TextDecoder(label, options);
+      cache.set(label, decoder);
+    }
+    return decoder;
+  }
+
+  /**
+   * Decodes the remaining bytes of {@code bb} in one call, replacing malformed input with U+FFFD.
+   *
+   * @param charset the charset
+   * @param bb the bytes, whose position is not changed
+   * @return the string, or null if the fast path does not apply
+   */
+  static String decodeString(Charset charset, ByteBuffer bb) {
+    String label = label(charset);
+    if (!DECODER_SUPPORTED || label == null || !isPlatformBuffer(bb)) {
+      return null;
+    }
+    return decoder(replacingDecoders, label, false).decode(bytes(bb, bb.position(), bb.limit()));
+  }
+
+  /*
+   * A view of the bytes of bb between start and end. The view is built from the byte offset rather
+   * than with subarray(), which HtmlUnit resolves against the start of the ArrayBuffer.
+   */
+  private static Uint8Array bytes(ByteBuffer bb, int start, int end) {
+    ArrayBufferView typed = ((HasArrayBufferView) bb).getTypedArray();
+    return new Uint8Array(typed.buffer, typed.byteOffset + start, end - start);
+  }
+
+  private static String label(Charset charset) {
+    switch (charset.name()) {
+      case "UTF-8":
+        return "utf-8";
+      case "UTF-16BE":
+        return "utf-16be";
+      case "UTF-16LE":
+        return "utf-16le";
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Encodes {@code s} as UTF-8 into a new direct buffer, without copying the encoded bytes.
+   *
+   * @param s the string
+   * @return the buffer, or null if the fast path does not apply or {@code s} holds a lone surrogate
+   */
+  static ByteBuffer encodeUtf8(String s) {
+    if (!ENCODER_SUPPORTED || !Js.<WellFormedString>uncheckedCast(s).isWellFormed()) {
+      return null;
+    }
+    Uint8Array bytes = encoder().encode(s);
+    return TypedArrayHelper.wrap(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+  }
+
+  private static TextEncoder encoder() {
+    if (encoder == null) {
+      encoder = new TextEncoder();
+    }
+    return encoder;
+  }
+
+  /**
+   * Encodes the chars of {@code in} between its position and {@code end} into {@code out} as
+   * UTF-8, as far as they fit.
+   *
+   * @param in the input
+   * @param end the end of the chars to encode, which must not split a surrogate pair
+   * @param out the output
+   * @return false if the fast path does not apply, or the chars hold a lone surrogate; the buffers
+   *     are unchanged then
+   */
+  static boolean encodeUtf8(CharBuffer in, int end, ByteBuffer out) {
+    int start = in.position();
+    if (!ENCODER_SUPPORTED || end - start < MIN_FAST_PATH_LENGTH || !isPlatformBuffer(out)) {
+      return false;
+    }
+    CharBuffer chunk = in.duplicate();
+    chunk.limit(end);
+    String s = chunk.toString();
+    if (!Js.<WellFormedString>uncheckedCast(s).isWellFormed()) {
+      return false;
+    }
+    ArrayBufferView bytes = ((HasArrayBufferView) out).getTypedArray();
+    Uint8Array dest =
+        new Uint8Array(bytes.buffer, bytes.byteOffset + out.position(), out.remaining());
+    EncodeResult result = encoder().encodeInto(s, dest);
+    in.position(start + (int) result.read);
+    out.position(out.position() + (int) result.written);
+    return true;
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL)
+  private static class TextDecoder {
+
+    public TextDecoder(String label, JsPropertyMap<Object> options) {}
+
+    public native String decode(ArrayBufferView input);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL)
+  private static class TextEncoder {
+
+    public native Uint8Array encode(String source);
+
+    public native EncodeResult encodeInto(String source, Uint8Array destination);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+  private static class EncodeResult {
+    public double read;
+
+    public double written;
+  }
+
+  /** A string with the ES2024 String.prototype.isWellFormed(). */
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "String")
+  private static class WellFormedString {
+
+    public native boolean isWellFormed();
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * A direct buffer in transit between agents, created by {@link BufferTransfer#transfer} and turned
+ * back into a buffer by {@link BufferTransfer#receive}. It is a plain JavaScript object, so it can
+ * be posted as is; {@link #buffer} must be listed as transferable to avoid copying it.
+ */
+@JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+public class TransferredBuffer {
+
+  /** The memory of the buffer; the whole ArrayBuffer is transferred, not only the buffer's part. */
+  public ArrayBuffer buffer;
+
+  /** The buffer type: "byte", "int", "short" or "float". */
+  public String type;
+
+  public int byteOffset;
+
+  public int capacity;
+
+  public int position;
+
+  public int limit;
+
+  public boolean bigEndian;
+
+  public boolean readOnly;
+}
@@ -17,18 +17,156 @@ package org.gwtproject.nio;
 
 import elemental2.core.ArrayBuffer;
 import elemental2.core.ArrayBufferView;
+import elemental2.core.Int8Array;
+import elemental2.core.TypedArray;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import jsinterop.annotations.JsMethod;
 import jsinterop.base.Js;
+import jsinterop.base.JsArrayLike;
 
 /** Allows us to wrap an existing typed array buffer in a ByteBuffer. */
 public class TypedArrayHelper {
 
+  /* Scratch buffers of the charset fallbacks are kept for reuse up to this capacity. */
+  private static final int MAX_SCRATCH_CAPACITY = 64 * 1024;
+
+  private static ByteBuffer byteScratch;
+
+  private static CharBuffer charScratch;
+
+  /* TypedArray.prototype.fill() is missing in older engines, e.g. the one of HtmlUnit. */
+  private static final boolean FILL_SUPPORTED =
+      "function".equals(Js.typeof(Js.asPropertyMap(new Int8Array(0)).get("fill")));
+
   public static ByteBuffer wrap(ArrayBuffer ab) {
     ArrayBuffer casted = _wrap(ab);
     return Js.uncheckedCast(casted);
   }
 
+  /**
+   * Wraps {@code length} bytes of {@code ab}, starting at {@code offset}, in a direct ByteBuffer.
+   *
+   * @param ab the buffer to wrap
+   * @param offset the byte offset of the first byte
+   * @param length the capacity of the returned buffer
+   * @return a direct ByteBuffer sharing its content with {@code ab}
+   */
+  public static ByteBuffer wrap(ArrayBuffer ab, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > ab.byteLength - length) {
+      throw new IndexOutOfBoundsException();
+    }
+    ArrayBuffer casted = _wrapRange(ab, length, offset);
+    return Js.uncheckedCast(casted);
+  }
+
+  /**
+   * Wraps {@code length} bytes of the memory of {@code source}, starting at {@code offset}, in a
+   * direct ByteBuffer. Unlike a buffer over a fixed ArrayBuffer, the returned buffer and its views
+   * keep working after the source replaced its memory, as long as the new memory still covers their
+   * range; otherwise they throw {@link IndexOutOfBoundsException}.
+   *
+   * @param source the memory to wrap
+   * @param offset the byte offset of the first byte
+   * @param length the capacity of the returned buffer
+   * @return a direct ByteBuffer sharing its content with the current memory of {@code source}
+   */
+  public static ByteBuffer wrap(ArrayBufferSource source, int offset, int length) {
+    ArrayBuffer ab = source.getArrayBuffer();
+    if (offset < 0 || length < 0 || offset > ab.byteLength - length) {
+      throw new IndexOutOfBoundsException();
+    }
+    ArrayBuffer casted = _wrapSource(source, length, offset);
+    return Js.uncheckedCast(casted);
+  }
+
+  /**
+   * Wraps a {@link SharedArrayBuffer} in a direct ByteBuffer. The buffer and all its typed views
+   * read and write the shared memory, so they see the writes of every worker the {@code
+   * SharedArrayBuffer} was posted to.
+   *
+   * @param sab the shared buffer to wrap
+   * @return a direct ByteBuffer sharing its content with {@code sab}
+   */
+  public static ByteBuffer wrap(SharedArrayBuffer sab) {
+    return wrap(Js.<ArrayBuffer>uncheckedCast(sab));
+  }
+
+  /**
+   * Wraps {@code length} bytes of a {@link SharedArrayBuffer}, starting at {@code offset}, in a
+   * direct ByteBuffer.
+   *
+   * @param sab the shared buffer to wrap
+   * @param offset the byte offset of the first byte
+   * @param length the capacity of the returned buffer
+   * @return a direct ByteBuffer sharing its content with {@code sab}
+   */
+  public static ByteBuffer wrap(SharedArrayBuffer sab, int offset, int length) {
+    return wrap(Js.<ArrayBuffer>uncheckedCast(sab), offset, length);
+  }
+
+  /**
+   * Allocates a direct ByteBuffer backed by a new {@link SharedArrayBuffer}.
+   *
+   * @param capacity the capacity in bytes
+   * @return the new buffer
+   * @throws UnsupportedOperationException if shared memory is not available
+   */
+  public static ByteBuffer allocateShared(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (!isSharedMemorySupported()) {
+      throw new UnsupportedOperationException("SharedArrayBuffer is not available");
+    }
+    return wrap(new SharedArrayBuffer(capacity));
+  }
+
+  /**
+   * Returns true if {@link SharedArrayBuffer} is available, which in browsers requires a
+   * cross-origin isolated context.
+   *
+   * @return true if shared buffers can be allocated
+   */
+  public static boolean isSharedMemorySupported() {
+    return "function".equals(Js.typeof(Js.global().get("SharedArrayBuffer")));
+  }
+
+  /**
+   * Returns true if {@code bb} is a direct buffer, or a typed view of one, backed by a {@link
+   * SharedArrayBuffer}.
+   *
+   * @param bb the buffer
+   * @return true if the buffer content lives in shared memory
+   */
+  public static boolean isShared(Buffer bb) {
+    return bb instanceof HasArrayBufferView
+        && bb.isDirect()
+        && isSharedMemorySupported()
+        && Js.<Object>uncheckedCast(((HasArrayBufferView) bb).getTypedArray().buffer)
+            instanceof SharedArrayBuffer;
+  }
+
+  /**
+   * Returns the {@link SharedArrayBuffer} backing {@code bb}, e.g. to post it to a worker.
+   *
+   * @param bb a buffer created by {@link #allocateShared(int)} or {@link #wrap(SharedArrayBuffer)}
+   * @return the shared memory of the buffer
+   * @throws IllegalArgumentException if {@code bb} is not backed by shared memory
+   */
+  public static SharedArrayBuffer getSharedArrayBuffer(ByteBuffer bb) {
+    if (!isShared(bb)) {
+      throw new IllegalArgumentException("Not a shared buffer: " + bb);
+    }
+    return Js.uncheckedCast(((HasArrayBufferView) bb).getTypedArray().buffer);
+  }
+
   @JsMethod
   @SuppressWarnings({"unusable-by-js", "checkTypes"})
   private static native ArrayBuffer _wrap(ArrayBuffer ab) /*-{
@@ -36,18 +174,132 @@ public class TypedArrayHelper {
     }-*/;
 
   @JsMethod
-  @SuppressWarnings("unusable-by-js")
-  public static native ArrayBufferView unwrap(ByteBuffer bb) /*-{
-        var casted = @jsinterop.base.Js::uncheckedCast(Ljava/lang/Object;)(bb);
-        return casted.getTypedArray();
+  @SuppressWarnings({"unusable-by-js", "checkTypes"})
+  private static native ArrayBuffer _wrapRange(ArrayBuffer ab, int capacity, int offset) /*-{
+        return @java.nio.DirectReadWriteByteBuffer::new(Lelemental2/core/ArrayBuffer;II)(ab, capacity, offset);
     }-*/;
 
-  private static ByteBuffer buffer = ByteBuffer.allocate(1);
+  @JsMethod
+  @SuppressWarnings({"unusable-by-js", "checkTypes"})
+  private static native ArrayBuffer _wrapSource(
+      ArrayBufferSource source, int capacity, int offset) /*-{
+        return @java.nio.DirectReadWriteByteBuffer::new(Lorg/gwtproject/nio/ArrayBufferSource;II)(source, capacity, offset);
+    }-*/;
 
   @JsMethod
   @SuppressWarnings("unusable-by-js")
-  public static native ByteBuffer stringToByteBuffer(String s) /*-{
-        var buffer = @org.gwtproject.nio.TypedArrayHelper::buffer;
-        return buffer.stringToByteBuffer(s);
-    }-*/;
+  public static ArrayBufferView unwrap(ByteBuffer bb) {
+    if (bb instanceof HasArrayBufferView) {
+      return ((HasArrayBufferView) bb).getTypedArray();
+    }
+    SlowPathMonitor.record("TypedArrayHelper.unwrap", bb);
+    throw new IllegalArgumentException("Only direct buffers can be unwrapped: " + bb);
+  }
+
+  /* Sets the elements of array from start to end to value, with fill() where available. */
+  static void fill(TypedArray array, double value, int start, int end) {
+    if (FILL_SUPPORTED) {
+      array.fill(value, start, end);
+      return;
+    }
+    JsArrayLike<Double> elements = Js.uncheckedCast(array);
+    for (int i = start; i < end; i++) {
+      elements.setAt(i, value);
+    }
+  }
+
+  /**
+   * Encodes {@code s} as UTF-8 into a new direct buffer.
+   *
+   * @param s the string
+   * @return a buffer holding the encoded bytes between position 0 and its capacity
+   * @see #stringToByteBuffer(String, Charset)
+   */
+  @JsMethod
+  @SuppressWarnings("unusable-by-js")
+  public static ByteBuffer stringToByteBuffer(String s) {
+    return stringToByteBuffer(s, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Encodes {@code s} into a new direct buffer. UTF-8 is encoded once by {@code
+   * TextEncoder.encode()} into the memory of the buffer where available. Other charsets are encoded
+   * into a reused scratch buffer and copied into a buffer of the exact size. Unpaired surrogates and
+   * characters the charset can not encode are replaced with '?'.
+   *
+   * @param s the string
+   * @param charset UTF-8, UTF-16BE, UTF-16LE or ISO-8859-1
+   * @return a buffer holding the encoded bytes between position 0 and its capacity
+   */
+  public static ByteBuffer stringToByteBuffer(String s, Charset charset) {
+    if (charset.name().equals(StandardCharsets.UTF_8.name())) {
+      ByteBuffer encoded = TextCoding.encodeUtf8(s);
+      if (encoded != null) {
+        return encoded;
+      }
+    }
+    CharsetEncoder encoder =
+        Charsets.newEncoder(charset)
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    int maxLength = (int) Math.ceil(s.length() * (double) encoder.maxBytesPerChar());
+    ByteBuffer out = byteScratch(maxLength);
+    encoder.encode(CharBuffer.wrap(s), out, true);
+    encoder.flush(out);
+    out.flip();
+    ByteBuffer result = ByteBuffer.allocateDirect(out.remaining());
+    result.put(out);
+    result.flip();
+    return result;
+  }
+
+  /**
+   * Decodes the remaining bytes of {@code bb} without changing its position. Direct buffers are
+   * decoded by {@code TextDecoder} for UTF-8 and UTF-16, other input into a reused scratch buffer.
+   * Malformed input is replaced with U+FFFD.
+   *
+   * @param bb the bytes
+   * @param charset UTF-8, UTF-16BE, UTF-16LE or ISO-8859-1
+   * @return the decoded string
+   */
+  public static String byteBufferToString(ByteBuffer bb, Charset charset) {
+    String decoded = TextCoding.decodeString(charset, bb);
+    if (decoded != null) {
+      return decoded;
+    }
+    CharsetDecoder decoder =
+        Charsets.newDecoder(charset)
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    int maxLength = (int) Math.ceil(bb.remaining() * (double) decoder.maxCharsPerByte());
+    CharBuffer out = charScratch(maxLength);
+    decoder.decode(bb.duplicate(), out, true);
+    decoder.flush(out);
+    out.flip();
+    return out.toString();
+  }
+
+  /* Returns a cleared direct buffer of at least capacity bytes, reused while it is small enough. */
+  private static ByteBuffer byteScratch(int capacity) {
+    if (capacity > MAX_SCRATCH_CAPACITY) {
+      return ByteBuffer.allocateDirect(capacity);
+    }
+    if (byteScratch == null || byteScratch.capacity() < capacity) {
+      byteScratch = ByteBuffer.allocateDirect(Math.max(capacity, 1024));
+    }
+    byteScratch.clear();
+    return byteScratch;
+  }
+
+  /* Returns a cleared char buffer of at least capacity chars, reused while it is small enough. */
+  private static CharBuffer charScratch(int capacity) {
+    if (capacity > MAX_SCRATCH_CAPACITY) {
+      return CharBuffer.allocate(capacity);
+    }
+    if (charScratch == null || charScratch.capacity() < capacity) {
+      charScratch = CharBuffer.allocate(Math.max(capacity, 1024));
+    }
+    charScratch.clear();
+    return charScratch;
+  }
 }
@@ -1,4 +1,3 @@
-let DirectByteBuffer = goog.forwardDeclare('java.nio.DirectByteBuffer$impl');
 let DirectReadWriteByteBuffer = goog.forwardDeclare('java.nio.DirectReadWriteByteBuffer$impl');
 
 /**
@@ -10,13 +9,20 @@ TypedArrayHelper._wrap = function(/** ArrayBuffer */ ab) {
     return DirectReadWriteByteBuffer.$create__elemental2_core_ArrayBuffer(ab);
 }
 
-/** @nodts @return {ArrayBufferView} */
-TypedArrayHelper.unwrap = function(/** ByteBuffer */ bb) {
+/**
+ * @nodts @return {ArrayBuffer}
+ * @suppress {checkTypes}
+ */
+TypedArrayHelper._wrapRange = function(/** ArrayBuffer */ ab, /** number */ capacity, /** number */ offset) {
     TypedArrayHelper.$clinit();
-    return /**@type {DirectByteBuffer}*/ (Js.m_uncheckedCast__java_lang_Object__java_lang_Object(bb)).m_getTypedArray__elemental2_core_ArrayBufferView();
+    return DirectReadWriteByteBuffer.$create__elemental2_core_ArrayBuffer__int__int(ab, capacity, offset);
 }
-/** @nodts @return {ByteBuffer} */
-TypedArrayHelper.stringToByteBuffer = function(/** ?string */ s) {
+
+/**
+ * @nodts @return {ArrayBuffer}
+ * @suppress {checkTypes}
+ */
+TypedArrayHelper._wrapSource = function(/** ArrayBufferSource */ source, /** number */ capacity, /** number */ offset) {
     TypedArrayHelper.$clinit();
-    return TypedArrayHelper.f_buffer__org_gwtproject_nio_TypedArrayHelper_.m_stringToByteBuffer__java_lang_String__java_nio_ByteBuffer(s);
+    return DirectReadWriteByteBuffer.$create__org_gwtproject_nio_ArrayBufferSource__int__int(source, capacity, offset);
 }
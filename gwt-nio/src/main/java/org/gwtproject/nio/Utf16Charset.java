@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+
+/** UTF-16BE and UTF-16LE, which the emulated JRE does not provide. */
+final class Utf16Charset extends Charset {
+
+  private final boolean bigEndian;
+
+  Utf16Charset(String name, boolean bigEndian) {
+    super(name, null);
+    this.bigEndian = bigEndian;
+  }
+
+  /* Not overrides in the emulated JRE, whose Charset has no coders. */
+
+  public boolean contains(Charset cs) {
+    return true;
+  }
+
+  public CharsetDecoder newDecoder() {
+    return new Utf16Decoder(this, bigEndian);
+  }
+
+  public CharsetEncoder newEncoder() {
+    return new Utf16Encoder(this, bigEndian);
+  }
+}
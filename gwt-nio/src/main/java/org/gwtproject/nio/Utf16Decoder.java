@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/** Decodes UTF-16BE or UTF-16LE, keeping a byte order mark as U+FEFF, reporting lone surrogates. */
+final class Utf16Decoder extends CharsetDecoder {
+
+  private final boolean bigEndian;
+
+  private final String label;
+
+  Utf16Decoder(Charset cs, boolean bigEndian) {
+    super(cs, 0.5f, 1.0f);
+    this.bigEndian = bigEndian;
+    this.label = bigEndian ? "utf-16be" : "utf-16le";
+  }
+
+  @Override
+  protected CoderResult decodeLoop(ByteBuffer in, CharBuffer out) {
+    int start = in.position();
+    int end = start + (Math.min(in.remaining(), 2 * out.remaining()) & ~1);
+    if (end > start && Character.isHighSurrogate(unit(in, end - 2))) {
+      end -= 2;
+    }
+    TextCoding.decode(label, in, end, out);
+
+    int p = in.position();
+    int limit = in.limit();
+    try {
+      while (limit - p >= 2) {
+        char c = unit(in, p);
+        if (Character.isHighSurrogate(c)) {
+          if (limit - p < 4) {
+            return CoderResult.UNDERFLOW;
+          }
+          char low = unit(in, p + 2);
+          if (!Character.isLowSurrogate(low)) {
+            return CoderResult.malformedForLength(4);
+          }
+          if (out.remaining() < 2) {
+            return CoderResult.OVERFLOW;
+          }
+          out.put(c);
+          out.put(low);
+          p += 4;
+        } else if (Character.isLowSurrogate(c)) {
+          return CoderResult.malformedForLength(2);
+        } else {
+          if (!out.hasRemaining()) {
+            return CoderResult.OVERFLOW;
+          }
+          out.put(c);
+          p += 2;
+        }
+      }
+      return CoderResult.UNDERFLOW;
+    } finally {
+      in.position(p);
+    }
+  }
+
+  private char unit(ByteBuffer in, int index) {
+    int b1 = in.get(index) & 0xFF;
+    int b2 = in.get(index + 1) & 0xFF;
+    return (char) (bigEndian ? (b1 << 8) | b2 : (b2 << 8) | b1);
+  }
+}
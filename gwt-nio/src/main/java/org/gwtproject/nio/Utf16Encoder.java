@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+
+/** Encodes UTF-16BE or UTF-16LE without a byte order mark, reporting lone surrogates. */
+final class Utf16Encoder extends CharsetEncoder {
+
+  private final boolean bigEndian;
+
+  Utf16Encoder(Charset cs, boolean bigEndian) {
+    super(cs, 2.0f, 2.0f, bigEndian ? new byte[] {-1, -3} : new byte[] {-3, -1});
+    this.bigEndian = bigEndian;
+  }
+
+  @Override
+  protected CoderResult encodeLoop(CharBuffer in, ByteBuffer out) {
+    int p = in.position();
+    int limit = in.limit();
+    try {
+      while (p < limit) {
+        char c = in.get(p);
+        int n = 1;
+        if (Character.isHighSurrogate(c)) {
+          if (p + 1 == limit) {
+            return CoderResult.UNDERFLOW;
+          }
+          if (!Character.isLowSurrogate(in.get(p + 1))) {
+            return CoderResult.malformedForLength(1);
+          }
+          n = 2;
+        } else if (Character.isLowSurrogate(c)) {
+          return CoderResult.malformedForLength(1);
+        }
+        if (out.remaining() < 2 * n) {
+          return CoderResult.OVERFLOW;
+        }
+        for (int i = 0; i < n; i++) {
+          char unit = in.get(p + i);
+          if (bigEndian) {
+            out.put((byte) (unit >> 8));
+            out.put((byte) unit);
+          } else {
+            out.put((byte) unit);
+            out.put((byte) (unit >> 8));
+          }
+        }
+        p += n;
+      }
+      return CoderResult.UNDERFLOW;
+    } finally {
+      in.position(p);
+    }
+  }
+
+  /**
+   * Returns the error for a char at {@code p} that a single byte charset can not encode: a
+   * surrogate pair is unmappable, a lone surrogate is malformed, and a high surrogate at the end of
+   * the input needs more input.
+   */
+  static CoderResult unmappable(CharBuffer in, int p, int limit) {
+    char c = in.get(p);
+    if (Character.isHighSurrogate(c)) {
+      if (p + 1 == limit) {
+        return CoderResult.UNDERFLOW;
+      }
+      return Character.isLowSurrogate(in.get(p + 1))
+          ? CoderResult.unmappableForLength(2)
+          : CoderResult.malformedForLength(1);
+    }
+    if (Character.isLowSurrogate(c)) {
+      return CoderResult.malformedForLength(1);
+    }
+    return CoderResult.unmappableForLength(1);
+  }
+}
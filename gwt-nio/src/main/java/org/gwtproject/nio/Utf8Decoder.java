@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/** Decodes UTF-8, rejecting overlong forms and encoded surrogates as the WHATWG decoder does. */
+final class Utf8Decoder extends CharsetDecoder {
+
+  Utf8Decoder(Charset cs) {
+    super(cs, 1.0f, 1.0f);
+  }
+
+  @Override
+  protected CoderResult decodeLoop(ByteBuffer in, CharBuffer out) {
+    // Decoding never yields more chars than bytes, so a chunk of out.remaining() bytes fits.
+    int start = in.position();
+    int end = completeEnd(in, start, start + Math.min(in.remaining(), out.remaining()));
+    TextCoding.decode("utf-8", in, end, out);
+
+    int p = in.position();
+    int limit = in.limit();
+    try {
+      while (p < limit) {
+        int b1 = in.get(p);
+        if (b1 >= 0) {
+          if (!out.hasRemaining()) {
+            return CoderResult.OVERFLOW;
+          }
+          out.put((char) b1);
+          p++;
+          continue;
+        }
+        b1 &= 0xFF;
+        int n;
+        int lower = 0x80;
+        int upper = 0xBF;
+        if (b1 >= 0xC2 && b1 <= 0xDF) {
+          n = 2;
+        } else if (b1 >= 0xE0 && b1 <= 0xEF) {
+          n = 3;
+          if (b1 == 0xE0) {
+            lower = 0xA0;
+          } else if (b1 == 0xED) {
+            upper = 0x9F;
+          }
+        } else if (b1 >= 0xF0 && b1 <= 0xF4) {
+          n = 4;
+          if (b1 == 0xF0) {
+            lower = 0x90;
+          } else if (b1 == 0xF4) {
+            upper = 0x8F;
+          }
+        } else {
+          return CoderResult.malformedForLength(1);
+        }
+        int cp = b1 & (0x7F >> n);
+        for (int i = 1; i < n; i++) {
+          if (p + i >= limit) {
+            return CoderResult.UNDERFLOW;
+          }
+          int b = in.get(p + i) & 0xFF;
+          if (b < lower || b > upper) {
+            return CoderResult.malformedForLength(i);
+          }
+          lower = 0x80;
+          upper = 0xBF;
+          cp = (cp << 6) | (b & 0x3F);
+        }
+        if (cp < 0x10000) {
+          if (!out.hasRemaining()) {
+            return CoderResult.OVERFLOW;
+          }
+          out.put((char) cp);
+        } else {
+          if (out.remaining() < 2) {
+            return CoderResult.OVERFLOW;
+          }
+          out.put((char) ((cp >>> 10) + (0xD800 - (0x10000 >>> 10))));
+          out.put((char) ((cp & 0x3FF) + 0xDC00));
+        }
+        p += n;
+      }
+      return CoderResult.UNDERFLOW;
+    } finally {
+      in.position(p);
+    }
+  }
+
+  /* Moves end back before a trailing character whose bytes do not all precede it. */
+  private static int completeEnd(ByteBuffer in, int start, int end) {
+    for (int i = end - 1; i >= start && i >= end - 3; i--) {
+      int b = in.get(i) & 0xFF;
+      if (b < 0x80) {
+        return end;
+      }
+      if (b >= 0xC0) {
+        int n = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+        return i + n > end ? i : end;
+      }
+    }
+    return end;
+  }
+}
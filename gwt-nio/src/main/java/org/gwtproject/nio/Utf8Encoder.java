@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+
+/** Encodes UTF-8, reporting lone surrogates as malformed input. */
+final class Utf8Encoder extends CharsetEncoder {
+
+  Utf8Encoder(Charset cs) {
+    super(cs, 1.1f, 3.0f);
+  }
+
+  @Override
+  protected CoderResult encodeLoop(CharBuffer in, ByteBuffer out) {
+    // Every char takes at least a byte, so no more than out.remaining() chars can be encoded.
+    int end = in.position() + Math.min(in.remaining(), out.remaining());
+    if (end > in.position() && Character.isHighSurrogate(in.get(end - 1))) {
+      end--;
+    }
+    TextCoding.encodeUtf8(in, end, out);
+
+    int p = in.position();
+    int limit = in.limit();
+    try {
+      while (p < limit) {
+        char c = in.get(p);
+        if (c < 0x80) {
+          if (!out.hasRemaining()) {
+            return CoderResult.OVERFLOW;
+          }
+          out.put((byte) c);
+          p++;
+        } else if (c < 0x800) {
+          if (out.remaining() < 2) {
+            return CoderResult.OVERFLOW;
+          }
+          out.put((byte) (0xC0 | (c >> 6)));
+          out.put((byte) (0x80 | (c & 0x3F)));
+          p++;
+        } else if (Character.isHighSurrogate(c)) {
+          if (p + 1 == limit) {
+            return CoderResult.UNDERFLOW;
+          }
+          char low = in.get(p + 1);
+          if (!Character.isLowSurrogate(low)) {
+            return CoderResult.malformedForLength(1);
+          }
+          if (out.remaining() < 4) {
+            return CoderResult.OVERFLOW;
+          }
+          int cp = Character.toCodePoint(c, low);
+          out.put((byte) (0xF0 | (cp >> 18)));
+          out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+          out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+          out.put((byte) (0x80 | (cp & 0x3F)));
+          p += 2;
+        } else if (Character.isLowSurrogate(c)) {
+          return CoderResult.malformedForLength(1);
+        } else {
+          if (out.remaining() < 3) {
+            return CoderResult.OVERFLOW;
+          }
+          out.put((byte) (0xE0 | (c >> 12)));
+          out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+          out.put((byte) (0x80 | (c & 0x3F)));
+          p++;
+        }
+      }
+      return CoderResult.UNDERFLOW;
+    } finally {
+      in.position(p);
+    }
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import elemental2.core.ArrayBuffer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+import jsinterop.base.JsPropertyMap;
+
+/**
+ * Wraps regions of a {@code WebAssembly.Memory} in direct buffers, so data can be handed to and
+ * read from a wasm module without copying it through {@code byte[]}.
+ *
+ * <p>A region is given by a pointer into the linear memory and a length, as returned by the
+ * module's allocator. The buffers are little endian, like wasm itself. {@code memory.grow()}
+ * detaches the ArrayBuffer of the memory and replaces it by a larger one; the buffers returned here
+ * and all their views re-bind to the new ArrayBuffer on their next access. Buffers created over
+ * {@code memory.buffer} by other means keep throwing {@link DetachedBufferException} after a grow;
+ * {@link #isCurrent(Buffer)} tells whether a buffer still uses the current memory.
+ *
+ * <pre>
+ * WasmMemory memory = WasmMemory.wrap(exports.get("memory"));
+ * memory.byteBuffer(inputPointer, input.remaining()).put(input);
+ * int outputLength = codec.encode(inputPointer, input.remaining(), outputPointer);
+ * ByteBuffer output = memory.byteBuffer(outputPointer, outputLength);
+ * </pre>
+ *
+ * <p>Regions are addressed with {@code int}s, so only the first 2 GiB of a memory can be wrapped.
+ */
+public final class WasmMemory implements ArrayBufferSource {
+
+  /** The size of a wasm page in bytes. */
+  public static final int PAGE_SIZE = 64 * 1024;
+
+  private final Memory memory;
+
+  private WasmMemory(Memory memory) {
+    this.memory = memory;
+  }
+
+  /**
+   * Wraps a memory, e.g. the one exported by a module instance.
+   *
+   * @param memory a {@code WebAssembly.Memory}
+   * @return the wrapped memory
+   * @throws IllegalArgumentException if {@code memory} is not a {@code WebAssembly.Memory}
+   */
+  public static WasmMemory wrap(Object memory) {
+    if (!isSupported() || !(memory instanceof Memory)) {
+      throw new IllegalArgumentException("Not a WebAssembly.Memory: " + memory);
+    }
+    return new WasmMemory(Js.uncheckedCast(memory));
+  }
+
+  /**
+   * Creates a memory, e.g. to be imported by a module.
+   *
+   * @param initialPages the initial size in pages of {@link #PAGE_SIZE} bytes
+   * @param maximumPages the maximal size in pages
+   * @return the new memory
+   * @throws UnsupportedOperationException if WebAssembly is not available
+   */
+  public static WasmMemory allocate(int initialPages, int maximumPages) {
+    if (initialPages < 0 || maximumPages < initialPages) {
+      throw new IllegalArgumentException();
+    }
+    if (!isSupported()) {
+      throw new UnsupportedOperationException("WebAssembly is not available");
+    }
+    JsPropertyMap<Object> descriptor =
+        JsPropertyMap.of("initial", (double) initialPages, "maximum", (double) maximumPages);
+    return new WasmMemory(new Memory(descriptor));
+  }
+
+  /**
+   * Returns true if WebAssembly is available.
+   *
+   * @return true if memories can be wrapped
+   */
+  public static boolean isSupported() {
+    Object webAssembly = Js.global().get("WebAssembly");
+    return webAssembly != null
+        && "function".equals(Js.typeof(Js.asPropertyMap(webAssembly).get("Memory")));
+  }
+
+  /**
+   * Returns the wrapped memory, e.g. to pass it in the imports of a module.
+   *
+   * @return the {@code WebAssembly.Memory}
+   */
+  public Object getMemory() {
+    return memory;
+  }
+
+  @Override
+  public ArrayBuffer getArrayBuffer() {
+    return memory.buffer;
+  }
+
+  /**
+   * Returns the current size of the memory.
+   *
+   * @return the size in bytes
+   */
+  public int byteLength() {
+    return memory.buffer.byteLength;
+  }
+
+  /**
+   * Grows the memory. Buffers returned by this class stay valid and see the grown memory on their
+   * next access.
+   *
+   * @param pages the number of pages to add
+   * @return the previous size in pages
+   */
+  public int grow(int pages) {
+    return memory.grow(pages);
+  }
+
+  /**
+   * Wraps {@code length} bytes of the memory, starting at {@code pointer}.
+   *
+   * @param pointer the address of the first byte
+   * @param length the capacity of the returned buffer
+   * @return a little endian direct buffer over the region
+   * @throws IndexOutOfBoundsException if the region is not within the memory
+   */
+  public ByteBuffer byteBuffer(int pointer, int length) {
+    return TypedArrayHelper.wrap(this, pointer, length).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Wraps {@code count} 32-bit integers of the memory, starting at {@code pointer}.
+   *
+   * @param pointer the address of the first integer, a multiple of 4
+   * @param count the capacity of the returned buffer
+   * @return a direct buffer over the region
+   * @throws IllegalArgumentException if {@code pointer} is not aligned
+   * @throws IndexOutOfBoundsException if the region is not within the memory
+   */
+  public IntBuffer intBuffer(int pointer, int count) {
+    return byteBuffer(checkAligned(pointer), checkCount(count) << 2).asIntBuffer();
+  }
+
+  /**
+   * Wraps {@code count} 32-bit floats of the memory, starting at {@code pointer}.
+   *
+   * @param pointer the address of the first float, a multiple of 4
+   * @param count the capacity of the returned buffer
+   * @return a direct buffer over the region
+   * @throws IllegalArgumentException if {@code pointer} is not aligned
+   * @throws IndexOutOfBoundsException if the region is not within the memory
+   */
+  public FloatBuffer floatBuffer(int pointer, int count) {
+    return byteBuffer(checkAligned(pointer), checkCount(count) << 2).asFloatBuffer();
+  }
+
+  /**
+   * Returns true if {@code buffer} can be used with the current memory: it is a buffer returned by
+   * this class or a view of one, or a buffer over the ArrayBuffer the memory has now. Buffers over
+   * an ArrayBuffer the memory had before a grow are stale and throw {@link
+   * DetachedBufferException}.
+   *
+   * @param buffer a direct buffer
+   * @return true if the buffer uses the current memory
+   */
+  public boolean isCurrent(Buffer buffer) {
+    return buffer instanceof HasArrayBufferView
+        && buffer.isDirect()
+        && ((HasArrayBufferView) buffer).getTypedArray().buffer == memory.buffer;
+  }
+
+  private static int checkAligned(int pointer) {
+    if ((pointer & 3) != 0) {
+      throw new IllegalArgumentException("Unaligned pointer: " + pointer);
+    }
+    return pointer;
+  }
+
+  private static int checkCount(int count) {
+    if (count < 0 || count > Integer.MAX_VALUE >> 2) {
+      throw new IndexOutOfBoundsException();
+    }
+    return count;
+  }
+
+  @JsType(isNative = true, namespace = "WebAssembly", name = "Memory")
+  private static class Memory {
+    public ArrayBuffer buffer;
+
+    public Memory(JsPropertyMap<Object> descriptor) {}
+
+    public native int grow(int pages);
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+/**
+ * One end of a message channel between two agents, e.g. a Worker seen from the main thread or the
+ * worker's global scope seen from inside the worker. See {@link ParallelOps#endpoint(Object)} for
+ * an implementation on top of Web Workers and Node.js {@code worker_threads}.
+ */
+public interface WorkerEndpoint {
+
+  /** Receives the messages posted by the other end. */
+  interface MessageHandler {
+    void onMessage(Object message);
+  }
+
+  /**
+   * Posts a structured-cloneable message to the other end.
+   *
+   * @param message the message
+   */
+  void postMessage(Object message);
+
+  /**
+   * Sets the handler of the messages posted by the other end, replacing any previous handler.
+   *
+   * @param handler the handler
+   */
+  void setMessageHandler(MessageHandler handler);
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The 32-bit xxHash of ByteBuffer ranges, a fast non-cryptographic hash for hash tables and cache
+ * keys. The hash reads the buffers four bytes at a time and uses 32-bit int arithmetic only, which
+ * is cheaper than the emulated longs of {@link XxHash64} in JavaScript.
+ *
+ * <p>The hash can be computed in one call, or incrementally over several buffers:
+ *
+ * <pre>
+ * XxHash32 hash = new XxHash32(0);
+ * hash.update(header).update(body);
+ * int key = hash.intValue();
+ * </pre>
+ */
+public final class XxHash32 {
+
+  private static final int PRIME1 = 0x9e3779b1;
+
+  private static final int PRIME2 = 0x85ebca77;
+
+  private static final int PRIME3 = 0xc2b2ae3d;
+
+  private static final int PRIME4 = 0x27d4eb2f;
+
+  private static final int PRIME5 = 0x165667b1;
+
+  private static final int STRIPE = 16;
+
+  private final int seed;
+
+  /* The bytes of an incomplete stripe left by the last update. */
+  private final byte[] pending = new byte[STRIPE];
+
+  private final ByteRange pendingRange = ByteRange.remaining(ByteBuffer.wrap(pending));
+
+  private int pendingLength;
+
+  /* The total length modulo 2^32, as the algorithm defines it. */
+  private int totalLength;
+
+  private boolean large;
+
+  private int v1;
+
+  private int v2;
+
+  private int v3;
+
+  private int v4;
+
+  /**
+   * Creates a hash.
+   *
+   * @param seed the seed
+   */
+  public XxHash32(int seed) {
+    this.seed = seed;
+    reset();
+  }
+
+  /**
+   * Returns the hash of the remaining bytes of {@code bb}, without changing its position.
+   *
+   * @param bb the bytes
+   * @param seed the seed
+   * @return the hash
+   */
+  public static int hash(ByteBuffer bb, int seed) {
+    return new XxHash32(seed).update(bb.duplicate()).intValue();
+  }
+
+  /** Resets the hash to the state of a new instance. */
+  public void reset() {
+    v1 = seed + PRIME1 + PRIME2;
+    v2 = seed + PRIME2;
+    v3 = seed;
+    v4 = seed - PRIME1;
+    pendingLength = 0;
+    totalLength = 0;
+    large = false;
+  }
+
+  /**
+   * Updates the hash with the remaining bytes of {@code bb} and advances its position to its
+   * limit.
+   *
+   * @param bb the bytes
+   * @return this hash
+   */
+  public XxHash32 update(ByteBuffer bb) {
+    ByteRange range = ByteRange.remaining(bb);
+    int length = range.length();
+    totalLength += length;
+    large |= length >= STRIPE || totalLength >= STRIPE || totalLength < 0;
+    int i = 0;
+    if (pendingLength > 0) {
+      int n = Math.min(length, STRIPE - pendingLength);
+      range.get(0, pending, pendingLength, n);
+      pendingLength += n;
+      i = n;
+      if (pendingLength < STRIPE) {
+        bb.position(bb.limit());
+        return this;
+      }
+      stripe(pendingRange, 0);
+      pendingLength = 0;
+    }
+    for (; i <= length - STRIPE; i += STRIPE) {
+      stripe(range, i);
+    }
+    range.get(i, pending, 0, length - i);
+    pendingLength = length - i;
+    bb.position(bb.limit());
+    return this;
+  }
+
+  private void stripe(ByteRange range, int index) {
+    v1 = round(v1, range.getInt(index));
+    v2 = round(v2, range.getInt(index + 4));
+    v3 = round(v3, range.getInt(index + 8));
+    v4 = round(v4, range.getInt(index + 12));
+  }
+
+  private static int round(int acc, int input) {
+    return mul(rotl(acc + mul(input, PRIME2), 13), PRIME1);
+  }
+
+  /*
+   * Multiplies modulo 2^32. GWT multiplies ints as doubles, which drops the low bits of products
+   * beyond 2^53, so the product is built from two 16-bit halves of a that multiply exactly.
+   */
+  private static int mul(int a, int b) {
+    return (a & 0xffff) * b + (((a >>> 16) * b) << 16);
+  }
+
+  /*
+   * GWT leaves int sums and products unwrapped until a bitwise operator, and its
+   * Integer.rotateLeft() tests the sign of the value, so rotations use shifts only.
+   */
+  private static int rotl(int i, int distance) {
+    return i << distance | i >>> (32 - distance);
+  }
+
+  /** Returns the hash of the bytes so far. The hash can be updated further afterwards. */
+  public int intValue() {
+    int h;
+    if (large) {
+      h = rotl(v1, 1) + rotl(v2, 7) + rotl(v3, 12) + rotl(v4, 18);
+    } else {
+      h = seed + PRIME5;
+    }
+    h += totalLength;
+    int i = 0;
+    for (; i <= pendingLength - 4; i += 4) {
+      h = mul(rotl(h + mul(pendingRange.getInt(i), PRIME3), 17), PRIME4);
+    }
+    for (; i < pendingLength; i++) {
+      h = mul(rotl(h + (pendingRange.get(i) & 0xff) * PRIME5, 11), PRIME1);
+    }
+    h ^= h >>> 15;
+    h = mul(h, PRIME2);
+    h ^= h >>> 13;
+    h = mul(h, PRIME3);
+    h ^= h >>> 16;
+    return h;
+  }
+}
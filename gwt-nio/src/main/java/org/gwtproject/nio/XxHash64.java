@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The 64-bit xxHash (XXH64) of ByteBuffer ranges, for when 32 bits leave too many collisions.
+ * Since longs are emulated in JavaScript, {@link XxHash32} is considerably faster there.
+ *
+ * <pre>
+ * long key = XxHash64.hash(asset, 0);
+ * </pre>
+ */
+public final class XxHash64 {
+
+  private static final long PRIME1 = 0x9e3779b185ebca87L;
+
+  private static final long PRIME2 = 0xc2b2ae3d27d4eb4fL;
+
+  private static final long PRIME3 = 0x165667b19e3779f9L;
+
+  private static final long PRIME4 = 0x85ebca77c2b2ae63L;
+
+  private static final long PRIME5 = 0x27d4eb2f165667c5L;
+
+  private static final int STRIPE = 32;
+
+  private final long seed;
+
+  /* The bytes of an incomplete stripe left by the last update. */
+  private final byte[] pending = new byte[STRIPE];
+
+  private final ByteRange pendingRange = ByteRange.remaining(ByteBuffer.wrap(pending));
+
+  private int pendingLength;
+
+  private long totalLength;
+
+  private long v1;
+
+  private long v2;
+
+  private long v3;
+
+  private long v4;
+
+  /**
+   * Creates a hash.
+   *
+   * @param seed the seed
+   */
+  public XxHash64(long seed) {
+    this.seed = seed;
+    reset();
+  }
+
+  /**
+   * Returns the hash of the remaining bytes of {@code bb}, without changing its position.
+   *
+   * @param bb the bytes
+   * @param seed the seed
+   * @return the hash
+   */
+  public static long hash(ByteBuffer bb, long seed) {
+    return new XxHash64(seed).update(bb.duplicate()).longValue();
+  }
+
+  /** Resets the hash to the state of a new instance. */
+  public void reset() {
+    v1 = seed + PRIME1 + PRIME2;
+    v2 = seed + PRIME2;
+    v3 = seed;
+    v4 = seed - PRIME1;
+    pendingLength = 0;
+    totalLength = 0;
+  }
+
+  /**
+   * Updates the hash with the remaining bytes of {@code bb} and advances its position to its
+   * limit.
+   *
+   * @param bb the bytes
+   * @return this hash
+   */
+  public XxHash64 update(ByteBuffer bb) {
+    ByteRange range = ByteRange.remaining(bb);
+    int length = range.length();
+    totalLength += length;
+    int i = 0;
+    if (pendingLength > 0) {
+      int n = Math.min(length, STRIPE - pendingLength);
+      range.get(0, pending, pendingLength, n);
+      pendingLength += n;
+      i = n;
+      if (pendingLength < STRIPE) {
+        bb.position(bb.limit());
+        return this;
+      }
+      stripe(pendingRange, 0);
+      pendingLength = 0;
+    }
+    for (; i <= length - STRIPE; i += STRIPE) {
+      stripe(range, i);
+    }
+    range.get(i, pending, 0, length - i);
+    pendingLength = length - i;
+    bb.position(bb.limit());
+    return this;
+  }
+
+  private void stripe(ByteRange range, int index) {
+    v1 = round(v1, range.getLong(index));
+    v2 = round(v2, range.getLong(index + 8));
+    v3 = round(v3, range.getLong(index + 16));
+    v4 = round(v4, range.getLong(index + 24));
+  }
+
+  private static long round(long acc, long input) {
+    return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+  }
+
+  private static long merge(long h, long v) {
+    return (h ^ round(0, v)) * PRIME1 + PRIME4;
+  }
+
+  /** Returns the hash of the bytes so far. The hash can be updated further afterwards. */
+  public long longValue() {
+    long h;
+    if (totalLength >= STRIPE) {
+      h =
+          Long.rotateLeft(v1, 1)
+              + Long.rotateLeft(v2, 7)
+              + Long.rotateLeft(v3, 12)
+              + Long.rotateLeft(v4, 18);
+      h = merge(h, v1);
+      h = merge(h, v2);
+      h = merge(h, v3);
+      h = merge(h, v4);
+    } else {
+      h = seed + PRIME5;
+    }
+    h += totalLength;
+    int i = 0;
+    for (; i <= pendingLength - 8; i += 8) {
+      h = Long.rotateLeft(h ^ round(0, pendingRange.getLong(i)), 27) * PRIME1 + PRIME4;
+    }
+    if (i <= pendingLength - 4) {
+      long word = pendingRange.getInt(i) & 0xffffffffL;
+      h = Long.rotateLeft(h ^ word * PRIME1, 23) * PRIME2 + PRIME3;
+      i += 4;
+    }
+    for (; i < pendingLength; i++) {
+      h = Long.rotateLeft(h ^ (pendingRange.get(i) & 0xff) * PRIME5, 11) * PRIME1;
+    }
+    h ^= h >>> 33;
+    h *= PRIME2;
+    h ^= h >>> 29;
+    h *= PRIME3;
+    h ^= h >>> 32;
+    return h;
+  }
+}
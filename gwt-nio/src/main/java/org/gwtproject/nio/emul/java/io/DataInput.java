@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.io;
+
+/**
+ * Reads primitive values and modified UTF-8 strings from a binary stream, in the format written by
+ * {@link DataOutput}.
+ */
+public interface DataInput {
+
+  void readFully(byte[] b) throws IOException;
+
+  void readFully(byte[] b, int off, int len) throws IOException;
+
+  int skipBytes(int n) throws IOException;
+
+  boolean readBoolean() throws IOException;
+
+  byte readByte() throws IOException;
+
+  int readUnsignedByte() throws IOException;
+
+  short readShort() throws IOException;
+
+  int readUnsignedShort() throws IOException;
+
+  char readChar() throws IOException;
+
+  int readInt() throws IOException;
+
+  long readLong() throws IOException;
+
+  float readFloat() throws IOException;
+
+  double readDouble() throws IOException;
+
+  String readLine() throws IOException;
+
+  String readUTF() throws IOException;
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.io;
+
+/**
+ * Writes primitive values and modified UTF-8 strings to a binary stream, in the format read by
+ * {@link DataInput}.
+ */
+public interface DataOutput {
+
+  void write(int b) throws IOException;
+
+  void write(byte[] b) throws IOException;
+
+  void write(byte[] b, int off, int len) throws IOException;
+
+  void writeBoolean(boolean v) throws IOException;
+
+  void writeByte(int v) throws IOException;
+
+  void writeShort(int v) throws IOException;
+
+  void writeChar(int v) throws IOException;
+
+  void writeInt(int v) throws IOException;
+
+  void writeLong(long v) throws IOException;
+
+  void writeFloat(float v) throws IOException;
+
+  void writeDouble(double v) throws IOException;
+
+  void writeBytes(String s) throws IOException;
+
+  void writeChars(String s) throws IOException;
+
+  void writeUTF(String s) throws IOException;
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package java.nio;
+
+import org.gwtproject.nio.AccessPatternRecorder;
+
+/**
+ * The position bookkeeping and reporting shared by the Recording*Buffer decorators. Indexes and
+ * counts are in elements of the decorated buffer; they are reported to the recorder in bytes,
+ * relative to the buffer originally passed to it.
+ */
+final class AccessRecording {
+
+  final AccessPatternRecorder recorder;
+  private final int byteOffset;
+  private final int shift;
+
+  /**
+   * @param recorder the recorder to report to
+   * @param byteOffset the byte offset of element 0 in the originally wrapped buffer
+   * @param shift the log2 of the element size
+   */
+  AccessRecording(AccessPatternRecorder recorder, int byteOffset, int shift) {
+    this.recorder = recorder;
+    this.byteOffset = byteOffset;
+    this.shift = shift;
+  }
+
+  /** Returns the recording of a view starting at element {@code index}, of another element size. */
+  AccessRecording view(int index, int shift) {
+    return new AccessRecording(recorder, byteOffset + (index << this.shift), shift);
+  }
+
+  /** Sets the position and limit of {@code target} to those of {@code source}. */
+  static <B extends Buffer> B sync(Buffer source, B target) {
+    target.limit(source.limit);
+    target.position(source.position);
+    return target;
+  }
+
+  int nextGetIndex(Buffer buffer, int count) {
+    int index = buffer.position;
+    if (count > buffer.limit - index) {
+      throw new BufferUnderflowException();
+    }
+    buffer.position = index + count;
+    recordRead(index, count, false);
+    return index;
+  }
+
+  int nextPutIndex(Buffer buffer, int count) {
+    if (buffer.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    int index = buffer.position;
+    if (count > buffer.limit - index) {
+      throw new BufferOverflowException();
+    }
+    buffer.position = index + count;
+    recordWrite(index, count, false);
+    return index;
+  }
+
+  int checkGetIndex(Buffer buffer, int index, int count) {
+    if (index < 0 || count > buffer.limit - index) {
+      throw new IndexOutOfBoundsException();
+    }
+    recordRead(index, count, false);
+    return index;
+  }
+
+  int checkPutIndex(Buffer buffer, int index, int count) {
+    if (buffer.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    if (index < 0 || count > buffer.limit - index) {
+      throw new IndexOutOfBoundsException();
+    }
+    recordWrite(index, count, false);
+    return index;
+  }
+
+  /** Records a bulk get of {@code count} elements at the position, after checking the arguments. */
+  void bulkGet(Buffer buffer, int length, int off, int count) {
+    if (off < 0 || count < 0 || count > length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (count > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    recordRead(buffer.position, count, true);
+  }
+
+  /** Records a bulk put of {@code count} elements at the position, after checking the arguments. */
+  void bulkPut(Buffer buffer, int length, int off, int count) {
+    if (off < 0 || count < 0 || count > length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (count > buffer.remaining()) {
+      throw new BufferOverflowException();
+    }
+    if (buffer.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    recordWrite(buffer.position, count, true);
+  }
+
+  /** Records a put of the remaining elements of {@code src}, after checking the arguments. */
+  void bulkPut(Buffer buffer, Buffer src) {
+    if (src == buffer) {
+      throw new IllegalArgumentException();
+    }
+    bulkPut(buffer, src.remaining(), 0, src.remaining());
+  }
+
+  /** Records a compaction: the remaining elements are read and written at index 0. */
+  void compact(Buffer buffer) {
+    if (buffer.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    int remaining = buffer.remaining();
+    recordRead(buffer.position, remaining, true);
+    recordWrite(0, remaining, true);
+  }
+
+  private void recordRead(int index, int count, boolean bulk) {
+    recorder.recordRead(byteOffset + (index << shift), count << shift, bulk);
+  }
+
+  private void recordWrite(int index, int count, boolean bulk) {
+    recorder.recordWrite(byteOffset + (index << shift), count << shift, bulk);
+  }
+}
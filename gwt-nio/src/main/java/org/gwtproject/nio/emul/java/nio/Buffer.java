@@ -139,6 +139,13 @@ public abstract class Buffer {
     return position < limit;
   }
 
+  /**
+   * Indicates whether this buffer is direct.
+   *
+   * @return {@code true} if this buffer is direct, {@code false} otherwise.
+   */
+  public abstract boolean isDirect();
+
   /**
    * Indicates whether this buffer is read-only.
    *
@@ -17,6 +17,8 @@
 
 package java.nio;
 
+import org.gwtproject.nio.SlowPathMonitor;
+
 /**
  * A buffer for bytes.
  *
@@ -31,8 +33,7 @@ package java.nio;
  *
  * @since Android 1.0
  */
-public abstract class ByteBuffer extends Buffer
-    implements Comparable<ByteBuffer>, StringToByteBuffer {
+public abstract class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 
   /**
    * Creates a byte buffer based on a newly allocated byte array.
@@ -720,6 +721,7 @@ public abstract class ByteBuffer extends Buffer
     if (src.remaining() > remaining()) {
       throw new BufferOverflowException();
     }
+    SlowPathMonitor.record("ByteBuffer.put(ByteBuffer)", this);
     byte[] contents = new byte[src.remaining()];
     src.get(contents);
     put(contents);
@@ -934,8 +936,4 @@ public abstract class ByteBuffer extends Buffer
     buf.append(limit());
     return buf.toString();
   }
-
-  public ByteBuffer stringToByteBuffer(String s) {
-    return new java.nio.StringByteBuffer(s);
-  }
 }
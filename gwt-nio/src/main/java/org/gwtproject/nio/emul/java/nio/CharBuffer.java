@@ -18,6 +18,7 @@
 package java.nio;
 
 import java.io.IOException;
+import org.gwtproject.nio.SlowPathMonitor;
 
 /**
  * A buffer of chars.
@@ -510,6 +511,12 @@ public abstract class CharBuffer extends Buffer
       throw new BufferOverflowException();
     }
 
+    if (src instanceof CharSequenceAdapter) {
+      String chars = src.toString();
+      src.position = src.limit;
+      return put(chars, 0, chars.length());
+    }
+    SlowPathMonitor.record("CharBuffer.put(CharBuffer)", this);
     char[] contents = new char[src.remaining()];
     src.get(contents);
     put(contents);
@@ -622,11 +629,11 @@ public abstract class CharBuffer extends Buffer
    * @since Android 1.0
    */
   public String toString() {
-    StringBuffer strbuf = new StringBuffer();
-    for (int i = position; i < limit; i++) {
-      strbuf.append(get(i));
-    }
-    return strbuf.toString();
+    char[] chars = new char[remaining()];
+    int start = position;
+    get(chars, 0, chars.length);
+    position = start;
+    return String.valueOf(chars);
   }
 
   /**
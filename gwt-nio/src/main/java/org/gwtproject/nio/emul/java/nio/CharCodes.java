@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio;
+
+import elemental2.core.JsArray;
+import elemental2.core.Uint16Array;
+import elemental2.core.Uint8Array;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+import jsinterop.base.Js;
+
+/** Bulk conversions between strings, char arrays and UTF-16 code units in typed arrays. */
+final class CharCodes {
+
+  /* Keeps the argument count of String.fromCharCode() well below the limits of the engines. */
+  private static final int CHUNK_SIZE = 8192;
+
+  /* Shorter strings are written char by char, which beats the round trip through TextEncoder. */
+  private static final int MIN_BULK_LENGTH = 64;
+
+  private static final boolean ENCODER_SUPPORTED = isEncodeIntoSupported();
+
+  private static TextEncoder encoder;
+
+  private static Uint8Array scratch;
+
+  private CharCodes() {}
+
+  /**
+   * Returns the string of the code units in {@code codes}, built by {@code String.fromCharCode()}
+   * over chunks of the array rather than char by char.
+   */
+  static String toString(Uint16Array codes) {
+    int length = codes.length;
+    if (length <= CHUNK_SIZE) {
+      return NativeString.fromCharCode(Js.<double[]>uncheckedCast(codes));
+    }
+    StringBuilder result = new StringBuilder(length);
+    for (int i = 0; i < length; i += CHUNK_SIZE) {
+      Uint16Array chunk =
+          new Uint16Array(codes.buffer, codes.byteOffset + 2 * i, Math.min(CHUNK_SIZE, length - i));
+      result.append(NativeString.fromCharCode(Js.<double[]>uncheckedCast(chunk)));
+    }
+    return result.toString();
+  }
+
+  /**
+   * Writes the chars of {@code s} between {@code start} and {@code end} to {@code dest}. Chunks of
+   * ASCII chars are extracted in bulk by {@code TextEncoder.encodeInto()} and widened to code units
+   * by one {@code TypedArray.set()}; other chunks are written char by char.
+   */
+  static void put(String s, int start, int end, Uint16Array dest, int offset) {
+    for (int i = start; i < end; i += CHUNK_SIZE) {
+      int chunkEnd = Math.min(end, i + CHUNK_SIZE);
+      if (chunkEnd - i >= MIN_BULK_LENGTH && putAscii(s, i, chunkEnd, dest, offset + i - start)) {
+        continue;
+      }
+      for (int j = i; j < chunkEnd; j++) {
+        dest.setAt(offset + j - start, (double) s.charAt(j));
+      }
+    }
+  }
+
+  private static boolean isEncodeIntoSupported() {
+    Object textEncoder = Js.global().get("TextEncoder");
+    if (!"function".equals(Js.typeof(textEncoder))) {
+      return false;
+    }
+    Object prototype = Js.asPropertyMap(textEncoder).get("prototype");
+    return "function".equals(Js.typeof(Js.asPropertyMap(prototype).get("encodeInto")));
+  }
+
+  /*
+   * Encodes the chars as UTF-8, which holds exactly their code units if they are all ASCII, and
+   * copies the bytes to dest. Returns false, leaving dest unchanged, if a char is not ASCII.
+   */
+  private static boolean putAscii(String s, int start, int end, Uint16Array dest, int offset) {
+    if (!ENCODER_SUPPORTED) {
+      return false;
+    }
+    if (encoder == null) {
+      encoder = new TextEncoder();
+      scratch = new Uint8Array(CHUNK_SIZE);
+    }
+    int length = end - start;
+    Uint8Array bytes = new Uint8Array(scratch.buffer, 0, length);
+    EncodeResult result = encoder.encodeInto(s.substring(start, end), bytes);
+    if (result.read != length || result.written != length) {
+      return false;
+    }
+    dest.set(bytes, offset);
+    return true;
+  }
+
+  /** Copies {@code len} chars of {@code src} to {@code dest} with one TypedArray.set(). */
+  static void put(char[] src, int off, int len, Uint16Array dest, int offset) {
+    // A char[] is a JS array of numbers.
+    JsArray<Double> values = Js.uncheckedCast(src);
+    if (off != 0 || len != src.length) {
+      values = values.slice(off, off + len);
+    }
+    dest.set(values, offset);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "String")
+  private static class NativeString {
+
+    public static native String fromCharCode(double... codes);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL)
+  private static class TextEncoder {
+
+    public native EncodeResult encodeInto(String source, Uint8Array destination);
+  }
+
+  @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+  private static class EncodeResult {
+    public double read;
+
+    public double written;
+  }
+}
@@ -78,7 +78,7 @@ final class CharSequenceAdapter extends CharBuffer {
       throw new BufferUnderflowException();
     }
     int newPosition = position + len;
-    sequence.toString().getChars(position, newPosition, dest, off);
+    sequence.subSequence(position, newPosition).toString().getChars(0, len, dest, off);
     position = newPosition;
     return this;
   }
@@ -138,6 +138,11 @@ final class CharSequenceAdapter extends CharBuffer {
     return new CharSequenceAdapter(sequence.subSequence(position, limit));
   }
 
+  /* A substring of the sequence, rather than the chars one by one. */
+  public String toString() {
+    return sequence.subSequence(position, limit).toString();
+  }
+
   public CharSequence subSequence(int start, int end) {
     if (end < start || start < 0 || end > remaining()) {
       throw new IndexOutOfBoundsException();
@@ -16,6 +16,8 @@
 
 package java.nio;
 
+import elemental2.core.Uint16Array;
+
 // import org.apache.harmony.nio.internal.DirectBuffer;
 // import org.apache.harmony.luni.platform.PlatformAddress;
 
@@ -142,6 +144,91 @@ final class CharToByteBufferAdapter extends CharBuffer { // implements DirectBuf
     return byteBuffer.getChar(index << 1);
   }
 
+  @Override
+  public CharBuffer get(char[] dest, int off, int len) {
+    Uint16Array codes = codeUnits();
+    if (codes == null) {
+      return super.get(dest, off, len);
+    }
+    if (off < 0 || len < 0 || (long) off + (long) len > dest.length) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len > remaining()) {
+      throw new BufferUnderflowException();
+    }
+    for (int i = 0; i < len; i++) {
+      dest[off + i] = (char) codes.getAt(position + i).intValue();
+    }
+    position += len;
+    return this;
+  }
+
+  @Override
+  public CharBuffer put(char[] src, int off, int len) {
+    Uint16Array codes = codeUnits();
+    if (codes == null) {
+      return super.put(src, off, len);
+    }
+    if (off < 0 || len < 0 || (long) off + (long) len > src.length) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len > remaining()) {
+      throw new BufferOverflowException();
+    }
+    if (byteBuffer.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    CharCodes.put(src, off, len, codes, position);
+    position += len;
+    return this;
+  }
+
+  @Override
+  public CharBuffer put(String str, int start, int end) {
+    Uint16Array codes = codeUnits();
+    if (codes == null) {
+      return super.put(str, start, end);
+    }
+    if (start < 0 || end < start || end > str.length()) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (end - start > remaining()) {
+      throw new BufferOverflowException();
+    }
+    if (byteBuffer.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+    CharCodes.put(str, start, end, codes, position);
+    position += end - start;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    Uint16Array codes = codeUnits();
+    if (codes == null) {
+      return super.toString();
+    }
+    return CharCodes.toString(
+        new Uint16Array(codes.buffer, codes.byteOffset + 2 * position, limit - position));
+  }
+
+  /*
+   * Returns a Uint16Array over the chars of a direct byte buffer in native order, which holds the
+   * UTF-16 code units as they are, or null if the chars have to be read byte by byte.
+   */
+  private Uint16Array codeUnits() {
+    if (!(byteBuffer instanceof DirectByteBuffer) || order() != ByteOrder.nativeOrder()) {
+      return null;
+    }
+    DirectByteBuffer direct = (DirectByteBuffer) byteBuffer;
+    direct.checkAttached();
+    if ((direct.byteOffset & 1) != 0) {
+      return null;
+    }
+    return new Uint16Array(direct.byteArray.buffer, direct.byteOffset, capacity);
+  }
+
   @Override
   public boolean isDirect() {
     return byteBuffer.isDirect();
@@ -20,7 +20,10 @@ package java.nio;
 import elemental2.core.ArrayBuffer;
 import elemental2.core.ArrayBufferView;
 import elemental2.core.Int8Array;
+import org.gwtproject.nio.ArrayBufferSource;
+import org.gwtproject.nio.DetachedBufferException;
 import org.gwtproject.nio.HasArrayBufferView;
+import org.gwtproject.nio.SlowPathMonitor;
 
 /**
  * DirectByteBuffer, DirectReadWriteByteBuffer and DirectReadOnlyHeapByteBuffer compose the
@@ -35,6 +38,12 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
 
   Int8Array byteArray;
 
+  /* Where the current memory is found once byteArray went stale, or null for fixed memory. */
+  ArrayBufferSource source;
+
+  /* The offset of byteArray, kept because a stale typed array reports 0. */
+  final int byteOffset;
+
   DirectByteBuffer(int capacity) {
     this(new ArrayBuffer(capacity), capacity, 0);
   }
@@ -45,10 +54,65 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
 
   DirectByteBuffer(ArrayBuffer buffer, int capacity, int offset) {
     super(capacity);
+    if (buffer.byteLength == 0 && capacity != 0) {
+      throw new DetachedBufferException();
+    }
     byteArray = new Int8Array(buffer, offset, capacity);
+    byteOffset = offset;
+  }
+
+  DirectByteBuffer(ArrayBufferSource source, int capacity, int offset) {
+    this(source.getArrayBuffer(), capacity, offset);
+    this.source = source;
+  }
+
+  /*
+   * Once the ArrayBuffer is transferred to another agent, it is detached and all typed arrays over
+   * it become empty: reads return undefined and writes are silently dropped. A fixed-length typed
+   * array over a resizable ArrayBuffer becomes empty the same way while the buffer is shrunk below
+   * its range. Buffers created over an ArrayBufferSource then re-bind to the current memory, e.g.
+   * after WebAssembly.Memory.grow() replaced it.
+   *
+   * Single-element reads do not call this: they notice the stale memory when they return
+   * undefined (see byteAt()). Writes call it, since a write to a detached array is silently
+   * dropped.
+   */
+  final void checkAttached() {
+    if (byteArray.byteLength == 0 && capacity != 0 && !rebind()) {
+      if (currentBuffer().byteLength == 0) {
+        throw new DetachedBufferException();
+      }
+      throw new IndexOutOfBoundsException("The memory was resized below the range of the buffer");
+    }
+  }
+
+  /* Reads a byte, checking the memory only if the read returned undefined. */
+  private byte byteAt(int index) {
+    Double value = byteArray.getAt(index);
+    if (value == null) {
+      checkAttached();
+      value = byteArray.getAt(index);
+    }
+    return value.byteValue();
+  }
+
+  private boolean rebind() {
+    ArrayBuffer current = currentBuffer();
+    if (source == null || current.byteLength - byteOffset < capacity) {
+      return false;
+    }
+    byteArray = new Int8Array(current, byteOffset, capacity);
+    return true;
+  }
+
+  private ArrayBuffer currentBuffer() {
+    return source != null ? source.getArrayBuffer() : byteArray.buffer;
   }
 
   public ArrayBufferView getTypedArray() {
+    if (source != null && byteArray.byteLength == 0 && capacity != 0) {
+      rebind();
+    }
     return byteArray;
   }
 
@@ -56,6 +120,24 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
     return 1;
   }
 
+  @Override
+  public CharBuffer asCharBuffer() {
+    SlowPathMonitor.record("ByteBuffer.asCharBuffer", this);
+    return super.asCharBuffer();
+  }
+
+  @Override
+  public DoubleBuffer asDoubleBuffer() {
+    SlowPathMonitor.record("ByteBuffer.asDoubleBuffer", this);
+    return super.asDoubleBuffer();
+  }
+
+  @Override
+  public LongBuffer asLongBuffer() {
+    SlowPathMonitor.record("ByteBuffer.asLongBuffer", this);
+    return super.asLongBuffer();
+  }
+
   /*
    * Override ByteBuffer.get(byte[], int, int) to improve performance.
    *
@@ -64,6 +146,7 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
    * @see java.nio.ByteBuffer#get(byte[], int, int)
    */
   public final ByteBuffer get(byte[] dest, int off, int len) {
+    checkAttached();
     int length = dest.length;
     if (off < 0 || len < 0 || len > length - off) {
       throw new IndexOutOfBoundsException();
@@ -72,8 +155,9 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
       throw new BufferUnderflowException();
     }
 
+    Int8Array bytes = byteArray;
     for (int i = 0; i < len; i++) {
-      dest[i + off] = get(position + i);
+      dest[i + off] = bytes.getAt(position + i).byteValue();
     }
 
     position += len;
@@ -84,14 +168,14 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
     //        if (position == limit) {
     //            throw new BufferUnderflowException();
     //        }
-    return byteArray.getAt(position++).byteValue();
+    return byteAt(position++);
   }
 
   public final byte get(int index) {
     //        if (index < 0 || index >= limit) {
     //            throw new IndexOutOfBoundsException();
     //        }
-    return byteArray.getAt(index).byteValue();
+    return byteAt(index);
   }
 
   public final double getDouble() {
@@ -170,12 +254,12 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
     if (order == Endianness.BIG_ENDIAN) {
       for (int i = 0; i < 4; i++) {
         bytes = bytes << 8;
-        bytes = bytes | (byteArray.getAt(baseOffset + i).byteValue() & 0xFF);
+        bytes = bytes | (byteAt(baseOffset + i) & 0xFF);
       }
     } else {
       for (int i = 3; i >= 0; i--) {
         bytes = bytes << 8;
-        bytes = bytes | (byteArray.getAt(baseOffset + i).byteValue() & 0xFF);
+        bytes = bytes | (byteAt(baseOffset + i) & 0xFF);
       }
     }
     return bytes;
@@ -186,12 +270,12 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
     if (order == Endianness.BIG_ENDIAN) {
       for (int i = 0; i < 8; i++) {
         bytes = bytes << 8;
-        bytes = bytes | (byteArray.getAt(baseOffset + i).byteValue() & 0xFF);
+        bytes = bytes | (byteAt(baseOffset + i) & 0xFF);
       }
     } else {
       for (int i = 7; i >= 0; i--) {
         bytes = bytes << 8;
-        bytes = bytes | (byteArray.getAt(baseOffset + i).byteValue() & 0xFF);
+        bytes = bytes | (byteAt(baseOffset + i) & 0xFF);
       }
     }
     return bytes;
@@ -200,16 +284,17 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
   protected final short loadShort(int baseOffset) {
     short bytes = 0;
     if (order == Endianness.BIG_ENDIAN) {
-      bytes = (short) (byteArray.getAt(baseOffset).byteValue() << 8);
-      bytes |= (byteArray.getAt(baseOffset + 1).byteValue() & 0xFF);
+      bytes = (short) (byteAt(baseOffset) << 8);
+      bytes |= (byteAt(baseOffset + 1) & 0xFF);
     } else {
-      bytes = (short) (byteArray.getAt(baseOffset + 1).byteValue() << 8);
-      bytes |= (byteArray.getAt(baseOffset).byteValue() & 0xFF);
+      bytes = (short) (byteAt(baseOffset + 1) << 8);
+      bytes |= (byteAt(baseOffset) & 0xFF);
     }
     return bytes;
   }
 
   protected final void store(int baseOffset, int value) {
+    checkAttached();
     if (order == Endianness.BIG_ENDIAN) {
       for (int i = 3; i >= 0; i--) {
         byteArray.setAt(baseOffset + i, (double) (value & 0xFF));
@@ -224,6 +309,7 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
   }
 
   protected final void store(int baseOffset, long value) {
+    checkAttached();
     if (order == Endianness.BIG_ENDIAN) {
       for (int i = 7; i >= 0; i--) {
         byteArray.setAt(baseOffset + i, (double) (value & 0xFF));
@@ -238,6 +324,7 @@ public abstract class DirectByteBuffer extends BaseByteBuffer implements HasArra
   }
 
   protected final void store(int baseOffset, short value) {
+    checkAttached();
     if (order == Endianness.BIG_ENDIAN) {
       byteArray.setAt(baseOffset, (double) ((value >> 8) & 0xFF));
       byteArray.setAt(baseOffset + 1, (double) (value & 0xFF));
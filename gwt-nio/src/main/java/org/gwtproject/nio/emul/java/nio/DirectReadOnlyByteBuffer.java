@@ -18,6 +18,7 @@
 package java.nio;
 
 import elemental2.core.ArrayBuffer;
+import org.gwtproject.nio.SlowPathMonitor;
 
 /**
  * HeapByteBuffer, ReadWriteHeapByteBuffer and ReadOnlyHeapByteBuffer compose the implementation of
@@ -31,9 +32,10 @@ import elemental2.core.ArrayBuffer;
 final class DirectReadOnlyByteBuffer extends DirectByteBuffer {
 
   static DirectReadOnlyByteBuffer copy(DirectByteBuffer other, int markOfOther) {
+    other.checkAttached();
     DirectReadOnlyByteBuffer buf =
-        new DirectReadOnlyByteBuffer(
-            other.byteArray.buffer, other.capacity(), other.byteArray.byteOffset);
+        new DirectReadOnlyByteBuffer(other.byteArray.buffer, other.capacity(), other.byteOffset);
+    buf.source = other.source;
     buf.limit = other.limit();
     buf.position = other.position();
     buf.mark = markOfOther;
@@ -78,15 +80,19 @@ final class DirectReadOnlyByteBuffer extends DirectByteBuffer {
   }
 
   public IntBuffer asIntBuffer() {
-    return order() == ByteOrder.nativeOrder()
-        ? DirectReadOnlyIntBufferAdapter.wrap(this)
-        : super.asIntBuffer();
+    if (order() == ByteOrder.nativeOrder()) {
+      return DirectReadOnlyIntBufferAdapter.wrap(this);
+    }
+    SlowPathMonitor.record("ByteBuffer.asIntBuffer", this);
+    return super.asIntBuffer();
   }
 
   public ShortBuffer asShortBuffer() {
-    return order() == ByteOrder.nativeOrder()
-        ? DirectReadOnlyShortBufferAdapter.wrap(this)
-        : super.asShortBuffer();
+    if (order() == ByteOrder.nativeOrder()) {
+      return DirectReadOnlyShortBufferAdapter.wrap(this);
+    }
+    SlowPathMonitor.record("ByteBuffer.asShortBuffer", this);
+    return super.asShortBuffer();
   }
 
   public ByteBuffer put(byte b) {
@@ -146,9 +152,10 @@ final class DirectReadOnlyByteBuffer extends DirectByteBuffer {
   }
 
   public ByteBuffer slice() {
+    checkAttached();
     DirectReadOnlyByteBuffer slice =
-        new DirectReadOnlyByteBuffer(
-            byteArray.buffer, remaining(), byteArray.byteOffset + position);
+        new DirectReadOnlyByteBuffer(byteArray.buffer, remaining(), byteOffset + position);
+    slice.source = source;
     slice.order = order;
     return slice;
   }
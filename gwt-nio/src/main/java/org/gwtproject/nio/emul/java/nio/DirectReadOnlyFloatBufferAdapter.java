@@ -35,16 +35,15 @@ import org.gwtproject.nio.HasArrayBufferView;
 final class DirectReadOnlyFloatBufferAdapter extends FloatBuffer implements HasArrayBufferView {
 
   private final DirectByteBuffer byteBuffer;
-  private final Float32Array floatArray;
+  private Float32Array floatArray;
 
   DirectReadOnlyFloatBufferAdapter(DirectByteBuffer byteBuffer) {
     super((byteBuffer.capacity() >> 2));
     this.byteBuffer = byteBuffer;
     this.byteBuffer.clear();
-
+    byteBuffer.checkAttached();
     this.floatArray =
-        new Float32Array(
-            byteBuffer.getTypedArray(), byteBuffer.getTypedArray().byteOffset, capacity);
+        new Float32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
   }
 
   static FloatBuffer wrap(DirectByteBuffer byteBuffer) {
@@ -105,7 +104,7 @@ final class DirectReadOnlyFloatBufferAdapter extends FloatBuffer implements HasA
     //        if (position == limit) {
     //            throw new BufferUnderflowException();
     //        }
-    return floatArray.getAt(position++).floatValue();
+    return elementAt(position++).floatValue();
   }
 
   @Override
@@ -118,7 +117,7 @@ final class DirectReadOnlyFloatBufferAdapter extends FloatBuffer implements HasA
     if (index < 0 || index >= limit) {
       throw new IndexOutOfBoundsException();
     }
-    return floatArray.getAt(index).intValue();
+    return elementAt(index).floatValue();
   }
 
   @Override
@@ -141,7 +140,30 @@ final class DirectReadOnlyFloatBufferAdapter extends FloatBuffer implements HasA
     return byteBuffer.order();
   }
 
+  /* Reads an element, checking the memory only if the read returned undefined. */
+  private Double elementAt(int index) {
+    Double value = floatArray.getAt(index);
+    if (value == null) {
+      checkAttached();
+      value = floatArray.getAt(index);
+    }
+    return value;
+  }
+
+  /* Re-creates the view after the byte buffer re-bound; see DirectByteBuffer.checkAttached(). */
+  private void checkAttached() {
+    if (floatArray.byteLength == 0 && capacity != 0) {
+      byteBuffer.checkAttached();
+      floatArray = new Float32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
+  }
+
   public ArrayBufferView getTypedArray() {
+    if (byteBuffer.source != null
+        && floatArray.byteLength == 0
+        && byteBuffer.getTypedArray().byteLength != 0) {
+      floatArray = new Float32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
     return floatArray;
   }
 
@@ -35,15 +35,14 @@ import org.gwtproject.nio.HasArrayBufferView;
 final class DirectReadOnlyIntBufferAdapter extends IntBuffer implements HasArrayBufferView {
 
   private final DirectByteBuffer byteBuffer;
-  private final Int32Array intArray;
+  private Int32Array intArray;
 
   DirectReadOnlyIntBufferAdapter(DirectByteBuffer byteBuffer) {
     super((byteBuffer.capacity() >> 2));
     this.byteBuffer = byteBuffer;
     this.byteBuffer.clear();
-
-    this.intArray =
-        new Int32Array(byteBuffer.getTypedArray(), byteBuffer.getTypedArray().byteOffset, capacity);
+    byteBuffer.checkAttached();
+    this.intArray = new Int32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
   }
 
   static IntBuffer wrap(DirectByteBuffer byteBuffer) {
@@ -103,7 +102,7 @@ final class DirectReadOnlyIntBufferAdapter extends IntBuffer implements HasArray
     //        if (position == limit) {
     //            throw new BufferUnderflowException();
     //        }
-    return intArray.getAt(position++).intValue();
+    return elementAt(position++).intValue();
   }
 
   @Override
@@ -116,7 +115,7 @@ final class DirectReadOnlyIntBufferAdapter extends IntBuffer implements HasArray
     if (index < 0 || index >= limit) {
       throw new IndexOutOfBoundsException();
     }
-    return intArray.getAt(index).intValue();
+    return elementAt(index).intValue();
   }
 
   @Override
@@ -139,7 +138,30 @@ final class DirectReadOnlyIntBufferAdapter extends IntBuffer implements HasArray
     return byteBuffer.order();
   }
 
+  /* Reads an element, checking the memory only if the read returned undefined. */
+  private Double elementAt(int index) {
+    Double value = intArray.getAt(index);
+    if (value == null) {
+      checkAttached();
+      value = intArray.getAt(index);
+    }
+    return value;
+  }
+
+  /* Re-creates the view after the byte buffer re-bound; see DirectByteBuffer.checkAttached(). */
+  private void checkAttached() {
+    if (intArray.byteLength == 0 && capacity != 0) {
+      byteBuffer.checkAttached();
+      intArray = new Int32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
+  }
+
   public ArrayBufferView getTypedArray() {
+    if (byteBuffer.source != null
+        && intArray.byteLength == 0
+        && byteBuffer.getTypedArray().byteLength != 0) {
+      intArray = new Int32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
     return intArray;
   }
 
@@ -39,14 +39,14 @@ final class DirectReadOnlyShortBufferAdapter extends ShortBuffer implements HasA
   }
 
   private final DirectByteBuffer byteBuffer;
-  private final Int16Array shortArray;
+  private Int16Array shortArray;
 
   DirectReadOnlyShortBufferAdapter(DirectByteBuffer byteBuffer) {
     super((byteBuffer.capacity() >> 1));
     this.byteBuffer = byteBuffer;
     this.byteBuffer.clear();
-    this.shortArray =
-        new Int16Array(byteBuffer.getTypedArray(), byteBuffer.getTypedArray().byteOffset, capacity);
+    byteBuffer.checkAttached();
+    this.shortArray = new Int16Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
   }
 
   @Override
@@ -75,12 +75,12 @@ final class DirectReadOnlyShortBufferAdapter extends ShortBuffer implements HasA
 
   @Override
   public short get() {
-    return shortArray.getAt(position++).shortValue();
+    return elementAt(position++).shortValue();
   }
 
   @Override
   public short get(int index) {
-    return shortArray.getAt(index).shortValue();
+    return elementAt(index).shortValue();
   }
 
   @Override
@@ -133,7 +133,30 @@ final class DirectReadOnlyShortBufferAdapter extends ShortBuffer implements HasA
     return result;
   }
 
+  /* Reads an element, checking the memory only if the read returned undefined. */
+  private Double elementAt(int index) {
+    Double value = shortArray.getAt(index);
+    if (value == null) {
+      checkAttached();
+      value = shortArray.getAt(index);
+    }
+    return value;
+  }
+
+  /* Re-creates the view after the byte buffer re-bound; see DirectByteBuffer.checkAttached(). */
+  private void checkAttached() {
+    if (shortArray.byteLength == 0 && capacity != 0) {
+      byteBuffer.checkAttached();
+      shortArray = new Int16Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
+  }
+
   public ArrayBufferView getTypedArray() {
+    if (byteBuffer.source != null
+        && shortArray.byteLength == 0
+        && byteBuffer.getTypedArray().byteLength != 0) {
+      shortArray = new Int16Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
     return shortArray;
   }
 
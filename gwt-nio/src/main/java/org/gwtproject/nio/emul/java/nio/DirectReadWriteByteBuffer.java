@@ -17,6 +17,11 @@
 package java.nio;
 
 import elemental2.core.ArrayBuffer;
+import elemental2.core.Int8Array;
+import elemental2.core.JsArray;
+import jsinterop.base.Js;
+import org.gwtproject.nio.ArrayBufferSource;
+import org.gwtproject.nio.SlowPathMonitor;
 
 /**
  * DirectByteBuffer, DirectReadWriteByteBuffer and DirectReadOnlyByteBuffer compose the
@@ -29,9 +34,10 @@ import elemental2.core.ArrayBuffer;
 public final class DirectReadWriteByteBuffer extends DirectByteBuffer {
 
   static DirectReadWriteByteBuffer copy(DirectByteBuffer other, int markOfOther) {
+    other.checkAttached();
     DirectReadWriteByteBuffer buf =
-        new DirectReadWriteByteBuffer(
-            other.byteArray.buffer, other.capacity(), other.byteArray.byteOffset);
+        new DirectReadWriteByteBuffer(other.byteArray.buffer, other.capacity(), other.byteOffset);
+    buf.source = other.source;
     buf.limit = other.limit();
     buf.position = other.position();
     buf.mark = markOfOther;
@@ -51,20 +57,28 @@ public final class DirectReadWriteByteBuffer extends DirectByteBuffer {
     super(backingArray, capacity, arrayOffset);
   }
 
+  public DirectReadWriteByteBuffer(ArrayBufferSource source, int capacity, int arrayOffset) {
+    super(source, capacity, arrayOffset);
+  }
+
   public FloatBuffer asFloatBuffer() {
     return DirectReadWriteFloatBufferAdapter.wrap(this);
   }
 
   public IntBuffer asIntBuffer() {
-    return order() == ByteOrder.nativeOrder()
-        ? DirectReadWriteIntBufferAdapter.wrap(this)
-        : super.asIntBuffer();
+    if (order() == ByteOrder.nativeOrder()) {
+      return DirectReadWriteIntBufferAdapter.wrap(this);
+    }
+    SlowPathMonitor.record("ByteBuffer.asIntBuffer", this);
+    return super.asIntBuffer();
   }
 
   public ShortBuffer asShortBuffer() {
-    return order() == ByteOrder.nativeOrder()
-        ? DirectReadWriteShortBufferAdapter.wrap(this)
-        : super.asShortBuffer();
+    if (order() == ByteOrder.nativeOrder()) {
+      return DirectReadWriteShortBufferAdapter.wrap(this);
+    }
+    SlowPathMonitor.record("ByteBuffer.asShortBuffer", this);
+    return super.asShortBuffer();
   }
 
   public ByteBuffer asReadOnlyBuffer() {
@@ -72,6 +86,7 @@ public final class DirectReadWriteByteBuffer extends DirectByteBuffer {
   }
 
   public ByteBuffer compact() {
+    checkAttached();
     //        System.arraycopy(backingArray, position + offset, backingArray, offset,
     //                remaining());
 
@@ -107,6 +122,7 @@ public final class DirectReadWriteByteBuffer extends DirectByteBuffer {
   }
 
   public ByteBuffer put(byte b) {
+    checkAttached();
     //        if (position == limit) {
     //            throw new BufferOverflowException();
     //        }
@@ -115,6 +131,7 @@ public final class DirectReadWriteByteBuffer extends DirectByteBuffer {
   }
 
   public ByteBuffer put(int index, byte b) {
+    checkAttached();
     //        if (index < 0 || index >= limit) {
     //            throw new IndexOutOfBoundsException();
     //        }
@@ -130,6 +147,7 @@ public final class DirectReadWriteByteBuffer extends DirectByteBuffer {
    * @see java.nio.ByteBuffer#put(byte[], int, int)
    */
   public ByteBuffer put(byte[] src, int off, int len) {
+    checkAttached();
     if (off < 0 || len < 0 || off + len > src.length) {
       throw new IndexOutOfBoundsException();
     }
@@ -139,10 +157,43 @@ public final class DirectReadWriteByteBuffer extends DirectByteBuffer {
     if (isReadOnly()) {
       throw new ReadOnlyBufferException();
     }
-    for (int i = 0; i < len; i++) {
-      byteArray.setAt(i + position, (double) src[off + i]);
+    // A byte[] is a JS array of numbers, so one TypedArray.set() copies it.
+    JsArray<Double> values = Js.uncheckedCast(src);
+    if (off != 0 || len != src.length) {
+      values = values.slice(off, off + len);
+    }
+    byteArray.set(values, position);
+    position += len;
+    return this;
+  }
+
+  /*
+   * Override ByteBuffer.put(ByteBuffer) to copy between direct buffers with a single
+   * TypedArray.set(). Not every engine's set() handles overlapping regions of the same memory, so
+   * those are copied through a temporary array.
+   */
+  public ByteBuffer put(ByteBuffer src) {
+    if (!(src instanceof DirectByteBuffer)) {
+      return super.put(src);
+    }
+    if (src == this) {
+      throw new IllegalArgumentException();
+    }
+    DirectByteBuffer other = (DirectByteBuffer) src;
+    int len = other.remaining();
+    if (len > remaining()) {
+      throw new BufferOverflowException();
+    }
+    checkAttached();
+    other.checkAttached();
+    Int8Array bytes =
+        new Int8Array(other.byteArray.buffer, other.byteArray.byteOffset + other.position, len);
+    if (other.byteArray.buffer == byteArray.buffer) {
+      bytes = new Int8Array(bytes);
     }
+    byteArray.set(bytes, position);
     position += len;
+    other.position = other.limit;
     return this;
   }
 
@@ -217,9 +268,10 @@ public final class DirectReadWriteByteBuffer extends DirectByteBuffer {
   }
 
   public ByteBuffer slice() {
+    checkAttached();
     DirectReadWriteByteBuffer slice =
-        new DirectReadWriteByteBuffer(
-            byteArray.buffer, remaining(), byteArray.byteOffset + position);
+        new DirectReadWriteByteBuffer(byteArray.buffer, remaining(), byteOffset + position);
+    slice.source = source;
     slice.order = order;
     return slice;
   }
@@ -35,14 +35,15 @@ import org.gwtproject.nio.HasArrayBufferView;
 final class DirectReadWriteFloatBufferAdapter extends FloatBuffer implements HasArrayBufferView {
 
   private final DirectReadWriteByteBuffer byteBuffer;
-  private final Float32Array floatArray;
+  private Float32Array floatArray;
 
   DirectReadWriteFloatBufferAdapter(DirectReadWriteByteBuffer byteBuffer) {
     super((byteBuffer.capacity() >> 2));
     this.byteBuffer = byteBuffer;
     this.byteBuffer.clear();
+    byteBuffer.checkAttached();
     this.floatArray =
-        new Float32Array(byteBuffer.byteArray.buffer, byteBuffer.byteArray.byteOffset, capacity);
+        new Float32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
   }
 
   static FloatBuffer wrap(DirectReadWriteByteBuffer byteBuffer) {
@@ -101,28 +102,31 @@ final class DirectReadWriteFloatBufferAdapter extends FloatBuffer implements Has
 
   @Override
   public float get() {
-    return floatArray.getAt(position++).floatValue();
+    return elementAt(position++).floatValue();
   }
 
   @Override
   public FloatBuffer put(float c) {
+    checkAttached();
     floatArray.setAt(position++, (double) c);
     return this;
   }
 
   @Override
   public float get(int index) {
-    return floatArray.getAt(index).floatValue();
+    return elementAt(index).floatValue();
   }
 
   @Override
   public FloatBuffer put(int index, float c) {
+    checkAttached();
     floatArray.setAt(index, (double) c);
     return this;
   }
 
   @Override
   public FloatBuffer compact() {
+    checkAttached();
     byteBuffer.limit(limit << 2);
     byteBuffer.position(position << 2);
     byteBuffer.compact();
@@ -143,7 +147,30 @@ final class DirectReadWriteFloatBufferAdapter extends FloatBuffer implements Has
     return byteBuffer.order();
   }
 
+  /* Reads an element, checking the memory only if the read returned undefined. */
+  private Double elementAt(int index) {
+    Double value = floatArray.getAt(index);
+    if (value == null) {
+      checkAttached();
+      value = floatArray.getAt(index);
+    }
+    return value;
+  }
+
+  /* Re-creates the view after the byte buffer re-bound; see DirectByteBuffer.checkAttached(). */
+  private void checkAttached() {
+    if (floatArray.byteLength == 0 && capacity != 0) {
+      byteBuffer.checkAttached();
+      floatArray = new Float32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
+  }
+
   public ArrayBufferView getTypedArray() {
+    if (byteBuffer.source != null
+        && floatArray.byteLength == 0
+        && byteBuffer.getTypedArray().byteLength != 0) {
+      floatArray = new Float32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
     return floatArray;
   }
 
@@ -35,14 +35,14 @@ import org.gwtproject.nio.HasArrayBufferView;
 final class DirectReadWriteIntBufferAdapter extends IntBuffer implements HasArrayBufferView {
 
   private final DirectReadWriteByteBuffer byteBuffer;
-  private final Int32Array intArray;
+  private Int32Array intArray;
 
   DirectReadWriteIntBufferAdapter(DirectReadWriteByteBuffer byteBuffer) {
     super((byteBuffer.capacity() >> 2));
     this.byteBuffer = byteBuffer;
     this.byteBuffer.clear();
-    this.intArray =
-        new Int32Array(byteBuffer.byteArray.buffer, byteBuffer.byteArray.byteOffset, capacity);
+    byteBuffer.checkAttached();
+    this.intArray = new Int32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
   }
 
   static IntBuffer wrap(DirectReadWriteByteBuffer byteBuffer) {
@@ -104,11 +104,12 @@ final class DirectReadWriteIntBufferAdapter extends IntBuffer implements HasArra
     //        if (position == limit) {
     //            throw new BufferUnderflowException();
     //        }
-    return intArray.getAt(position++).intValue();
+    return elementAt(position++).intValue();
   }
 
   @Override
   public IntBuffer put(int c) {
+    checkAttached();
     intArray.setAt(position++, (double) c);
     return this;
   }
@@ -118,11 +119,12 @@ final class DirectReadWriteIntBufferAdapter extends IntBuffer implements HasArra
     //        if (index < 0 || index >= limit) {
     //            throw new IndexOutOfBoundsException();
     //        }
-    return intArray.getAt(index).intValue();
+    return elementAt(index).intValue();
   }
 
   @Override
   public IntBuffer put(int index, int c) {
+    checkAttached();
     //        if (index < 0 || index >= limit) {
     //            throw new IndexOutOfBoundsException();
     //        }
@@ -132,6 +134,7 @@ final class DirectReadWriteIntBufferAdapter extends IntBuffer implements HasArra
 
   @Override
   public IntBuffer compact() {
+    checkAttached();
     byteBuffer.limit(limit << 2);
     byteBuffer.position(position << 2);
     byteBuffer.compact();
@@ -152,7 +155,30 @@ final class DirectReadWriteIntBufferAdapter extends IntBuffer implements HasArra
     return byteBuffer.order();
   }
 
+  /* Reads an element, checking the memory only if the read returned undefined. */
+  private Double elementAt(int index) {
+    Double value = intArray.getAt(index);
+    if (value == null) {
+      checkAttached();
+      value = intArray.getAt(index);
+    }
+    return value;
+  }
+
+  /* Re-creates the view after the byte buffer re-bound; see DirectByteBuffer.checkAttached(). */
+  private void checkAttached() {
+    if (intArray.byteLength == 0 && capacity != 0) {
+      byteBuffer.checkAttached();
+      intArray = new Int32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
+  }
+
   public ArrayBufferView getTypedArray() {
+    if (byteBuffer.source != null
+        && intArray.byteLength == 0
+        && byteBuffer.getTypedArray().byteLength != 0) {
+      intArray = new Int32Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
     return intArray;
   }
 
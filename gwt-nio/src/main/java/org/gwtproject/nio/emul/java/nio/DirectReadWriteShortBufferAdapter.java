@@ -36,14 +36,14 @@ final class DirectReadWriteShortBufferAdapter extends ShortBuffer implements Has
   // implements DirectBuffer {
 
   private final DirectReadWriteByteBuffer byteBuffer;
-  private final Int16Array shortArray;
+  private Int16Array shortArray;
 
   DirectReadWriteShortBufferAdapter(DirectReadWriteByteBuffer byteBuffer) {
     super((byteBuffer.capacity() >> 1));
     this.byteBuffer = byteBuffer;
     this.byteBuffer.clear();
-    this.shortArray =
-        new Int16Array(byteBuffer.byteArray.buffer, byteBuffer.byteArray.byteOffset, capacity);
+    byteBuffer.checkAttached();
+    this.shortArray = new Int16Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
   }
 
   static ShortBuffer wrap(DirectReadWriteByteBuffer byteBuffer) {
@@ -102,22 +102,24 @@ final class DirectReadWriteShortBufferAdapter extends ShortBuffer implements Has
 
   @Override
   public short get() {
-    return shortArray.getAt(position++).shortValue();
+    return elementAt(position++).shortValue();
   }
 
   @Override
   public ShortBuffer put(short c) {
+    checkAttached();
     shortArray.setAt(position++, (double) c);
     return this;
   }
 
   @Override
   public short get(int index) {
-    return shortArray.getAt(index).shortValue();
+    return elementAt(index).shortValue();
   }
 
   @Override
   public ShortBuffer put(int index, short c) {
+    checkAttached();
     //        if (index < 0 || index >= limit) {
     //            throw new IndexOutOfBoundsException();
     //        }
@@ -127,6 +129,7 @@ final class DirectReadWriteShortBufferAdapter extends ShortBuffer implements Has
 
   @Override
   public ShortBuffer compact() {
+    checkAttached();
     byteBuffer.limit(limit << 1);
     byteBuffer.position(position << 1);
     byteBuffer.compact();
@@ -147,7 +150,30 @@ final class DirectReadWriteShortBufferAdapter extends ShortBuffer implements Has
     return byteBuffer.order();
   }
 
+  /* Reads an element, checking the memory only if the read returned undefined. */
+  private Double elementAt(int index) {
+    Double value = shortArray.getAt(index);
+    if (value == null) {
+      checkAttached();
+      value = shortArray.getAt(index);
+    }
+    return value;
+  }
+
+  /* Re-creates the view after the byte buffer re-bound; see DirectByteBuffer.checkAttached(). */
+  private void checkAttached() {
+    if (shortArray.byteLength == 0 && capacity != 0) {
+      byteBuffer.checkAttached();
+      shortArray = new Int16Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
+  }
+
   public ArrayBufferView getTypedArray() {
+    if (byteBuffer.source != null
+        && shortArray.byteLength == 0
+        && byteBuffer.getTypedArray().byteLength != 0) {
+      shortArray = new Int16Array(byteBuffer.byteArray.buffer, byteBuffer.byteOffset, capacity);
+    }
     return shortArray;
   }
 
@@ -17,6 +17,8 @@
 
 package java.nio;
 
+import org.gwtproject.nio.SlowPathMonitor;
+
 /**
  * A buffer of doubles.
  *
@@ -440,6 +442,7 @@ public abstract class DoubleBuffer extends Buffer implements Comparable<DoubleBu
     if (src.remaining() > remaining()) {
       throw new BufferOverflowException();
     }
+    SlowPathMonitor.record("DoubleBuffer.put(DoubleBuffer)", this);
     double[] doubles = new double[src.remaining()];
     src.get(doubles);
     put(doubles);
@@ -17,6 +17,8 @@
 
 package java.nio;
 
+import org.gwtproject.nio.SlowPathMonitor;
+
 /**
  * A buffer of floats.
  *
@@ -440,6 +442,7 @@ public abstract class FloatBuffer extends Buffer implements Comparable<FloatBuff
     if (src.remaining() > remaining()) {
       throw new BufferOverflowException();
     }
+    SlowPathMonitor.record("FloatBuffer.put(FloatBuffer)", this);
     float[] contents = new float[src.remaining()];
     src.get(contents);
     put(contents);
@@ -17,6 +17,8 @@
 
 package java.nio;
 
+import org.gwtproject.nio.SlowPathMonitor;
+
 /**
  * A buffer of ints.
  *
@@ -437,6 +439,7 @@ public abstract class IntBuffer extends Buffer implements Comparable<IntBuffer>
     if (src.remaining() > remaining()) {
       throw new BufferOverflowException();
     }
+    SlowPathMonitor.record("IntBuffer.put(IntBuffer)", this);
     int[] contents = new int[src.remaining()];
     src.get(contents);
     put(contents);
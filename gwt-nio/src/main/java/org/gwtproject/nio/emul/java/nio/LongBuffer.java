@@ -17,6 +17,8 @@
 
 package java.nio;
 
+import org.gwtproject.nio.SlowPathMonitor;
+
 /**
  * A buffer of longs.
  *
@@ -440,6 +442,7 @@ public abstract class LongBuffer extends Buffer implements Comparable<LongBuffer
     if (src.remaining() > remaining()) {
       throw new BufferOverflowException();
     }
+    SlowPathMonitor.record("LongBuffer.put(LongBuffer)", this);
     long[] contents = new long[src.remaining()];
     src.get(contents);
     put(contents);
@@ -16,6 +16,8 @@
 
 package java.nio;
 
+import org.gwtproject.nio.HasByteBuffer;
+
 // import org.apache.harmony.nio.internal.DirectBuffer;
 // import org.apache.harmony.luni.platform.PlatformAddress;
 
@@ -31,7 +33,7 @@ package java.nio;
  *       Buffer, thus has its own position and limit.
  * </ul>
  */
-final class LongToByteBufferAdapter extends LongBuffer { // implements DirectBuffer {
+final class LongToByteBufferAdapter extends LongBuffer implements HasByteBuffer { // DirectBuffer {
 
   static LongBuffer wrap(ByteBuffer byteBuffer) {
     return new LongToByteBufferAdapter(byteBuffer.slice());
@@ -45,6 +47,11 @@ final class LongToByteBufferAdapter extends LongBuffer { // implements DirectBuf
     this.byteBuffer.clear();
   }
 
+  @Override
+  public ByteBuffer getByteBuffer() {
+    return byteBuffer;
+  }
+
   //    public int getByteCapacity() {
   //        if (byteBuffer instanceof DirectBuffer) {
   //            return ((DirectBuffer) byteBuffer).getByteCapacity();
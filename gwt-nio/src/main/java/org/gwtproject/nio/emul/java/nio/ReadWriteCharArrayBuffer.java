@@ -109,6 +109,18 @@ final class ReadWriteCharArrayBuffer extends CharArrayBuffer {
     return this;
   }
 
+  public CharBuffer put(String str, int start, int end) {
+    if (start < 0 || end < start || end > str.length()) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (end - start > remaining()) {
+      throw new BufferOverflowException();
+    }
+    str.getChars(start, end, backingArray, offset + position);
+    position += end - start;
+    return this;
+  }
+
   public CharBuffer slice() {
     return new ReadWriteCharArrayBuffer(remaining(), backingArray, offset + position);
   }
@@ -0,0 +1,325 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package java.nio;
+
+import org.gwtproject.nio.AccessPatternRecorder;
+
+/**
+ * This class wraps a byte buffer and reports every access to an {@link AccessPatternRecorder}.
+ *
+ * <p>Implementation notice:
+ *
+ * <ul>
+ *   <li>The wrapped buffer's position and limit are NOT linked with this buffer. They are only set
+ *       to this buffer's values before a bulk operation or a view is delegated to it.
+ *   <li>Offsets are reported in bytes, relative to the buffer originally passed to the recorder.
+ * </ul>
+ */
+final class RecordingByteBuffer extends ByteBuffer {
+
+  private final ByteBuffer buffer;
+  private final AccessRecording recording;
+
+  RecordingByteBuffer(ByteBuffer buffer, AccessPatternRecorder recorder) {
+    this(buffer, new AccessRecording(recorder, 0, 0));
+  }
+
+  private RecordingByteBuffer(ByteBuffer buffer, AccessRecording recording) {
+    super(buffer.capacity());
+    this.buffer = buffer;
+    this.recording = recording;
+    this.limit = buffer.limit();
+    this.position = buffer.position();
+    this.mark = buffer.mark;
+    this.order = buffer.order;
+  }
+
+  private ByteBuffer sync() {
+    return AccessRecording.sync(this, buffer);
+  }
+
+  @Override
+  ByteBuffer orderImpl(ByteOrder byteOrder) {
+    buffer.order(byteOrder);
+    return super.orderImpl(byteOrder);
+  }
+
+  @Override
+  public CharBuffer asCharBuffer() {
+    return new RecordingCharBuffer(sync().asCharBuffer(), recording.view(position, 1));
+  }
+
+  @Override
+  public DoubleBuffer asDoubleBuffer() {
+    return new RecordingDoubleBuffer(sync().asDoubleBuffer(), recording.view(position, 3));
+  }
+
+  @Override
+  public FloatBuffer asFloatBuffer() {
+    return new RecordingFloatBuffer(sync().asFloatBuffer(), recording.view(position, 2));
+  }
+
+  @Override
+  public IntBuffer asIntBuffer() {
+    return new RecordingIntBuffer(sync().asIntBuffer(), recording.view(position, 2));
+  }
+
+  @Override
+  public LongBuffer asLongBuffer() {
+    return new RecordingLongBuffer(sync().asLongBuffer(), recording.view(position, 3));
+  }
+
+  @Override
+  public ShortBuffer asShortBuffer() {
+    return new RecordingShortBuffer(sync().asShortBuffer(), recording.view(position, 1));
+  }
+
+  @Override
+  public ByteBuffer asReadOnlyBuffer() {
+    RecordingByteBuffer buf = new RecordingByteBuffer(sync().asReadOnlyBuffer(), recording);
+    buf.mark = mark;
+    return buf;
+  }
+
+  @Override
+  public ByteBuffer compact() {
+    recording.compact(this);
+    sync().compact();
+    position = buffer.position();
+    limit = buffer.limit();
+    mark = UNSET_MARK;
+    return this;
+  }
+
+  @Override
+  public ByteBuffer duplicate() {
+    RecordingByteBuffer buf = new RecordingByteBuffer(sync().duplicate(), recording);
+    buf.mark = mark;
+    return buf;
+  }
+
+  @Override
+  public ByteBuffer slice() {
+    RecordingByteBuffer buf = new RecordingByteBuffer(sync().slice(), recording.view(position, 0));
+    buf.mark = UNSET_MARK;
+    return buf;
+  }
+
+  @Override
+  public boolean isDirect() {
+    return buffer.isDirect();
+  }
+
+  @Override
+  public boolean isReadOnly() {
+    return buffer.isReadOnly();
+  }
+
+  @Override
+  byte[] protectedArray() {
+    return buffer.protectedArray();
+  }
+
+  @Override
+  int protectedArrayOffset() {
+    return buffer.protectedArrayOffset();
+  }
+
+  @Override
+  boolean protectedHasArray() {
+    return buffer.protectedHasArray();
+  }
+
+  @Override
+  public byte get() {
+    return buffer.get(recording.nextGetIndex(this, 1));
+  }
+
+  @Override
+  public byte get(int index) {
+    return buffer.get(recording.checkGetIndex(this, index, 1));
+  }
+
+  @Override
+  public ByteBuffer get(byte[] dest, int off, int len) {
+    recording.bulkGet(this, dest.length, off, len);
+    sync().get(dest, off, len);
+    position += len;
+    return this;
+  }
+
+  @Override
+  public ByteBuffer put(byte b) {
+    buffer.put(recording.nextPutIndex(this, 1), b);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer put(int index, byte b) {
+    buffer.put(recording.checkPutIndex(this, index, 1), b);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer put(byte[] src, int off, int len) {
+    recording.bulkPut(this, src.length, off, len);
+    sync().put(src, off, len);
+    position += len;
+    return this;
+  }
+
+  @Override
+  public ByteBuffer put(ByteBuffer src) {
+    int len = src.remaining();
+    recording.bulkPut(this, src);
+    sync().put(src);
+    position += len;
+    return this;
+  }
+
+  @Override
+  public char getChar() {
+    return buffer.getChar(recording.nextGetIndex(this, 2));
+  }
+
+  @Override
+  public char getChar(int index) {
+    return buffer.getChar(recording.checkGetIndex(this, index, 2));
+  }
+
+  @Override
+  public double getDouble() {
+    return buffer.getDouble(recording.nextGetIndex(this, 8));
+  }
+
+  @Override
+  public double getDouble(int index) {
+    return buffer.getDouble(recording.checkGetIndex(this, index, 8));
+  }
+
+  @Override
+  public float getFloat() {
+    return buffer.getFloat(recording.nextGetIndex(this, 4));
+  }
+
+  @Override
+  public float getFloat(int index) {
+    return buffer.getFloat(recording.checkGetIndex(this, index, 4));
+  }
+
+  @Override
+  public int getInt() {
+    return buffer.getInt(recording.nextGetIndex(this, 4));
+  }
+
+  @Override
+  public int getInt(int index) {
+    return buffer.getInt(recording.checkGetIndex(this, index, 4));
+  }
+
+  @Override
+  public long getLong() {
+    return buffer.getLong(recording.nextGetIndex(this, 8));
+  }
+
+  @Override
+  public long getLong(int index) {
+    return buffer.getLong(recording.checkGetIndex(this, index, 8));
+  }
+
+  @Override
+  public short getShort() {
+    return buffer.getShort(recording.nextGetIndex(this, 2));
+  }
+
+  @Override
+  public short getShort(int index) {
+    return buffer.getShort(recording.checkGetIndex(this, index, 2));
+  }
+
+  @Override
+  public ByteBuffer putChar(char value) {
+    buffer.putChar(recording.nextPutIndex(this, 2), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putChar(int index, char value) {
+    buffer.putChar(recording.checkPutIndex(this, index, 2), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putDouble(double value) {
+    buffer.putDouble(recording.nextPutIndex(this, 8), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putDouble(int index, double value) {
+    buffer.putDouble(recording.checkPutIndex(this, index, 8), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putFloat(float value) {
+    buffer.putFloat(recording.nextPutIndex(this, 4), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putFloat(int index, float value) {
+    buffer.putFloat(recording.checkPutIndex(this, index, 4), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putInt(int value) {
+    buffer.putInt(recording.nextPutIndex(this, 4), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putInt(int index, int value) {
+    buffer.putInt(recording.checkPutIndex(this, index, 4), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putLong(long value) {
+    buffer.putLong(recording.nextPutIndex(this, 8), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putLong(int index, long value) {
+    buffer.putLong(recording.checkPutIndex(this, index, 8), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putShort(short value) {
+    buffer.putShort(recording.nextPutIndex(this, 2), value);
+    return this;
+  }
+
+  @Override
+  public ByteBuffer putShort(int index, short value) {
+    buffer.putShort(recording.checkPutIndex(this, index, 2), value);
+    return this;
+  }
+}
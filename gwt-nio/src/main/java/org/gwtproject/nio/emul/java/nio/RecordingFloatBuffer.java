@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package java.nio;
+
+import org.gwtproject.nio.AccessPatternRecorder;
+
+/**
+ * This class wraps a float buffer and reports every access to an {@link AccessPatternRecorder}.
+ *
+ * <p>Implementation notice:
+ *
+ * <ul>
+ *   <li>The wrapped buffer's position and limit are NOT linked with this buffer. They are only set
+ *       to this buffer's values before a bulk operation or a view is delegated to it.
+ *   <li>Offsets are reported in bytes, relative to the buffer originally passed to the recorder.
+ * </ul>
+ */
+final class RecordingFloatBuffer extends FloatBuffer {
+
+  private final FloatBuffer buffer;
+  private final AccessRecording recording;
+
+  RecordingFloatBuffer(FloatBuffer buffer, AccessPatternRecorder recorder, int byteOffset) {
+    this(buffer, new AccessRecording(recorder, byteOffset, 2));
+  }
+
+  RecordingFloatBuffer(FloatBuffer buffer, AccessRecording recording) {
+    super(buffer.capacity());
+    this.buffer = buffer;
+    this.recording = recording;
+    this.limit = buffer.limit();
+    this.position = buffer.position();
+    this.mark = buffer.mark;
+  }
+
+  private FloatBuffer sync() {
+    return AccessRecording.sync(this, buffer);
+  }
+
+  @Override
+  public FloatBuffer asReadOnlyBuffer() {
+    RecordingFloatBuffer buf = new RecordingFloatBuffer(sync().asReadOnlyBuffer(), recording);
+    buf.mark = mark;
+    return buf;
+  }
+
+  @Override
+  public FloatBuffer compact() {
+    recording.compact(this);
+    sync().compact();
+    position = buffer.position();
+    limit = buffer.limit();
+    mark = UNSET_MARK;
+    return this;
+  }
+
+  @Override
+  public FloatBuffer duplicate() {
+    RecordingFloatBuffer buf = new RecordingFloatBuffer(sync().duplicate(), recording);
+    buf.mark = mark;
+    return buf;
+  }
+
+  @Override
+  public FloatBuffer slice() {
+    return new RecordingFloatBuffer(sync().slice(), recording.view(position, 2));
+  }
+
+  @Override
+  public boolean isDirect() {
+    return buffer.isDirect();
+  }
+
+  @Override
+  public boolean isReadOnly() {
+    return buffer.isReadOnly();
+  }
+
+  @Override
+  public ByteOrder order() {
+    return buffer.order();
+  }
+
+  @Override
+  float[] protectedArray() {
+    return buffer.protectedArray();
+  }
+
+  @Override
+  int protectedArrayOffset() {
+    return buffer.protectedArrayOffset();
+  }
+
+  @Override
+  boolean protectedHasArray() {
+    return buffer.protectedHasArray();
+  }
+
+  @Override
+  public float get() {
+    return buffer.get(recording.nextGetIndex(this, 1));
+  }
+
+  @Override
+  public float get(int index) {
+    return buffer.get(recording.checkGetIndex(this, index, 1));
+  }
+
+  @Override
+  public FloatBuffer get(float[] dest, int off, int len) {
+    recording.bulkGet(this, dest.length, off, len);
+    sync().get(dest, off, len);
+    position += len;
+    return this;
+  }
+
+  @Override
+  public FloatBuffer put(float f) {
+    buffer.put(recording.nextPutIndex(this, 1), f);
+    return this;
+  }
+
+  @Override
+  public FloatBuffer put(int index, float f) {
+    buffer.put(recording.checkPutIndex(this, index, 1), f);
+    return this;
+  }
+
+  @Override
+  public FloatBuffer put(float[] src, int off, int len) {
+    recording.bulkPut(this, src.length, off, len);
+    sync().put(src, off, len);
+    position += len;
+    return this;
+  }
+
+  @Override
+  public FloatBuffer put(FloatBuffer src) {
+    int len = src.remaining();
+    recording.bulkPut(this, src);
+    sync().put(src);
+    position += len;
+    return this;
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package java.nio;
+
+import org.gwtproject.nio.AccessPatternRecorder;
+
+/**
+ * This class wraps a int buffer and reports every access to an {@link AccessPatternRecorder}.
+ *
+ * <p>Implementation notice:
+ *
+ * <ul>
+ *   <li>The wrapped buffer's position and limit are NOT linked with this buffer. They are only set
+ *       to this buffer's values before a bulk operation or a view is delegated to it.
+ *   <li>Offsets are reported in bytes, relative to the buffer originally passed to the recorder.
+ * </ul>
+ */
+final class RecordingIntBuffer extends IntBuffer {
+
+  private final IntBuffer buffer;
+  private final AccessRecording recording;
+
+  RecordingIntBuffer(IntBuffer buffer, AccessPatternRecorder recorder, int byteOffset) {
+    this(buffer, new AccessRecording(recorder, byteOffset, 2));
+  }
+
+  RecordingIntBuffer(IntBuffer buffer, AccessRecording recording) {
+    super(buffer.capacity());
+    this.buffer = buffer;
+    this.recording = recording;
+    this.limit = buffer.limit();
+    this.position = buffer.position();
+    this.mark = buffer.mark;
+  }
+
+  private IntBuffer sync() {
+    return AccessRecording.sync(this, buffer);
+  }
+
+  @Override
+  public IntBuffer asReadOnlyBuffer() {
+    RecordingIntBuffer buf = new RecordingIntBuffer(sync().asReadOnlyBuffer(), recording);
+    buf.mark = mark;
+    return buf;
+  }
+
+  @Override
+  public IntBuffer compact() {
+    recording.compact(this);
+    sync().compact();
+    position = buffer.position();
+    limit = buffer.limit();
+    mark = UNSET_MARK;
+    return this;
+  }
+
+  @Override
+  public IntBuffer duplicate() {
+    RecordingIntBuffer buf = new RecordingIntBuffer(sync().duplicate(), recording);
+    buf.mark = mark;
+    return buf;
+  }
+
+  @Override
+  public IntBuffer slice() {
+    return new RecordingIntBuffer(sync().slice(), recording.view(position, 2));
+  }
+
+  @Override
+  public boolean isDirect() {
+    return buffer.isDirect();
+  }
+
+  @Override
+  public boolean isReadOnly() {
+    return buffer.isReadOnly();
+  }
+
+  @Override
+  public ByteOrder order() {
+    return buffer.order();
+  }
+
+  @Override
+  protected int[] protectedArray() {
+    return buffer.protectedArray();
+  }
+
+  @Override
+  protected int protectedArrayOffset() {
+    return buffer.protectedArrayOffset();
+  }
+
+  @Override
+  protected boolean protectedHasArray() {
+    return buffer.protectedHasArray();
+  }
+
+  @Override
+  public int get() {
+    return buffer.get(recording.nextGetIndex(this, 1));
+  }
+
+  @Override
+  public int get(int index) {
+    return buffer.get(recording.checkGetIndex(this, index, 1));
+  }
+
+  @Override
+  public IntBuffer get(int[] dest, int off, int len) {
+    recording.bulkGet(this, dest.length, off, len);
+    sync().get(dest, off, len);
+    position += len;
+    return this;
+  }
+
+  @Override
+  public IntBuffer put(int i) {
+    buffer.put(recording.nextPutIndex(this, 1), i);
+    return this;
+  }
+
+  @Override
+  public IntBuffer put(int index, int i) {
+    buffer.put(recording.checkPutIndex(this, index, 1), i);
+    return this;
+  }
+
+  @Override
+  public IntBuffer put(int[] src, int off, int len) {
+    recording.bulkPut(this, src.length, off, len);
+    sync().put(src, off, len);
+    position += len;
+    return this;
+  }
+
+  @Override
+  public IntBuffer put(IntBuffer src) {
+    int len = src.remaining();
+    recording.bulkPut(this, src);
+    sync().put(src);
+    position += len;
+    return this;
+  }
+}
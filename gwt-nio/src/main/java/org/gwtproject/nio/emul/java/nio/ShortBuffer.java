@@ -17,6 +17,8 @@
 
 package java.nio;
 
+import org.gwtproject.nio.SlowPathMonitor;
+
 /**
  * A buffer of shorts.
  *
@@ -435,6 +437,7 @@ public abstract class ShortBuffer extends Buffer implements Comparable<ShortBuff
     if (src.remaining() > remaining()) {
       throw new BufferOverflowException();
     }
+    SlowPathMonitor.record("ShortBuffer.put(ShortBuffer)", this);
     short[] contents = new short[src.remaining()];
     src.get(contents);
     put(contents);
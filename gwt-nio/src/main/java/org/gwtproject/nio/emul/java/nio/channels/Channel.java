@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.channels;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** A connection to an entity that can do I/O, such as a file or an in memory buffer. */
+public interface Channel extends Closeable {
+
+  /**
+   * Returns true if this channel is open.
+   *
+   * @return true until the channel is closed
+   */
+  boolean isOpen();
+
+  /**
+   * Closes this channel. Further operations throw {@link ClosedChannelException}; closing a closed
+   * channel has no effect.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  void close() throws IOException;
+}
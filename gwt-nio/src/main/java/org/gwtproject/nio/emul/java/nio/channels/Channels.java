@@ -0,0 +1,278 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.channels;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/** Adapters between channels and streams. */
+public final class Channels {
+
+  private static final int CHUNK_SIZE = 8192;
+
+  private Channels() {}
+
+  /**
+   * Returns a stream reading from {@code ch}. Closing the stream closes the channel.
+   *
+   * @param ch the channel
+   * @return the stream
+   */
+  public static InputStream newInputStream(ReadableByteChannel ch) {
+    if (ch == null) {
+      throw new NullPointerException();
+    }
+    return new ChannelInputStream(ch);
+  }
+
+  /**
+   * Returns a stream writing to {@code ch}. Closing the stream closes the channel.
+   *
+   * @param ch the channel
+   * @return the stream
+   */
+  public static OutputStream newOutputStream(WritableByteChannel ch) {
+    if (ch == null) {
+      throw new NullPointerException();
+    }
+    return new ChannelOutputStream(ch);
+  }
+
+  /**
+   * Returns a channel reading from {@code in}. Buffers with a backing array are read into directly.
+   *
+   * @param in the stream
+   * @return the channel
+   */
+  public static ReadableByteChannel newChannel(InputStream in) {
+    if (in == null) {
+      throw new NullPointerException();
+    }
+    return new InputStreamChannel(in);
+  }
+
+  /**
+   * Returns a channel writing to {@code out}. Buffers with a backing array are written directly.
+   *
+   * @param out the stream
+   * @return the channel
+   */
+  public static WritableByteChannel newChannel(OutputStream out) {
+    if (out == null) {
+      throw new NullPointerException();
+    }
+    return new OutputStreamChannel(out);
+  }
+
+  private static final class ChannelInputStream extends InputStream {
+
+    private final ReadableByteChannel channel;
+
+    private ByteBuffer single;
+
+    ChannelInputStream(ReadableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (single == null) {
+        single = ByteBuffer.allocate(1);
+      }
+      single.clear();
+      int count;
+      do {
+        count = channel.read(single);
+      } while (count == 0);
+      return count < 0 ? -1 : single.get(0) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (off < 0 || len < 0 || off > b.length - len) {
+        throw new IndexOutOfBoundsException();
+      }
+      if (len == 0) {
+        return 0;
+      }
+      ByteBuffer dst = ByteBuffer.wrap(b, off, len);
+      int count;
+      do {
+        count = channel.read(dst);
+      } while (count == 0);
+      return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+      if (channel instanceof SeekableByteChannel) {
+        SeekableByteChannel seekable = (SeekableByteChannel) channel;
+        long available = seekable.size() - seekable.position();
+        return (int) Math.max(0, Math.min(available, Integer.MAX_VALUE));
+      }
+      return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  private static final class ChannelOutputStream extends OutputStream {
+
+    private final WritableByteChannel channel;
+
+    private ByteBuffer single;
+
+    ChannelOutputStream(WritableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (single == null) {
+        single = ByteBuffer.allocate(1);
+      }
+      single.clear();
+      single.put(0, (byte) b);
+      writeFully(single);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (off < 0 || len < 0 || off > b.length - len) {
+        throw new IndexOutOfBoundsException();
+      }
+      writeFully(ByteBuffer.wrap(b, off, len));
+    }
+
+    private void writeFully(ByteBuffer src) throws IOException {
+      while (src.hasRemaining()) {
+        channel.write(src);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  private static final class InputStreamChannel implements ReadableByteChannel {
+
+    private final InputStream in;
+
+    private byte[] chunk;
+
+    private boolean open = true;
+
+    InputStreamChannel(InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      if (!open) {
+        throw new ClosedChannelException();
+      }
+      int len = dst.remaining();
+      if (len == 0) {
+        return 0;
+      }
+      if (dst.hasArray()) {
+        int count = in.read(dst.array(), dst.arrayOffset() + dst.position(), len);
+        if (count > 0) {
+          dst.position(dst.position() + count);
+        }
+        return count;
+      }
+      if (chunk == null) {
+        chunk = new byte[CHUNK_SIZE];
+      }
+      int count = in.read(chunk, 0, Math.min(len, CHUNK_SIZE));
+      if (count > 0) {
+        dst.put(chunk, 0, count);
+      }
+      return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (open) {
+        open = false;
+        in.close();
+      }
+    }
+  }
+
+  private static final class OutputStreamChannel implements WritableByteChannel {
+
+    private final OutputStream out;
+
+    private byte[] chunk;
+
+    private boolean open = true;
+
+    OutputStreamChannel(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      if (!open) {
+        throw new ClosedChannelException();
+      }
+      int len = src.remaining();
+      if (src.hasArray()) {
+        out.write(src.array(), src.arrayOffset() + src.position(), len);
+        src.position(src.limit());
+        return len;
+      }
+      if (chunk == null) {
+        chunk = new byte[CHUNK_SIZE];
+      }
+      int written = 0;
+      while (written < len) {
+        int count = Math.min(len - written, CHUNK_SIZE);
+        src.get(chunk, 0, count);
+        out.write(chunk, 0, count);
+        written += count;
+      }
+      return len;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (open) {
+        open = false;
+        out.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/** A channel that can write from a sequence of buffers in one call. */
+public interface GatheringByteChannel extends WritableByteChannel {
+
+  /**
+   * Writes the remaining bytes of {@code srcs[offset]} to {@code srcs[offset + length - 1]}, in
+   * order.
+   *
+   * @param srcs the buffers to write
+   * @param offset the index of the first buffer
+   * @param length the number of buffers
+   * @return the number of bytes written
+   * @throws IOException if an I/O error occurs
+   */
+  long write(ByteBuffer[] srcs, int offset, int length) throws IOException;
+
+  long write(ByteBuffer[] srcs) throws IOException;
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/** A channel that can read bytes. */
+public interface ReadableByteChannel extends Channel {
+
+  /**
+   * Reads bytes into the remaining space of {@code dst} and advances its position.
+   *
+   * @param dst the buffer to read into
+   * @return the number of bytes read, possibly 0, or -1 at the end of the stream
+   * @throws IOException if an I/O error occurs
+   */
+  int read(ByteBuffer dst) throws IOException;
+}
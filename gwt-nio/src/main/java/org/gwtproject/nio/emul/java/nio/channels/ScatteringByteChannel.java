@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/** A channel that can read into a sequence of buffers in one call. */
+public interface ScatteringByteChannel extends ReadableByteChannel {
+
+  /**
+   * Reads into {@code dsts[offset]} to {@code dsts[offset + length - 1]}, filling each one before
+   * moving on to the next.
+   *
+   * @param dsts the buffers to read into
+   * @param offset the index of the first buffer
+   * @param length the number of buffers
+   * @return the number of bytes read, or -1 at the end of the stream
+   * @throws IOException if an I/O error occurs
+   */
+  long read(ByteBuffer[] dsts, int offset, int length) throws IOException;
+
+  long read(ByteBuffer[] dsts) throws IOException;
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A byte channel with a current position, which reads and writes start at and advance, and a size
+ * that can be truncated.
+ */
+public interface SeekableByteChannel extends ByteChannel {
+
+  @Override
+  int read(ByteBuffer dst) throws IOException;
+
+  @Override
+  int write(ByteBuffer src) throws IOException;
+
+  long position() throws IOException;
+
+  /**
+   * Sets the position. A position beyond the end is allowed: reads there return -1 and writes grow
+   * the entity, with unspecified content between the previous end and the position.
+   *
+   * @param newPosition the new position, not negative
+   * @return this channel
+   * @throws IOException if an I/O error occurs
+   */
+  SeekableByteChannel position(long newPosition) throws IOException;
+
+  long size() throws IOException;
+
+  /**
+   * Truncates the entity to {@code size} bytes if it is larger, and moves the position back to
+   * {@code size} if it was beyond.
+   *
+   * @param size the new size, not negative
+   * @return this channel
+   * @throws IOException if an I/O error occurs
+   */
+  SeekableByteChannel truncate(long size) throws IOException;
+}
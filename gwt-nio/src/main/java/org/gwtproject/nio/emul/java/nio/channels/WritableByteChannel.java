@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/** A channel that can write bytes. */
+public interface WritableByteChannel extends Channel {
+
+  /**
+   * Writes the remaining bytes of {@code src} and advances its position.
+   *
+   * @param src the buffer to write
+   * @return the number of bytes written, possibly 0
+   * @throws IOException if an I/O error occurs
+   */
+  int write(ByteBuffer src) throws IOException;
+}
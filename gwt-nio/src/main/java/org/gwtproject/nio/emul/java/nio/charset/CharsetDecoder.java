@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.charset;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * Decodes bytes of a charset into chars, possibly over several calls as the input arrives.
+ *
+ * <p>A decoding operation is a {@link #reset()}, any number of {@link #decode(ByteBuffer,
+ * CharBuffer, boolean)} calls with {@code endOfInput} false, one with {@code endOfInput} true, and
+ * a {@link #flush(CharBuffer)}. Subclasses implement {@link #decodeLoop(ByteBuffer, CharBuffer)}.
+ */
+public abstract class CharsetDecoder {
+
+  private static final int ST_RESET = 0;
+  private static final int ST_CODING = 1;
+  private static final int ST_END = 2;
+  private static final int ST_FLUSHED = 3;
+
+  private static final String[] STATE_NAMES = {"RESET", "CODING", "CODING_END", "FLUSHED"};
+
+  private final Charset charset;
+
+  private final float averageCharsPerByte;
+
+  private final float maxCharsPerByte;
+
+  private String replacement = "�";
+
+  private CodingErrorAction malformedInputAction = CodingErrorAction.REPORT;
+
+  private CodingErrorAction unmappableCharacterAction = CodingErrorAction.REPORT;
+
+  private int state = ST_RESET;
+
+  protected CharsetDecoder(Charset cs, float averageCharsPerByte, float maxCharsPerByte) {
+    if (averageCharsPerByte <= 0 || maxCharsPerByte <= 0) {
+      throw new IllegalArgumentException("Non-positive chars per byte");
+    }
+    if (averageCharsPerByte > maxCharsPerByte) {
+      throw new IllegalArgumentException("averageCharsPerByte exceeds maxCharsPerByte");
+    }
+    this.charset = cs;
+    this.averageCharsPerByte = averageCharsPerByte;
+    this.maxCharsPerByte = maxCharsPerByte;
+  }
+
+  public final Charset charset() {
+    return charset;
+  }
+
+  public final String replacement() {
+    return replacement;
+  }
+
+  public final CharsetDecoder replaceWith(String newReplacement) {
+    if (newReplacement == null) {
+      throw new IllegalArgumentException("Null replacement");
+    }
+    if (newReplacement.isEmpty() || newReplacement.length() > maxCharsPerByte) {
+      throw new IllegalArgumentException("Illegal replacement length");
+    }
+    replacement = newReplacement;
+    implReplaceWith(newReplacement);
+    return this;
+  }
+
+  protected void implReplaceWith(String newReplacement) {}
+
+  public CodingErrorAction malformedInputAction() {
+    return malformedInputAction;
+  }
+
+  public final CharsetDecoder onMalformedInput(CodingErrorAction newAction) {
+    if (newAction == null) {
+      throw new IllegalArgumentException("Null action");
+    }
+    malformedInputAction = newAction;
+    implOnMalformedInput(newAction);
+    return this;
+  }
+
+  protected void implOnMalformedInput(CodingErrorAction newAction) {}
+
+  public CodingErrorAction unmappableCharacterAction() {
+    return unmappableCharacterAction;
+  }
+
+  public final CharsetDecoder onUnmappableCharacter(CodingErrorAction newAction) {
+    if (newAction == null) {
+      throw new IllegalArgumentException("Null action");
+    }
+    unmappableCharacterAction = newAction;
+    implOnUnmappableCharacter(newAction);
+    return this;
+  }
+
+  protected void implOnUnmappableCharacter(CodingErrorAction newAction) {}
+
+  public final float averageCharsPerByte() {
+    return averageCharsPerByte;
+  }
+
+  public final float maxCharsPerByte() {
+    return maxCharsPerByte;
+  }
+
+  /**
+   * Decodes as many bytes as possible from {@code in} into {@code out}.
+   *
+   * <p>Returns {@link CoderResult#UNDERFLOW} when more input is needed, in which case the bytes of
+   * an incomplete character stay in {@code in}; {@link CoderResult#OVERFLOW} when {@code out} is
+   * full; or the error, positioned at its first byte, if its action is {@link
+   * CodingErrorAction#REPORT}.
+   *
+   * @param in the input
+   * @param out the output
+   * @param endOfInput whether {@code in} holds the last bytes of the input
+   * @return the reason the decoder stopped
+   */
+  public final CoderResult decode(ByteBuffer in, CharBuffer out, boolean endOfInput) {
+    int newState = endOfInput ? ST_END : ST_CODING;
+    if (state != ST_RESET && state != ST_CODING && !(endOfInput && state == ST_END)) {
+      throwIllegalStateException(state, newState);
+    }
+    state = newState;
+    for (; ; ) {
+      CoderResult cr = decodeLoop(in, out);
+      if (cr.isOverflow()) {
+        return cr;
+      }
+      if (cr.isUnderflow()) {
+        if (endOfInput && in.hasRemaining()) {
+          cr = CoderResult.malformedForLength(in.remaining());
+        } else {
+          return cr;
+        }
+      }
+      CodingErrorAction action =
+          cr.isMalformed() ? malformedInputAction : unmappableCharacterAction;
+      if (action == CodingErrorAction.REPORT) {
+        return cr;
+      }
+      if (action == CodingErrorAction.REPLACE) {
+        if (out.remaining() < replacement.length()) {
+          return CoderResult.OVERFLOW;
+        }
+        out.put(replacement);
+      }
+      in.position(in.position() + cr.length());
+    }
+  }
+
+  /**
+   * Writes any final output after the last {@link #decode(ByteBuffer, CharBuffer, boolean)} call.
+   *
+   * @param out the output
+   * @return {@link CoderResult#UNDERFLOW} when done, or {@link CoderResult#OVERFLOW}
+   */
+  public final CoderResult flush(CharBuffer out) {
+    if (state == ST_END) {
+      CoderResult cr = implFlush(out);
+      if (cr.isUnderflow()) {
+        state = ST_FLUSHED;
+      }
+      return cr;
+    }
+    if (state != ST_FLUSHED) {
+      throwIllegalStateException(state, ST_FLUSHED);
+    }
+    return CoderResult.UNDERFLOW;
+  }
+
+  protected CoderResult implFlush(CharBuffer out) {
+    return CoderResult.UNDERFLOW;
+  }
+
+  public final CharsetDecoder reset() {
+    implReset();
+    state = ST_RESET;
+    return this;
+  }
+
+  protected void implReset() {}
+
+  /**
+   * Decodes bytes from {@code in} into {@code out} until either runs out, or an error is found.
+   *
+   * @param in the input
+   * @param out the output
+   * @return the reason the loop stopped
+   */
+  protected abstract CoderResult decodeLoop(ByteBuffer in, CharBuffer out);
+
+  /**
+   * Decodes the remaining bytes of {@code in} in one operation.
+   *
+   * @param in the input
+   * @return a buffer with the chars between position 0 and its limit
+   * @throws CharacterCodingException on an error whose action is {@link CodingErrorAction#REPORT}
+   */
+  public final CharBuffer decode(ByteBuffer in) throws CharacterCodingException {
+    int n = (int) (in.remaining() * averageCharsPerByte());
+    CharBuffer out = CharBuffer.allocate(n);
+    if (n == 0 && in.remaining() == 0) {
+      return out;
+    }
+    reset();
+    for (; ; ) {
+      CoderResult cr = in.hasRemaining() ? decode(in, out, true) : CoderResult.UNDERFLOW;
+      if (cr.isUnderflow()) {
+        cr = flush(out);
+      }
+      if (cr.isUnderflow()) {
+        break;
+      }
+      if (cr.isOverflow()) {
+        n = 2 * n + 1;
+        CharBuffer grown = CharBuffer.allocate(n);
+        out.flip();
+        grown.put(out);
+        out = grown;
+        continue;
+      }
+      cr.throwException();
+    }
+    out.flip();
+    return out;
+  }
+
+  private void throwIllegalStateException(int from, int to) {
+    throw new IllegalStateException(
+        "Current state = " + STATE_NAMES[from] + ", new state = " + STATE_NAMES[to]);
+  }
+}
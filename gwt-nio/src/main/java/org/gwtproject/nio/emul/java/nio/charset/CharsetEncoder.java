@@ -0,0 +1,289 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.charset;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes chars into the bytes of a charset, possibly over several calls as the input arrives.
+ *
+ * <p>An encoding operation is a {@link #reset()}, any number of {@link #encode(CharBuffer,
+ * ByteBuffer, boolean)} calls with {@code endOfInput} false, one with {@code endOfInput} true, and
+ * a {@link #flush(ByteBuffer)}. Subclasses implement {@link #encodeLoop(CharBuffer, ByteBuffer)}.
+ */
+public abstract class CharsetEncoder {
+
+  private static final int ST_RESET = 0;
+  private static final int ST_CODING = 1;
+  private static final int ST_END = 2;
+  private static final int ST_FLUSHED = 3;
+
+  private static final String[] STATE_NAMES = {"RESET", "CODING", "CODING_END", "FLUSHED"};
+
+  private final Charset charset;
+
+  private final float averageBytesPerChar;
+
+  private final float maxBytesPerChar;
+
+  private byte[] replacement;
+
+  private CodingErrorAction malformedInputAction = CodingErrorAction.REPORT;
+
+  private CodingErrorAction unmappableCharacterAction = CodingErrorAction.REPORT;
+
+  private int state = ST_RESET;
+
+  protected CharsetEncoder(Charset cs, float averageBytesPerChar, float maxBytesPerChar) {
+    this(cs, averageBytesPerChar, maxBytesPerChar, new byte[] {(byte) '?'});
+  }
+
+  protected CharsetEncoder(
+      Charset cs, float averageBytesPerChar, float maxBytesPerChar, byte[] replacement) {
+    if (averageBytesPerChar <= 0 || maxBytesPerChar <= 0) {
+      throw new IllegalArgumentException("Non-positive bytes per char");
+    }
+    if (averageBytesPerChar > maxBytesPerChar) {
+      throw new IllegalArgumentException("averageBytesPerChar exceeds maxBytesPerChar");
+    }
+    this.charset = cs;
+    this.averageBytesPerChar = averageBytesPerChar;
+    this.maxBytesPerChar = maxBytesPerChar;
+    replaceWith(replacement);
+  }
+
+  public final Charset charset() {
+    return charset;
+  }
+
+  public final byte[] replacement() {
+    return Arrays.copyOf(replacement, replacement.length);
+  }
+
+  public final CharsetEncoder replaceWith(byte[] newReplacement) {
+    if (newReplacement == null) {
+      throw new IllegalArgumentException("Null replacement");
+    }
+    if (newReplacement.length == 0 || newReplacement.length > maxBytesPerChar) {
+      throw new IllegalArgumentException("Illegal replacement length");
+    }
+    replacement = Arrays.copyOf(newReplacement, newReplacement.length);
+    implReplaceWith(replacement);
+    return this;
+  }
+
+  protected void implReplaceWith(byte[] newReplacement) {}
+
+  public CodingErrorAction malformedInputAction() {
+    return malformedInputAction;
+  }
+
+  public final CharsetEncoder onMalformedInput(CodingErrorAction newAction) {
+    if (newAction == null) {
+      throw new IllegalArgumentException("Null action");
+    }
+    malformedInputAction = newAction;
+    implOnMalformedInput(newAction);
+    return this;
+  }
+
+  protected void implOnMalformedInput(CodingErrorAction newAction) {}
+
+  public CodingErrorAction unmappableCharacterAction() {
+    return unmappableCharacterAction;
+  }
+
+  public final CharsetEncoder onUnmappableCharacter(CodingErrorAction newAction) {
+    if (newAction == null) {
+      throw new IllegalArgumentException("Null action");
+    }
+    unmappableCharacterAction = newAction;
+    implOnUnmappableCharacter(newAction);
+    return this;
+  }
+
+  protected void implOnUnmappableCharacter(CodingErrorAction newAction) {}
+
+  public final float averageBytesPerChar() {
+    return averageBytesPerChar;
+  }
+
+  public final float maxBytesPerChar() {
+    return maxBytesPerChar;
+  }
+
+  /**
+   * Encodes as many chars as possible from {@code in} into {@code out}.
+   *
+   * <p>Returns {@link CoderResult#UNDERFLOW} when more input is needed, in which case a trailing
+   * high surrogate stays in {@code in}; {@link CoderResult#OVERFLOW} when {@code out} is full; or
+   * the error, positioned at its first char, if its action is {@link CodingErrorAction#REPORT}.
+   *
+   * @param in the input
+   * @param out the output
+   * @param endOfInput whether {@code in} holds the last chars of the input
+   * @return the reason the encoder stopped
+   */
+  public final CoderResult encode(CharBuffer in, ByteBuffer out, boolean endOfInput) {
+    int newState = endOfInput ? ST_END : ST_CODING;
+    if (state != ST_RESET && state != ST_CODING && !(endOfInput && state == ST_END)) {
+      throwIllegalStateException(state, newState);
+    }
+    state = newState;
+    for (; ; ) {
+      CoderResult cr = encodeLoop(in, out);
+      if (cr.isOverflow()) {
+        return cr;
+      }
+      if (cr.isUnderflow()) {
+        if (endOfInput && in.hasRemaining()) {
+          cr = CoderResult.malformedForLength(in.remaining());
+        } else {
+          return cr;
+        }
+      }
+      CodingErrorAction action =
+          cr.isMalformed() ? malformedInputAction : unmappableCharacterAction;
+      if (action == CodingErrorAction.REPORT) {
+        return cr;
+      }
+      if (action == CodingErrorAction.REPLACE) {
+        if (out.remaining() < replacement.length) {
+          return CoderResult.OVERFLOW;
+        }
+        out.put(replacement);
+      }
+      in.position(in.position() + cr.length());
+    }
+  }
+
+  /**
+   * Writes any final output after the last {@link #encode(CharBuffer, ByteBuffer, boolean)} call.
+   *
+   * @param out the output
+   * @return {@link CoderResult#UNDERFLOW} when done, or {@link CoderResult#OVERFLOW}
+   */
+  public final CoderResult flush(ByteBuffer out) {
+    if (state == ST_END) {
+      CoderResult cr = implFlush(out);
+      if (cr.isUnderflow()) {
+        state = ST_FLUSHED;
+      }
+      return cr;
+    }
+    if (state != ST_FLUSHED) {
+      throwIllegalStateException(state, ST_FLUSHED);
+    }
+    return CoderResult.UNDERFLOW;
+  }
+
+  protected CoderResult implFlush(ByteBuffer out) {
+    return CoderResult.UNDERFLOW;
+  }
+
+  public final CharsetEncoder reset() {
+    implReset();
+    state = ST_RESET;
+    return this;
+  }
+
+  protected void implReset() {}
+
+  /**
+   * Encodes chars from {@code in} into {@code out} until either runs out, or an error is found.
+   *
+   * @param in the input
+   * @param out the output
+   * @return the reason the loop stopped
+   */
+  protected abstract CoderResult encodeLoop(CharBuffer in, ByteBuffer out);
+
+  /**
+   * Encodes the remaining chars of {@code in} in one operation.
+   *
+   * @param in the input
+   * @return a buffer with the bytes between position 0 and its limit
+   * @throws CharacterCodingException on an error whose action is {@link CodingErrorAction#REPORT}
+   */
+  public final ByteBuffer encode(CharBuffer in) throws CharacterCodingException {
+    int n = (int) (in.remaining() * averageBytesPerChar());
+    ByteBuffer out = ByteBuffer.allocate(n);
+    if (n == 0 && in.remaining() == 0) {
+      return out;
+    }
+    reset();
+    for (; ; ) {
+      CoderResult cr = in.hasRemaining() ? encode(in, out, true) : CoderResult.UNDERFLOW;
+      if (cr.isUnderflow()) {
+        cr = flush(out);
+      }
+      if (cr.isUnderflow()) {
+        break;
+      }
+      if (cr.isOverflow()) {
+        n = 2 * n + 1;
+        ByteBuffer grown = ByteBuffer.allocate(n);
+        out.flip();
+        grown.put(out);
+        out = grown;
+        continue;
+      }
+      cr.throwException();
+    }
+    out.flip();
+    return out;
+  }
+
+  public boolean canEncode(char c) {
+    CharBuffer cb = CharBuffer.allocate(1);
+    cb.put(c);
+    cb.flip();
+    return canEncode(cb);
+  }
+
+  public boolean canEncode(CharSequence cs) {
+    return canEncode(CharBuffer.wrap(cs));
+  }
+
+  private boolean canEncode(CharBuffer cb) {
+    if (state == ST_FLUSHED) {
+      reset();
+    } else if (state != ST_RESET) {
+      throwIllegalStateException(state, ST_CODING);
+    }
+    CodingErrorAction malformed = malformedInputAction;
+    CodingErrorAction unmappable = unmappableCharacterAction;
+    try {
+      onMalformedInput(CodingErrorAction.REPORT);
+      onUnmappableCharacter(CodingErrorAction.REPORT);
+      encode(cb);
+      return true;
+    } catch (CharacterCodingException e) {
+      return false;
+    } finally {
+      onMalformedInput(malformed);
+      onUnmappableCharacter(unmappable);
+      reset();
+    }
+  }
+
+  private void throwIllegalStateException(int from, int to) {
+    throw new IllegalStateException(
+        "Current state = " + STATE_NAMES[from] + ", new state = " + STATE_NAMES[to]);
+  }
+}
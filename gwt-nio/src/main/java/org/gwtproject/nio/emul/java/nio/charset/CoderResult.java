@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.charset;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+
+/**
+ * The state in which a coder stopped: it consumed all the input it could (underflow), the output
+ * is full (overflow), or it found malformed input or an unmappable character of the given length
+ * at the position of the input buffer.
+ */
+public class CoderResult {
+
+  private static final int CR_UNDERFLOW = 0;
+  private static final int CR_OVERFLOW = 1;
+  private static final int CR_MALFORMED = 2;
+  private static final int CR_UNMAPPABLE = 3;
+
+  private static final String[] NAMES = {"UNDERFLOW", "OVERFLOW", "MALFORMED", "UNMAPPABLE"};
+
+  private static final CoderResult[] MALFORMED = new CoderResult[4];
+
+  private static final CoderResult[] UNMAPPABLE = new CoderResult[4];
+
+  /** All input was consumed, or more input is needed to complete a character. */
+  public static final CoderResult UNDERFLOW = new CoderResult(CR_UNDERFLOW, 0);
+
+  /** The output buffer is full. */
+  public static final CoderResult OVERFLOW = new CoderResult(CR_OVERFLOW, 0);
+
+  private final int type;
+
+  private final int length;
+
+  private CoderResult(int type, int length) {
+    this.type = type;
+    this.length = length;
+  }
+
+  public static CoderResult malformedForLength(int length) {
+    return forLength(CR_MALFORMED, MALFORMED, length);
+  }
+
+  public static CoderResult unmappableForLength(int length) {
+    return forLength(CR_UNMAPPABLE, UNMAPPABLE, length);
+  }
+
+  private static CoderResult forLength(int type, CoderResult[] cache, int length) {
+    if (length <= 0) {
+      throw new IllegalArgumentException("Non-positive length");
+    }
+    if (length >= cache.length) {
+      return new CoderResult(type, length);
+    }
+    if (cache[length] == null) {
+      cache[length] = new CoderResult(type, length);
+    }
+    return cache[length];
+  }
+
+  public boolean isUnderflow() {
+    return type == CR_UNDERFLOW;
+  }
+
+  public boolean isOverflow() {
+    return type == CR_OVERFLOW;
+  }
+
+  public boolean isError() {
+    return type >= CR_MALFORMED;
+  }
+
+  public boolean isMalformed() {
+    return type == CR_MALFORMED;
+  }
+
+  public boolean isUnmappable() {
+    return type == CR_UNMAPPABLE;
+  }
+
+  /**
+   * Returns the length of the erroneous input.
+   *
+   * @return the number of bytes or chars
+   * @throws UnsupportedOperationException if this is not an error
+   */
+  public int length() {
+    if (!isError()) {
+      throw new UnsupportedOperationException();
+    }
+    return length;
+  }
+
+  /**
+   * Throws the exception matching this result.
+   *
+   * @throws CharacterCodingException for errors
+   */
+  public void throwException() throws CharacterCodingException {
+    switch (type) {
+      case CR_UNDERFLOW:
+        throw new BufferUnderflowException();
+      case CR_OVERFLOW:
+        throw new BufferOverflowException();
+      case CR_MALFORMED:
+        throw new MalformedInputException(length);
+      default:
+        throw new UnmappableCharacterException(length);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return isError() ? NAMES[type] + "[" + length + "]" : NAMES[type];
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.charset;
+
+/** What a coder does on malformed input or an unmappable character. */
+public class CodingErrorAction {
+
+  /** Drops the erroneous input and continues. */
+  public static final CodingErrorAction IGNORE = new CodingErrorAction("IGNORE");
+
+  /** Writes the replacement of the coder in place of the erroneous input and continues. */
+  public static final CodingErrorAction REPLACE = new CodingErrorAction("REPLACE");
+
+  /** Returns the error as a {@link CoderResult}, or throws it from the convenience methods. */
+  public static final CodingErrorAction REPORT = new CodingErrorAction("REPORT");
+
+  private final String name;
+
+  private CodingErrorAction(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
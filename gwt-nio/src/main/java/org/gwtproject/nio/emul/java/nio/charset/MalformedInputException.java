@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.nio.charset;
+
+/** Thrown when input is malformed. */
+public class MalformedInputException extends CharacterCodingException {
+
+  private final int inputLength;
+
+  public MalformedInputException(int inputLength) {
+    this.inputLength = inputLength;
+  }
+
+  public int getInputLength() {
+    return inputLength;
+  }
+
+  @Override
+  public String getMessage() {
+    return "Input length = " + inputLength;
+  }
+}
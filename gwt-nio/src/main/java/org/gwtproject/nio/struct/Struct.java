@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.struct;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an interface as the layout of a fixed-size record in a ByteBuffer, e.g. a vertex, a
+ * network header or a file header. The annotation processor of the gwt-nio-processor module
+ * generates a final class {@code <Name>Flyweight} implementing the interface, whose accessors read
+ * and write the record at constant offsets.
+ *
+ * <p>Every getter declares a field of a primitive type, in declaration order: {@code getX()}, or
+ * {@code isX()} for booleans, which take one byte. Getters of superinterfaces come first, so a
+ * struct can extend a common header. A setter {@code setX(value)} makes the field writable.
+ * Unless the layout is packed, fields are aligned to their size like C structs, and the record size
+ * is padded to the largest alignment. {@link Offset} places a field explicitly.
+ *
+ * <pre>
+ * &#64;Struct(littleEndian = true)
+ * interface Vertex {
+ *   float getX();
+ *   void setX(float x);
+ *   ...
+ * }
+ *
+ * VertexFlyweight vertex = new VertexFlyweight().wrap(vertices);
+ * for (int i = 0; i &lt; vertex.count(); i++) {
+ *   vertex.at(i).setX(vertex.getX() * scale);
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Struct {
+
+  /** Whether multi-byte fields are little endian rather than big endian. */
+  boolean littleEndian() default false;
+
+  /** Whether fields follow each other without alignment padding. */
+  boolean packed() default false;
+
+  /** The record size in bytes, if larger than the fields need, e.g. for reserved bytes. */
+  int size() default 0;
+}
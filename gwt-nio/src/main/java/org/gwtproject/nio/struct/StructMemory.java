@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2020 Dmitrii Tikhomirov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gwtproject.nio.struct;
+
+import elemental2.core.ArrayBufferView;
+import elemental2.core.DataView;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import org.gwtproject.nio.HasArrayBufferView;
+
+/**
+ * The memory access of the flyweights generated for {@link Struct} interfaces: absolute reads and
+ * writes in a fixed byte order, independent of the order of the buffer. Direct buffers are
+ * accessed through a DataView, other buffers through a duplicate in the byte order of the struct.
+ *
+ * <p>Indexes are not checked against the limit of the buffer; the flyweights check the bounds of
+ * a record once when they move to it.
+ */
+public final class StructMemory {
+
+  private final boolean littleEndian;
+
+  private ByteBuffer buffer;
+
+  private DataView view;
+
+  private boolean readOnly;
+
+  /**
+   * Creates unbound memory.
+   *
+   * @param littleEndian the byte order of the struct
+   */
+  public StructMemory(boolean littleEndian) {
+    this.littleEndian = littleEndian;
+  }
+
+  /**
+   * Binds the memory to {@code buffer}. Rebinding to the same memory allocates nothing.
+   *
+   * @param buffer the buffer
+   */
+  public void bind(ByteBuffer buffer) {
+    readOnly = buffer.isReadOnly();
+    if (buffer.isDirect() && buffer instanceof HasArrayBufferView) {
+      ArrayBufferView typed = ((HasArrayBufferView) buffer).getTypedArray();
+      if (view == null
+          || view.buffer != typed.buffer
+          || view.byteOffset != typed.byteOffset
+          || view.byteLength != typed.byteLength) {
+        view = new DataView(typed.buffer, typed.byteOffset, typed.byteLength);
+      }
+      this.buffer = buffer;
+    } else {
+      view = null;
+      this.buffer =
+          buffer.duplicate().order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    }
+  }
+
+  /** Returns the buffer the memory is bound to. */
+  public ByteBuffer buffer() {
+    return buffer;
+  }
+
+  private void checkWritable() {
+    if (readOnly) {
+      throw new ReadOnlyBufferException();
+    }
+  }
+
+  public byte getByte(int index) {
+    return view != null ? (byte) view.getInt8(index) : buffer.get(index);
+  }
+
+  public boolean getBoolean(int index) {
+    return getByte(index) != 0;
+  }
+
+  public short getShort(int index) {
+    return view != null ? (short) view.getInt16(index, littleEndian) : buffer.getShort(index);
+  }
+
+  public char getChar(int index) {
+    return view != null ? (char) view.getUint16(index, littleEndian) : buffer.getChar(index);
+  }
+
+  public int getInt(int index) {
+    return view != null ? view.getInt32(index, littleEndian) : buffer.getInt(index);
+  }
+
+  public long getLong(int index) {
+    if (view == null) {
+      return buffer.getLong(index);
+    }
+    long first = view.getInt32(index, littleEndian);
+    long second = view.getInt32(index + 4, littleEndian);
+    return littleEndian
+        ? (first & 0xffffffffL) | second << 32
+        : first << 32 | (second & 0xffffffffL);
+  }
+
+  public float getFloat(int index) {
+    return view != null ? (float) view.getFloat32(index, littleEndian) : buffer.getFloat(index);
+  }
+
+  public double getDouble(int index) {
+    return view != null ? view.getFloat64(index, littleEndian) : buffer.getDouble(index);
+  }
+
+  public void putByte(int index, byte value) {
+    checkWritable();
+    if (view != null) {
+      view.setInt8(index, value);
+    } else {
+      buffer.put(index, value);
+    }
+  }
+
+  public void putBoolean(int index, boolean value) {
+    putByte(index, value ? (byte) 1 : (byte) 0);
+  }
+
+  public void putShort(int index, short value) {
+    checkWritable();
+    if (view != null) {
+      view.setInt16(index, value, littleEndian);
+    } else {
+      buffer.putShort(index, value);
+    }
+  }
+
+  public void putChar(int index, char value) {
+    checkWritable();
+    if (view != null) {
+      view.setUint16(index, value, littleEndian);
+    } else {
+      buffer.putChar(index, value);
+    }
+  }
+
+  public void putInt(int index, int value) {
+    checkWritable();
+    if (view != null) {
+      view.setInt32(index, value, littleEndian);
+    } else {
+      buffer.putInt(index, value);
+    }
+  }
+
+  public void putLong(int index, long value) {
+    checkWritable();
+    if (view != null) {
+      int high = (int) (value >>> 32);
+      view.setInt32(index, littleEndian ? (int) value : high, littleEndian);
+      view.setInt32(index + 4, littleEndian ? high : (int) value, littleEndian);
+    } else {
+      buffer.putLong(index, value);
+    }
+  }
+
+  public void putFloat(int index, float value) {
+    checkWritable();
+    if (view != null) {
+      view.setFloat32(index, value, littleEndian);
+    } else {
+      buffer.putFloat(index, value);
+    }
+  }
+
+  public void putDouble(int index, double value) {
+    checkWritable();
+    if (view != null) {
+      view.setFloat64(index, value, littleEndian);
+    } else {
+      buffer.putDouble(index, value);
+    }
+  }
+}